@@ -14,6 +14,7 @@ import net.cybertekt.app.display.DisplayMode;
 import net.cybertekt.app.display.DisplaySettings;
 import net.cybertekt.app.display.DisplaySettings.CursorMode;
 import net.cybertekt.app.listener.UpdateListener;
+import net.cybertekt.asset.AssetManager;
 import net.cybertekt.exception.InitializationException;
 import net.cybertekt.input.Input;
 import net.cybertekt.input.InputMapping;
@@ -408,6 +409,9 @@ public abstract class Application {
                 glfwMakeContextCurrent(display);
             }
 
+            // Run Main Thread Asset Tasks //
+            AssetManager.update();
+
             // Clear Display //
             glClearColor(0f, 0f, 0f, 0f);
             glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT | GL_STENCIL_BUFFER_BIT);
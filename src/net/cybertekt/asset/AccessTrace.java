@@ -0,0 +1,357 @@
+package net.cybertekt.asset;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Access Trace - (C) Cybertekt Software
+ *
+ * Records the order in which {@link Asset assets} are first requested after
+ * the trace is started, together with the time of each request, and stores
+ * the result in a small binary trace file. When the trace is started again on
+ * the next launch, the previously recorded trace is read back and can be
+ * {@link #prefetch() prefetched}: every asset in the trace is queued in the
+ * {@link AssetManager.Priority#Prefetch prefetch} lane, in recorded order, so
+ * that the asset threads load it while the application is still busy with
+ * other startup work. Requests made by the application always take priority
+ * over prefetched assets.
+ * <p>
+ * A trace is only a hint. A missing or corrupt trace file is treated as an
+ * empty trace, and assets in the trace that no longer exist are skipped.
+ * </p>
+ * <pre>
+ * Header:  MAGIC(4) VERSION(4) COUNT(4)
+ * Entry:   TIME(4) LENGTH(2) PATH(LENGTH)
+ * </pre> The time of each entry is measured in microseconds from the start of
+ * the trace and the path is encoded as UTF-8.
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+public final class AccessTrace {
+
+    /**
+     * SLF4J internal class logger for debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(AccessTrace.class);
+
+    /**
+     * Access Trace File Signature.
+     */
+    private static final int MAGIC = 0x43415452; // C-A-T-R
+
+    /**
+     * Access Trace File Format Version.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Maximum number of requests recorded by a single trace.
+     */
+    private static final int MAX_ENTRIES = 4096;
+
+    /**
+     * The location of the trace file.
+     */
+    private final Path FILE;
+
+    /**
+     * The entries of the trace recorded by the previous launch.
+     */
+    private final List<Entry> PREVIOUS;
+
+    /**
+     * The {@link AssetKey keys} requested since the trace was started.
+     */
+    private final Set<AssetKey> SEEN = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The entries recorded since the trace was started, in request order.
+     */
+    private final ConcurrentLinkedQueue<Entry> RECORDED = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The completion state of the assets queued by {@link #prefetch()}. Only
+     * whether each asset has finished loading is held, never the asset
+     * itself, so that the trace does not keep prefetched assets reachable
+     * once the asset cache has released them.
+     */
+    private final Map<AssetKey, CompletableFuture<Boolean>> PREFETCHED = new ConcurrentHashMap<>();
+
+    /**
+     * The time, in nanoseconds, at which the trace was started.
+     */
+    private final long START = System.nanoTime();
+
+    /**
+     * The number of requests for prefetched assets that had already finished
+     * loading.
+     */
+    private final AtomicInteger hits = new AtomicInteger();
+
+    /**
+     * The number of requests for prefetched assets that were still loading.
+     */
+    private final AtomicInteger late = new AtomicInteger();
+
+    /**
+     * Starts a trace that will be stored in the specified file, reading the
+     * trace previously stored in the file if one exists.
+     *
+     * @param file the location of the trace file.
+     */
+    AccessTrace(final Path file) {
+        this.FILE = file;
+        this.PREVIOUS = Collections.unmodifiableList(read(file));
+    }
+
+    /**
+     * Records a request for the asset associated with the specified key. Only
+     * the first request for each asset is recorded. Called by the
+     * {@link AssetManager} from any thread.
+     *
+     * @param key the {@link AssetKey key} of the requested asset.
+     */
+    void record(final AssetKey key) {
+        if (SEEN.size() < MAX_ENTRIES && SEEN.add(key)) {
+            RECORDED.add(new Entry(key, System.nanoTime() - START));
+            final CompletableFuture<Boolean> prefetched = PREFETCHED.get(key);
+            if (prefetched != null) {
+                if (prefetched.isDone() && !prefetched.isCompletedExceptionally()) {
+                    hits.incrementAndGet();
+                } else {
+                    late.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues every asset of the previously recorded trace in the
+     * {@link AssetManager.Priority#Prefetch prefetch} lane, in the order in
+     * which they were first requested. Assets that are already cached or
+     * whose files no longer exist are skipped.
+     *
+     * @return the number of assets queued.
+     */
+    public int prefetch() {
+        int count = 0;
+        for (final Entry entry : PREVIOUS) {
+            if (!PREFETCHED.containsKey(entry.KEY)) {
+                final CompletableFuture<Asset> future = AssetManager.prefetch(entry.KEY);
+                if (future != null) {
+                    PREFETCHED.put(entry.KEY, future.thenApply((asset) -> Boolean.TRUE));
+                    count++;
+                }
+            }
+        }
+        LOG.debug("Prefetching {} of {} traced asset(s)", count, PREVIOUS.size());
+        return count;
+    }
+
+    /**
+     * Writes the requests recorded since the trace was started to the trace
+     * file, replacing the previous trace. The file is written to a temporary
+     * file first so that an interrupted write never leaves a partial trace.
+     *
+     * @return true if the trace was written, false otherwise.
+     */
+    public boolean save() {
+        final List<Entry> entries = getRecorded();
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(12 + entries.size() * 32);
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (final Entry entry : entries) {
+                final byte[] path = entry.KEY.getPath().getBytes(StandardCharsets.UTF_8);
+                out.writeInt((int) Math.min(entry.TIME / 1000, Integer.MAX_VALUE));
+                out.writeShort(path.length);
+                out.write(path);
+            }
+            out.flush();
+            final Path parent = FILE.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            final Path temp = FILE.resolveSibling(FILE.getFileName() + ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, FILE, StandardCopyOption.REPLACE_EXISTING);
+            LOG.debug("Saved access trace {} containing {} request(s)", FILE, entries.size());
+            return true;
+        } catch (final IOException e) {
+            LOG.warn("Unable to save access trace {} - {}", FILE, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the location of the trace file.
+     *
+     * @return the trace file.
+     */
+    public Path getFile() {
+        return FILE;
+    }
+
+    /**
+     * Returns the entries of the trace recorded by the previous launch.
+     *
+     * @return an unmodifiable list of the previously recorded entries.
+     */
+    public List<Entry> getPrevious() {
+        return PREVIOUS;
+    }
+
+    /**
+     * Returns the entries recorded since the trace was started.
+     *
+     * @return a snapshot of the recorded entries in request order.
+     */
+    public List<Entry> getRecorded() {
+        return new ArrayList<>(RECORDED);
+    }
+
+    /**
+     * Returns the number of assets queued by {@link #prefetch()}.
+     *
+     * @return the number of prefetched assets.
+     */
+    public int getPrefetched() {
+        return PREFETCHED.size();
+    }
+
+    /**
+     * Returns the number of requests for prefetched assets that had already
+     * finished loading when they were requested.
+     *
+     * @return the number of prefetch hits.
+     */
+    public int getPrefetchHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of requests for prefetched assets that were still
+     * loading when they were requested.
+     *
+     * @return the number of late prefetches.
+     */
+    public int getPrefetchLate() {
+        return late.get();
+    }
+
+    /**
+     * Reads the entries of a trace file.
+     *
+     * @param file the location of the trace file.
+     * @return the entries of the trace, or an empty list if the file does not
+     * exist or is not a valid trace.
+     */
+    private static List<Entry> read(final Path file) {
+        final List<Entry> entries = new ArrayList<>();
+        try (InputStream stream = Files.newInputStream(file); DataInputStream in = new DataInputStream(stream)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Invalid Trace Header");
+            }
+            final int count = in.readInt();
+            if (count < 0 || count > MAX_ENTRIES) {
+                throw new IOException("Invalid Entry Count");
+            }
+            for (int i = 0; i < count; i++) {
+                final long time = (in.readInt() & 0xFFFFFFFFL) * 1000;
+                final byte[] path = new byte[in.readUnsignedShort()];
+                in.readFully(path);
+                entries.add(new Entry(AssetKey.getKey(new String(path, StandardCharsets.UTF_8)), time));
+            }
+            LOG.debug("Read access trace {} containing {} request(s)", file, entries.size());
+        } catch (final NoSuchFileException e) {
+            LOG.debug("No access trace found at {}", file);
+        } catch (final EOFException e) {
+            LOG.warn("Access trace {} is truncated", file);
+            entries.clear();
+        } catch (final IOException | IllegalArgumentException e) {
+            LOG.warn("Access trace {} is invalid or corrupt - {}", file, e.getMessage());
+            entries.clear();
+        }
+        return entries;
+    }
+
+    /**
+     * A single request recorded by an {@link AccessTrace access trace}.
+     */
+    public static final class Entry {
+
+        /**
+         * The {@link AssetKey key} of the requested asset.
+         */
+        private final AssetKey KEY;
+
+        /**
+         * The time of the request, in nanoseconds from the start of the trace.
+         */
+        private final long TIME;
+
+        /**
+         * Constructs a trace entry.
+         *
+         * @param key the {@link AssetKey key} of the requested asset.
+         * @param time the time of the request from the start of the trace.
+         */
+        private Entry(final AssetKey key, final long time) {
+            this.KEY = key;
+            this.TIME = time;
+        }
+
+        /**
+         * Returns the {@link AssetKey key} of the requested asset.
+         *
+         * @return the key of the requested asset.
+         */
+        public AssetKey getKey() {
+            return KEY;
+        }
+
+        /**
+         * Returns the time of the request, measured from the start of the
+         * trace. Times read from a trace file have microsecond precision.
+         *
+         * @return the time of the request in nanoseconds.
+         */
+        public long getTime() {
+            return TIME;
+        }
+
+        /**
+         * Returns the key and time of the entry for logging purposes.
+         *
+         * @return the key and time of the entry.
+         */
+        @Override
+        public String toString() {
+            return KEY + " @ " + (TIME / 1000) + "us";
+        }
+    }
+}
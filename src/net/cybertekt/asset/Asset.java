@@ -1,5 +1,7 @@
 package net.cybertekt.asset;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Asset - (C) Cybertekt Software
  *
@@ -14,6 +16,24 @@ package net.cybertekt.asset;
  */
 public abstract class Asset {
 
+    /**
+     * State of an asset handed out to a caller by any means other than an
+     * {@link AssetHandle handle}. The asset is never disposed deterministically.
+     */
+    private static final int EXPOSED = -1;
+
+    /**
+     * State of an asset whose last handle has been released and whose memory
+     * is being freed. The asset is never handed out again.
+     */
+    private static final int RETIRED = Integer.MIN_VALUE;
+
+    /**
+     * The number of {@link AssetHandle handles} holding the asset, or
+     * {@link #EXPOSED} or {@link #RETIRED}.
+     */
+    private final AtomicInteger holders = new AtomicInteger();
+
     /**
      * Asset key that specifies the location of the external resource and its
      * associated file type.
@@ -39,4 +59,84 @@ public abstract class Asset {
     public final AssetKey getKey() {
         return KEY;
     }
+
+    /**
+     * Returns the approximate number of bytes of memory occupied by the asset
+     * data. Used by the {@link AssetManager asset manager} to weigh assets
+     * stored in a byte-budgeted cache. Subclasses that hold large buffers
+     * should override this method. The default implementation returns zero.
+     *
+     * @return the approximate memory size of the asset, in bytes.
+     */
+    public long getMemorySize() {
+        return 0;
+    }
+
+    /**
+     * Immediately frees any {@link NativeMemory native memory} held by the
+     * asset. Called by the {@link AssetManager asset manager} when the last
+     * {@link AssetHandle handle} to an asset that was only ever handed out
+     * through handles is released; the asset must not be used afterwards. The
+     * default implementation does nothing.
+     */
+    public void dispose() {
+    }
+
+    /**
+     * Marks the asset as handed out to a caller without a handle, so that it
+     * is never disposed when a handle to it is released.
+     *
+     * @return true if the asset may be used, false if it has already been
+     * retired by the release of its last handle.
+     */
+    final boolean expose() {
+        for (int state = holders.get(); state != RETIRED; state = holders.get()) {
+            if (state == EXPOSED || holders.compareAndSet(state, EXPOSED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a {@link AssetHandle handle} holding the asset.
+     *
+     * @return true if the asset may be used, false if it has already been
+     * retired by the release of its last handle.
+     */
+    final boolean hold() {
+        for (int state = holders.get(); state != RETIRED; state = holders.get()) {
+            if (state == EXPOSED || holders.compareAndSet(state, state + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes a released {@link AssetHandle handle} holding the asset. The
+     * asset is retired when the last handle of an asset that was never
+     * exposed is removed.
+     *
+     * @return true if the asset has been retired and may be disposed, false
+     * if it is still held or has been exposed.
+     */
+    final boolean retire() {
+        for (int state = holders.get(); state > 0; state = holders.get()) {
+            if (holders.compareAndSet(state, (state == 1) ? RETIRED : state - 1)) {
+                return state == 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the last handle of the asset has been released and the
+     * asset must not be handed out again.
+     *
+     * @return true if the asset has been retired.
+     */
+    final boolean isRetired() {
+        return holders.get() == RETIRED;
+    }
 }
@@ -0,0 +1,268 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Asset Archive - (C) Cybertekt Software
+ *
+ * Read-only view of a packed asset archive (.cpak). An archive stores the
+ * contents of an entire assets directory in a single file so that assets can
+ * be located without opening a file for each one. The archive is memory-mapped
+ * once when it is opened and every lookup returns a read-only slice of the
+ * mapped file, so no data is copied and no system calls are made after the
+ * archive has been mounted.
+ * <p>
+ * All values are stored in big-endian order. The archive begins with a fixed
+ * size header, followed by a table of contents sorted by the 64-bit hash of
+ * each asset path, a table of path names, and finally the asset data. Each
+ * entry in the data section begins at an offset that is a multiple of the
+ * alignment stored in the header.
+ * </p>
+ * <pre>
+ * Header:  MAGIC(4) VERSION(4) COUNT(4) ALIGNMENT(4) INDEX(8) NAMES(8)
+ * Index:   HASH(8) OFFSET(8) LENGTH(4) NAME OFFSET(4) NAME LENGTH(4) RESERVED(4)
+ * Names:   UTF-8 encoded asset paths, relative to the root assets directory.
+ * Data:    Aligned asset file contents.
+ * </pre>
+ * Archives are created using the {@link net.cybertekt.utils.AssetPacker}.
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+public final class AssetArchive {
+
+    /**
+     * Archive File Signature.
+     */
+    public static final int MAGIC = 0x4350414B; // C-P-A-K
+
+    /**
+     * Archive Format Version.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Size of the archive header in bytes.
+     */
+    public static final int HEADER_SIZE = 32;
+
+    /**
+     * Size of each table of contents entry in bytes.
+     */
+    public static final int ENTRY_SIZE = 32;
+
+    /**
+     * The location of the archive file.
+     */
+    private final Path PATH;
+
+    /**
+     * Memory-mapped contents of the archive file.
+     */
+    private final ByteBuffer DATA;
+
+    /**
+     * The number of assets stored in the archive.
+     */
+    private final int COUNT;
+
+    /**
+     * Offset of the table of contents within the archive.
+     */
+    private final int INDEX;
+
+    /**
+     * Offset of the path name table within the archive.
+     */
+    private final int NAMES;
+
+    /**
+     * Opens and memory-maps the archive located at the specified path.
+     *
+     * @param path the location of the archive file.
+     * @throws IOException if the archive cannot be read or is not a valid
+     * asset archive.
+     */
+    public AssetArchive(final Path path) throws IOException {
+        this.PATH = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Archive exceeds maximum size: " + path);
+            }
+            DATA = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+        }
+        if (DATA.capacity() < HEADER_SIZE || DATA.getInt(0) != MAGIC) {
+            throw new IOException("Invalid archive signature: " + path);
+        }
+        if (DATA.getInt(4) != VERSION) {
+            throw new IOException("Unsupported archive version " + DATA.getInt(4) + ": " + path);
+        }
+        COUNT = DATA.getInt(8);
+        INDEX = (int) DATA.getLong(16);
+        NAMES = (int) DATA.getLong(24);
+        if (COUNT < 0 || INDEX + (long) COUNT * ENTRY_SIZE > DATA.capacity() || NAMES > DATA.capacity()) {
+            throw new IOException("Corrupt archive table of contents: " + path);
+        }
+    }
+
+    /**
+     * Returns a read-only buffer containing the contents of the asset stored
+     * at the specified path, or null if the archive does not contain the
+     * asset. The table of contents is searched in place using a binary search
+     * over the path hashes.
+     *
+     * @param path the asset path, relative to the root assets directory.
+     * @return a read-only slice of the archive containing the asset data, or
+     * null if the asset is not stored in the archive.
+     */
+    public ByteBuffer find(final CharSequence path) {
+        final int entry = indexOf(path);
+        if (entry < 0) {
+            return null;
+        }
+        final int position = INDEX + entry * ENTRY_SIZE;
+        final int offset = (int) DATA.getLong(position + 8);
+        final ByteBuffer slice = DATA.duplicate();
+        slice.limit(offset + DATA.getInt(position + 16));
+        slice.position(offset);
+        return slice.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Indicates if the archive contains the asset stored at the specified
+     * path.
+     *
+     * @param path the asset path, relative to the root assets directory.
+     * @return true if the archive contains the asset, false otherwise.
+     */
+    public boolean contains(final CharSequence path) {
+        return indexOf(path) > -1;
+    }
+
+    /**
+     * Returns the number of assets stored in the archive.
+     *
+     * @return the number of archived assets.
+     */
+    public int size() {
+        return COUNT;
+    }
+
+    /**
+     * Returns the path of the asset stored at the specified position of the
+     * table of contents.
+     *
+     * @param entry the position within the table of contents.
+     * @return the asset path, relative to the root assets directory.
+     */
+    public String getName(final int entry) {
+        final int position = INDEX + entry * ENTRY_SIZE;
+        final byte[] name = new byte[DATA.getInt(position + 24)];
+        final ByteBuffer names = DATA.duplicate();
+        names.position(NAMES + DATA.getInt(position + 20));
+        names.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the location of the archive file.
+     *
+     * @return the archive file path.
+     */
+    public Path getPath() {
+        return PATH;
+    }
+
+    /**
+     * Returns the position of the specified path within the table of contents
+     * or -1 if the path is not stored in the archive.
+     *
+     * @param path the asset path to locate.
+     * @return the table of contents position of the path, or -1.
+     */
+    private int indexOf(final CharSequence path) {
+        final long hash = hash(path);
+
+        // Find First Entry With A Matching Hash //
+        int low = 0;
+        int high = COUNT;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(DATA.getLong(INDEX + mid * ENTRY_SIZE), hash) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        // Compare Names Of Every Entry Sharing The Hash //
+        for (int entry = low; entry < COUNT && DATA.getLong(INDEX + entry * ENTRY_SIZE) == hash; entry++) {
+            if (nameEquals(entry, path)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the stored name of a table of contents entry with a path
+     * without decoding the stored name.
+     *
+     * @param entry the table of contents position.
+     * @param path the path with which to compare the stored name.
+     * @return true if the stored name is equal to the path.
+     */
+    private boolean nameEquals(final int entry, final CharSequence path) {
+        final int position = INDEX + entry * ENTRY_SIZE;
+        final int offset = NAMES + DATA.getInt(position + 20);
+        final int length = DATA.getInt(position + 24);
+        if (length == path.length()) {
+            boolean ascii = true;
+            for (int i = 0; i < length && ascii; i++) {
+                final char c = path.charAt(i);
+                if (c > 0x7F) {
+                    ascii = false;
+                } else if (DATA.get(offset + i) != (byte) c) {
+                    return false;
+                }
+            }
+            if (ascii) {
+                return true;
+            }
+        }
+        return getName(entry).contentEquals(path);
+    }
+
+    /**
+     * Computes the 64-bit FNV-1a hash of an asset path. Used both to build
+     * and to search the archive table of contents.
+     *
+     * @param path the asset path to hash.
+     * @return the 64-bit hash of the path.
+     */
+    public static long hash(final CharSequence path) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < path.length(); i++) {
+            hash ^= path.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the name of the archive file for logging purposes.
+     *
+     * @return the archive file name in brackets.
+     */
+    @Override
+    public String toString() {
+        return "[" + PATH.getFileName() + "]";
+    }
+}
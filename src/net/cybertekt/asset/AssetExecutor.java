@@ -0,0 +1,328 @@
+package net.cybertekt.asset;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asset Executor - (C) Cybertekt Software
+ *
+ * Supplies the threads that run the tasks of a pipeline
+ * {@link AssetManager.Stage stage} of the {@link AssetManager asset manager}.
+ * The stage itself keeps its tasks in a {@link AssetManager.Priority priority}
+ * ordered queue and never hands the executor more than
+ * {@link #getParallelism() parallelism} tasks at a time, each of which takes
+ * and runs the next queued task. The executor only decides which threads run
+ * them, so priority lanes, in-flight admission and callers helping with a
+ * batch behave the same whichever executor is used.
+ * <p>
+ * Three executors are provided: a {@link #newBounded(String, int) bounded}
+ * pool of platform threads, a {@link #newWorkStealing(String, int)
+ * work-stealing} {@link ForkJoinPool}, and a {@link #newVirtual(String, int)
+ * virtual thread} per task on runtimes that support virtual threads.
+ * Applications may also implement their own.
+ * </p>
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+public abstract class AssetExecutor implements Executor {
+
+    /**
+     * Factory of virtual threads, or null if the runtime does not support
+     * virtual threads. Resolved reflectively as the engine targets runtimes
+     * that predate them.
+     */
+    private static final ThreadFactory VIRTUAL = virtualFactory();
+
+    /**
+     * The name prefix of the threads of the executor.
+     */
+    protected final String NAME;
+
+    /**
+     * The maximum number of tasks the executor is handed at a time.
+     */
+    protected final int PARALLELISM;
+
+    /**
+     * Constructs an executor.
+     *
+     * @param name the name prefix of the threads of the executor.
+     * @param parallelism the maximum number of tasks the executor is handed at
+     * a time.
+     */
+    protected AssetExecutor(final String name, final int parallelism) {
+        this.NAME = name;
+        this.PARALLELISM = Math.max(parallelism, 1);
+    }
+
+    /**
+     * Returns the maximum number of tasks of the stage that run at the same
+     * time.
+     *
+     * @return the parallelism of the executor.
+     */
+    public final int getParallelism() {
+        return PARALLELISM;
+    }
+
+    /**
+     * Returns the number of threads currently alive in the executor.
+     *
+     * @return the number of threads.
+     */
+    public abstract int getPoolSize();
+
+    /**
+     * Releases the threads of the executor once the tasks it has already been
+     * handed are complete. Called when the executor is replaced. The default
+     * implementation does nothing.
+     */
+    public void shutdown() {
+    }
+
+    /**
+     * Returns the name of the executor.
+     *
+     * @return the name of the executor.
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + NAME + "*, " + PARALLELISM + "]";
+    }
+
+    /**
+     * Creates an executor backed by a fixed number of platform threads. Idle
+     * threads are destroyed after 5 seconds and created again when needed.
+     * Suited to processor bound stages such as decoding.
+     *
+     * @param name the name prefix of the threads.
+     * @param threads the number of threads.
+     * @return the bounded executor.
+     */
+    public static AssetExecutor newBounded(final String name, final int threads) {
+        return new Bounded(name, threads);
+    }
+
+    /**
+     * Creates an executor backed by a work-stealing {@link ForkJoinPool} with
+     * the specified parallelism. Each idle worker steals tasks from busy ones,
+     * so tasks submitted from within the stage, such as dependent assets,
+     * stay on the thread that produced them.
+     *
+     * @param name the name prefix of the threads.
+     * @param threads the parallelism of the pool.
+     * @return the work-stealing executor.
+     */
+    public static AssetExecutor newWorkStealing(final String name, final int threads) {
+        return new WorkStealing(name, threads);
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task. A
+     * virtual thread that blocks on I/O releases its carrier thread, so many
+     * reads can be outstanding at once without a platform thread for each.
+     * Suited to stages bound by storage, such as reading archives.
+     *
+     * @param name the name prefix of the threads.
+     * @param parallelism the maximum number of tasks running at a time.
+     * @return the virtual thread executor.
+     * @throws UnsupportedOperationException if the runtime does not support
+     * virtual threads.
+     * @see #isVirtualSupported()
+     */
+    public static AssetExecutor newVirtual(final String name, final int parallelism) {
+        if (VIRTUAL == null) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this runtime");
+        }
+        return new Virtual(name, parallelism);
+    }
+
+    /**
+     * Indicates if the runtime supports virtual threads.
+     *
+     * @return true if {@link #newVirtual(String, int)} is supported.
+     */
+    public static boolean isVirtualSupported() {
+        return VIRTUAL != null;
+    }
+
+    /**
+     * Resolves the factory of virtual threads.
+     *
+     * @return the factory, or null if the runtime does not support virtual
+     * threads or has not enabled them.
+     */
+    private static ThreadFactory virtualFactory() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (final NoSuchMethodException | ClassNotFoundException | IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates platform threads named using a prefix and a counter.
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        /**
+         * Tracks the number of threads created by this factory.
+         */
+        private final AtomicInteger count = new AtomicInteger();
+
+        /**
+         * The name prefix to use for each thread created.
+         */
+        private final String prefix;
+
+        /**
+         * Constructs a factory that names its threads using the specified
+         * prefix.
+         *
+         * @param prefix the name prefix of each thread created.
+         */
+        private NamedThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable task) {
+            return new Thread(task, prefix + count.getAndIncrement());
+        }
+    }
+
+    /**
+     * Executor backed by a fixed number of platform threads.
+     */
+    private static final class Bounded extends AssetExecutor {
+
+        /**
+         * The thread pool.
+         */
+        private final ThreadPoolExecutor POOL;
+
+        /**
+         * Constructs a bounded executor.
+         *
+         * @param name the name prefix of the threads.
+         * @param threads the number of threads.
+         */
+        private Bounded(final String name, final int threads) {
+            super(name, threads);
+            this.POOL = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory(name));
+            POOL.allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        public void execute(final Runnable task) {
+            POOL.execute(task);
+        }
+
+        @Override
+        public int getPoolSize() {
+            return POOL.getPoolSize();
+        }
+
+        @Override
+        public void shutdown() {
+            POOL.shutdown();
+        }
+    }
+
+    /**
+     * Executor backed by a work-stealing fork join pool.
+     */
+    private static final class WorkStealing extends AssetExecutor {
+
+        /**
+         * The fork join pool.
+         */
+        private final ForkJoinPool POOL;
+
+        /**
+         * Constructs a work-stealing executor.
+         *
+         * @param name the name prefix of the threads.
+         * @param threads the parallelism of the pool.
+         */
+        private WorkStealing(final String name, final int threads) {
+            super(name, threads);
+            final AtomicInteger count = new AtomicInteger();
+            this.POOL = new ForkJoinPool(PARALLELISM, (pool) -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName(name + count.getAndIncrement());
+                return thread;
+            }, null, true);
+        }
+
+        @Override
+        public void execute(final Runnable task) {
+            POOL.execute(task);
+        }
+
+        @Override
+        public int getPoolSize() {
+            return POOL.getPoolSize();
+        }
+
+        @Override
+        public void shutdown() {
+            POOL.shutdown();
+        }
+    }
+
+    /**
+     * Executor that starts a virtual thread for each task.
+     */
+    private static final class Virtual extends AssetExecutor {
+
+        /**
+         * The number of virtual threads currently alive.
+         */
+        private final AtomicInteger alive = new AtomicInteger();
+
+        /**
+         * Tracks the number of threads started by this executor.
+         */
+        private final AtomicInteger count = new AtomicInteger();
+
+        /**
+         * Constructs a virtual thread executor.
+         *
+         * @param name the name prefix of the threads.
+         * @param parallelism the maximum number of tasks running at a time.
+         */
+        private Virtual(final String name, final int parallelism) {
+            super(name, parallelism);
+        }
+
+        @Override
+        public void execute(final Runnable task) {
+            final Thread thread = VIRTUAL.newThread(() -> {
+                try {
+                    task.run();
+                } finally {
+                    alive.decrementAndGet();
+                }
+            });
+            thread.setName(NAME + count.getAndIncrement());
+            alive.incrementAndGet();
+            thread.start();
+        }
+
+        @Override
+        public int getPoolSize() {
+            return alive.get();
+        }
+    }
+}
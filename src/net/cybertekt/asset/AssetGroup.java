@@ -0,0 +1,243 @@
+package net.cybertekt.asset;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asset Group - (C) Cybertekt Software
+ *
+ * A named group of {@link Asset assets} declared in the asset manifest and
+ * loaded together using {@link AssetManager#loadGroup(String)}. Every member
+ * of the group is submitted as a single parallel batch and loading progress is
+ * reported in bytes of source data, which allows a loading screen to display
+ * accurate progress even when the members differ greatly in size.
+ * <p>
+ * A loaded group holds a strong reference to each of its members so that they
+ * remain resident in the asset cache until the group is released using
+ * {@link AssetManager#unloadGroup(String)}, after which the members may be
+ * evicted from the cache like any other asset.
+ * </p>
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+public final class AssetGroup {
+
+    /**
+     * The name of the group as declared in the asset manifest.
+     */
+    private final String NAME;
+
+    /**
+     * The {@link AssetKey keys} of the group members.
+     */
+    private final List<AssetKey> KEYS;
+
+    /**
+     * The combined size of the source files of every member in bytes.
+     */
+    private final long TOTAL;
+
+    /**
+     * The loaded members of the group, held to keep them resident.
+     */
+    private final Map<AssetKey, Asset> RESIDENT = new ConcurrentHashMap<>();
+
+    /**
+     * Future completed once every member has finished loading.
+     */
+    private final CompletableFuture<AssetGroup> COMPLETION = new CompletableFuture<>();
+
+    /**
+     * The combined size of the source files of the members that have
+     * finished loading in bytes.
+     */
+    private final AtomicLong loadedBytes = new AtomicLong();
+
+    /**
+     * The number of members that have finished loading.
+     */
+    private final AtomicInteger completed = new AtomicInteger();
+
+    /**
+     * The number of members that could not be loaded.
+     */
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * Indicates if the group has been released.
+     */
+    private volatile boolean released;
+
+    /**
+     * Constructs a group containing the specified members.
+     *
+     * @param name the name of the group.
+     * @param keys the {@link AssetKey keys} of the group members.
+     * @param total the combined size of the member source files in bytes.
+     */
+    AssetGroup(final String name, final List<AssetKey> keys, final long total) {
+        this.NAME = name;
+        this.KEYS = Collections.unmodifiableList(keys);
+        this.TOTAL = total;
+        if (keys.isEmpty()) {
+            COMPLETION.complete(this);
+        }
+    }
+
+    /**
+     * Records that a member of the group has finished loading. Called by the
+     * {@link AssetManager} on the asset thread that completed the member.
+     *
+     * @param key the {@link AssetKey key} of the member.
+     * @param size the size of the member source file in bytes.
+     * @param asset the loaded member, or null if the member failed to load.
+     */
+    void complete(final AssetKey key, final long size, final Asset asset) {
+        if (asset == null) {
+            failed.incrementAndGet();
+        } else if (!released) {
+            RESIDENT.put(key, asset);
+        }
+        loadedBytes.addAndGet(size);
+        if (completed.incrementAndGet() == KEYS.size()) {
+            COMPLETION.complete(this);
+        }
+    }
+
+    /**
+     * Releases the references held to the group members so that they may be
+     * evicted from the asset cache.
+     */
+    void release() {
+        released = true;
+        RESIDENT.clear();
+    }
+
+    /**
+     * Returns the name of the group.
+     *
+     * @return the name of the group.
+     */
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Returns the {@link AssetKey keys} of the group members.
+     *
+     * @return an unmodifiable list of the group member keys.
+     */
+    public List<AssetKey> getKeys() {
+        return KEYS;
+    }
+
+    /**
+     * Returns a loaded member of the group.
+     *
+     * @param <T> the type of the member {@link Asset asset}.
+     * @param type the class of the member {@link Asset asset}.
+     * @param key the {@link AssetKey key} of the member.
+     * @return the loaded member, or null if the member has not been loaded or
+     * the group has been released.
+     */
+    public <T extends Asset> T get(final Class<T> type, final AssetKey key) {
+        return type.cast(RESIDENT.get(key));
+    }
+
+    /**
+     * Returns the combined size of the source files of every member.
+     *
+     * @return the total size of the group in bytes.
+     */
+    public long getTotalBytes() {
+        return TOTAL;
+    }
+
+    /**
+     * Returns the combined size of the source files of the members that have
+     * finished loading, including members that failed to load.
+     *
+     * @return the number of bytes loaded so far.
+     */
+    public long getLoadedBytes() {
+        return loadedBytes.get();
+    }
+
+    /**
+     * Returns the fraction of the group that has finished loading, measured
+     * in bytes of source data.
+     *
+     * @return the loading progress between 0 and 1.
+     */
+    public float getProgress() {
+        if (TOTAL == 0) {
+            return isLoaded() ? 1 : 0;
+        }
+        return (float) loadedBytes.get() / TOTAL;
+    }
+
+    /**
+     * Returns the number of members that have finished loading.
+     *
+     * @return the number of completed members.
+     */
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * Returns the number of members that could not be loaded and have no
+     * fallback asset.
+     *
+     * @return the number of failed members.
+     */
+    public int getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Indicates if every member of the group has finished loading.
+     *
+     * @return true if the group has finished loading.
+     */
+    public boolean isLoaded() {
+        return COMPLETION.isDone();
+    }
+
+    /**
+     * Indicates if the group has been released.
+     *
+     * @return true if the group has been released.
+     */
+    public boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * Returns a future that completes with this group once every member has
+     * finished loading. Members that fail to load do not complete the future
+     * exceptionally; use {@link #getFailed()} to check for failures.
+     *
+     * @return the future completed once the group has finished loading.
+     */
+    public CompletableFuture<AssetGroup> getCompletion() {
+        return COMPLETION;
+    }
+
+    /**
+     * Returns the name and progress of the group for logging purposes.
+     *
+     * @return the name and progress of the group.
+     */
+    @Override
+    public String toString() {
+        return NAME + " (" + loadedBytes.get() + "/" + TOTAL + " bytes)";
+    }
+}
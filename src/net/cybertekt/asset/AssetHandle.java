@@ -0,0 +1,167 @@
+package net.cybertekt.asset;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asset Handle - (C) Cybertekt Software
+ *
+ * Reference-counted handle to a loaded {@link Asset asset}. Handles are
+ * retrieved using {@link AssetManager#acquire(Class, AssetKey)}, which returns
+ * the same handle to every caller requesting the same asset and increments its
+ * reference count. Each acquisition must be balanced by a call to
+ * {@link #release()}. When the last reference is released the asset is removed
+ * from the asset cache and {@link Asset#dispose() disposed}, which frees its
+ * {@link NativeMemory native memory} immediately rather than when the garbage
+ * collector next runs. Assets that have also been handed out without a
+ * handle, for example by {@link AssetManager#get(AssetKey)}, are left to the
+ * garbage collector, as other references to them may still be in use.
+ * <p>
+ * Handles that are never released are reported by
+ * {@link AssetManager#getLeakReport()}, together with the location at which
+ * they were first acquired.
+ * </p>
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ *
+ * @param <T> the type of asset held by the handle.
+ */
+public final class AssetHandle<T extends Asset> {
+
+    /**
+     * The {@link AssetKey key} through which the asset was acquired.
+     */
+    private final AssetKey KEY;
+
+    /**
+     * The handled asset. Either the requested asset or the fallback asset of
+     * its type.
+     */
+    private final T ASSET;
+
+    /**
+     * The location at which the handle was first acquired, reported if the
+     * handle is never released.
+     */
+    private final Throwable ORIGIN;
+
+    /**
+     * The number of outstanding references to the handle. Zero once the handle
+     * has been fully released.
+     */
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    /**
+     * Constructs a handle with a single reference.
+     *
+     * @param key the {@link AssetKey key} through which the asset was
+     * acquired.
+     * @param asset the asset to hold.
+     */
+    AssetHandle(final AssetKey key, final T asset) {
+        this.KEY = key;
+        this.ASSET = asset;
+        this.ORIGIN = new Throwable("Acquired " + key);
+    }
+
+    /**
+     * Returns the handled asset.
+     *
+     * @return the handled asset.
+     * @throws IllegalStateException if the handle has been fully released.
+     */
+    public T get() {
+        if (references.get() == 0) {
+            throw new IllegalStateException("Asset handle has been released: " + KEY);
+        }
+        return ASSET;
+    }
+
+    /**
+     * Returns the {@link AssetKey key} of the handled asset.
+     *
+     * @return the key of the handled asset.
+     */
+    public AssetKey getKey() {
+        return KEY;
+    }
+
+    /**
+     * Adds a reference to the handle. Each call must be balanced by a call to
+     * {@link #release()}.
+     *
+     * @return this handle for the purpose of call chaining.
+     * @throws IllegalStateException if the handle has been fully released.
+     */
+    public AssetHandle<T> acquire() {
+        if (!retain()) {
+            throw new IllegalStateException("Asset handle has been released: " + KEY);
+        }
+        return this;
+    }
+
+    /**
+     * Removes a reference from the handle. When the last reference is
+     * removed the asset is disposed and the handle can no longer be used.
+     *
+     * @return true if this call released the last reference.
+     * @throws IllegalStateException if the handle has already been fully
+     * released.
+     */
+    public boolean release() {
+        final int remaining = references.decrementAndGet();
+        if (remaining < 0) {
+            references.incrementAndGet();
+            throw new IllegalStateException("Asset handle released too many times: " + KEY);
+        }
+        if (remaining == 0) {
+            AssetManager.dispose(this, ASSET);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of outstanding references to the handle.
+     *
+     * @return the reference count of the handle.
+     */
+    public int getReferences() {
+        return references.get();
+    }
+
+    /**
+     * Adds a reference to the handle unless it has already been fully
+     * released.
+     *
+     * @return true if a reference was added.
+     */
+    boolean retain() {
+        for (int count = references.get(); count > 0; count = references.get()) {
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the location at which the handle was first acquired.
+     *
+     * @return the origin of the handle.
+     */
+    Throwable getOrigin() {
+        return ORIGIN;
+    }
+
+    /**
+     * Returns the key and reference count of the handle for logging purposes.
+     *
+     * @return the key and reference count of the handle.
+     */
+    @Override
+    public String toString() {
+        return KEY + " (" + references.get() + " reference(s))";
+    }
+}
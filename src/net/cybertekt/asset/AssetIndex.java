@@ -0,0 +1,430 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asset Index - (C) Cybertekt Software
+ *
+ * In-memory index of the files beneath the
+ * {@link AssetManager#rootDir root assets directory}. The index is built once
+ * by walking the directory tree and is kept up to date by a background
+ * {@link WatchService watcher}, which allows the {@link AssetManager} to
+ * answer existence and size queries for loose asset files without a system
+ * call.
+ * <p>
+ * The index also records the paths of files that were requested but do not
+ * exist. The index only speeds up queries for files it holds: a path absent
+ * from the index, which may name a file created since the last change seen by
+ * the watcher or differ in case from its file on a case-insensitive
+ * filesystem, is checked on disk once and only then remembered as missing.
+ * Missing paths are forgotten when the watcher sees their file created, or
+ * when the index is {@link #rebuild() rebuilt}, so repeated requests for a
+ * missing asset fail without touching the filesystem.
+ * </p>
+ * <p>
+ * {@link ChangeListener Change listeners} are notified on the watcher thread
+ * each time the watcher sees a file being created or modified.
+ * </p>
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+public final class AssetIndex {
+
+    /**
+     * SLF4J internal class logger for debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(AssetIndex.class);
+
+    /**
+     * The root directory of the index.
+     */
+    private final Path ROOT;
+
+    /**
+     * Paths of the files known to be missing, relative to the root directory.
+     */
+    private final Set<String> MISSING = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Directories registered with the watcher, keyed by their watch key.
+     */
+    private final Map<WatchKey, Path> WATCHED = new ConcurrentHashMap<>();
+
+    /**
+     * Listeners notified when an indexed file is created or modified.
+     */
+    private final List<ChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Watch service monitoring the indexed directories, or null if changes
+     * are not being watched.
+     */
+    private final WatchService WATCHER;
+
+    /**
+     * The size in bytes of every indexed file, keyed by its path relative to
+     * the root directory.
+     */
+    private volatile Map<String, Long> files;
+
+    /**
+     * The number of queries answered from memory.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * The number of queries that had to check the filesystem.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Builds an index of the specified directory and, if requested, starts a
+     * daemon thread that keeps the index up to date as files are created,
+     * modified and deleted.
+     *
+     * @param root the directory to index.
+     * @param watch true to watch the directory for changes.
+     * @throws IOException if the directory cannot be read.
+     */
+    AssetIndex(final Path root, final boolean watch) throws IOException {
+        this.ROOT = root;
+        WatchService watcher = null;
+        if (watch) {
+            try {
+                watcher = FileSystems.getDefault().newWatchService();
+            } catch (final IOException | UnsupportedOperationException e) {
+                LOG.warn("Unable to watch asset directory {} - {}", root, e.getMessage());
+            }
+        }
+        this.WATCHER = watcher;
+        this.files = scan(root);
+        if (WATCHER != null) {
+            final Thread thread = new Thread(this::watch, "Assets-Index");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        LOG.debug("Indexed {} asset file(s) in {}", files.size(), root);
+    }
+
+    /**
+     * Indicates if the file at the specified path exists.
+     *
+     * @param path the path of the file relative to the root directory.
+     * @return true if the file exists.
+     */
+    public boolean contains(final String path) {
+        return size(path) >= 0;
+    }
+
+    /**
+     * Returns the size of the file at the specified path.
+     *
+     * @param path the path of the file relative to the root directory.
+     * @return the size of the file in bytes, or -1 if the file does not
+     * exist.
+     */
+    public long size(final String path) {
+        final Long size = files.get(path);
+        if (size != null) {
+            hits.incrementAndGet();
+            return size;
+        }
+        if (MISSING.contains(path)) {
+            hits.incrementAndGet();
+            return -1;
+        }
+        misses.incrementAndGet();
+        final Path file = ROOT.resolve(path);
+        try {
+            if (Files.isRegularFile(file)) {
+                return Files.size(file);
+            }
+        } catch (final IOException e) {
+            // Treat Unreadable File As Missing //
+        }
+        return -1;
+    }
+
+    /**
+     * Records that the file at the specified path does not exist, so that
+     * further queries for the path are answered without checking the
+     * filesystem. A path indexed by the watcher since the failed query is
+     * not recorded.
+     *
+     * @param path the path of the file relative to the root directory.
+     * @return true if the path was not already known to be missing.
+     */
+    synchronized boolean miss(final String path) {
+        return !files.containsKey(path) && MISSING.add(path);
+    }
+
+    /**
+     * Discards the index and the known missing paths and builds the index
+     * again from the contents of the root directory.
+     *
+     * @throws IOException if the directory cannot be read.
+     */
+    public synchronized void rebuild() throws IOException {
+        files = scan(ROOT);
+        MISSING.clear();
+        LOG.debug("Rebuilt index of {} asset file(s) in {}", files.size(), ROOT);
+    }
+
+    /**
+     * Adds a listener to be notified when a file beneath the root directory
+     * is created or modified. Listeners are only notified while the index is
+     * {@link #isWatching() watched}.
+     *
+     * @param listener the listener to add.
+     */
+    public void addListener(final ChangeListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Removes a previously added change listener.
+     *
+     * @param listener the listener to remove.
+     * @return true if the listener was removed.
+     */
+    public boolean removeListener(final ChangeListener listener) {
+        return LISTENERS.remove(listener);
+    }
+
+    /**
+     * Returns the root directory of the index.
+     *
+     * @return the indexed directory.
+     */
+    public Path getRoot() {
+        return ROOT;
+    }
+
+    /**
+     * Returns the number of indexed files.
+     *
+     * @return the number of files in the index.
+     */
+    public int getFiles() {
+        return files.size();
+    }
+
+    /**
+     * Returns the number of paths known to be missing.
+     *
+     * @return the number of missing paths.
+     */
+    public int getMissing() {
+        return MISSING.size();
+    }
+
+    /**
+     * Returns the number of queries answered from memory.
+     *
+     * @return the number of index hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of queries that had to check the filesystem.
+     *
+     * @return the number of index misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Indicates if the index is kept up to date by a watcher.
+     *
+     * @return true if the root directory is being watched.
+     */
+    public boolean isWatching() {
+        return WATCHER != null;
+    }
+
+    /**
+     * Walks the directory tree beneath the specified directory, registering
+     * each directory with the watcher.
+     *
+     * @param dir the directory to walk.
+     * @return the size of every file found, keyed by path relative to the
+     * root directory.
+     * @throws IOException if the directory cannot be read.
+     */
+    private Map<String, Long> scan(final Path dir) throws IOException {
+        final Map<String, Long> found = new ConcurrentHashMap<>(256);
+        if (!Files.isDirectory(dir)) {
+            return found;
+        }
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path path, final BasicFileAttributes attributes) throws IOException {
+                register(path);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path path, final BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    found.put(relative(path), attributes.size());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(final Path path, final IOException e) {
+                LOG.warn("Unable to index asset file {} - {}", path, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Registers a directory with the watcher, if the index is watched.
+     *
+     * @param dir the directory to register.
+     * @throws IOException if the directory cannot be registered.
+     */
+    private void register(final Path dir) throws IOException {
+        if (WATCHER != null) {
+            WATCHED.put(dir.register(WATCHER, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), dir);
+        }
+    }
+
+    /**
+     * Returns the path of a file relative to the root directory using forward
+     * slashes as separators, matching {@link AssetKey#getPath()}.
+     *
+     * @param path the path of the file.
+     * @return the relative path of the file.
+     */
+    private String relative(final Path path) {
+        return ROOT.relativize(path).toString().replace('\\', '/');
+    }
+
+    /**
+     * Body of the watcher thread. Applies each change reported by the watch
+     * service to the index until the watch service is closed.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                final WatchKey key = WATCHER.take();
+                final Path dir = WATCHED.get(key);
+                for (final WatchEvent<?> event : key.pollEvents()) {
+                    try {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                            rebuild();
+                        } else {
+                            update(dir.resolve((Path) event.context()), event.kind());
+                        }
+                    } catch (final IOException e) {
+                        LOG.warn("Unable to update asset index - {}", e.getMessage());
+                    }
+                }
+                if (!key.reset()) {
+                    WATCHED.remove(key);
+                }
+            }
+        } catch (final InterruptedException | ClosedWatchServiceException e) {
+            LOG.debug("Stopped watching asset directory {}", ROOT);
+        }
+    }
+
+    /**
+     * Applies a single change to the index.
+     *
+     * @param path the path of the changed file or directory.
+     * @param kind the kind of change.
+     * @throws IOException if a created directory cannot be read.
+     */
+    private synchronized void update(final Path path, final WatchEvent.Kind<?> kind) throws IOException {
+        final String name = relative(path);
+        if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            final String prefix = name + "/";
+            files.remove(name);
+            files.keySet().removeIf((file) -> file.startsWith(prefix));
+        } else if (Files.isDirectory(path)) {
+            // Index Files Created Before The Directory Was Registered //
+            for (final Map.Entry<String, Long> entry : scan(path).entrySet()) {
+                files.put(entry.getKey(), entry.getValue());
+                found(entry.getKey());
+                changed(entry.getKey());
+            }
+        } else if (Files.isRegularFile(path)) {
+            files.put(name, Files.size(path));
+            found(name);
+            changed(name);
+        }
+    }
+
+    /**
+     * Forgets that a created file was missing, including paths that differ
+     * from it only in case, which name the same file on case-insensitive
+     * filesystems.
+     *
+     * @param path the path of the file relative to the root directory.
+     */
+    private void found(final String path) {
+        if (!MISSING.isEmpty()) {
+            MISSING.removeIf(path::equalsIgnoreCase);
+        }
+    }
+
+    /**
+     * Notifies every change listener that a file has been created or
+     * modified.
+     *
+     * @param path the path of the file relative to the root directory.
+     */
+    private void changed(final String path) {
+        for (final ChangeListener listener : LISTENERS) {
+            try {
+                listener.changed(path);
+            } catch (final RuntimeException e) {
+                LOG.error("Asset change listener failed - {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Listener notified when a file beneath the root directory of an
+     * {@link AssetIndex index} is created or modified.
+     */
+    public static interface ChangeListener {
+
+        /**
+         * Called on the watcher thread when a file is created or modified.
+         * Editors often write a file in several steps, so a listener may be
+         * called more than once for a single save.
+         *
+         * @param path the path of the file relative to the root directory.
+         */
+        public void changed(final String path);
+    }
+}
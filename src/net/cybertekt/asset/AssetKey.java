@@ -1,8 +1,10 @@
 package net.cybertekt.asset;
 
-import net.cybertekt.cache.CacheMap;
-import net.cybertekt.cache.CacheMap.CacheMode;
-import net.cybertekt.cache.CacheMap.MapMode;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Asset Key - (C) Cybertekt Software
@@ -14,6 +16,12 @@ import net.cybertekt.cache.CacheMap.MapMode;
  * to prevent the construction of multiple asset keys with the same file path.
  * Obsolete asset keys are automatically removed from the key cache when they
  * are no longer in use.
+ * <p>
+ * The key cache is safe for use by any number of threads. Keys are looked up
+ * by {@link CharSequence character sequence}, so retrieving an existing key
+ * does not build a new String, and removing obsolete keys only locks the
+ * individual entries being removed.
+ * </p>
  *
  * @version 1.1.0
  * @since 1.0.0
@@ -22,17 +30,28 @@ import net.cybertekt.cache.CacheMap.MapMode;
 public final class AssetKey {
 
     /**
-     * Static {@link CacheMap cache} that contains every unique asset key
-     * currently in use by the application.
+     * Static cache that contains every unique asset key currently in use by
+     * the application, weakly referenced and keyed by file path.
      */
-    private static final CacheMap<String, AssetKey> KEY_CACHE = new CacheMap(CacheMode.Weak, MapMode.Hash);
+    private static final ConcurrentHashMap<String, KeyReference> KEY_CACHE = new ConcurrentHashMap<>(256);
+
+    /**
+     * Queue receiving the references of asset keys that are no longer in use.
+     */
+    private static final ReferenceQueue<AssetKey> OBSOLETE = new ReferenceQueue<>();
+
+    /**
+     * Reusable per-thread {@link Probe probe} for looking up keys by
+     * character sequence.
+     */
+    private static final ThreadLocal<Probe> PROBE = ThreadLocal.withInitial(Probe::new);
 
     /**
      * Each time a new key is created, this value is incremented and assigned as
      * the hash code of the newly created key in order to minimize hash code
      * collisions between keys.
      */
-    private static int hashCount = 0;
+    private static final AtomicInteger hashCount = new AtomicInteger();
 
     /**
      * Retrieves an asset key for the resource located at the specified path.
@@ -46,15 +65,41 @@ public final class AssetKey {
      * @return the asset key associated with the resource located at the
      * specified file path.
      */
-    public static final AssetKey getKey(String path) {
-        if (path.contains("\\")) {
-            path = path.replace('\\', '/').toLowerCase();
+    public static final AssetKey getKey(final String path) {
+        return getKey((CharSequence) path);
+    }
+
+    /**
+     * Retrieves an asset key for the resource located at the path contained
+     * in the specified character sequence. A new String is only built for the
+     * path if no key exists for it yet. Paths containing backslashes are
+     * converted to lower case with forward slashes.
+     *
+     * @param path the location of the asset file relative to the
+     * {@link AssetManager#rootDir root assets directory}.
+     * @return the asset key associated with the resource located at the
+     * specified file path.
+     */
+    public static final AssetKey getKey(final CharSequence path) {
+        reclaim();
+        final KeyReference reference;
+        final Probe probe;
+        if (path instanceof String && ((String) path).indexOf('\\') < 0) {
+            // Plain String Paths Use Their Cached Hash Code //
+            reference = KEY_CACHE.get(path);
+            probe = null;
+        } else {
+            probe = PROBE.get().wrap(path);
+            reference = KEY_CACHE.get(probe);
         }
-        AssetKey key = KEY_CACHE.get(path);
-        if (key == null) {
-            KEY_CACHE.put(path, (key = new AssetKey(path)));
+        final AssetKey key = (reference != null) ? reference.get() : null;
+        if (key != null) {
+            if (probe != null) {
+                probe.wrap(null);
+            }
+            return key;
         }
-        return key;
+        return intern((probe != null) ? probe.unwrap() : (String) path);
     }
 
     /**
@@ -63,9 +108,43 @@ public final class AssetKey {
      * @return the number of cached asset keys.
      */
     public static final int getKeyCount() {
+        reclaim();
         return KEY_CACHE.size();
     }
 
+    /**
+     * Returns the key cached for the specified normalized path, creating and
+     * caching a new key if none exists or the cached key is no longer in use.
+     *
+     * @param path the normalized file path of the asset.
+     * @return the unique asset key for the path.
+     */
+    private static AssetKey intern(final String path) {
+        while (true) {
+            final KeyReference reference = KEY_CACHE.get(path);
+            final AssetKey cached = (reference != null) ? reference.get() : null;
+            if (cached != null) {
+                return cached;
+            }
+            final AssetKey key = new AssetKey(path);
+            final KeyReference created = new KeyReference(key);
+            if (reference == null ? KEY_CACHE.putIfAbsent(path, created) == null : KEY_CACHE.replace(path, reference, created)) {
+                return key;
+            }
+        }
+    }
+
+    /**
+     * Removes the entries of asset keys that are no longer in use from the key
+     * cache. Entries that have already been replaced by a new key for the same
+     * path are left in place.
+     */
+    private static void reclaim() {
+        for (Reference<? extends AssetKey> reference = OBSOLETE.poll(); reference != null; reference = OBSOLETE.poll()) {
+            KEY_CACHE.remove(((KeyReference) reference).PATH, reference);
+        }
+    }
+
     /**
      * The file path of the external asset resource, relative to the
      * {@link AssetManager#rootDir root assets directory}.
@@ -92,7 +171,7 @@ public final class AssetKey {
      */
     private AssetKey(final String path) {
         PATH = path;
-        HASHCODE = AssetKey.hashCount++;
+        HASHCODE = AssetKey.hashCount.getAndIncrement();
         if (PATH.lastIndexOf('.') > -1) {
             TYPE = AssetType.getType(PATH.substring(PATH.lastIndexOf('.') + 1, PATH.length()));
         } else {
@@ -202,4 +281,128 @@ public final class AssetKey {
     public final int hashCode() {
         return HASHCODE;
     }
+
+    /**
+     * Weak reference to a cached asset key that remembers the path under which
+     * it was cached, so that its entry can be removed once the key is no
+     * longer in use.
+     */
+    private static final class KeyReference extends WeakReference<AssetKey> {
+
+        /**
+         * The path under which the key is cached.
+         */
+        private final String PATH;
+
+        /**
+         * Constructs a reference to the specified key.
+         *
+         * @param key the asset key to reference.
+         */
+        private KeyReference(final AssetKey key) {
+            super(key, OBSOLETE);
+            this.PATH = key.PATH;
+        }
+    }
+
+    /**
+     * Lookup key that presents an arbitrary character sequence to the key
+     * cache as if it were the normalized path String, without building the
+     * String. The hash code of a probe is identical to the hash code of the
+     * normalized path and a probe is equal to any String containing the
+     * normalized path. Probes are only ever passed to
+     * {@link ConcurrentHashMap#get(Object)}, which compares the probe against
+     * the cached paths and never the reverse.
+     */
+    private static final class Probe {
+
+        /**
+         * The wrapped character sequence.
+         */
+        private CharSequence path;
+
+        /**
+         * Indicates if the wrapped sequence contains backslashes and is
+         * therefore converted to lower case when normalized.
+         */
+        private boolean lower;
+
+        /**
+         * The hash code of the normalized path.
+         */
+        private int hash;
+
+        /**
+         * Wraps the specified character sequence for lookup.
+         *
+         * @param sequence the sequence to wrap, or null to release the
+         * previously wrapped sequence.
+         * @return this probe for the purpose of call chaining.
+         */
+        private Probe wrap(final CharSequence sequence) {
+            path = sequence;
+            if (sequence != null) {
+                lower = false;
+                for (int i = 0; i < sequence.length() && !lower; i++) {
+                    lower = sequence.charAt(i) == '\\';
+                }
+                int h = 0;
+                for (int i = 0; i < sequence.length(); i++) {
+                    h = 31 * h + normalize(sequence.charAt(i));
+                }
+                hash = h;
+            }
+            return this;
+        }
+
+        /**
+         * Releases the wrapped sequence and returns its normalized path.
+         *
+         * @return the normalized path.
+         */
+        private String unwrap() {
+            final StringBuilder builder = new StringBuilder(path.length());
+            for (int i = 0; i < path.length(); i++) {
+                builder.append(normalize(path.charAt(i)));
+            }
+            path = null;
+            return builder.toString();
+        }
+
+        /**
+         * Normalizes a single path character.
+         *
+         * @param c the character to normalize.
+         * @return the normalized character.
+         */
+        private char normalize(final char c) {
+            if (!lower) {
+                return c;
+            } else if (c == '\\') {
+                return '/';
+            } else if (c < 128) {
+                return (c >= 'A' && c <= 'Z') ? (char) (c + 32) : c;
+            }
+            return Character.toLowerCase(c);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof String) || ((String) o).length() != path.length()) {
+                return false;
+            }
+            final String other = (String) o;
+            for (int i = 0; i < other.length(); i++) {
+                if (other.charAt(i) != normalize(path.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
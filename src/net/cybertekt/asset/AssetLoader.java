@@ -2,6 +2,7 @@ package net.cybertekt.asset;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -51,6 +52,27 @@ public abstract class AssetLoader {
      */
     public abstract AssetTask newTask(final AssetKey key, final InputStream stream);
 
+    /**
+     * Returns a callable {@link AssetTask task} which will be used for the
+     * concurrent construction of the {@link Asset asset} associated with the
+     * specified {@link AssetKey asset key} using the data provided by the
+     * read-only {@link ByteBuffer buffer}. The {@link AssetManager} provides
+     * data through this method, usually as a memory-mapped view of the asset
+     * file. Loaders should override this method to parse the buffer directly.
+     * The default implementation wraps the buffer in an input stream and
+     * delegates to {@link #newTask(AssetKey, InputStream)}.
+     *
+     * @param key the {@link AssetKey asset key} associated with the
+     * {@link Asset asset} to be loaded.
+     * @param buffer the contents of the file located at the path specified by
+     * the {@link AssetKey asset key}.
+     * @return an {@link AssetTask task} for loading the asset associated with
+     * the provided {@link AssetKey asset key}.
+     */
+    public AssetTask newTask(final AssetKey key, final ByteBuffer buffer) {
+        return newTask(key, new BufferInputStream(buffer));
+    }
+
     /**
      * Constructs and returns the {@link Asset asset} associated with the
      * provided {@link AssetKey asset key} using the data provided by an input
@@ -72,6 +94,82 @@ public abstract class AssetLoader {
         return newTask(key, stream).load();
     }
 
+    /**
+     * Constructs and returns the {@link Asset asset} associated with the
+     * provided {@link AssetKey asset key} using the data provided by a
+     * buffer.
+     *
+     * @param key the {@link AssetKey asset key} associated with the
+     * {@link Asset asset} to be loaded.
+     * @param buffer the contents of the file located at the path specified by
+     * the {@link AssetKey asset key}.
+     * @return the {@link Asset asset} associated with the provided
+     * {@link AssetKey asset key} constructed from the data provided by the
+     * buffer.
+     * @throws net.cybertekt.asset.AssetManager.AssetInitializationException if
+     * the {@link Asset asset} cannot be loaded by this loader using the data
+     * provided by the buffer.
+     */
+    public final Asset loadInline(final AssetKey key, final ByteBuffer buffer) throws AssetInitializationException {
+        return newTask(key, buffer).load();
+    }
+
+    /**
+     * Estimates the number of bytes of memory the decoded
+     * {@link Asset asset} will occupy, using only the header of the file. The
+     * {@link AssetManager} uses the estimate to limit how much decoded data
+     * is produced by loads executing at the same time. The default
+     * implementation returns zero, indicating that the size is unknown and
+     * the load is never held back.
+     *
+     * @param key the {@link AssetKey asset key} of the asset.
+     * @param buffer the contents of the file, which must not be modified.
+     * @return the estimated decoded size in bytes, or zero if unknown.
+     */
+    public long estimateSize(final AssetKey key, final ByteBuffer buffer) {
+        return 0;
+    }
+
+    /**
+     * Returns the version of the data produced by {@link #encode(Asset)}.
+     * Loaders that support the {@link DerivedDataCache derived data cache}
+     * must return a positive version and increment it whenever the encoded
+     * format or the decoded result changes, which invalidates every cached
+     * entry written by an older version. The default implementation returns
+     * zero, indicating that derived data is not supported.
+     *
+     * @return the derived data version, or zero if unsupported.
+     */
+    public int getVersion() {
+        return 0;
+    }
+
+    /**
+     * Encodes a loaded {@link Asset asset} for storage in the
+     * {@link DerivedDataCache derived data cache}. The buffers are written in
+     * order and must not be modified afterwards.
+     *
+     * @param asset the asset to encode.
+     * @return the encoded asset data, or null if the asset cannot be encoded.
+     */
+    public ByteBuffer[] encode(final Asset asset) {
+        return null;
+    }
+
+    /**
+     * Reconstructs an {@link Asset asset} from data previously produced by
+     * {@link #encode(Asset)}. The data is a read-only memory-mapped view of
+     * the cached file which may be used by the asset without copying.
+     *
+     * @param key the {@link AssetKey asset key} of the asset.
+     * @param data the encoded asset data.
+     * @return the decoded asset, or null if the data cannot be decoded, in
+     * which case the asset is loaded from its source file.
+     */
+    public Asset decode(final AssetKey key, final ByteBuffer data) {
+        return null;
+    }
+
     /**
      * Returns the list of {@link AssetType asset types} supported by the
      * loader.
@@ -2,39 +2,100 @@ package net.cybertekt.asset;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import net.cybertekt.cache.Cache;
 import net.cybertekt.cache.CacheMap;
 import net.cybertekt.cache.CacheMap.CacheMode;
 import net.cybertekt.cache.CacheMap.MapMode;
+import net.cybertekt.cache.WeightedCache;
+import net.cybertekt.exception.InitializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
 
 /**
  * Asset Manager - (C) Cybertekt Software
  *
  * Static class for concurrently loading {@link Asset assets}. Assets will only
  * be loaded by the {@link AssetLoader asset loader} associated with the assets
- * {@link AssetType type}. The static methods provided by this class are not
- * thread-safe and must only be called from the main thread. The asset manager
- * itself spawns new threads as needed to handle the requested asset loading
- * tasks. Once an asset has been loaded it is internally stored in the static
- * {@link #cachedAssets asset cache} managed by this class and can be retrieved
- * at any time as long as the asset remains in the cache. Assets will be
- * automatically removed from the cache if they are no longer in use and memory
- * is constrained. The internal asset cache can also be cleared manually.
+ * {@link AssetType type}. Assets may be loaded and retrieved from any thread.
+ * Concurrent requests for the same asset share a single loading task so that
+ * each asset is only decoded once. Loader registration and configuration
+ * methods are not thread-safe and must only be called from the main thread
+ * during initialization. The asset manager itself spawns new threads as needed
+ * to handle the requested asset loading tasks. Once an asset has been loaded
+ * it is internally stored in the static {@link #cachedAssets asset cache}
+ * managed by this class and can be retrieved at any time as long as the asset
+ * remains in the cache. By default, assets will be automatically removed from
+ * the cache if they are no longer in use and memory is constrained. A
+ * byte-budgeted cache can be selected instead using
+ * {@link #setCacheBudget(long)} or {@link #setCache(Cache)}. The internal asset
+ * cache can also be cleared manually. Asset files are located by first
+ * searching any {@link AssetArchive archives} that have been
+ * {@link #mount(String) mounted} before falling back to the loose files within
+ * the {@link #rootDir root assets directory}. Assets that are constructed from
+ * other assets declare them as {@link AssetTask#addDependency(AssetKey)
+ * dependencies}; the dependencies are scheduled first and the dependent task
+ * is only submitted to the thread pool once all of them are complete. Each
+ * load request is queued in a {@link Priority priority} lane so that assets
+ * required for the next frame are never queued behind background prefetches.
+ * Assets may also be requested using {@link #loadAsync(AssetKey)}, which
+ * returns a {@link CompletableFuture} whose continuations can be run on the
+ * asset thread pool or on the main thread once per frame by
+ * {@link #update()}. Code running on the render thread should use
+ * {@link #getNow(AssetKey)} or {@link #getProxy(Class, AssetKey)}, which never
+ * block and return the fallback asset while the requested asset is loading.
+ * Assets that hold large native buffers may be retrieved through
+ * reference-counted {@link AssetHandle handles} using
+ * {@link #acquire(Class, AssetKey)}, in which case their memory is freed as
+ * soon as the last handle is released. Loads pass through two stages: a small
+ * {@link Stage#Read read} stage that reads asset files from storage, and a
+ * {@link Stage#Decode decode} stage sized to the number of processors that
+ * constructs the assets, so that neither the disk nor the processor is left
+ * idle while the other is busy.
  *
  * @version 1.1.0
  * @since 1.0.0
@@ -54,6 +115,35 @@ public final class AssetManager {
      */
     public static final String rootDir = System.getProperty("user.dir").replace('\\', '/') + "/assets/";
 
+    /**
+     * Files smaller than this number of bytes are read into a heap buffer
+     * instead of being memory-mapped, as mapping a small file costs more than
+     * simply reading it.
+     */
+    private static final int MAP_THRESHOLD = 64 * 1024;
+
+    /**
+     * Number of threads in the {@link Stage#Read read} stage. Reads are bound
+     * by the storage device rather than the processor, so a few threads are
+     * enough to keep the device busy.
+     */
+    private static final int READ_THREADS = 2;
+
+    /**
+     * Maximum number of reads in flight at once when the
+     * {@link Stage#Read read} stage runs on virtual threads. Blocked virtual
+     * threads do not occupy a platform thread, so more reads can be kept
+     * outstanding to hide the latency of the storage device.
+     */
+    private static final int VIRTUAL_READS = 16;
+
+    /**
+     * Pooled direct buffers of {@link #MAP_THRESHOLD} bytes into which the
+     * {@link Stage#Read read} stage reads files too small to be mapped.
+     * Buffers are returned to the pool once the asset has been constructed.
+     */
+    private static final ArrayBlockingQueue<ByteBuffer> bufferPool = new ArrayBlockingQueue<>(16);
+
     /**
      * Executor Service to which {@link AssetLoader asset loader} tasks are
      * submitted.
@@ -81,9 +171,36 @@ public final class AssetManager {
      *
      * private static final ExecutorService threadPool =
      * Executors.newCachedThreadPool();
+     *
+     * Update: the pool now only owns the priority queue of its stage. The
+     * threads that run the queued tasks are supplied by an
+     * {@link AssetExecutor asset executor} which can be replaced using
+     * {@link #setExecutor(Stage, AssetExecutor)}, so the bounded,
+     * work-stealing and virtual thread approaches can be compared on the
+     * device itself. The decode stage uses a bounded executor by default.
      * </p>
      */
-    private static final ThreadPool threadPool = new ThreadPool();
+    private static final ThreadPool threadPool = new ThreadPool(Stage.Decode, AssetExecutor.newBounded("Assets-", Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Thread pool of the {@link Stage#Read read} stage, which reads the
+     * contents of asset files before their tasks are submitted to the
+     * {@link #threadPool decode stage}. Runs on virtual threads when the
+     * runtime supports them, and otherwise on a few platform threads.
+     */
+    private static final ThreadPool readPool = new ThreadPool(Stage.Read, AssetExecutor.isVirtualSupported() ? AssetExecutor.newVirtual("Assets-IO-", VIRTUAL_READS) : AssetExecutor.newBounded("Assets-IO-", READ_THREADS));
+
+    /**
+     * Total time, in nanoseconds, that the threads of each {@link Stage stage}
+     * have spent executing tasks since the last time {@link #reset()} was
+     * called.
+     */
+    private static final AtomicLongArray stageBusy = new AtomicLongArray(Stage.values().length);
+
+    /**
+     * The time, in nanoseconds, at which {@link #stageBusy} was last reset.
+     */
+    private static volatile long stageSince = System.nanoTime();
 
     /**
      * Stores the registered {@link AssetLoader asset loaders} based on the
@@ -96,14 +213,15 @@ public final class AssetManager {
      * {@link java.util.concurrent.ConcurrentHashMap} used for storing
      * {@link Asset assets} that are waiting to be loaded.
      */
-    private static final Map<AssetKey, Future<? extends Asset>> pendingAssets = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<AssetKey, AssetFuture> pendingAssets = new ConcurrentHashMap<>();
 
     /**
-     * Softly caches fully loaded {@link Asset assets} based on their associated
-     * {@link AssetKey key}. Assets that are no longer in use will be
-     * periodically purged from the cache.
+     * Caches fully loaded {@link Asset assets} based on their associated
+     * {@link AssetKey key}. Assets are softly cached by default and will be
+     * periodically purged from the cache when they are no longer in use. The
+     * cache policy may be replaced using {@link #setCache(Cache)}.
      */
-    private static final CacheMap<AssetKey, Asset> cachedAssets = new CacheMap<>(CacheMode.Soft, MapMode.Concurrent);
+    private static volatile Cache<AssetKey, Asset> cachedAssets = new CacheMap<>(CacheMode.Soft, MapMode.Concurrent);
 
     /**
      * Stores fallback {@link Asset assets} to be used in the event that an
@@ -113,6 +231,127 @@ public final class AssetManager {
      */
     private static final Map<AssetType, Asset> fallbackAssets = new ConcurrentHashMap<>();
 
+    /**
+     * {@link AssetArchive Archives} searched for asset files before the
+     * {@link #rootDir root assets directory}. The most recently mounted archive
+     * is stored first so that it overrides the contents of older archives.
+     */
+    private static final List<AssetArchive> mountedArchives = new CopyOnWriteArrayList<>();
+
+    /**
+     * In-memory {@link AssetIndex index} of the files beneath the
+     * {@link #rootDir root assets directory}, built when the asset manager is
+     * first used so that existence checks for indexed loose files are
+     * answered without a system call. Null if the directory could not be
+     * indexed.
+     */
+    private static final AssetIndex assetIndex = index(Paths.get(rootDir));
+
+    /**
+     * Persistent {@link DerivedDataCache cache} of decoded asset data, or null
+     * if assets are always decoded from their source files.
+     */
+    private static volatile DerivedDataCache derivedCache;
+
+    /**
+     * {@link ContentStore Store} that maps assets with byte-identical source
+     * files onto one decoded asset, or null if every asset is decoded
+     * separately.
+     */
+    private static volatile ContentStore contentStore;
+
+    /**
+     * {@link AccessTrace Trace} recording the order in which assets are
+     * requested, or null if requests are not being recorded.
+     */
+    private static volatile AccessTrace accessTrace;
+
+    /**
+     * Location of the asset manifest relative to the
+     * {@link #rootDir root assets directory}. The manifest declares named
+     * groups of assets that can be loaded together using
+     * {@link #loadGroup(String)}.
+     */
+    public static final String MANIFEST = "Assets.xml";
+
+    /**
+     * The {@link AssetKey keys} of the members of each group declared in the
+     * asset manifest, keyed by group name.
+     */
+    private static volatile Map<String, List<AssetKey>> manifestGroups = Collections.emptyMap();
+
+    /**
+     * The {@link AssetGroup groups} currently loaded or loading, keyed by
+     * group name.
+     */
+    private static final Map<String, AssetGroup> loadedGroups = new ConcurrentHashMap<>();
+
+    /**
+     * The {@link AssetHandle handles} currently acquired, keyed by the
+     * {@link AssetKey key} of the handled asset.
+     */
+    private static final ConcurrentHashMap<AssetKey, AssetHandle<?>> assetHandles = new ConcurrentHashMap<>();
+
+    /**
+     * Time, in milliseconds, that a changed asset file must remain unchanged
+     * before it is reloaded. Editors often write a file in several steps, and
+     * waiting for the writes to settle avoids reloading a partially written
+     * file or reloading the same file several times for a single save.
+     */
+    private static final long RELOAD_DELAY = 100;
+
+    /**
+     * Indicates if assets are reloaded when their files change.
+     */
+    private static volatile boolean hotReload;
+
+    /**
+     * Single daemon thread that waits for changed asset files to settle
+     * before their assets are reloaded on the asset thread pool.
+     */
+    private static final ScheduledExecutorService reloadTimer = new ScheduledThreadPoolExecutor(1, (task) -> {
+        final Thread thread = new Thread(task, "Assets-Reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Assets whose files have changed but not yet settled, mapped to the
+     * times, in nanoseconds, at which the first and the most recent change
+     * were seen. Guarded by its own lock.
+     */
+    private static final Map<AssetKey, long[]> changedAssets = new HashMap<>();
+
+    /**
+     * Listener registered with the {@link AssetIndex asset index} while hot
+     * reloading is enabled.
+     */
+    private static final AssetIndex.ChangeListener reloadWatcher = AssetManager::changed;
+
+    /**
+     * Weakly referenced {@link ReloadListener listeners} notified when an
+     * asset is reloaded, keyed by the {@link AssetKey key} of the asset.
+     */
+    private static final ConcurrentHashMap<AssetKey, List<WeakReference<ReloadListener>>> reloadListeners = new ConcurrentHashMap<>();
+
+    /**
+     * The number of assets reloaded because their files changed since the
+     * last time {@link #reset()} was called.
+     */
+    private static final AtomicLong reloads = new AtomicLong();
+
+    /**
+     * Total time, in nanoseconds, from a file change being seen to the
+     * listeners of the reloaded asset being notified.
+     */
+    private static final AtomicLong reloadLatency = new AtomicLong();
+
+    /**
+     * Longest time, in nanoseconds, from a file change being seen to the
+     * listeners of the reloaded asset being notified.
+     */
+    private static final AtomicLong reloadLatencyMax = new AtomicLong();
+
     /**
      * {@link AtomicInteger Atomic integer} that tracks the number of
      * {@link Asset assets} that have been loaded successfully.
@@ -131,6 +370,87 @@ public final class AssetManager {
      */
     private static final AtomicInteger failed = new AtomicInteger(0);
 
+    /**
+     * {@link AtomicInteger Atomic integer} that tracks the number of requests
+     * that joined an asset already being loaded instead of loading the asset
+     * a second time.
+     */
+    private static final AtomicInteger deduplicated = new AtomicInteger(0);
+
+    /**
+     * {@link AtomicInteger Atomic integer} that tracks the number of queued
+     * tasks run by threads waiting on a batch of assets instead of by the
+     * asset threads.
+     */
+    private static final AtomicInteger helped = new AtomicInteger(0);
+
+    /**
+     * Assigns each queued {@link AssetFuture future} a sequence number so that
+     * futures within the same {@link Priority priority} lane are executed in
+     * the order in which they were queued.
+     */
+    private static final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Total time, in nanoseconds, that futures of each
+     * {@link Priority priority} lane have spent waiting in the queue.
+     */
+    private static final AtomicLongArray queueWait = new AtomicLongArray(Priority.values().length);
+
+    /**
+     * Longest time, in nanoseconds, that a future of each
+     * {@link Priority priority} lane has spent waiting in the queue.
+     */
+    private static final AtomicLongArray queueWaitMax = new AtomicLongArray(Priority.values().length);
+
+    /**
+     * Number of futures of each {@link Priority priority} lane that have been
+     * taken from the queue.
+     */
+    private static final AtomicLongArray queueCount = new AtomicLongArray(Priority.values().length);
+
+    /**
+     * Maximum number of bytes of decoded asset data that may be produced by
+     * futures executing at the same time, or zero for no limit.
+     */
+    private static volatile long inFlightBudget = 0;
+
+    /**
+     * Estimated number of bytes of decoded asset data being produced by the
+     * futures currently admitted for execution.
+     */
+    private static final AtomicLong inFlight = new AtomicLong();
+
+    /**
+     * Largest value of {@link #inFlight} since the last time {@link #reset()}
+     * was called.
+     */
+    private static final AtomicLong inFlightPeak = new AtomicLong();
+
+    /**
+     * Futures that are ready to execute but are held back because admitting
+     * them would exceed the {@link #inFlightBudget in-flight budget}. Ordered
+     * in the same way as the thread pool queue. Guarded by its own lock.
+     */
+    private static final PriorityQueue<AssetFuture> deferredAssets = new PriorityQueue<>(16, ThreadPool::compare);
+
+    /**
+     * Tasks waiting to be run on the main thread by {@link #update()}.
+     */
+    private static final ConcurrentLinkedQueue<Runnable> mainTasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * {@link Executor} that queues tasks to be run on the main thread the next
+     * time {@link #update()} is called.
+     */
+    private static final Executor mainExecutor = mainTasks::add;
+
+    /**
+     * {@link Executor} that runs tasks on the asset thread pool ahead of any
+     * queued asset loads.
+     */
+    private static final Executor poolExecutor = (task) -> threadPool.execute(new Continuation(task));
+
     /**
      * Private constructor that prohibits the construction of other instances of
      * AssetManager. This class is designed for static access only. Creating
@@ -185,6 +505,40 @@ public final class AssetManager {
         return load(key, false);
     }
 
+    /**
+     * Submits a task to construct an {@link Asset asset} from a file located at
+     * the path specified relative to the {@link #rootDir root assets directory}
+     * in the specified {@link Priority priority} lane. If the asset is already
+     * pending in a lower priority lane it is moved to the specified lane.
+     *
+     * @param path the location of the file from which to load the
+     * {@link Asset asset}.
+     * @param priority the {@link Priority priority} lane in which to queue the
+     * asset.
+     * @return the {@link AssetKey asset key} associated with the
+     * {@link Asset asset}.
+     */
+    public static final AssetKey load(final String path, final Priority priority) {
+        return load(AssetKey.getKey(path), false, priority);
+    }
+
+    /**
+     * Submits a task to construct the {@link Asset asset} associated with the
+     * specified {@link AssetKey asset key} in the specified
+     * {@link Priority priority} lane. If the asset is already pending in a
+     * lower priority lane it is moved to the specified lane.
+     *
+     * @param key the {@link AssetKey asset key} containing the location of the
+     * asset to be loaded.
+     * @param priority the {@link Priority priority} lane in which to queue the
+     * asset.
+     * @return the {@link AssetKey asset key} associated with the
+     * {@link Asset asset}.
+     */
+    public static final AssetKey load(final AssetKey key, final Priority priority) {
+        return load(key, false, priority);
+    }
+
     /**
      * Submits tasks for constructing {@link Asset assets} from the files
      * located at the paths specified relative to the
@@ -233,20 +587,53 @@ public final class AssetManager {
      * {@link Asset asset} to be loaded.
      */
     public static final AssetKey load(final AssetKey key, final boolean reload) {
+        return load(key, reload, Priority.Visible);
+    }
+
+    /**
+     * Submits a task to construct an {@link Asset asset} from the file located
+     * at the path defined by the specified {@link AssetKey key} in the
+     * specified {@link Priority priority} lane. If the asset is already
+     * pending in a lower priority lane it is moved to the specified lane.
+     *
+     * @param key the {@link AssetKey asset keys} that correspond to the
+     * {@link Asset asset} to be loaded.
+     * @param reload true to force the asset to be reloaded. If false, and the
+     * asset has already been loaded previously, the cached {@link AssetKey key}
+     * will be returned.
+     * @param priority the {@link Priority priority} lane in which to queue the
+     * asset.
+     * @return the {@link AssetKey asset key} associated with the
+     * {@link Asset asset} to be loaded.
+     */
+    public static final AssetKey load(final AssetKey key, final boolean reload, final Priority priority) {
+        trace(key);
+
         // Check For Cached Asset //
-        if (!reload && pendingAssets.containsKey(key) || cachedAssets.containsKey(key)) {
+        final Asset cached = reload ? null : cachedAssets.peek(key);
+        if (cached != null && !cached.isRetired()) {
             return key;
         }
 
         // Get Asset Loader //
-        requested.incrementAndGet();
         AssetLoader loader = assetLoaders.get(key.getType());
 
         if (loader != null) {
             try {
-                pendingAssets.put(key, (Future<Asset>) threadPool.submit(loader.newTask(key, stream(key))));
+                final AssetFuture future = schedule(key, loader, reload, new Asset[1]);
+                if (future == null) {
+                    return key;
+                } else if (future.claim()) {
+                    requested.incrementAndGet();
+                    future.priority = priority;
+                    read(future, new HashSet<>());
+                } else {
+                    deduplicated.incrementAndGet();
+                    promote(future, priority);
+                }
                 return key;
             } catch (final AssetNotFoundException e) {
+                requested.incrementAndGet();
                 failed.incrementAndGet();
                 if (getFallback(key.getType()) != null) {
                     cachedAssets.put(key, getFallback(key.getType()));
@@ -256,6 +643,7 @@ public final class AssetManager {
                 }
             }
         } else {
+            requested.incrementAndGet();
             failed.incrementAndGet();
             if (getFallback(key.getType()) != null) {
                 cachedAssets.put(key, getFallback(key.getType()));
@@ -266,6 +654,102 @@ public final class AssetManager {
         }
     }
 
+    /**
+     * Submits a task to construct the {@link Asset asset} located at the path
+     * specified relative to the {@link #rootDir root assets directory} and
+     * returns a future that completes once the asset has been loaded.
+     *
+     * @param path the location of the file from which to load the
+     * {@link Asset asset}.
+     * @return a future that completes with the loaded asset.
+     * @see #loadAsync(AssetKey, Priority)
+     */
+    public static final CompletableFuture<Asset> loadAsync(final String path) {
+        return loadAsync(AssetKey.getKey(path), Priority.Visible);
+    }
+
+    /**
+     * Submits a task to construct the {@link Asset asset} associated with the
+     * specified {@link AssetKey key} and returns a future that completes once
+     * the asset has been loaded.
+     *
+     * @param key the {@link AssetKey key} of the asset to load.
+     * @return a future that completes with the loaded asset.
+     * @see #loadAsync(AssetKey, Priority)
+     */
+    public static final CompletableFuture<Asset> loadAsync(final AssetKey key) {
+        return loadAsync(key, Priority.Visible);
+    }
+
+    /**
+     * Submits a task to construct the {@link Asset asset} located at the path
+     * specified relative to the {@link #rootDir root assets directory} and
+     * returns a future that completes with the asset cast to the specified
+     * class.
+     *
+     * @param <T> the type of {@link Asset asset} to load.
+     * @param assetClass the class of the {@link Asset asset} to load.
+     * @param path the location of the file from which to load the
+     * {@link Asset asset}.
+     * @return a future that completes with the loaded asset.
+     * @see #loadAsync(AssetKey, Priority)
+     */
+    public static final <T extends Asset> CompletableFuture<T> loadAsync(final Class<T> assetClass, final String path) {
+        return loadAsync(AssetKey.getKey(path), Priority.Visible).thenApply(assetClass::cast);
+    }
+
+    /**
+     * Submits a task to construct the {@link Asset asset} associated with the
+     * specified {@link AssetKey key} and returns a future that completes with
+     * the asset cast to the specified class.
+     *
+     * @param <T> the type of {@link Asset asset} to load.
+     * @param assetClass the class of the {@link Asset asset} to load.
+     * @param key the {@link AssetKey key} of the asset to load.
+     * @return a future that completes with the loaded asset.
+     * @see #loadAsync(AssetKey, Priority)
+     */
+    public static final <T extends Asset> CompletableFuture<T> loadAsync(final Class<T> assetClass, final AssetKey key) {
+        return loadAsync(key, Priority.Visible).thenApply(assetClass::cast);
+    }
+
+    /**
+     * Submits a task to construct the {@link Asset asset} associated with the
+     * specified {@link AssetKey key} in the specified {@link Priority priority}
+     * lane and returns a future that completes once the asset has been loaded.
+     * The future completes immediately if the asset is already cached and
+     * shares the pending load if the asset is already being loaded.
+     * <p>
+     * Continuations attached to the future without an executor run on the
+     * asset thread that completes the load. Continuations that must run on
+     * the main thread, such as OpenGL uploads, should be attached using the
+     * {@link #getMainExecutor() main executor}, which runs them the next time
+     * {@link #update()} is called, so that the render thread never blocks.
+     * </p>
+     * If the asset cannot be loaded the future completes with the
+     * {@link #fallbackAssets fallback asset} for its type, or exceptionally if
+     * no fallback exists.
+     *
+     * @param key the {@link AssetKey key} of the asset to load.
+     * @param priority the {@link Priority priority} lane in which to queue the
+     * asset.
+     * @return a future that completes with the loaded asset.
+     */
+    public static final CompletableFuture<Asset> loadAsync(final AssetKey key, final Priority priority) {
+        trace(key);
+        return expose(key, require(key, new HashSet<>(), priority), priority).handle((asset, error) -> {
+            if (error == null) {
+                return asset;
+            }
+            final Asset fallback = getFallback(key.getType());
+            if (fallback != null) {
+                cachedAssets.put(key, fallback);
+                return fallback;
+            }
+            throw (error instanceof CompletionException) ? (CompletionException) error : new CompletionException(error);
+        });
+    }
+
     /**
      * Retrieves the {@link Asset asset} for the file located at the path
      * specified. If the asset has already been loaded it will be retrieved from
@@ -357,11 +841,11 @@ public final class AssetManager {
      * exception thrown if no fallback asset exists.
      */
     public static final <T extends Asset> T[] get(final Class<T> assetClass, final String... paths) {
-        T[] assets = (T[]) Array.newInstance(assetClass, paths.length);
+        final AssetKey[] keys = new AssetKey[paths.length];
         for (int i = 0; i < paths.length; i++) {
-            assets[i] = assetClass.cast(get(paths[i]));
+            keys[i] = AssetKey.getKey(paths[i]);
         }
-        return assets;
+        return get(assetClass, keys);
     }
 
     /**
@@ -375,6 +859,16 @@ public final class AssetManager {
      * If the asset cannot be loaded and no fallback asset exists an
      * {@link AssetInitializationException} or {@link AssetNotFoundException}
      * will be thrown.
+     * <p>
+     * Assets that are not cached are first queued together in the
+     * {@link Priority#Critical critical} lane so that they are read and
+     * decoded in parallel by every asset thread. Rather than blocking idle,
+     * the calling thread then helps by taking queued tasks of the batch,
+     * starting from the end of the batch while the asset threads work from
+     * the front, and running them itself. Finally the results are joined in
+     * order; an exception for a failed asset is thrown when it is reached, as
+     * if the assets had been retrieved one at a time.
+     * </p>
      *
      * @param <T> the type of {@link Asset assets} to retrieve.
      * @param assetClass the class of the {@link Asset assets} to retrieve.
@@ -385,13 +879,58 @@ public final class AssetManager {
      * exception thrown if no fallback asset exists.
      */
     public static final <T extends Asset> T[] get(final Class<T> assetClass, final AssetKey... keys) {
-        T[] assets = (T[]) Array.newInstance(assetClass, keys.length);
+        final T[] assets = (T[]) Array.newInstance(assetClass, keys.length);
+        final RuntimeException[] errors = new RuntimeException[keys.length];
+
+        // Fan Out Uncached Assets Across The Asset Threads //
+        for (int i = 0; i < keys.length; i++) {
+            if (!cachedAssets.containsKey(keys[i])) {
+                try {
+                    load(keys[i], false, Priority.Critical);
+                } catch (final AssetNotFoundException | UnsupportedAssetTypeException e) {
+                    errors[i] = e;
+                }
+            }
+        }
+
+        // Help Run Queued Tasks Of The Batch, Starting From The End //
+        for (int i = keys.length - 1; i >= 0; i--) {
+            final AssetFuture future = pendingAssets.get(keys[i]);
+            if (future != null && !future.isDone()) {
+                help(future);
+            }
+        }
+
+        // Join Results In Order //
         for (int i = 0; i < keys.length; i++) {
+            if (errors[i] != null) {
+                throw errors[i];
+            }
             assets[i] = assetClass.cast(get(keys[i]));
         }
         return assets;
     }
 
+    /**
+     * Runs the queued tasks of a {@link AssetFuture future} on the calling
+     * thread. The read task is run if it is still waiting in the
+     * {@link Stage#Read read} queue, which queues the future for decoding, and
+     * the future is then run if it is waiting in the {@link Stage#Decode
+     * decode} queue. Tasks already taken by an asset thread are left alone.
+     *
+     * @param future the future to help complete.
+     */
+    private static void help(final AssetFuture future) {
+        if (readPool.remove(future.READ)) {
+            helped.incrementAndGet();
+            future.READ.run();
+        }
+        if (threadPool.remove(future)) {
+            helped.incrementAndGet();
+            future.run();
+        }
+    }
+
     /**
      * Retrieves the {@link Asset asset} for the file located at the path
      * specified by the provided {@link AssetKey#getAbsolutePath() asset key}.
@@ -412,354 +951,2186 @@ public final class AssetManager {
      * fallback asset exists.
      */
     public static final Asset get(final AssetKey key) {
+        trace(key);
+        while (true) {
+            final Asset asset = fetch(key);
+            if (asset == null || asset.expose()) {
+                return asset;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the {@link Asset asset} associated with the specified
+     * {@link AssetKey key}, loading it in-line if necessary, without marking
+     * it as handed out. Used by {@link #get(AssetKey)} and by
+     * {@link #acquire(Class, AssetKey)}. An asset retired by the release of
+     * its last {@link AssetHandle handle} is never returned from the cache;
+     * it is loaded again instead.
+     *
+     * @param key the {@link AssetKey asset key} of the asset to retrieve.
+     * @return the requested asset, or the fallback asset of its type.
+     */
+    private static Asset fetch(final AssetKey key) {
         Asset asset = cachedAssets.get(key);
-        if (asset != null) {
+        if (asset != null && !asset.isRetired()) {
             return asset;
         }
 
-        final Future<? extends Asset> future = pendingAssets.get(key);
-        if (future != null) {
+        AssetFuture future = pendingAssets.get(key);
+        if (future == null) {
+            AssetLoader loader = assetLoaders.get(key.getType());
+            if (loader == null) {
+                requested.incrementAndGet();
+                failed.incrementAndGet();
+                throw new UnsupportedAssetTypeException(key);
+            }
             try {
-                asset = future.get();
-                cachedAssets.put(key, asset);
-                pendingAssets.remove(key);
-            } catch (final InterruptedException | ExecutionException e) {
-                pendingAssets.remove(key);
+                final Asset[] cached = new Asset[1];
+                future = schedule(key, loader, false, cached);
+                if (future == null) {
+                    return cached[0];
+                }
+            } catch (final AssetNotFoundException e) {
+                requested.incrementAndGet();
+                failed.incrementAndGet();
                 if (getFallback(key.getType()) != null) {
                     cachedAssets.put(key, getFallback(key.getType()));
                     return cachedAssets.get(key);
                 } else {
-                    throw new RuntimeException(e.getMessage());
+                    throw e;
                 }
             }
-        } else {
+        }
+
+        // Load In-Line Unless Another Caller Is Already Loading The Asset //
+        if (future.claim()) {
             requested.incrementAndGet();
-            AssetLoader loader = assetLoaders.get(key.getType());
-            if (loader != null) {
-                try {
-                    asset = loader.loadInline(key, stream(key));
-                    cachedAssets.put(key, asset);
-                    loaded.incrementAndGet();
-                } catch (final AssetNotFoundException | AssetInitializationException e) {
-                    failed.incrementAndGet();
-                    if (getFallback(key.getType()) != null) {
-                        cachedAssets.put(key, getFallback(key.getType()));
-                        return cachedAssets.get(key);
-                    } else {
-                        throw e;
+            future.priority = Priority.Critical;
+            if (future.prepare()) {
+                if (future.TASK.getDependencies().isEmpty()) {
+                    if (ready(future)) {
+                        charge(future);
                     }
+                } else {
+                    dispatch(future, new HashSet<>());
                 }
+            }
+        } else {
+            deduplicated.incrementAndGet();
+            promote(future, Priority.Critical);
+        }
+        future.run();
+
+        try {
+            asset = future.get();
+        } catch (final InterruptedException | ExecutionException | CancellationException e) {
+            pendingAssets.remove(key, future);
+            if (getFallback(key.getType()) != null) {
+                cachedAssets.put(key, getFallback(key.getType()));
+                return cachedAssets.get(key);
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             } else {
-                failed.incrementAndGet();
-                throw new UnsupportedAssetTypeException(key);
+                throw new RuntimeException(e.getMessage());
             }
         }
         return asset;
     }
 
     /**
-     * Retrieves an {@link java.io.InputStream} for the file located at the
-     * specified path, relative to the {@link #rootDir base assets directory}.
+     * Retrieves the {@link Asset asset} associated with the specified
+     * {@link AssetKey key} without blocking. If the asset has already been
+     * loaded it is returned from the {@link #cachedAssets asset cache}.
+     * Otherwise the asset is queued in the {@link Priority#Visible visible}
+     * lane, if it is not already pending, and the
+     * {@link #fallbackAssets fallback asset} for its type is returned in its
+     * place. Unlike {@link #get(AssetKey)} this method is safe to call from
+     * the render thread.
      *
-     * @param path the location of the file for which to retrieve the
-     * {@link java.io.InputStream}.
-     * @return the {@link java.io.InputStrem} for the file located at the
-     * specified path.
+     * @param key the {@link AssetKey asset key} associated with the
+     * {@link Asset asset} to be retrieved.
+     * @return the loaded asset, or the fallback asset for its type while the
+     * asset is loading or if it could not be loaded. Null if the asset is not
+     * loaded and no fallback asset exists.
      */
-    public static final InputStream stream(final String path) throws AssetNotFoundException {
-        return stream(AssetKey.getKey(path));
+    public static final Asset getNow(final AssetKey key) {
+        trace(key);
+        final Asset asset = cachedAssets.get(key);
+        if (asset != null && asset.expose()) {
+            return asset;
+        }
+        try {
+            load(key, Priority.Visible);
+        } catch (final AssetNotFoundException | UnsupportedAssetTypeException e) {
+            LOG.warn("Unable to load asset {} - {}", key, e.getLocalizedMessage());
+        }
+        final Asset loaded = cachedAssets.get(key);
+        return (loaded != null && loaded.expose()) ? loaded : getFallback(key.getType());
     }
 
     /**
-     * Retrieves the {@link java.io.InputStream input stream} for the file
-     * located at the path specified by the provided
-     * {@link AssetKey#getAbsolutePath() asset key}.
+     * Retrieves the {@link Asset asset} associated with the specified
+     * {@link AssetKey key} without blocking, cast to the specified class.
      *
-     * @param key the {@link AssetKey key} for which to retrieve an
-     * {@link java.io.InputStream input stream}.
-     * @return the {@link InputStream input stream} for the file located at the
-     * path specified by the {@link AssetKey#getAbsolutePath() asset key}.
+     * @param <T> the type of {@link Asset asset} to retrieve.
+     * @param assetClass the class of the {@link Asset asset} to retrieve.
+     * @param key the {@link AssetKey asset key} associated with the
+     * {@link Asset asset} to be retrieved.
+     * @return the loaded asset, or the fallback asset while the asset is
+     * loading. Null if neither exist.
+     * @see #getNow(AssetKey)
      */
-    public static final InputStream stream(final AssetKey key) throws AssetNotFoundException {
-        try {
-            InputStream stream = new FileInputStream(key.getAbsolutePath());
-            return stream;
-        } catch (final FileNotFoundException e) {
-            LOG.warn("Resource file not found - {}", key.getAbsolutePath());
-            throw new AssetNotFoundException(key);
-        }
+    public static final <T extends Asset> T getNow(final Class<T> assetClass, final AssetKey key) {
+        return assetClass.cast(getNow(key));
     }
 
     /**
-     * Extracts and returns the full text extracted from the provided
-     * {@link InputStream stream}.
+     * Retrieves the {@link Asset asset} located at the specified path without
+     * blocking, cast to the specified class.
      *
-     * @param stream the stream from which to extract the text.
-     * @return the text extracted from the provided {@link InputStream stream}.
+     * @param <T> the type of {@link Asset asset} to retrieve.
+     * @param assetClass the class of the {@link Asset asset} to retrieve.
+     * @param path the file path location of the {@link Asset asset} to
+     * retrieve relative to the {@link #rootDir root assets directory}.
+     * @return the loaded asset, or the fallback asset while the asset is
+     * loading. Null if neither exist.
+     * @see #getNow(AssetKey)
      */
-    public static final String streamToString(final InputStream stream) {
-        if (stream != null) {
-            return new java.util.Scanner(stream).useDelimiter("\\A").next();
-        } else {
-            LOG.error("Could not extract text from null input stream!");
-            return null;
-        }
+    public static final <T extends Asset> T getNow(final Class<T> assetClass, final String path) {
+        return getNow(assetClass, AssetKey.getKey(path));
     }
 
     /**
-     * Registers the {@link AssetLoader loader} class which will be used for
-     * loading any {@link Asset assets} of the {@link AssetType types} supported
-     * by the loader. Loaders registered via this method <b>must</b> have a
-     * publicly accessible empty constructor.
+     * Returns an {@link AssetProxy proxy} for the {@link Asset asset}
+     * associated with the specified {@link AssetKey key} without blocking. If
+     * the asset has already been loaded the proxy holds it immediately.
+     * Otherwise the asset is loaded asynchronously and the proxy holds the
+     * {@link #fallbackAssets fallback asset} for its type until the loaded
+     * asset is swapped in by {@link #update()} on the main thread.
      *
-     * Warning: Any {@link AssetType asset types} previously registered to
-     * another {@link AssetLoader loader} will be overridden to point to the new
-     * loader.
-     *
-     * @param loader the {@link AssetLoader loader} to register with all of its
-     * supported {@link AssetType types}
+     * @param <T> the type of {@link Asset asset} to retrieve.
+     * @param assetClass the class of the {@link Asset asset} to retrieve.
+     * @param key the {@link AssetKey asset key} associated with the
+     * {@link Asset asset} to be retrieved.
+     * @return a proxy for the asset.
      */
-    public static void registerLoader(final Class<? extends AssetLoader> loader) {
-        try {
-            AssetLoader assetLoader = loader.newInstance();
-            registerLoader(assetLoader, assetLoader.SUPPORTED);
-        } catch (final InstantiationException | IllegalAccessException e) {
-            LOG.warn("Unable to register [{}] - {}: Asset Loaders must have a publicly accessible empty constructor!", loader.getSimpleName(), e.getClass().getSimpleName());
+    public static final <T extends Asset> AssetProxy<T> getProxy(final Class<T> assetClass, final AssetKey key) {
+        trace(key);
+        final Asset asset = cachedAssets.get(key);
+        if (asset != null && asset.expose()) {
+            return new AssetProxy<>(key, assetClass.cast(asset), true);
         }
+        final Asset fallback = getFallback(key.getType());
+        final AssetProxy<T> proxy = new AssetProxy<>(key, assetClass.isInstance(fallback) ? assetClass.cast(fallback) : null, false);
+        loadAsync(assetClass, key).whenCompleteAsync((loaded, error) -> {
+            if (error == null) {
+                proxy.swap(loaded);
+            } else {
+                LOG.warn("Unable to load proxied asset {} - {}", key, error.getMessage());
+            }
+        }, mainExecutor);
+        return proxy;
     }
 
     /**
-     * Registers the {@link AssetLoader loader} class to be used for loading
-     * {@link Asset assets} of the specified {@link AssetType type(s)}. Loaders
-     * registered via this method <b>must</b> have a publicly accessible empty
-     * constructor.
-     *
-     * Warning: Any {@link AssetType asset types} previously registered to
-     * another {@link AssetLoader loader} will be overridden to point to the new
-     * loader.
+     * Returns an {@link AssetProxy proxy} for the {@link Asset asset} located
+     * at the specified path without blocking.
      *
-     * @param loader the {@link AssetLoader loader} to register with the
-     * specified {@link AssetType types}.
-     * @param types the asset {@link AssetType types} to associate with the
-     * {@link AssetLoader loader}.
+     * @param <T> the type of {@link Asset asset} to retrieve.
+     * @param assetClass the class of the {@link Asset asset} to retrieve.
+     * @param path the file path location of the {@link Asset asset} to
+     * retrieve relative to the {@link #rootDir root assets directory}.
+     * @return a proxy for the asset.
+     * @see #getProxy(Class, AssetKey)
      */
-    public static final void registerLoader(final Class<? extends AssetLoader> loader, final AssetType... types) {
-        try {
-            registerLoader(loader.newInstance(), types);
-        } catch (final InstantiationException | IllegalAccessException e) {
-            LOG.warn("Unable to register [{}] - {}: Asset Loaders must have a publicly accessible empty constructor!", loader.getSimpleName(), e.getClass().getSimpleName());
-        }
+    public static final <T extends Asset> AssetProxy<T> getProxy(final Class<T> assetClass, final String path) {
+        return getProxy(assetClass, AssetKey.getKey(path));
     }
 
     /**
-     * Registers the {@link AssetLoader loader} class to be used for loading
-     * {@link Asset assets} of the specified {@link AssetType type(s)}. Loaders
-     * registered via this method <b>must</b> have a publicly accessible empty
-     * constructor.
-     *
-     * Warning: Any {@link AssetType asset types} previously registered to
-     * another {@link AssetLoader loader} will be overridden to point to the new
-     * loader.
+     * Acquires a reference-counted {@link AssetHandle handle} to the
+     * {@link Asset asset} for the file located at the path specified.
      *
-     * @param loader the {@link AssetLoader loader} to register with the
-     * specified {@link AssetType types}.
-     * @param types the asset {@link AssetType types} to associate with the
-     * {@link AssetLoader loader}.
+     * @param <T> the type of {@link Asset asset} to retrieve.
+     * @param assetClass the class of the {@link Asset asset} to retrieve.
+     * @param path the file path location of the {@link Asset asset} relative
+     * to the {@link #rootDir root assets directory}.
+     * @return a handle to the requested asset.
+     * @see #acquire(Class, AssetKey)
      */
-    public static final void registerLoader(final Class<? extends AssetLoader> loader, final List<AssetType> types) {
-        registerLoader(loader, types.toArray(new AssetType[types.size()]));
+    public static final <T extends Asset> AssetHandle<T> acquire(final Class<T> assetClass, final String path) {
+        return acquire(assetClass, AssetKey.getKey(path));
     }
 
     /**
-     * Registers the {@link AssetLoader loader} to be used for loading
-     * {@link Asset assets} of the specified {@link AssetType type(s)}.
-     *
-     * Warning: Any {@link AssetType asset types} previously registered to
-     * another {@link AssetLoader loader} will be overridden to point to the new
-     * loader.
+     * Acquires a reference-counted {@link AssetHandle handle} to the
+     * {@link Asset asset} associated with the specified {@link AssetKey key},
+     * loading the asset in-line if necessary in the same way as
+     * {@link #get(Class, AssetKey)}. Every caller acquiring the same asset
+     * receives the same handle and each acquisition adds a reference that
+     * must be balanced by a call to {@link AssetHandle#release()}. When the
+     * last reference is released the asset is removed from the cache and its
+     * native memory is freed, unless the handle of another key that shares
+     * its content through the {@link ContentStore content store} still holds
+     * it, or it has been handed out without a handle, for example by
+     * {@link #get(AssetKey)}, as a fallback asset or as a member of a
+     * {@link AssetGroup group}. Such assets are left in the cache and their
+     * memory is reclaimed by the garbage collector.
      *
-     * @param loader the {@link AssetLoader loader} to register with the
-     * specified {@link AssetType types}.
-     * @param types the asset {@link AssetType types} to associate with the
-     * {@link AssetLoader loader}.
+     * @param <T> the type of {@link Asset asset} to retrieve.
+     * @param assetClass the class of the {@link Asset asset} to retrieve.
+     * @param key the {@link AssetKey key} of the {@link Asset asset} to
+     * retrieve.
+     * @return a handle to the requested asset.
      */
-    public static final void registerLoader(final AssetLoader loader, final AssetType... types) {
-        for (final AssetType t : types) {
-            assetLoaders.put(t, loader);
-            LOG.info("Registered [{}] file type extension to [{}]", t.getExt(), loader.getClass().getSimpleName());
+    @SuppressWarnings("unchecked")
+    public static final <T extends Asset> AssetHandle<T> acquire(final Class<T> assetClass, final AssetKey key) {
+        trace(key);
+        while (true) {
+            final AssetHandle<?> handle = assetHandles.get(key);
+            if (handle != null && handle.retain()) {
+                assetClass.cast(handle.get());
+                return (AssetHandle<T>) handle;
+            }
+
+            // Retired By The Concurrent Release Of Another Handle, Load Again //
+            final T asset = assetClass.cast(fetch(key));
+            if (!asset.hold()) {
+                continue;
+            }
+            final AssetHandle<T> created = new AssetHandle<>(key, asset);
+            if (handle == null ? assetHandles.putIfAbsent(key, created) == null : assetHandles.replace(key, handle, created)) {
+                return created;
+            }
+            created.release();
         }
     }
 
     /**
-     * Registers the {@link AssetLoader loader} to be used for loading
-     * {@link Asset assets} of the specified {@link AssetType type(s)}.
-     *
-     * Warning: Any {@link AssetType asset types} previously registered to
-     * another {@link AssetLoader loader} will be overridden to point to the new
-     * loader.
+     * Returns the {@link AssetHandle handles} that are currently acquired.
      *
-     * @param loader the {@link AssetLoader loader} to register with the
-     * specified {@link AssetType types}.
-     * @param types the asset {@link AssetType types} to associate with the
-     * {@link AssetLoader loader}.
+     * @return a snapshot of the acquired handles.
      */
-    public static final void registerLoader(final AssetLoader loader, final List<AssetType> types) {
-        for (final AssetType t : types) {
-            assetLoaders.put(t, loader);
-            LOG.info("Registered [{}] file type extension to [{}]", t.getExt(), loader.getClass().getSimpleName());
-        }
+    public static final List<AssetHandle<?>> getHandles() {
+        return new ArrayList<>(assetHandles.values());
     }
 
     /**
-     * Sets the fallback {@link Asset asset} to be used for all assets of the
-     * specified {@link AssetType type(s)} when an asset of that type is unable
-     * to be loaded for any reason.
+     * Returns a report listing every {@link AssetHandle handle} that has not
+     * been fully released, together with its outstanding reference count and
+     * the location at which it was first acquired. Intended to be logged at
+     * shutdown, when every handle should have been released.
      *
-     * @param fallback the {@link Asset} to use when unable to load assets of
-     * the specified {@link AssetType type(s)}.
-     * @param types the {@link AssetType type(s)} to associate with the fallback
-     * asset.
+     * @return the leak report, or an empty string if no handles are
+     * outstanding.
      */
-    public static final void setFallback(final Asset fallback, final AssetType... types) {
-        for (final AssetType type : types) {
-            fallbackAssets.put(type, fallback);
+    public static final String getLeakReport() {
+        final StringBuilder report = new StringBuilder();
+        for (final AssetHandle<?> handle : assetHandles.values()) {
+            report.append(handle);
+            for (final StackTraceElement frame : handle.getOrigin().getStackTrace()) {
+                if (!frame.getClassName().equals(AssetManager.class.getName()) && !frame.getClassName().equals(AssetHandle.class.getName())) {
+                    report.append(" acquired at ").append(frame);
+                    break;
+                }
+            }
+            report.append(System.lineSeparator());
         }
+        return report.toString();
     }
 
     /**
-     * Returns the fallback {@link Asset asset} registered for the specified
-     * {@link AssetType type}.
+     * Disposes the {@link Asset asset} of a fully released
+     * {@link AssetHandle handle}. Called by the handle when its last
+     * reference is released. The asset is only disposed once no other handle
+     * holds it and if it was never handed out without a handle; otherwise it
+     * is left in the cache and its memory is reclaimed by the garbage
+     * collector once it is no longer referenced. The cache is only peeked so
+     * that disposal is not counted as a cache access.
      *
-     * @param type the {@link AssetType type} of asset for which to retrieve the
-     * fallback.
-     * @return the fallback {@link Asset asset} registered to
-     * {@link AssetType type} specified or null if no fallback asset exists for
-     * the specified type.
+     * @param handle the released handle.
+     * @param asset the asset held by the handle.
      */
-    public static final Asset getFallback(final AssetType type) {
-        return fallbackAssets.get(type);
+    static void dispose(final AssetHandle<?> handle, final Asset asset) {
+        final AssetKey key = handle.getKey();
+        assetHandles.remove(key, handle);
+        if (!asset.retire()) {
+            return;
+        }
+        if (cachedAssets.peek(key) == asset) {
+            cachedAssets.remove(key);
+        }
+
+        // Forget Every Other Key Sharing The Asset //
+        final ContentStore store = contentStore;
+        if (store != null) {
+            for (final AssetKey other : store.getKeys(asset)) {
+                if (cachedAssets.peek(other) == asset) {
+                    cachedAssets.remove(other);
+                }
+            }
+            store.remove(asset);
+        }
+
+        // Dispose After Pending Derived Data Writes Of The Asset //
+        final DerivedDataCache cache = derivedCache;
+        if (cache != null) {
+            cache.execute(asset::dispose);
+        } else {
+            asset.dispose();
+        }
     }
 
     /**
-     * Aborts any pending load tasks, resets the submitted and completed tasks
-     * counts to zero, and clears the existing asset cache.
+     * Atomically retrieves the pending {@link AssetFuture future} for the
+     * specified {@link AssetKey key}, creating a new one if no future exists.
+     * Only a single future can exist for a key at any time which guarantees
+     * that concurrent requests for the same asset share a single load task.
+     * The asset file is only located here; it is read later by the
+     * {@link Stage#Read read} stage. A completed future that failed is
+     * replaced when a reload is requested.
+     * <p>
+     * A loading future stores its asset in the cache before it leaves the
+     * pending map. The cache is therefore checked again while the pending map
+     * is locked, which covers a load that finishes between the caller's own
+     * cache lookup and this call. The cached asset itself is captured, not
+     * just the presence of its key, as a soft cache may hold a key whose
+     * value has already been collected. An asset evicted from the cache
+     * while a loaded {@link AssetGroup group} still holds it is returned to
+     * the cache instead of being decoded a second time. A cached asset retired
+     * by the release of its last {@link AssetHandle handle} is loaded again.
+     * </p>
+     *
+     * @param key the {@link AssetKey key} of the asset to load.
+     * @param loader the {@link AssetLoader loader} for the asset type.
+     * @param reload true to replace a previously failed future.
+     * @param cached receives the cached asset in its first element if the
+     * asset was cached while the future was being retrieved. May be null
+     * when reloading.
+     * @return the future shared by every caller requesting the asset, or null
+     * if the asset was cached while the future was being retrieved.
+     * @throws AssetNotFoundException if the asset file does not exist.
      */
-    public static final void restart() {
-        abort();
-        reset();
-        clear();
+    private static AssetFuture schedule(final AssetKey key, final AssetLoader loader, final boolean reload, final Asset[] cached) throws AssetNotFoundException {
+        locate(key);
+        AssetFuture future = pendingAssets.computeIfAbsent(key, (k) -> {
+            if (!reload) {
+                Asset asset = cachedAssets.peek(k);
+                if ((asset == null || asset.isRetired()) && (asset = resident(k)) != null) {
+                    cachedAssets.put(k, asset);
+                }
+                if (asset != null) {
+                    cached[0] = asset;
+                    return null;
+                }
+            }
+            return new AssetFuture(k, loader);
+        });
+        if (reload && future.isDone()) {
+            pendingAssets.remove(key, future);
+            future = pendingAssets.computeIfAbsent(key, (k) -> new AssetFuture(k, loader));
+        }
+        return future;
     }
 
     /**
-     * Resets the three internal atomic counters that are used for tracking the
-     * number of requested, loaded, and failed {@link Asset assets}.
+     * Returns the asset held resident by a loaded {@link AssetGroup group}
+     * for the specified key.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @return the resident asset, or null if no loaded group holds it.
      */
-    public static final void reset() {
-        requested.set(0);
-        loaded.set(0);
-        failed.set(0);
+    private static Asset resident(final AssetKey key) {
+        for (final AssetGroup group : loadedGroups.values()) {
+            final Asset asset = group.get(Asset.class, key);
+            if (asset != null) {
+                return asset;
+            }
+        }
+        return null;
     }
 
     /**
-     * Clears the {@link AssetCache asset cache}.
+     * Verifies that the file of the asset associated with the specified key
+     * exists in a mounted {@link AssetArchive archive} or in the
+     * {@link #rootDir root assets directory}, without reading it.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @throws AssetNotFoundException if the asset file does not exist.
      */
-    public static final void clear() {
-        if (!cachedAssets.isEmpty()) {
-            cachedAssets.clear();
-            LOG.debug("Asset cache has been cleared", cachedAssets.size());
+    private static void locate(final AssetKey key) throws AssetNotFoundException {
+        if (!exists(key)) {
+            throw missing(key);
         }
     }
 
     /**
-     * Cancels all pending asset loading tasks.
+     * Indicates if the loose file of the asset associated with the specified
+     * key exists in the {@link #rootDir root assets directory}. Indexed files
+     * are answered from the {@link #assetIndex asset index} when one is
+     * available; files absent from the index are checked on disk.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @return true if the loose file exists.
      */
-    public static final void abort() {
-        if (!pendingAssets.isEmpty()) {
-            pendingAssets.entrySet().stream().filter((entry) -> (!entry.getValue().isDone())).forEach((entry) -> {
-                entry.getValue().cancel(true);
-            });
-            LOG.debug("{} asset loading task(s) have been aborted.", pendingAssets.size());
-            threadPool.purge();
+    private static boolean isFile(final AssetKey key) {
+        if (assetIndex != null) {
+            return assetIndex.contains(key.getPath());
         }
+        return Files.isRegularFile(Paths.get(key.getAbsolutePath()));
     }
 
     /**
-     * Returns the current size of the {@link AssetCache asset cache}.
+     * Records that the file of the asset associated with the specified key
+     * does not exist and returns the exception to throw. The missing file is
+     * only logged the first time it is requested, and later requests for it
+     * fail without touching the filesystem.
      *
-     * @return the current size of the {@link AssetCache asset cache}.
+     * @param key the {@link AssetKey key} of the missing asset.
+     * @return the exception reporting the missing asset.
      */
-    public static final int getCacheSize() {
-        return cachedAssets.size();
+    private static AssetNotFoundException missing(final AssetKey key) {
+        if (assetIndex == null || assetIndex.miss(key.getPath())) {
+            LOG.warn("Resource file not found - {}", key.getAbsolutePath());
+        }
+        return new AssetNotFoundException(key);
     }
 
     /**
-     * Returns the number of {@link Asset assets} of the specified
-     * {@link AssetType type} stored in the {@link AssetCache asset cache}. This
-     * method does not take into consideration any assets that have not been
-     * completely loaded. The {@link #pendingAssets task cache} will be updated
-     * and any completed tasks will have their resulting {@link Asset asset}
-     * added to the {@link #cachedAssets assets cache} along with the
-     * {@link AssetKey asset key} associated with it before the count is taken.
+     * Returns the exception to throw when the file of the asset associated
+     * with the specified key could not be read. Only a file that no longer
+     * exists is recorded as {@link #missing(AssetKey) missing}; any other
+     * I/O error, such as a sharing violation or a permission error, fails the
+     * load without marking the file as missing so that a later request can
+     * read it.
      *
-     * @param type the {@link AssetType type} of {@link Asset asset} to count.
-     * @return the number of cached {@link Asset assets} of the specified type.
+     * @param key the {@link AssetKey key} of the asset.
+     * @param e the error raised while reading the file.
+     * @return the exception reporting the failed read.
      */
-    public static final int getCacheSize(final AssetType type) {
-        return cachedAssets.keySet().stream().filter((key) -> (key.getType().equals(type))).mapToInt(e -> 1).sum();
+    private static RuntimeException unreadable(final AssetKey key, final IOException e) {
+        if (e instanceof NoSuchFileException) {
+            return missing(key);
+        }
+        LOG.warn("Unable to read resource file {} - {}", key.getAbsolutePath(), e.getMessage());
+        return new AssetInitializationException(key, "Unable to read file - " + e.getMessage());
     }
 
     /**
-     * Indicates if the asset manager is currently executing asset loading
-     * tasks.
+     * Builds the {@link AssetIndex index} of the specified directory and
+     * watches it for changes.
      *
-     * @return true if the asset manager is currently loading assets or false if
-     * it has completed all tasks submitted.
+     * @param dir the directory to index.
+     * @return the index, or null if the directory could not be indexed.
      */
-    public static final boolean isLoading() {
-        return getLoaded() + getFailed() < getRequested();
+    private static AssetIndex index(final Path dir) {
+        try {
+            return new AssetIndex(dir, true);
+        } catch (final IOException e) {
+            LOG.warn("Unable to index asset directory {} - {}", dir, e.getMessage());
+            return null;
+        }
     }
 
     /**
-     * Returns a float value between 0f and 1f that indicates the percentage of
-     * submitted tasks that have completed execution since the last time the
-     * {@link #reset()} method was called.
+     * Reads the contents of the file of the asset associated with the
+     * specified key on behalf of the {@link Stage#Read read} stage. Mapped
+     * files, including archive entries, are loaded into physical memory so
+     * that the decode stage never stalls on a page fault. Files too small to
+     * be mapped are read into a buffer taken from the
+     * {@link #bufferPool buffer pool}.
      *
-     * @return the percentage of submitted tasks that have completed execution.
+     * @param key the {@link AssetKey key} of the asset.
+     * @param pooled receives the pooled buffer, if one was used, so that it
+     * can be returned to the pool once the asset has been constructed.
+     * @return a read-only buffer containing the file contents.
+     * @throws AssetNotFoundException if the asset file does not exist.
+     * @throws AssetInitializationException if the asset file exists but
+     * cannot be read.
      */
-    public static final float getProgress() {
-        return (getLoaded() + getFailed() < getRequested()) ? (((float) getLoaded() + getFailed()) / getRequested()) : 1f;
+    private static ByteBuffer read(final AssetKey key, final ByteBuffer[] pooled) throws AssetNotFoundException {
+        for (final AssetArchive archive : mountedArchives) {
+            final ByteBuffer buffer = archive.find(key.getPath());
+            if (buffer != null) {
+                if (buffer instanceof MappedByteBuffer) {
+                    ((MappedByteBuffer) buffer).load();
+                }
+                return buffer;
+            }
+        }
+
+        if (!isFile(key)) {
+            throw missing(key);
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(key.getAbsolutePath()), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size).load();
+            }
+            final ByteBuffer buffer = bufferPool.poll();
+            pooled[0] = (buffer != null) ? buffer : ByteBuffer.allocateDirect(MAP_THRESHOLD);
+            pooled[0].clear().limit((int) size);
+            while (pooled[0].hasRemaining()) {
+                if (channel.read(pooled[0]) < 0) {
+                    break;
+                }
+            }
+            pooled[0].flip();
+            return pooled[0].asReadOnlyBuffer();
+        } catch (final IOException e) {
+            throw unreadable(key, e);
+        }
     }
 
     /**
-     * Returns the total number of {@link Asset assets} requested from the
-     * manager since the last time {@link #reset reset()} was called.
+     * Returns a buffer used by the {@link Stage#Read read} stage to the
+     * {@link #bufferPool buffer pool}. The buffer is discarded if the pool is
+     * full.
      *
-     * @return the number of assets requested since the last
-     * {@link #reset reset}
+     * @param buffer the buffer to return.
      */
-    public static final int getRequested() {
-        return requested.get();
+    private static void recycle(final ByteBuffer buffer) {
+        bufferPool.offer(buffer);
     }
 
     /**
-     * Returns the total number of assets loaded since the last time
-     * {@link #reset()} was called.
+     * Queues a claimed {@link AssetFuture future} in the
+     * {@link Stage#Read read} stage. Once its file has been read, the future
+     * is {@link #dispatch(AssetFuture, Set) dispatched} to the decode stage.
      *
-     * @return the number of assets loaded since the last {@link #reset()}.
+     * @param future the claimed future to read.
+     * @param chain the keys of the dependent futures currently being
+     * dispatched, used to detect circular dependencies.
      */
-    public static final int getLoaded() {
-        return loaded.get();
+    private static void read(final AssetFuture future, final Set<AssetKey> chain) {
+        synchronized (future) {
+            future.chain = new HashSet<>(chain);
+            future.sequence = sequence.getAndIncrement();
+            readPool.execute(future.READ);
+        }
     }
 
     /**
-     * Returns the total number of assets that failed to load since the last
-     * time {@link #reset()} was called.
+     * Creates the {@link AssetTask task} for loading the asset associated with
+     * the specified key. If a {@link DerivedDataCache derived data cache} is
+     * set and the loader supports derived data, the task restores the asset
+     * from the cache when the source file is unchanged. If a
+     * {@link ContentStore content store} is set, an asset without dependencies
+     * is shared with any earlier asset decoded from identical content.
      *
-     * @return number of failed attempts to load an asset since the last
-     * {@link #reset()}.
+     * @param key the {@link AssetKey key} of the asset to load.
+     * @param loader the {@link AssetLoader loader} for the asset type.
+     * @param buffer the contents of the asset file.
+     * @return the task for loading the asset.
      */
-    public static final int getFailed() {
-        return failed.get();
+    private static AssetTask newTask(final AssetKey key, final AssetLoader loader, final ByteBuffer buffer) {
+        final DerivedDataCache cache = derivedCache;
+        final AssetTask task = (cache != null && loader.getVersion() > 0) ? cache.newTask(key, buffer, loader) : loader.newTask(key, buffer);
+        final ContentStore store = contentStore;
+        if (store != null && buffer != null && task.getDependencies().isEmpty()) {
+            return store.newTask(key, buffer, loader, task);
+        }
+        return task;
+    }
+
+    /**
+     * Submits a claimed {@link AssetFuture future} to the thread pool once all
+     * of the dependencies declared by its {@link AssetTask task} have been
+     * loaded. Dependencies that are not already loaded or pending are
+     * scheduled recursively. The future is submitted by whichever thread
+     * completes the last dependency, so no thread ever waits on a dependency.
+     * If a dependency fails and no fallback exists for its type, the dependent
+     * future fails as well.
+     *
+     * @param future the claimed future to submit.
+     * @param chain the keys of the dependent futures currently being
+     * dispatched, used to detect circular dependencies.
+     */
+    private static void dispatch(final AssetFuture future, final Set<AssetKey> chain) {
+        final List<AssetKey> dependencies = future.TASK.getDependencies();
+        if (dependencies.isEmpty()) {
+            if (ready(future)) {
+                enqueue(future);
+            }
+            return;
+        }
+
+        // Schedule Dependencies //
+        chain.add(future.KEY);
+        final CompletableFuture<?>[] inputs = new CompletableFuture<?>[dependencies.size()];
+        for (int i = 0; i < inputs.length; i++) {
+            if (chain.contains(dependencies.get(i))) {
+                future.fail(new AssetInitializationException(future.KEY, "Circular dependency on " + dependencies.get(i)));
+                chain.remove(future.KEY);
+                return;
+            }
+            inputs[i] = expose(dependencies.get(i), require(dependencies.get(i), chain, future.priority), future.priority);
+        }
+        chain.remove(future.KEY);
+
+        // Submit Once Every Dependency Is Complete //
+        CompletableFuture.allOf(inputs).whenComplete((result, error) -> {
+            for (int i = 0; i < inputs.length; i++) {
+                final AssetKey dependency = dependencies.get(i);
+                if (!inputs[i].isCompletedExceptionally()) {
+                    future.TASK.resolve(dependency, (Asset) inputs[i].join());
+                } else if (getFallback(dependency.getType()) != null) {
+                    future.TASK.resolve(dependency, getFallback(dependency.getType()));
+                } else {
+                    future.fail(new AssetInitializationException(future.KEY, "Dependency " + dependency + " could not be loaded"));
+                    return;
+                }
+            }
+            future.ready = true;
+            enqueue(future);
+        });
+    }
+
+    /**
+     * Marks a prepared {@link AssetFuture future} without dependencies as
+     * ready to run. If the {@link ContentStore content store} is still
+     * decoding identical content for another future, the future is only
+     * marked ready and queued once that decode completes, so that it shares
+     * the decoded asset without a decode thread waiting for it.
+     *
+     * @param future the prepared future.
+     * @return true if the future is ready to run now, false if it will be
+     * queued once the decode of identical content completes.
+     */
+    private static boolean ready(final AssetFuture future) {
+        final CompletableFuture<?> shared = ContentStore.claim(future.TASK.delegate);
+        if (shared != null) {
+            shared.whenComplete((result, error) -> {
+                future.ready = true;
+                enqueue(future);
+            });
+            return false;
+        }
+        future.ready = true;
+        return true;
+    }
+
+    /**
+     * Returns a completion stage for an asset, scheduling the asset if it is
+     * neither loaded nor pending. Used to load the dependencies of other
+     * assets and by {@link #loadAsync(AssetKey, Priority)}. The returned stage
+     * is shared and must never be completed by the caller. The asset is not
+     * marked as handed out; callers that hand it out must pass the stage to
+     * {@link #expose(AssetKey, CompletableFuture, Priority)}.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @param chain the keys of the dependent futures currently being
+     * dispatched.
+     * @param priority the {@link Priority priority} lane of the request.
+     * @return a completion stage that completes once the asset has been
+     * loaded, or completes exceptionally if it could not be loaded.
+     */
+    private static CompletableFuture<Asset> require(final AssetKey key, final Set<AssetKey> chain, final Priority priority) {
+        final Asset cached = cachedAssets.get(key);
+        if (cached != null && !cached.isRetired()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        final CompletableFuture<Asset> failure = new CompletableFuture<>();
+        final AssetLoader loader = assetLoaders.get(key.getType());
+        if (loader == null) {
+            requested.incrementAndGet();
+            failed.incrementAndGet();
+            failure.completeExceptionally(new UnsupportedAssetTypeException(key));
+            return failure;
+        }
+        try {
+            final Asset[] found = new Asset[1];
+            final AssetFuture future = schedule(key, loader, false, found);
+            if (future == null) {
+                return CompletableFuture.completedFuture(found[0]);
+            } else if (future.claim()) {
+                requested.incrementAndGet();
+                future.priority = priority;
+                read(future, chain);
+            } else {
+                deduplicated.incrementAndGet();
+                promote(future, priority);
+            }
+            return future.COMPLETION;
+        } catch (final AssetNotFoundException e) {
+            requested.incrementAndGet();
+            failed.incrementAndGet();
+            failure.completeExceptionally(e);
+            return failure;
+        }
+    }
+
+    /**
+     * Marks the asset of a completion stage as handed out without a
+     * {@link AssetHandle handle} once the stage completes, so that releasing
+     * a handle to the asset never frees memory that the receiver still uses.
+     * If the asset was retired by the release of its last handle before it
+     * could be marked, it is requested again.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @param stage the stage that completes with the asset.
+     * @param priority the {@link Priority priority} lane in which to request
+     * the asset again.
+     * @return a stage that completes with the marked asset.
+     */
+    private static CompletableFuture<Asset> expose(final AssetKey key, final CompletableFuture<Asset> stage, final Priority priority) {
+        return stage.thenCompose((asset) -> (asset == null || asset.expose()) ? CompletableFuture.completedFuture(asset) : expose(key, require(key, new HashSet<>(), priority), priority));
+    }
+
+    /**
+     * Queues a {@link AssetFuture future} for execution by the thread pool in
+     * the lane of its current {@link Priority priority}. The future is locked
+     * while it is inserted so that its priority cannot change while it is
+     * being ordered within the queue.
+     *
+     * @param future the future to queue.
+     */
+    private static void enqueue(final AssetFuture future) {
+        synchronized (future) {
+            future.sequence = sequence.getAndIncrement();
+            future.queued = System.nanoTime();
+            if (admit(future)) {
+                threadPool.execute(future);
+            }
+        }
+    }
+
+    /**
+     * Admits a {@link AssetFuture future} for execution if its estimated
+     * decoded size fits within the {@link #inFlightBudget in-flight budget}
+     * and no future of a higher priority is already waiting for admission.
+     * Otherwise the future is deferred until enough in-flight memory has been
+     * released. A future is always admitted when nothing else is in flight so
+     * that an asset larger than the budget can still be loaded.
+     *
+     * @param future the future to admit.
+     * @return true if the future was admitted, false if it was deferred.
+     */
+    private static boolean admit(final AssetFuture future) {
+        synchronized (deferredAssets) {
+            if (future.cost == 0 || future.admitted) {
+                return true;
+            }
+            final AssetFuture head = deferredAssets.peek();
+            if (fits(future.cost) && (head == null || ThreadPool.compare(future, head) < 0)) {
+                charge(future);
+                return true;
+            }
+            deferredAssets.add(future);
+            return false;
+        }
+    }
+
+    /**
+     * Indicates if the specified number of decoded bytes can be admitted
+     * without exceeding the {@link #inFlightBudget in-flight budget}.
+     *
+     * @param cost the estimated decoded size in bytes.
+     * @return true if the bytes can be admitted.
+     */
+    private static boolean fits(final long cost) {
+        final long budget = inFlightBudget;
+        final long current = inFlight.get();
+        return budget <= 0 || current == 0 || current + cost <= budget;
+    }
+
+    /**
+     * Adds the estimated decoded size of a {@link AssetFuture future} to the
+     * in-flight total and marks the future as admitted. Futures executed
+     * in-line by {@link #get(AssetKey)} are charged without waiting for
+     * admission since the caller is already blocked on them.
+     *
+     * @param future the future to charge.
+     */
+    private static void charge(final AssetFuture future) {
+        synchronized (deferredAssets) {
+            if (!future.admitted && future.cost > 0) {
+                future.admitted = true;
+                inFlightPeak.accumulateAndGet(inFlight.addAndGet(future.cost), Math::max);
+            }
+        }
+    }
+
+    /**
+     * Releases the in-flight bytes of a completed {@link AssetFuture future}
+     * and submits as many deferred futures as now fit within the
+     * {@link #inFlightBudget in-flight budget}, in priority order.
+     *
+     * @param future the completed future.
+     */
+    private static void discharge(final AssetFuture future) {
+        synchronized (deferredAssets) {
+            if (!future.admitted) {
+                return;
+            }
+            future.admitted = false;
+            inFlight.addAndGet(-future.cost);
+        }
+        admitDeferred();
+    }
+
+    /**
+     * Submits deferred futures to the thread pool, in priority order, until
+     * the next deferred future no longer fits within the
+     * {@link #inFlightBudget in-flight budget}.
+     */
+    private static void admitDeferred() {
+        final List<AssetFuture> admitted = new ArrayList<>();
+        synchronized (deferredAssets) {
+            for (AssetFuture next = deferredAssets.peek(); next != null && (next.isDone() || fits(next.cost)); next = deferredAssets.peek()) {
+                deferredAssets.poll();
+                if (!next.isDone()) {
+                    charge(next);
+                    admitted.add(next);
+                }
+            }
+        }
+        for (final AssetFuture future : admitted) {
+            threadPool.execute(future);
+        }
+    }
+
+    /**
+     * Moves a pending {@link AssetFuture future} and any of its pending
+     * dependencies to a higher {@link Priority priority} lane. Futures
+     * already in the specified lane or a higher lane are left unchanged.
+     *
+     * @param future the future to promote.
+     * @param priority the lane to which the future should be promoted.
+     */
+    private static void promote(final AssetFuture future, final Priority priority) {
+        if (future.priority.compareTo(priority) > 0) {
+            reprioritize(future, priority);
+        }
+    }
+
+    /**
+     * Moves a pending {@link AssetFuture future} to the specified
+     * {@link Priority priority} lane. A future that is already queued is
+     * removed and queued again behind the futures already waiting in its new
+     * lane. When a future is raised to a higher lane, its pending
+     * dependencies are raised along with it.
+     *
+     * @param future the future to move.
+     * @param priority the lane to which the future should be moved.
+     */
+    private static void reprioritize(final AssetFuture future, final Priority priority) {
+        final boolean raised;
+        synchronized (future) {
+            raised = future.priority.compareTo(priority) > 0;
+            final boolean deferred;
+            synchronized (deferredAssets) {
+                deferred = deferredAssets.remove(future);
+            }
+            if (readPool.getQueue().remove(future.READ)) {
+                future.priority = priority;
+                future.sequence = sequence.getAndIncrement();
+                readPool.execute(future.READ);
+            } else if (deferred || threadPool.getQueue().remove(future)) {
+                future.priority = priority;
+                enqueue(future);
+            } else {
+                future.priority = priority;
+            }
+        }
+        if (raised && future.isPrepared()) {
+            for (final AssetKey dependency : future.TASK.getDependencies()) {
+                final AssetFuture pending = pendingAssets.get(dependency);
+                if (pending != null && !pending.isDone()) {
+                    promote(pending, priority);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the pending {@link Asset asset} associated with the specified
+     * {@link AssetKey key} to a different {@link Priority priority} lane. This
+     * allows a background prefetch that has become visible to move ahead of
+     * other queued prefetches, or a request that is no longer needed to move
+     * out of the way of more important requests.
+     *
+     * @param key the {@link AssetKey key} of the pending asset.
+     * @param priority the lane to which the asset should be moved.
+     * @return true if the asset was pending and has been moved, false if the
+     * asset is not pending.
+     */
+    public static final boolean setPriority(final AssetKey key, final Priority priority) {
+        final AssetFuture future = pendingAssets.get(key);
+        if (future == null || future.isDone()) {
+            return false;
+        }
+        reprioritize(future, priority);
+        return true;
+    }
+
+    /**
+     * Returns the {@link Priority priority} lane of the pending
+     * {@link Asset asset} associated with the specified {@link AssetKey key}.
+     *
+     * @param key the {@link AssetKey key} of the pending asset.
+     * @return the priority of the asset, or null if the asset is not pending.
+     */
+    public static final Priority getPriority(final AssetKey key) {
+        final AssetFuture future = pendingAssets.get(key);
+        return (future == null || future.isDone()) ? null : future.priority;
+    }
+
+    /**
+     * Returns an {@link Executor} that runs tasks on the main thread the next
+     * time {@link #update()} is called. Used to attach continuations to
+     * {@link #loadAsync(AssetKey) asynchronous loads} that must run on the
+     * thread that owns the OpenGL context.
+     *
+     * @return the main thread executor.
+     */
+    public static final Executor getMainExecutor() {
+        return mainExecutor;
+    }
+
+    /**
+     * Returns an {@link Executor} that runs tasks on the asset thread pool.
+     * Tasks submitted to this executor are run ahead of any queued asset
+     * loads.
+     *
+     * @return the asset thread pool executor.
+     */
+    public static final Executor getPoolExecutor() {
+        return poolExecutor;
+    }
+
+    /**
+     * Returns an {@link Executor} that runs tasks on the asset thread pool in
+     * the lane of the specified {@link Priority priority}. Tasks submitted to
+     * this executor are queued behind the asset loads already waiting in the
+     * same lane and count towards the workers of the
+     * {@link Stage#Decode decode} stage like any load. Used by loaders to run
+     * part of a load on a second thread without overtaking more urgent loads.
+     *
+     * @param priority the lane in which to queue tasks.
+     * @return the asset thread pool executor for the lane.
+     */
+    public static final Executor getPoolExecutor(final Priority priority) {
+        return (task) -> threadPool.execute(new Continuation(task, priority));
+    }
+
+    /**
+     * Runs the tasks queued on the {@link #getMainExecutor() main executor}.
+     * Called once per frame by the application main loop. Only tasks that were
+     * queued before this method was called are run, so a task that queues
+     * another task cannot stall the frame; the new task runs on the next
+     * frame instead.
+     *
+     * @return the number of tasks run.
+     */
+    public static final int update() {
+        int count = 0;
+        for (int remaining = mainTasks.size(); remaining > 0; remaining--) {
+            final Runnable task = mainTasks.poll();
+            if (task == null) {
+                break;
+            }
+            try {
+                task.run();
+            } catch (final RuntimeException e) {
+                LOG.error("Main thread asset task failed - {}", e.getMessage());
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves an {@link java.io.InputStream} for the file located at the
+     * specified path, relative to the {@link #rootDir base assets directory}.
+     *
+     * @param path the location of the file for which to retrieve the
+     * {@link java.io.InputStream}.
+     * @return the {@link java.io.InputStrem} for the file located at the
+     * specified path.
+     */
+    public static final InputStream stream(final String path) throws AssetNotFoundException {
+        return stream(AssetKey.getKey(path));
+    }
+
+    /**
+     * Retrieves the {@link java.io.InputStream input stream} for the file
+     * located at the path specified by the provided
+     * {@link AssetKey#getAbsolutePath() asset key}. Mounted
+     * {@link AssetArchive archives} are searched before the loose file.
+     *
+     * @param key the {@link AssetKey key} for which to retrieve an
+     * {@link java.io.InputStream input stream}.
+     * @return the {@link InputStream input stream} for the file located at the
+     * path specified by the {@link AssetKey#getAbsolutePath() asset key}.
+     */
+    public static final InputStream stream(final AssetKey key) throws AssetNotFoundException {
+        // Search Mounted Archives //
+        for (final AssetArchive archive : mountedArchives) {
+            final ByteBuffer buffer = archive.find(key.getPath());
+            if (buffer != null) {
+                return new BufferInputStream(buffer);
+            }
+        }
+
+        if (!isFile(key)) {
+            throw missing(key);
+        }
+        try {
+            InputStream stream = new FileInputStream(key.getAbsolutePath());
+            return stream;
+        } catch (final FileNotFoundException e) {
+            throw missing(key);
+        }
+    }
+
+    /**
+     * Retrieves a read-only {@link ByteBuffer buffer} containing the contents
+     * of the file located at the specified path, relative to the
+     * {@link #rootDir base assets directory}.
+     *
+     * @param path the location of the file for which to retrieve the buffer.
+     * @return a read-only buffer containing the file contents.
+     * @throws AssetNotFoundException if the file does not exist.
+     * @throws AssetInitializationException if the file exists but cannot be
+     * read.
+     */
+    public static final ByteBuffer map(final String path) throws AssetNotFoundException {
+        return map(AssetKey.getKey(path));
+    }
+
+    /**
+     * Retrieves a read-only {@link ByteBuffer buffer} containing the contents
+     * of the file located at the path specified by the provided
+     * {@link AssetKey#getAbsolutePath() asset key}. Mounted
+     * {@link AssetArchive archives} are searched first and return a slice of
+     * the already mapped archive. Large loose files are memory-mapped so that
+     * loaders can parse them without copying or issuing a system call for each
+     * read. Small loose files are read into a heap buffer with a single read
+     * from the file channel.
+     *
+     * @param key the {@link AssetKey key} for which to retrieve the buffer.
+     * @return a read-only buffer containing the file contents.
+     * @throws AssetNotFoundException if the file does not exist.
+     * @throws AssetInitializationException if the file exists but cannot be
+     * read.
+     */
+    public static final ByteBuffer map(final AssetKey key) throws AssetNotFoundException {
+        // Search Mounted Archives //
+        for (final AssetArchive archive : mountedArchives) {
+            final ByteBuffer buffer = archive.find(key.getPath());
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+
+        if (!isFile(key)) {
+            throw missing(key);
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(key.getAbsolutePath()), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer.asReadOnlyBuffer();
+        } catch (final IOException e) {
+            throw unreadable(key, e);
+        }
+    }
+
+    /**
+     * Mounts the {@link AssetArchive asset archive} located at the specified
+     * path, relative to the current working directory. Assets stored in the
+     * archive take precedence over loose files and over the contents of any
+     * previously mounted archive.
+     *
+     * @param path the location of the archive file to mount.
+     * @return the mounted {@link AssetArchive archive}.
+     * @throws InitializationException if the archive cannot be opened.
+     */
+    public static final AssetArchive mount(final String path) throws InitializationException {
+        return mount(Paths.get(path));
+    }
+
+    /**
+     * Mounts the {@link AssetArchive asset archive} located at the specified
+     * path. Assets stored in the archive take precedence over loose files and
+     * over the contents of any previously mounted archive.
+     *
+     * @param path the location of the archive file to mount.
+     * @return the mounted {@link AssetArchive archive}.
+     * @throws InitializationException if the archive cannot be opened.
+     */
+    public static final AssetArchive mount(final Path path) throws InitializationException {
+        try {
+            final AssetArchive archive = new AssetArchive(path);
+            mountedArchives.add(0, archive);
+            LOG.debug("Mounted asset archive {} containing {} asset(s)", archive, archive.size());
+            return archive;
+        } catch (final IOException e) {
+            LOG.error("Unable to mount asset archive {} - {}", path, e.getMessage());
+            throw new InitializationException("Unable to mount asset archive: " + path);
+        }
+    }
+
+    /**
+     * Unmounts a previously {@link #mount(String) mounted}
+     * {@link AssetArchive archive}. Assets already loaded from the archive
+     * remain in the asset cache.
+     *
+     * @param archive the archive to unmount.
+     * @return true if the archive was mounted, false otherwise.
+     */
+    public static final boolean unmount(final AssetArchive archive) {
+        return mountedArchives.remove(archive);
+    }
+
+    /**
+     * Returns the {@link AssetArchive archives} currently mounted, in the
+     * order in which they are searched.
+     *
+     * @return an unmodifiable view of the mounted archives.
+     */
+    public static final List<AssetArchive> getArchives() {
+        return Collections.unmodifiableList(mountedArchives);
+    }
+
+    /**
+     * Indicates if the file located at the specified path, relative to the
+     * {@link #rootDir root assets directory}, exists in a mounted
+     * {@link AssetArchive archive} or as a loose file.
+     *
+     * @param path the location of the file.
+     * @return true if the file exists.
+     */
+    public static final boolean exists(final String path) {
+        return exists(AssetKey.getKey(path));
+    }
+
+    /**
+     * Indicates if the file of the asset associated with the specified key
+     * exists in a mounted {@link AssetArchive archive} or as a loose file.
+     * Loose files are looked up in the {@link AssetIndex asset index}, and
+     * only checked on disk if they are not indexed.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @return true if the file exists.
+     */
+    public static final boolean exists(final AssetKey key) {
+        for (final AssetArchive archive : mountedArchives) {
+            if (archive.contains(key.getPath())) {
+                return true;
+            }
+        }
+        return isFile(key);
+    }
+
+    /**
+     * Returns the {@link AssetIndex index} of the
+     * {@link #rootDir root assets directory}.
+     *
+     * @return the asset index, or null if the directory could not be indexed.
+     */
+    public static final AssetIndex getIndex() {
+        return assetIndex;
+    }
+
+    /**
+     * Enables or disables hot reloading. While enabled, the watcher of the
+     * {@link AssetIndex asset index} reports every changed file beneath the
+     * {@link #rootDir root assets directory}. Once a changed file has remained
+     * unchanged for {@link #RELOAD_DELAY} milliseconds, its asset is reloaded
+     * on the asset thread pool if it is cached or has
+     * {@link ReloadListener reload listeners}, and the listeners are then
+     * notified on the main thread during {@link #update()}. Assets that are
+     * not in use are left alone and load the new file when next requested.
+     *
+     * @param enabled true to enable hot reloading.
+     * @return true if hot reloading is enabled, which requires the asset
+     * directory to be watched.
+     */
+    public static final boolean setHotReload(final boolean enabled) {
+        if (assetIndex == null || !assetIndex.isWatching()) {
+            LOG.warn("Hot reloading is unavailable - asset directory {} is not being watched", rootDir);
+            return false;
+        }
+        assetIndex.removeListener(reloadWatcher);
+        if (enabled) {
+            assetIndex.addListener(reloadWatcher);
+        }
+        hotReload = enabled;
+        return enabled;
+    }
+
+    /**
+     * Indicates if assets are reloaded when their files change.
+     *
+     * @return true if hot reloading is enabled.
+     */
+    public static final boolean isHotReload() {
+        return hotReload;
+    }
+
+    /**
+     * Adds a {@link ReloadListener listener} to be notified on the main thread
+     * each time the {@link Asset asset} associated with the specified key is
+     * {@link #reload(AssetKey) reloaded}. Listeners are weakly referenced so
+     * that registering an object does not prevent it from being garbage
+     * collected; the listener must therefore be strongly referenced by its
+     * owner, which rules out registering a lambda that nothing else holds.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @param listener the listener to add.
+     */
+    public static final void addReloadListener(final AssetKey key, final ReloadListener listener) {
+        reloadListeners.compute(key, (k, list) -> {
+            final List<WeakReference<ReloadListener>> listeners = (list != null) ? list : new CopyOnWriteArrayList<>();
+            listeners.removeIf((reference) -> reference.get() == null);
+            listeners.add(new WeakReference<>(listener));
+            return listeners;
+        });
+    }
+
+    /**
+     * Removes a previously added {@link ReloadListener reload listener}.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @param listener the listener to remove.
+     */
+    public static final void removeReloadListener(final AssetKey key, final ReloadListener listener) {
+        reloadListeners.computeIfPresent(key, (k, list) -> {
+            list.removeIf((reference) -> reference.get() == null || reference.get() == listener);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * Reloads the {@link Asset asset} associated with the specified
+     * {@link AssetKey key} from its file on the asset thread pool, replacing
+     * the cached asset once loading completes. The
+     * {@link ReloadListener reload listeners} of the asset are then notified
+     * on the main thread during {@link #update()}. If the asset cannot be
+     * reloaded the cached asset is kept and the listeners are not notified.
+     *
+     * @param key the {@link AssetKey key} of the asset to reload.
+     * @return a future that completes, on the main thread, with the reloaded
+     * asset once its listeners have been notified.
+     */
+    public static final CompletableFuture<Asset> reload(final AssetKey key) {
+        final AssetLoader loader = assetLoaders.get(key.getType());
+        final CompletableFuture<Asset> failure = new CompletableFuture<>();
+        if (loader == null) {
+            failure.completeExceptionally(new UnsupportedAssetTypeException(key));
+            return failure;
+        }
+        try {
+            final AssetFuture future = schedule(key, loader, true, null);
+            if (future.claim()) {
+                requested.incrementAndGet();
+                future.priority = Priority.Visible;
+                read(future, new HashSet<>());
+            } else {
+                deduplicated.incrementAndGet();
+                promote(future, Priority.Visible);
+            }
+            return expose(key, future.COMPLETION, Priority.Visible).thenApplyAsync((asset) -> {
+                for (final WeakReference<ReloadListener> reference : reloadListeners.getOrDefault(key, Collections.emptyList())) {
+                    final ReloadListener listener = reference.get();
+                    if (listener != null) {
+                        try {
+                            listener.reloaded(key, asset);
+                        } catch (final RuntimeException e) {
+                            LOG.error("Reload listener of asset {} failed - {}", key, e.getMessage());
+                        }
+                    }
+                }
+                return asset;
+            }, mainExecutor);
+        } catch (final AssetNotFoundException e) {
+            failure.completeExceptionally(e);
+            return failure;
+        }
+    }
+
+    /**
+     * Returns the number of {@link Asset assets} hot reloaded since the last
+     * time {@link #reset()} was called.
+     *
+     * @return the number of hot reloaded assets.
+     */
+    public static final long getReloads() {
+        return reloads.get();
+    }
+
+    /**
+     * Returns the average time, in nanoseconds, from a change to an asset
+     * file being seen to the listeners of the reloaded asset being notified
+     * on the main thread, since the last time {@link #reset()} was called.
+     * Includes the time spent waiting for the file to settle.
+     *
+     * @return the average hot reload latency in nanoseconds.
+     */
+    public static final long getReloadLatency() {
+        final long count = reloads.get();
+        return (count > 0) ? reloadLatency.get() / count : 0;
+    }
+
+    /**
+     * Returns the longest time, in nanoseconds, from a change to an asset
+     * file being seen to the listeners of the reloaded asset being notified
+     * on the main thread, since the last time {@link #reset()} was called.
+     *
+     * @return the maximum hot reload latency in nanoseconds.
+     */
+    public static final long getMaxReloadLatency() {
+        return reloadLatencyMax.get();
+    }
+
+    /**
+     * Called on the watcher thread of the {@link AssetIndex asset index} when
+     * a file is created or modified. Records the change and, for the first
+     * change of a burst, schedules the asset to be reloaded once the file has
+     * settled.
+     *
+     * @param path the path of the changed file relative to the
+     * {@link #rootDir root assets directory}.
+     */
+    private static void changed(final String path) {
+        if (!hotReload || path.lastIndexOf('.') <= path.lastIndexOf('/')) {
+            return;
+        }
+        final AssetKey key = AssetKey.getKey(path);
+        final long now = System.nanoTime();
+        synchronized (changedAssets) {
+            final long[] times = changedAssets.get(key);
+            if (times != null) {
+                times[1] = now;
+                return;
+            }
+            changedAssets.put(key, new long[]{now, now});
+        }
+        reloadTimer.schedule(() -> settle(key), RELOAD_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reloads an asset whose file has changed once the file has remained
+     * unchanged for {@link #RELOAD_DELAY} milliseconds, or waits again if it
+     * changed more recently.
+     *
+     * @param key the {@link AssetKey key} of the changed asset.
+     */
+    private static void settle(final AssetKey key) {
+        final long[] times;
+        synchronized (changedAssets) {
+            times = changedAssets.get(key);
+            final long quiet = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - times[1]);
+            if (quiet < RELOAD_DELAY) {
+                reloadTimer.schedule(() -> settle(key), RELOAD_DELAY - quiet, TimeUnit.MILLISECONDS);
+                return;
+            }
+            changedAssets.remove(key);
+        }
+        if (!cachedAssets.containsKey(key) && !reloadListeners.containsKey(key)) {
+            return;
+        }
+        LOG.debug("Reloading changed asset {}", key);
+        reload(key).whenComplete((asset, error) -> {
+            if (error == null) {
+                final long latency = System.nanoTime() - times[0];
+                reloads.incrementAndGet();
+                reloadLatency.addAndGet(latency);
+                reloadLatencyMax.accumulateAndGet(latency, Math::max);
+            } else {
+                LOG.warn("Unable to reload changed asset {} - {}", key, error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Enables the persistent {@link DerivedDataCache derived data cache} using
+     * the specified directory. Assets loaded by loaders that support derived
+     * data are restored from the cache when their source file is unchanged,
+     * and are written to the cache in the background otherwise.
+     *
+     * @param dir the directory in which to store derived data, or null to
+     * disable the cache.
+     * @return the derived data cache, or null if the cache was disabled.
+     * @throws InitializationException if the directory cannot be created.
+     */
+    public static final DerivedDataCache setDerivedCache(final Path dir) throws InitializationException {
+        if (dir == null) {
+            derivedCache = null;
+            return null;
+        }
+        try {
+            derivedCache = new DerivedDataCache(dir);
+            LOG.debug("Using derived data cache {}", dir);
+            return derivedCache;
+        } catch (final IOException e) {
+            LOG.error("Unable to create derived data cache {} - {}", dir, e.getMessage());
+            throw new InitializationException("Unable to create derived data cache: " + dir);
+        }
+    }
+
+    /**
+     * Returns the persistent {@link DerivedDataCache derived data cache}.
+     *
+     * @return the derived data cache, or null if the cache is disabled.
+     */
+    public static final DerivedDataCache getDerivedCache() {
+        return derivedCache;
+    }
+
+    /**
+     * Enables or disables content deduplication. While enabled, assets whose
+     * source files are byte-identical are decoded once and the same
+     * {@link Asset asset} is cached under every {@link AssetKey key}, so that
+     * it is also stored and uploaded only once. The
+     * {@link ContentStore content store} reports how many assets were shared
+     * and how many bytes this saved. Should be called during initialization,
+     * before any assets are requested.
+     *
+     * @param enabled true to share assets with identical content.
+     * @return the content store, or null if deduplication was disabled.
+     */
+    public static final ContentStore setDeduplication(final boolean enabled) {
+        contentStore = enabled ? new ContentStore() : null;
+        return contentStore;
+    }
+
+    /**
+     * Returns the {@link ContentStore content store} that shares assets with
+     * identical content.
+     *
+     * @return the content store, or null if deduplication is disabled.
+     */
+    public static final ContentStore getContentStore() {
+        return contentStore;
+    }
+
+    /**
+     * Starts recording the order in which {@link Asset assets} are requested
+     * into a new {@link AccessTrace access trace}, which is written to the
+     * specified file by {@link AccessTrace#save()}. The trace previously
+     * stored in the file, if any, is read so that it can be
+     * {@link AccessTrace#prefetch() prefetched}. Typically called once at
+     * launch, after the asset loaders have been registered.
+     *
+     * @param file the location of the trace file, or null to stop recording.
+     * @return the access trace, or null if recording was stopped.
+     */
+    public static final AccessTrace setAccessTrace(final Path file) {
+        accessTrace = (file != null) ? new AccessTrace(file) : null;
+        return accessTrace;
+    }
+
+    /**
+     * Returns the {@link AccessTrace access trace} recording asset requests.
+     *
+     * @return the access trace, or null if requests are not being recorded.
+     */
+    public static final AccessTrace getAccessTrace() {
+        return accessTrace;
+    }
+
+    /**
+     * Records a request for the asset associated with the specified key in
+     * the {@link #accessTrace access trace}, if one is being recorded.
+     *
+     * @param key the {@link AssetKey key} of the requested asset.
+     */
+    private static void trace(final AssetKey key) {
+        final AccessTrace trace = accessTrace;
+        if (trace != null) {
+            trace.record(key);
+        }
+    }
+
+    /**
+     * Queues the asset associated with the specified key in the
+     * {@link Priority#Prefetch prefetch} lane on behalf of an
+     * {@link AccessTrace access trace}, without recording the request.
+     *
+     * @param key the {@link AssetKey key} of the asset to prefetch.
+     * @return a future that completes once the asset has been loaded, or null
+     * if the asset is already cached, has no loader or its file does not
+     * exist.
+     */
+    static CompletableFuture<Asset> prefetch(final AssetKey key) {
+        if (cachedAssets.containsKey(key) || !assetLoaders.containsKey(key.getType()) || !exists(key)) {
+            return null;
+        }
+        return require(key, new HashSet<>(), Priority.Prefetch);
+    }
+
+    /**
+     * Loads the default asset {@link #MANIFEST manifest}.
+     *
+     * @return the names of the groups declared in the manifest.
+     * @throws InitializationException if the manifest cannot be read.
+     */
+    public static final Set<String> loadManifest() throws InitializationException {
+        return loadManifest(MANIFEST);
+    }
+
+    /**
+     * Loads the asset manifest located at the specified path relative to the
+     * {@link #rootDir root assets directory}, replacing any previously loaded
+     * manifest. Each <code>assets</code> element of the manifest declares a
+     * group by name and each of its <code>asset</code> elements declares a
+     * member by path. Groups that are already loaded are unaffected.
+     *
+     * @param path the location of the manifest file.
+     * @return the names of the groups declared in the manifest.
+     * @throws InitializationException if the manifest cannot be read.
+     */
+    public static final Set<String> loadManifest(final String path) throws InitializationException {
+        final Map<String, List<AssetKey>> groups = new LinkedHashMap<>();
+        try (InputStream input = stream(path)) {
+            final NodeList elements = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(input).getDocumentElement().getElementsByTagName("assets");
+            for (int i = 0; i < elements.getLength(); i++) {
+                final Element group = (Element) elements.item(i);
+                final NodeList assets = group.getElementsByTagName("asset");
+                final List<AssetKey> keys = new ArrayList<>(assets.getLength());
+                for (int j = 0; j < assets.getLength(); j++) {
+                    keys.add(AssetKey.getKey(((Element) assets.item(j)).getAttribute("path")));
+                }
+                groups.put(group.getAttribute("name"), Collections.unmodifiableList(keys));
+            }
+        } catch (final IOException | ParserConfigurationException | SAXException | AssetNotFoundException e) {
+            LOG.error("Unable to load asset manifest {} - {}", path, e.getMessage());
+            throw new InitializationException("Unable to load asset manifest: " + path);
+        }
+        manifestGroups = Collections.unmodifiableMap(groups);
+        LOG.debug("Loaded asset manifest {} declaring {} group(s)", path, groups.size());
+        return groups.keySet();
+    }
+
+    /**
+     * Returns the names of the groups declared in the asset manifest, loading
+     * the default {@link #MANIFEST manifest} if no manifest has been loaded.
+     *
+     * @return the names of the declared groups.
+     */
+    public static final Set<String> getGroups() {
+        if (manifestGroups.isEmpty()) {
+            loadManifest();
+        }
+        return manifestGroups.keySet();
+    }
+
+    /**
+     * Loads every member of the specified manifest group in the
+     * {@link Priority#Visible visible} lane.
+     *
+     * @param name the name of the group to load.
+     * @return the {@link AssetGroup group}, which reports loading progress.
+     * @throws InitializationException if the group is not declared in the
+     * asset manifest.
+     * @see #loadGroup(String, Priority)
+     */
+    public static final AssetGroup loadGroup(final String name) throws InitializationException {
+        return loadGroup(name, Priority.Visible);
+    }
+
+    /**
+     * Loads every member of the specified manifest group in the specified
+     * {@link Priority priority} lane. Every member is submitted before this
+     * method returns so that the members load in parallel, and the returned
+     * {@link AssetGroup group} reports progress as members complete. The
+     * members are held resident in the asset cache until the group is
+     * released using {@link #unloadGroup(String)}. If the group is already
+     * loaded or loading the existing group is returned.
+     *
+     * @param name the name of the group to load.
+     * @param priority the {@link Priority priority} lane in which to queue
+     * the members.
+     * @return the {@link AssetGroup group}, which reports loading progress.
+     * @throws InitializationException if the group is not declared in the
+     * asset manifest.
+     */
+    public static final AssetGroup loadGroup(final String name, final Priority priority) throws InitializationException {
+        final List<AssetKey> keys = getGroups().contains(name) ? manifestGroups.get(name) : null;
+        if (keys == null) {
+            throw new InitializationException("Undeclared asset group: " + name);
+        }
+        final AssetGroup existing = loadedGroups.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        final long[] sizes = new long[keys.size()];
+        long total = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = size(keys.get(i));
+            total += sizes[i];
+        }
+        final AssetGroup group = new AssetGroup(name, keys, total);
+        final AssetGroup previous = loadedGroups.putIfAbsent(name, group);
+        if (previous != null) {
+            return previous;
+        }
+
+        // Submit Members As One Batch //
+        for (int i = 0; i < sizes.length; i++) {
+            final AssetKey key = keys.get(i);
+            final long size = sizes[i];
+            loadAsync(key, priority).whenComplete((asset, error) -> group.complete(key, size, asset));
+        }
+        LOG.debug("Loading asset group {} - {} asset(s), {} bytes", name, keys.size(), total);
+        return group;
+    }
+
+    /**
+     * Returns the loaded {@link AssetGroup group} with the specified name.
+     *
+     * @param name the name of the group.
+     * @return the group, or null if the group is not loaded.
+     */
+    public static final AssetGroup getGroup(final String name) {
+        return loadedGroups.get(name);
+    }
+
+    /**
+     * Releases a group previously loaded using {@link #loadGroup(String)}. The
+     * members are no longer held resident and may be evicted from the asset
+     * cache, unless they are members of another loaded group or are
+     * referenced elsewhere.
+     *
+     * @param name the name of the group to release.
+     * @return true if the group was loaded, false otherwise.
+     */
+    public static final boolean unloadGroup(final String name) {
+        final AssetGroup group = loadedGroups.remove(name);
+        if (group != null) {
+            group.release();
+            LOG.debug("Released asset group {}", name);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the size of the source file of the asset associated with the
+     * specified key without reading it.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @return the size of the source file in bytes, or zero if the file does
+     * not exist.
+     */
+    private static long size(final AssetKey key) {
+        for (final AssetArchive archive : mountedArchives) {
+            final ByteBuffer buffer = archive.find(key.getPath());
+            if (buffer != null) {
+                return buffer.remaining();
+            }
+        }
+        if (assetIndex != null) {
+            return Math.max(assetIndex.size(key.getPath()), 0);
+        }
+        try {
+            return Files.size(Paths.get(key.getAbsolutePath()));
+        } catch (final IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Extracts and returns the full text extracted from the provided
+     * {@link InputStream stream}.
+     *
+     * @param stream the stream from which to extract the text.
+     * @return the text extracted from the provided {@link InputStream stream}.
+     */
+    public static final String streamToString(final InputStream stream) {
+        if (stream != null) {
+            return new java.util.Scanner(stream).useDelimiter("\\A").next();
+        } else {
+            LOG.error("Could not extract text from null input stream!");
+            return null;
+        }
+    }
+
+    /**
+     * Registers the {@link AssetLoader loader} class which will be used for
+     * loading any {@link Asset assets} of the {@link AssetType types} supported
+     * by the loader. Loaders registered via this method <b>must</b> have a
+     * publicly accessible empty constructor.
+     *
+     * Warning: Any {@link AssetType asset types} previously registered to
+     * another {@link AssetLoader loader} will be overridden to point to the new
+     * loader.
+     *
+     * @param loader the {@link AssetLoader loader} to register with all of its
+     * supported {@link AssetType types}
+     */
+    public static void registerLoader(final Class<? extends AssetLoader> loader) {
+        try {
+            AssetLoader assetLoader = loader.newInstance();
+            registerLoader(assetLoader, assetLoader.SUPPORTED);
+        } catch (final InstantiationException | IllegalAccessException e) {
+            LOG.warn("Unable to register [{}] - {}: Asset Loaders must have a publicly accessible empty constructor!", loader.getSimpleName(), e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Registers the {@link AssetLoader loader} class to be used for loading
+     * {@link Asset assets} of the specified {@link AssetType type(s)}. Loaders
+     * registered via this method <b>must</b> have a publicly accessible empty
+     * constructor.
+     *
+     * Warning: Any {@link AssetType asset types} previously registered to
+     * another {@link AssetLoader loader} will be overridden to point to the new
+     * loader.
+     *
+     * @param loader the {@link AssetLoader loader} to register with the
+     * specified {@link AssetType types}.
+     * @param types the asset {@link AssetType types} to associate with the
+     * {@link AssetLoader loader}.
+     */
+    public static final void registerLoader(final Class<? extends AssetLoader> loader, final AssetType... types) {
+        try {
+            registerLoader(loader.newInstance(), types);
+        } catch (final InstantiationException | IllegalAccessException e) {
+            LOG.warn("Unable to register [{}] - {}: Asset Loaders must have a publicly accessible empty constructor!", loader.getSimpleName(), e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Registers the {@link AssetLoader loader} class to be used for loading
+     * {@link Asset assets} of the specified {@link AssetType type(s)}. Loaders
+     * registered via this method <b>must</b> have a publicly accessible empty
+     * constructor.
+     *
+     * Warning: Any {@link AssetType asset types} previously registered to
+     * another {@link AssetLoader loader} will be overridden to point to the new
+     * loader.
+     *
+     * @param loader the {@link AssetLoader loader} to register with the
+     * specified {@link AssetType types}.
+     * @param types the asset {@link AssetType types} to associate with the
+     * {@link AssetLoader loader}.
+     */
+    public static final void registerLoader(final Class<? extends AssetLoader> loader, final List<AssetType> types) {
+        registerLoader(loader, types.toArray(new AssetType[types.size()]));
+    }
+
+    /**
+     * Registers the {@link AssetLoader loader} to be used for loading
+     * {@link Asset assets} of the specified {@link AssetType type(s)}.
+     *
+     * Warning: Any {@link AssetType asset types} previously registered to
+     * another {@link AssetLoader loader} will be overridden to point to the new
+     * loader.
+     *
+     * @param loader the {@link AssetLoader loader} to register with the
+     * specified {@link AssetType types}.
+     * @param types the asset {@link AssetType types} to associate with the
+     * {@link AssetLoader loader}.
+     */
+    public static final void registerLoader(final AssetLoader loader, final AssetType... types) {
+        for (final AssetType t : types) {
+            assetLoaders.put(t, loader);
+            LOG.info("Registered [{}] file type extension to [{}]", t.getExt(), loader.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Registers the {@link AssetLoader loader} to be used for loading
+     * {@link Asset assets} of the specified {@link AssetType type(s)}.
+     *
+     * Warning: Any {@link AssetType asset types} previously registered to
+     * another {@link AssetLoader loader} will be overridden to point to the new
+     * loader.
+     *
+     * @param loader the {@link AssetLoader loader} to register with the
+     * specified {@link AssetType types}.
+     * @param types the asset {@link AssetType types} to associate with the
+     * {@link AssetLoader loader}.
+     */
+    public static final void registerLoader(final AssetLoader loader, final List<AssetType> types) {
+        for (final AssetType t : types) {
+            assetLoaders.put(t, loader);
+            LOG.info("Registered [{}] file type extension to [{}]", t.getExt(), loader.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Sets the fallback {@link Asset asset} to be used for all assets of the
+     * specified {@link AssetType type(s)} when an asset of that type is unable
+     * to be loaded for any reason.
+     *
+     * @param fallback the {@link Asset} to use when unable to load assets of
+     * the specified {@link AssetType type(s)}.
+     * @param types the {@link AssetType type(s)} to associate with the fallback
+     * asset.
+     */
+    public static final void setFallback(final Asset fallback, final AssetType... types) {
+        fallback.expose();
+        for (final AssetType type : types) {
+            fallbackAssets.put(type, fallback);
+        }
+    }
+
+    /**
+     * Returns the fallback {@link Asset asset} registered for the specified
+     * {@link AssetType type}.
+     *
+     * @param type the {@link AssetType type} of asset for which to retrieve the
+     * fallback.
+     * @return the fallback {@link Asset asset} registered to
+     * {@link AssetType type} specified or null if no fallback asset exists for
+     * the specified type.
+     */
+    public static final Asset getFallback(final AssetType type) {
+        return fallbackAssets.get(type);
+    }
+
+    /**
+     * Replaces the {@link Cache cache} used to store loaded
+     * {@link Asset assets}. Any assets held by the current cache are
+     * transferred to the new cache. This method should be called once during
+     * initialization, before any assets are requested.
+     *
+     * @param cache the cache in which to store loaded assets.
+     */
+    public static final void setCache(final Cache<AssetKey, Asset> cache) {
+        final Cache<AssetKey, Asset> previous = cachedAssets;
+        for (final AssetKey key : previous.keySet()) {
+            final Asset asset = previous.get(key);
+            if (asset != null) {
+                cache.put(key, asset);
+            }
+        }
+        cachedAssets = cache;
+        previous.clear();
+    }
+
+    /**
+     * Replaces the asset cache with a {@link WeightedCache weighted cache}
+     * that holds at most the specified number of bytes of
+     * {@link Asset#getMemorySize() asset data}. Eviction is decided by access
+     * frequency and recency instead of garbage collector pressure.
+     *
+     * @param budget the maximum number of bytes of asset data to cache.
+     */
+    public static final void setCacheBudget(final long budget) {
+        setCache(new WeightedCache<>(budget, Asset::getMemorySize));
+    }
+
+    /**
+     * Returns the {@link Cache cache} currently used to store loaded
+     * {@link Asset assets}.
+     *
+     * @return the asset cache.
+     */
+    public static final Cache<AssetKey, Asset> getCache() {
+        return cachedAssets;
+    }
+
+    /**
+     * Aborts any pending load tasks, resets the submitted and completed tasks
+     * counts to zero, and clears the existing asset cache.
+     */
+    public static final void restart() {
+        abort();
+        reset();
+        clear();
+    }
+
+    /**
+     * Resets the internal atomic counters that are used for tracking the
+     * number of requested, loaded, failed, and deduplicated
+     * {@link Asset assets} along with the queue wait time of each
+     * {@link Priority priority} lane.
+     */
+    public static final void reset() {
+        requested.set(0);
+        loaded.set(0);
+        failed.set(0);
+        deduplicated.set(0);
+        helped.set(0);
+        for (int i = 0; i < queueCount.length(); i++) {
+            queueWait.set(i, 0);
+            queueWaitMax.set(i, 0);
+            queueCount.set(i, 0);
+        }
+        inFlightPeak.set(inFlight.get());
+        reloads.set(0);
+        reloadLatency.set(0);
+        reloadLatencyMax.set(0);
+        for (int i = 0; i < stageBusy.length(); i++) {
+            stageBusy.set(i, 0);
+        }
+        stageSince = System.nanoTime();
+    }
+
+    /**
+     * Clears the {@link AssetCache asset cache}.
+     */
+    public static final void clear() {
+        if (!cachedAssets.isEmpty()) {
+            cachedAssets.clear();
+            LOG.debug("Asset cache has been cleared", cachedAssets.size());
+        }
+    }
+
+    /**
+     * Cancels all pending asset loading tasks.
+     */
+    public static final void abort() {
+        if (!pendingAssets.isEmpty()) {
+            pendingAssets.entrySet().stream().filter((entry) -> (!entry.getValue().isDone())).forEach((entry) -> {
+                entry.getValue().cancel(true);
+            });
+            LOG.debug("{} asset loading task(s) have been aborted.", pendingAssets.size());
+            readPool.purge();
+            threadPool.purge();
+        }
+    }
+
+    /**
+     * Returns the current size of the {@link AssetCache asset cache}.
+     *
+     * @return the current size of the {@link AssetCache asset cache}.
+     */
+    public static final int getCacheSize() {
+        return cachedAssets.size();
+    }
+
+    /**
+     * Returns the number of asset cache lookups that found a loaded
+     * {@link Asset asset}.
+     *
+     * @return the total number of asset cache hits.
+     */
+    public static final long getCacheHits() {
+        return cachedAssets.getHits();
+    }
+
+    /**
+     * Returns the number of asset cache lookups that did not find a loaded
+     * {@link Asset asset}.
+     *
+     * @return the total number of asset cache misses.
+     */
+    public static final long getCacheMisses() {
+        return cachedAssets.getMisses();
+    }
+
+    /**
+     * Returns the number of {@link Asset assets} discarded by the asset cache.
+     *
+     * @return the total number of asset cache evictions.
+     */
+    public static final long getCacheEvictions() {
+        return cachedAssets.getEvictions();
+    }
+
+    /**
+     * Returns the number of {@link Asset assets} of the specified
+     * {@link AssetType type} stored in the {@link AssetCache asset cache}. This
+     * method does not take into consideration any assets that have not been
+     * completely loaded. The {@link #pendingAssets task cache} will be updated
+     * and any completed tasks will have their resulting {@link Asset asset}
+     * added to the {@link #cachedAssets assets cache} along with the
+     * {@link AssetKey asset key} associated with it before the count is taken.
+     *
+     * @param type the {@link AssetType type} of {@link Asset asset} to count.
+     * @return the number of cached {@link Asset assets} of the specified type.
+     */
+    public static final int getCacheSize(final AssetType type) {
+        return cachedAssets.keySet().stream().filter((key) -> (key.getType().equals(type))).mapToInt(e -> 1).sum();
+    }
+
+    /**
+     * Indicates if the asset manager is currently executing asset loading
+     * tasks.
+     *
+     * @return true if the asset manager is currently loading assets or false if
+     * it has completed all tasks submitted.
+     */
+    public static final boolean isLoading() {
+        return getLoaded() + getFailed() < getRequested();
+    }
+
+    /**
+     * Returns a float value between 0f and 1f that indicates the percentage of
+     * submitted tasks that have completed execution since the last time the
+     * {@link #reset()} method was called.
+     *
+     * @return the percentage of submitted tasks that have completed execution.
+     */
+    public static final float getProgress() {
+        return (getLoaded() + getFailed() < getRequested()) ? (((float) getLoaded() + getFailed()) / getRequested()) : 1f;
+    }
+
+    /**
+     * Returns the total number of {@link Asset assets} requested from the
+     * manager since the last time {@link #reset reset()} was called.
+     *
+     * @return the number of assets requested since the last
+     * {@link #reset reset}
+     */
+    public static final int getRequested() {
+        return requested.get();
+    }
+
+    /**
+     * Returns the total number of assets loaded since the last time
+     * {@link #reset()} was called.
+     *
+     * @return the number of assets loaded since the last {@link #reset()}.
+     */
+    public static final int getLoaded() {
+        return loaded.get();
+    }
+
+    /**
+     * Returns the total number of assets that failed to load since the last
+     * time {@link #reset()} was called.
+     *
+     * @return number of failed attempts to load an asset since the last
+     * {@link #reset()}.
+     */
+    public static final int getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Returns the total number of queued tasks run by threads waiting on a
+     * batch of assets, rather than by the asset threads, since the last time
+     * {@link #reset()} was called.
+     *
+     * @return the number of tasks run by waiting threads since the last
+     * {@link #reset()}.
+     */
+    public static final int getHelped() {
+        return helped.get();
+    }
+
+    /**
+     * Returns the total number of asset requests that were satisfied by an
+     * asset load already in progress, and therefore did not decode the same
+     * asset a second time, since the last time {@link #reset()} was called.
+     *
+     * @return the number of duplicate asset loads avoided since the last
+     * {@link #reset()}.
+     */
+    public static final int getDeduplicated() {
+        return deduplicated.get();
+    }
+
+    /**
+     * Returns the number of {@link Asset assets} currently waiting in the
+     * queue of the specified {@link Priority priority} lane.
+     *
+     * @param priority the priority lane.
+     * @return the number of queued assets in the lane.
+     */
+    public static final int getQueued(final Priority priority) {
+        int count = 0;
+        for (final Runnable task : threadPool.getQueue()) {
+            if (task instanceof AssetFuture && ((AssetFuture) task).priority == priority) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the average time, in nanoseconds, that {@link Asset assets} in
+     * the specified {@link Priority priority} lane have waited in the queue
+     * before being executed since the last time {@link #reset()} was called.
+     *
+     * @param priority the priority lane.
+     * @return the average queue wait time of the lane in nanoseconds.
+     */
+    public static final long getQueueWait(final Priority priority) {
+        final long count = queueCount.get(priority.ordinal());
+        return (count > 0) ? queueWait.get(priority.ordinal()) / count : 0;
+    }
+
+    /**
+     * Returns the longest time, in nanoseconds, that an {@link Asset asset} in
+     * the specified {@link Priority priority} lane has waited in the queue
+     * before being executed since the last time {@link #reset()} was called.
+     *
+     * @param priority the priority lane.
+     * @return the maximum queue wait time of the lane in nanoseconds.
+     */
+    public static final long getMaxQueueWait(final Priority priority) {
+        return queueWaitMax.get(priority.ordinal());
+    }
+
+    /**
+     * Limits the estimated number of bytes of decoded asset data that may be
+     * produced by loads executing at the same time. Each load is charged the
+     * decoded size {@link AssetLoader#estimateSize(AssetKey, ByteBuffer)
+     * estimated} by its loader from the file header before the load is
+     * executed. Loads that would exceed the budget wait in their
+     * {@link Priority priority} lane, without occupying an asset thread,
+     * until earlier loads complete. A single load larger than the budget is
+     * still admitted once nothing else is in flight.
+     *
+     * @param budget the maximum number of in-flight decoded bytes, or zero
+     * for no limit.
+     */
+    public static final void setInFlightBudget(final long budget) {
+        inFlightBudget = Math.max(budget, 0);
+        admitDeferred();
+    }
+
+    /**
+     * Returns the limit on the estimated number of bytes of decoded asset
+     * data that may be in flight at the same time.
+     *
+     * @return the in-flight budget in bytes, or zero if there is no limit.
+     */
+    public static final long getInFlightBudget() {
+        return inFlightBudget;
+    }
+
+    /**
+     * Returns the estimated number of bytes of decoded asset data being
+     * produced by loads that are currently executing.
+     *
+     * @return the current in-flight decoded bytes.
+     */
+    public static final long getInFlightBytes() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the largest estimated number of bytes of decoded asset data
+     * that have been in flight at the same time since the last time
+     * {@link #reset()} was called.
+     *
+     * @return the peak in-flight decoded bytes.
+     */
+    public static final long getPeakInFlightBytes() {
+        return inFlightPeak.get();
+    }
+
+    /**
+     * Returns the number of loads waiting for in-flight memory to be
+     * released before they can be executed.
+     *
+     * @return the number of deferred loads.
+     */
+    public static final int getDeferred() {
+        synchronized (deferredAssets) {
+            return deferredAssets.size();
+        }
     }
 
     /**
@@ -772,90 +3143,831 @@ public final class AssetManager {
         return threadPool.getActiveCount();
     }
 
-    /**
-     * Indicates the total number of threads in the asset thread pool.
-     *
-     * @return the total number of threads in the asset thread pool.
-     */
-    public static final int getPoolSize() {
-        return threadPool.getPoolSize();
+    /**
+     * Returns the number of tasks waiting in the queue of the specified
+     * pipeline {@link Stage stage}.
+     *
+     * @param stage the pipeline stage.
+     * @return the queue depth of the stage.
+     */
+    public static final int getQueueDepth(final Stage stage) {
+        return pool(stage).getQueue().size();
+    }
+
+    /**
+     * Returns the fraction of the available thread time of the specified
+     * pipeline {@link Stage stage} that has been spent executing tasks since
+     * the last time {@link #reset()} was called. A stage that is consistently
+     * near 1 while the other stage is well below it is the bottleneck of the
+     * pipeline.
+     *
+     * @param stage the pipeline stage.
+     * @return the utilisation of the stage between 0 and 1.
+     */
+    public static final float getUtilisation(final Stage stage) {
+        final long elapsed = (System.nanoTime() - stageSince) * pool(stage).getExecutor().getParallelism();
+        return (elapsed > 0) ? Math.min(1f, (float) stageBusy.get(stage.ordinal()) / elapsed) : 0f;
+    }
+
+    /**
+     * Returns the thread pool of the specified pipeline {@link Stage stage}.
+     *
+     * @param stage the pipeline stage.
+     * @return the thread pool of the stage.
+     */
+    private static ThreadPool pool(final Stage stage) {
+        return (stage == Stage.Read) ? readPool : threadPool;
+    }
+
+    /**
+     * Indicates the total number of threads in the asset thread pool.
+     *
+     * @return the total number of threads in the asset thread pool.
+     */
+    public static final int getPoolSize() {
+        return threadPool.getExecutor().getPoolSize();
+
+    }
+
+    /**
+     * Replaces the {@link AssetExecutor executor} that supplies the threads of
+     * the specified pipeline {@link Stage stage}. Tasks already handed to the
+     * previous executor run to completion before it is
+     * {@link AssetExecutor#shutdown() shut down}; every later task runs on
+     * the new executor. Queued tasks keep their place in the stage queue.
+     *
+     * @param stage the pipeline stage.
+     * @param executor the executor to run the tasks of the stage.
+     * @return the previous executor of the stage.
+     */
+    public static final AssetExecutor setExecutor(final Stage stage, final AssetExecutor executor) {
+        final AssetExecutor previous = pool(stage).setExecutor(executor);
+        LOG.debug("{} stage now runs on {}", stage, executor);
+        return previous;
+    }
+
+    /**
+     * Returns the {@link AssetExecutor executor} that supplies the threads of
+     * the specified pipeline {@link Stage stage}.
+     *
+     * @param stage the pipeline stage.
+     * @return the executor of the stage.
+     */
+    public static final AssetExecutor getExecutor(final Stage stage) {
+        return pool(stage).getExecutor();
+    }
+
+    /**
+     * Priority lanes in which {@link Asset asset} requests are queued. Queued
+     * requests in a higher lane are always executed before those in a lower
+     * lane, and requests within a lane are executed in the order in which
+     * they were queued.
+     */
+    public static enum Priority {
+
+        /**
+         * Assets that a thread is blocked waiting for, such as those retrieved
+         * using {@link AssetManager#get(AssetKey)}.
+         */
+        Critical,
+        /**
+         * Assets required for the content currently on screen. This is the
+         * default lane.
+         */
+        Visible,
+        /**
+         * Assets that are likely to be required soon.
+         */
+        Prefetch,
+        /**
+         * Assets that should only be loaded when there is nothing else to do.
+         */
+        Idle;
+    }
+
+    /**
+     * Stages of the asset loading pipeline. Each stage has its own thread
+     * pool whose queue depth and utilisation are reported separately.
+     */
+    public static enum Stage {
+
+        /**
+         * Reads the contents of asset files from storage.
+         */
+        Read,
+        /**
+         * Constructs assets from the contents read by the read stage.
+         */
+        Decode;
+    }
+
+    /**
+     * Listener notified on the main thread when an {@link Asset asset} is
+     * {@link AssetManager#reload(AssetKey) reloaded}, allowing dependent
+     * objects such as textures and shader programs to refresh themselves.
+     */
+    public static interface ReloadListener {
+
+        /**
+         * Called on the main thread during {@link AssetManager#update()} once
+         * the asset has been reloaded and replaced in the asset cache.
+         *
+         * @param key the {@link AssetKey key} of the reloaded asset.
+         * @param asset the reloaded asset.
+         */
+        public void reloaded(final AssetKey key, final Asset asset);
+    }
+
+    /**
+     * Priority queue of a pipeline {@link Stage stage} whose tasks are run by
+     * the threads of an {@link AssetExecutor asset executor}. Queued tasks are
+     * ordered by {@link Priority priority} and completion of each task is
+     * tracked by the {@link AssetFuture future} executed by the pool. One pool
+     * exists for each pipeline stage.
+     * <p>
+     * The executor is never handed the queued tasks themselves. Instead, for
+     * each queued task and up to the {@link AssetExecutor#getParallelism()
+     * parallelism} of the executor, it is handed a worker that takes the
+     * task at the head of the queue when it starts. The task that runs is
+     * therefore always the highest priority task queued at that moment, and
+     * a queued task can still be reprioritized or taken by a waiting caller
+     * until a worker takes it.
+     * </p>
+     */
+    private static final class ThreadPool implements Executor {
+
+        /**
+         * The pipeline {@link Stage stage} executed by the pool.
+         */
+        private final Stage STAGE;
+
+        /**
+         * Tasks waiting to be taken by a worker, in priority order.
+         */
+        private final PriorityBlockingQueue<Runnable> QUEUE = new PriorityBlockingQueue<>(64, ThreadPool::compare);
+
+        /**
+         * Takes and runs the task at the head of the queue.
+         */
+        private final Runnable WORKER = this::work;
+
+        /**
+         * The executor that runs the workers.
+         */
+        private volatile AssetExecutor executor;
+
+        /**
+         * The number of workers handed to the executor that have not yet
+         * finished.
+         */
+        private final AtomicInteger workers = new AtomicInteger();
+
+        /**
+         * The number of workers currently running a task.
+         */
+        private final AtomicInteger active = new AtomicInteger();
+
+        /**
+         * Constructs a thread pool for the specified pipeline stage whose
+         * tasks are run by the specified executor. The queue is unbounded, so
+         * the number of tasks running at once never exceeds the parallelism
+         * of the executor.
+         *
+         * @param stage the pipeline stage executed by the pool.
+         * @param executor the executor that runs the tasks of the stage.
+         */
+        private ThreadPool(final Stage stage, final AssetExecutor executor) {
+            this.STAGE = stage;
+            this.executor = executor;
+        }
+
+        /**
+         * Queues a task and hands the executor a worker to run it, unless the
+         * executor is already running as many workers as its parallelism
+         * allows.
+         *
+         * @param task the task to queue.
+         */
+        @Override
+        public void execute(final Runnable task) {
+            QUEUE.add(task);
+            signal();
+        }
+
+        /**
+         * Hands the executor a worker if it is running fewer workers than its
+         * parallelism allows.
+         */
+        private void signal() {
+            final AssetExecutor current = executor;
+            for (int count = workers.get(); count < current.getParallelism(); count = workers.get()) {
+                if (workers.compareAndSet(count, count + 1)) {
+                    try {
+                        current.execute(WORKER);
+                    } catch (final RuntimeException e) {
+                        workers.decrementAndGet();
+                        throw e;
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Takes and runs the task at the head of the queue. A worker runs a
+         * single task, then hands the executor a new worker if tasks remain,
+         * so that a task queued while the worker was finishing is never left
+         * without one.
+         */
+        private void work() {
+            try {
+                final Runnable task = QUEUE.poll();
+                if (task != null) {
+                    run(task);
+                }
+            } finally {
+                workers.decrementAndGet();
+                if (!QUEUE.isEmpty()) {
+                    signal();
+                }
+            }
+        }
+
+        /**
+         * Runs a task taken from the queue, recording the time an
+         * {@link AssetFuture future} spent waiting in the queue of its
+         * {@link Priority priority} lane and the time spent executing the task
+         * as busy time of the {@link Stage stage}.
+         *
+         * @param task the task to run.
+         */
+        private void run(final Runnable task) {
+            final long started = System.nanoTime();
+            if (task instanceof AssetFuture) {
+                final AssetFuture future = (AssetFuture) task;
+                if (!future.isDone()) {
+                    final int lane = future.priority.ordinal();
+                    final long wait = started - future.queued;
+                    queueWait.addAndGet(lane, wait);
+                    queueCount.incrementAndGet(lane);
+                    queueWaitMax.accumulateAndGet(lane, wait, Math::max);
+                }
+            }
+            active.incrementAndGet();
+            try {
+                task.run();
+            } catch (final RuntimeException e) {
+                LOG.error("{} stage task failed - {}", STAGE, e.getMessage());
+            } finally {
+                active.decrementAndGet();
+                stageBusy.addAndGet(STAGE.ordinal(), System.nanoTime() - started);
+
+                // Clear Interrupt Left By A Cancelled Future //
+                Thread.interrupted();
+            }
+        }
+
+        /**
+         * Removes a task from the queue if no worker has taken it yet.
+         *
+         * @param task the task to remove.
+         * @return true if the task was removed.
+         */
+        private boolean remove(final Runnable task) {
+            return QUEUE.remove(task);
+        }
+
+        /**
+         * Returns the queue of tasks waiting to be taken by a worker.
+         *
+         * @return the task queue.
+         */
+        private PriorityBlockingQueue<Runnable> getQueue() {
+            return QUEUE;
+        }
+
+        /**
+         * Removes every queued task whose future has been cancelled.
+         */
+        private void purge() {
+            QUEUE.removeIf((task) -> (task instanceof Read) ? ((Read) task).FUTURE.isCancelled() : (task instanceof AssetFuture && ((AssetFuture) task).isCancelled()));
+        }
+
+        /**
+         * Returns the number of workers currently running a task.
+         *
+         * @return the number of active workers.
+         */
+        private int getActiveCount() {
+            return active.get();
+        }
+
+        /**
+         * Returns the executor that runs the tasks of the stage.
+         *
+         * @return the executor of the stage.
+         */
+        private AssetExecutor getExecutor() {
+            return executor;
+        }
 
+        /**
+         * Replaces the executor that runs the tasks of the stage. Workers
+         * already handed to the previous executor finish their task before it
+         * is shut down.
+         *
+         * @param executor the new executor.
+         * @return the previous executor.
+         */
+        private AssetExecutor setExecutor(final AssetExecutor executor) {
+            final AssetExecutor previous = this.executor;
+            this.executor = executor;
+            previous.shutdown();
+            signal();
+            return previous;
+        }
+
+        /**
+         * Orders queued tasks by {@link Priority priority} and then by the
+         * order in which they were queued. {@link Continuation Continuations}
+         * are ordered ahead of every asset load, unless they were queued in
+         * the lane of a priority.
+         *
+         * @param a the first task to compare.
+         * @param b the second task to compare.
+         * @return a negative value if the first task should be executed
+         * first, otherwise a positive value.
+         */
+        private static int compare(final Runnable a, final Runnable b) {
+            final int lane = Integer.compare(lane(a), lane(b));
+            return (lane != 0) ? lane : Long.compare(sequence(a), sequence(b));
+        }
+
+        /**
+         * Returns the lane in which a queued task is ordered.
+         *
+         * @param task the queued task.
+         * @return the {@link Priority priority} ordinal of an asset load or of
+         * a continuation queued in a lane, or -1 for any other continuation.
+         */
+        private static int lane(final Runnable task) {
+            if (task instanceof Read) {
+                return ((Read) task).FUTURE.priority.ordinal();
+            }
+            if (task instanceof Continuation) {
+                final Priority priority = ((Continuation) task).PRIORITY;
+                return (priority != null) ? priority.ordinal() : -1;
+            }
+            return (task instanceof AssetFuture) ? ((AssetFuture) task).priority.ordinal() : -1;
+        }
+
+        /**
+         * Returns the sequence number of a queued task.
+         *
+         * @param task the queued task.
+         * @return the order in which the task was queued.
+         */
+        private static long sequence(final Runnable task) {
+            if (task instanceof Read) {
+                return ((Read) task).FUTURE.sequence;
+            }
+            return (task instanceof AssetFuture) ? ((AssetFuture) task).sequence : ((Continuation) task).SEQUENCE;
+        }
     }
 
     /**
-     * Private {@link java.util.concurrent.ThreadPoolExecutor thread executor}
-     * class modified to use custom settings and track the number of tasks
-     * submitted / completed by updating these volatile fields after the
-     * execution of each task.
+     * Future task that loads a single {@link Asset asset}. Exactly one future
+     * exists in the {@link #pendingAssets pending assets map} for each asset
+     * being loaded and every caller requesting the asset shares it. The future
+     * may be executed either by the {@link ThreadPool thread pool} or in-line
+     * by a caller of {@link #get(AssetKey)}, whichever reaches it first, but
+     * never before all of the dependencies of its task have been loaded.
      */
-    private static final class ThreadPool extends ThreadPoolExecutor {
+    private static final class AssetFuture extends FutureTask<Asset> {
+
+        /**
+         * The {@link AssetKey key} of the asset loaded by this future.
+         */
+        private final AssetKey KEY;
+
+        /**
+         * The {@link AssetTask task} that loads the asset once its file has
+         * been read.
+         */
+        private final StagedTask TASK;
+
+        /**
+         * Entry queued in the {@link Stage#Read read} stage for this future.
+         */
+        private final Read READ = new Read(this);
+
+        /**
+         * The keys of the dependent futures that were being dispatched when
+         * this future was queued in the read stage, used to detect circular
+         * dependencies once its own dependencies are known.
+         */
+        private Set<AssetKey> chain;
+
+        /**
+         * Completed with the loaded asset, or exceptionally, once the future
+         * is done. Used to trigger dependent futures without blocking.
+         */
+        private final CompletableFuture<Asset> COMPLETION = new CompletableFuture<>();
+
+        /**
+         * Set once every dependency of the task has been loaded and the
+         * future may be executed.
+         */
+        private volatile boolean ready;
+
+        /**
+         * The {@link Priority priority} lane of the future. Only modified while
+         * the future is not in the queue.
+         */
+        private volatile Priority priority = Priority.Visible;
+
+        /**
+         * Orders the future within its {@link Priority priority} lane.
+         */
+        private volatile long sequence;
+
+        /**
+         * The time, in nanoseconds, at which the future was last queued.
+         */
+        private volatile long queued;
+
+        /**
+         * Set by the first caller to claim responsibility for executing the
+         * future. Every other caller is joining a load already in progress.
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        /**
+         * The estimated number of bytes of decoded data produced by the task,
+         * or zero if unknown. Set once the file has been read.
+         */
+        private volatile long cost;
+
+        /**
+         * Set while the {@link #cost cost} of the future is counted against
+         * the {@link #inFlightBudget in-flight budget}. Guarded by the lock of
+         * the {@link #deferredAssets deferred queue}.
+         */
+        private boolean admitted;
+
+        /**
+         * The number of threads executing the future. Guarded by the lock of
+         * the future.
+         */
+        private int running;
+
+        /**
+         * Set once the in-flight bytes and pooled buffer of the future have
+         * been released. Guarded by the lock of the future.
+         */
+        private boolean released;
 
         /**
-         * Constructs a thread pool with a number of core threads equal to the
-         * number of available processors, or one if the system has only a
-         * single processor. The total number of threads will never be greater
-         * than the number of set core threads. If no thread is available for a
-         * given task the task will be queued in an unbounded
-         * {@link LinkedBlockingQueue}. Core threads will automatically time-out
-         * and be destroyed after existing for 5 seconds without any work to do.
-         * Threads will then be recreated as needed up to the maximum number of
-         * core threads originally set. Note that with a linked blocking queue,
-         * the number of threads created by this pool will never exceed the
-         * number of core threads.
+         * Constructs a future for loading the asset associated with the
+         * specified key using the provided {@link AssetTask task}.
+         *
+         * @param key the {@link AssetKey key} of the asset to load.
+         * @param loader the {@link AssetLoader loader} for the asset type.
+         */
+        private AssetFuture(final AssetKey key, final AssetLoader loader) {
+            this(key, new StagedTask(key, loader));
+        }
+
+        /**
+         * Constructs a future for loading the asset associated with the
+         * specified key using the provided {@link StagedTask task}.
+         *
+         * @param key the {@link AssetKey key} of the asset to load.
+         * @param task the {@link StagedTask task} that loads the asset.
+         */
+        private AssetFuture(final AssetKey key, final StagedTask task) {
+            super(task::call);
+            this.KEY = key;
+            this.TASK = task;
+        }
+
+        /**
+         * Reads the asset file and creates the loader task, unless this has
+         * already been done, then estimates the decoded size of the asset.
+         * Called on a {@link Stage#Read read} stage thread, or in-line by a
+         * caller of {@link #get(AssetKey)}. The future is failed if the file
+         * cannot be read or the task cannot be created.
+         *
+         * @return true if the task is ready to be dispatched, false if the
+         * future has failed.
+         */
+        private boolean prepare() {
+            try {
+                if (TASK.prepare()) {
+                    cost = Math.max(TASK.estimateSize(), 0);
+                }
+                return true;
+            } catch (final RuntimeException e) {
+                fail(e);
+                return false;
+            }
+        }
+
+        /**
+         * Indicates if the asset file has been read and the loader task
+         * created.
+         *
+         * @return true if the future has been prepared.
+         */
+        private boolean isPrepared() {
+            return TASK.isPrepared();
+        }
+
+        /**
+         * Executes the task if all of its dependencies have been loaded and
+         * its decoded size has been admitted. Otherwise the call returns
+         * immediately and the future is later submitted to the thread pool by
+         * the thread that completes the last dependency or releases enough
+         * in-flight memory. The in-flight bytes and pooled buffer of the
+         * future are released once the task has stopped, even if the future
+         * was cancelled while the task was decoding.
+         */
+        @Override
+        public void run() {
+            if (ready && (cost == 0 || isAdmitted())) {
+                synchronized (this) {
+                    running++;
+                }
+                try {
+                    super.run();
+                } finally {
+                    release(-1);
+                }
+            }
+        }
+
+        /**
+         * Releases the in-flight bytes of the future and returns its pooled
+         * buffer to the {@link #bufferPool pool} once the future is done and
+         * no thread is executing its task, so a buffer is never reused while
+         * a cancelled task is still decoding from it.
+         *
+         * @param change the change in the number of threads executing the
+         * future.
+         */
+        private void release(final int change) {
+            synchronized (this) {
+                running += change;
+                if (running > 0 || released || !isDone()) {
+                    return;
+                }
+                released = true;
+            }
+            discharge(this);
+            TASK.recycle();
+        }
+
+        /**
+         * Indicates if the decoded size of the future has been admitted.
+         *
+         * @return true if the future has been admitted.
+         */
+        private boolean isAdmitted() {
+            synchronized (deferredAssets) {
+                return admitted;
+            }
+        }
+
+        /**
+         * Fails the future without executing its task.
+         *
+         * @param cause the cause of the failure.
+         */
+        private void fail(final Throwable cause) {
+            setException(cause);
+        }
+
+        /**
+         * Claims responsibility for executing the future.
+         *
+         * @return true if the caller is the first to claim the future, false
+         * if the future has already been claimed by another caller.
          */
-        public ThreadPool() {
-            super((Runtime.getRuntime().availableProcessors() > 1) ? Runtime.getRuntime().availableProcessors() - 1 : 1, Integer.MAX_VALUE, 5, TimeUnit.SECONDS, new LinkedBlockingQueue(), new AssetThreadFactory());
-            //super(0, Integer.MAX_VALUE, 10, TimeUnit.SECONDS, new SynchronousQueue<>(), new AssetThreadFactory());
-            super.allowCoreThreadTimeOut(true);
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
         }
 
+        /**
+         * Stores the loaded asset in the asset cache and removes the future
+         * from the pending assets map once loading completes. Failed futures
+         * remain in the pending assets map to be later handled when the asset
+         * is retrieved. When this happens, the get() method will search for
+         * fallback assets or throw an AssetInitializationException if no
+         * fallback asset exists.
+         */
         @Override
-        public void afterExecute(final Runnable task, final Throwable exceptions) {
+        protected void done() {
+            release(0);
+            ContentStore.abandon(TASK.delegate);
             try {
-                Asset asset = (Asset) ((Future<?>) task).get();
-                cachedAssets.put(asset.getKey(), asset);
-                pendingAssets.remove(asset.getKey());
+                final Asset asset = get();
+                cachedAssets.put(KEY, asset);
+                pendingAssets.remove(KEY, this);
                 loaded.incrementAndGet();
-            } catch (final InterruptedException | ExecutionException | CancellationException | ClassCastException e) {
-                /**
-                 * Do nothing here other than increment the failed counter.
-                 * Failed assets should remain in the pending assets map to be
-                 * later handled when user attempts to retrieve the asset. When
-                 * this happens, the get() method will search for fallback
-                 * assets or throw an AssetInitializationException if no
-                 * fallback asset exists.
-                 */
+                COMPLETION.complete(asset);
+            } catch (final CancellationException e) {
+                pendingAssets.remove(KEY, this);
+                failed.incrementAndGet();
+                COMPLETION.completeExceptionally(e);
+            } catch (final InterruptedException | ExecutionException e) {
                 failed.incrementAndGet();
                 LOG.warn("Failed to load asset {}", e.getMessage());
+                COMPLETION.completeExceptionally(e.getCause() != null ? e.getCause() : e);
+            }
+        }
+    }
+
+    /**
+     * {@link AssetTask Task} that creates the task of the asset loader once
+     * the asset file has been read by the {@link Stage#Read read} stage. The
+     * dependencies of the loader task are copied so that they can be
+     * scheduled before the asset is decoded.
+     */
+    private static final class StagedTask extends AssetTask {
+
+        /**
+         * The loader of the asset type.
+         */
+        private final AssetLoader LOADER;
+
+        /**
+         * The task of the asset loader. Null until the file has been read.
+         */
+        private volatile AssetTask delegate;
+
+        /**
+         * The pooled buffer into which the file was read, if any, returned to
+         * the {@link #bufferPool pool} once the task has stopped.
+         */
+        private ByteBuffer pooled;
+
+        /**
+         * Constructs a task for the specified asset.
+         *
+         * @param key the {@link AssetKey key} of the asset to load.
+         * @param loader the {@link AssetLoader loader} for the asset type.
+         */
+        private StagedTask(final AssetKey key, final AssetLoader loader) {
+            super(key, (ByteBuffer) null);
+            this.LOADER = loader;
+        }
+
+        /**
+         * Reads the asset file and creates the task of the asset loader
+         * unless this has already been done.
+         *
+         * @return true if the task was created by this call.
+         * @throws AssetNotFoundException if the asset file cannot be read.
+         */
+        private synchronized boolean prepare() throws AssetNotFoundException {
+            if (delegate != null) {
+                return false;
+            }
+            final ByteBuffer[] buffer = new ByteBuffer[1];
+            try {
+                final AssetTask task = newTask(KEY, LOADER, read(KEY, buffer));
+                for (final AssetKey dependency : task.getDependencies()) {
+                    addDependency(dependency);
+                }
+                pooled = buffer[0];
+                delegate = task;
+                return true;
+            } catch (final RuntimeException e) {
+                if (buffer[0] != null) {
+                    AssetManager.recycle(buffer[0]);
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Indicates if the task of the asset loader has been created.
+         *
+         * @return true if the asset file has been read.
+         */
+        private boolean isPrepared() {
+            return delegate != null;
+        }
+
+        /**
+         * Estimates the decoded size of the asset from the file read by
+         * {@link #prepare()}.
+         *
+         * @return the estimated decoded size in bytes, or zero if unknown.
+         */
+        private long estimateSize() {
+            final ByteBuffer buffer = delegate.BUFFER;
+            return (buffer != null) ? LOADER.estimateSize(KEY, buffer.duplicate()) : 0;
+        }
+
+        /**
+         * Returns the pooled buffer to the {@link #bufferPool pool} once the
+         * asset no longer needs it.
+         */
+        private synchronized void recycle() {
+            if (pooled != null) {
+                AssetManager.recycle(pooled);
+                pooled = null;
+            }
+        }
+
+        @Override
+        public Asset load() throws AssetInitializationException {
+            for (final AssetKey dependency : getDependencies()) {
+                delegate.resolve(dependency, getDependency(Asset.class, dependency));
+            }
+            return delegate.call();
+        }
+    }
+
+    /**
+     * Entry queued in the {@link Stage#Read read} stage for an
+     * {@link AssetFuture future}. Reads the asset file and then dispatches the
+     * future to the decode stage.
+     */
+    private static final class Read implements Runnable {
+
+        /**
+         * The future whose asset file is read.
+         */
+        private final AssetFuture FUTURE;
+
+        /**
+         * Constructs the read stage entry of a future.
+         *
+         * @param future the future whose asset file is read.
+         */
+        private Read(final AssetFuture future) {
+            this.FUTURE = future;
+        }
+
+        @Override
+        public void run() {
+            if (!FUTURE.isDone() && FUTURE.prepare()) {
+                dispatch(FUTURE, FUTURE.chain);
             }
         }
     }
 
     /**
-     * Factory class for generating the daemon threads used for the concurrent
-     * loading of {@link Asset assets}.
+     * Task submitted to the asset thread pool through the
+     * {@link #getPoolExecutor() pool executor}, typically a continuation of an
+     * {@link #loadAsync(AssetKey) asynchronous load}.
      */
-    private static final class AssetThreadFactory implements ThreadFactory {
+    private static final class Continuation implements Runnable {
+
+        /**
+         * The task to run.
+         */
+        private final Runnable TASK;
+
+        /**
+         * The lane in which the continuation is queued, or null to run it
+         * ahead of every asset load.
+         */
+        private final Priority PRIORITY;
 
         /**
-         * Tracks the number of threads created by this factory.
+         * Orders the continuation among other queued tasks of its lane.
          */
-        private int count;
+        private final long SEQUENCE = sequence.getAndIncrement();
 
         /**
-         * The name prefix to use for each thread created.
+         * Constructs a continuation that runs the specified task ahead of
+         * every asset load.
+         *
+         * @param task the task to run.
          */
-        private final String prefix = "Assets-";
+        private Continuation(final Runnable task) {
+            this(task, null);
+        }
 
         /**
-         * Constructs and returns a new daemon asset thread.
+         * Constructs a continuation that runs the specified task in the lane
+         * of a priority.
          *
-         * @param task the runnable task for which to create the thread.
-         * @return the constructed thread.
+         * @param task the task to run.
+         * @param priority the lane in which to queue the task, or null to run
+         * it ahead of every asset load.
          */
+        private Continuation(final Runnable task, final Priority priority) {
+            this.TASK = task;
+            this.PRIORITY = priority;
+        }
+
         @Override
-        public final Thread newThread(final Runnable task) {
-            return new Thread(task, prefix + count++);
+        public void run() {
+            TASK.run();
         }
     }
 
@@ -0,0 +1,157 @@
+package net.cybertekt.asset;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Asset Proxy - (C) Cybertekt Software
+ *
+ * Typed handle to an {@link Asset asset} that may still be loading. Proxies are
+ * retrieved using {@link AssetManager#getProxy(Class, AssetKey)} which never
+ * blocks. Until the asset has been loaded the proxy holds the
+ * {@link AssetManager#getFallback(AssetType) fallback asset} registered for its
+ * type, or null if no fallback exists. Once loading completes the loaded asset
+ * is swapped in on the main thread, during {@link AssetManager#update()}, and
+ * every registered {@link SwapListener swap listener} is notified so that
+ * dependent objects such as textures can upload the new asset.
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ *
+ * @param <T> the type of asset held by the proxy.
+ */
+public final class AssetProxy<T extends Asset> {
+
+    /**
+     * The {@link AssetKey key} of the proxied asset.
+     */
+    private final AssetKey KEY;
+
+    /**
+     * Listeners notified when the loaded asset is swapped in.
+     */
+    private final List<SwapListener<T>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * The current asset. Either the placeholder or the loaded asset.
+     */
+    private volatile T asset;
+
+    /**
+     * Indicates if the loaded asset has been swapped in.
+     */
+    private volatile boolean loaded;
+
+    /**
+     * Constructs a proxy for the specified key that holds the placeholder
+     * until the asset has been loaded.
+     *
+     * @param key the {@link AssetKey key} of the proxied asset.
+     * @param placeholder the asset to hold until the asset has been loaded,
+     * may be null.
+     * @param loaded true if the placeholder is the loaded asset.
+     */
+    AssetProxy(final AssetKey key, final T placeholder, final boolean loaded) {
+        this.KEY = key;
+        this.asset = placeholder;
+        this.loaded = loaded;
+    }
+
+    /**
+     * Returns the current asset. This is the placeholder until the loaded
+     * asset has been swapped in.
+     *
+     * @return the current asset, or null if the asset is still loading and no
+     * placeholder exists.
+     */
+    public T get() {
+        return asset;
+    }
+
+    /**
+     * Indicates if the loaded asset has been swapped in.
+     *
+     * @return true if {@link #get()} returns the loaded asset.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the {@link AssetKey key} of the proxied asset.
+     *
+     * @return the key of the proxied asset.
+     */
+    public AssetKey getKey() {
+        return KEY;
+    }
+
+    /**
+     * Registers a listener to be notified on the main thread when the loaded
+     * asset is swapped in. Listeners registered after the swap has occurred
+     * are never notified, so callers should check {@link #isLoaded()} first.
+     *
+     * @param listener the listener to register.
+     * @return this proxy for the purpose of call chaining.
+     */
+    public AssetProxy<T> addListener(final SwapListener<T> listener) {
+        LISTENERS.add(listener);
+        return this;
+    }
+
+    /**
+     * Removes a previously registered swap listener.
+     *
+     * @param listener the listener to remove.
+     * @return true if the listener was registered.
+     */
+    public boolean removeListener(final SwapListener<T> listener) {
+        return LISTENERS.remove(listener);
+    }
+
+    /**
+     * Replaces the placeholder with the loaded asset and notifies each
+     * registered listener. Called on the main thread by the
+     * {@link AssetManager}.
+     *
+     * @param loadedAsset the loaded asset.
+     */
+    void swap(final T loadedAsset) {
+        final T placeholder = asset;
+        asset = loadedAsset;
+        loaded = true;
+        for (final SwapListener<T> listener : LISTENERS) {
+            listener.swapped(this, placeholder, loadedAsset);
+        }
+    }
+
+    /**
+     * Returns the key of the proxied asset and its state for logging purposes.
+     *
+     * @return the key and state of the proxy.
+     */
+    @Override
+    public String toString() {
+        return KEY + (loaded ? " (Loaded)" : " (Pending)");
+    }
+
+    /**
+     * Listener notified when the loaded asset of a {@link AssetProxy proxy} is
+     * swapped in.
+     *
+     * @param <T> the type of asset held by the proxy.
+     */
+    public static interface SwapListener<T extends Asset> {
+
+        /**
+         * Called on the main thread when the loaded asset replaces the
+         * placeholder.
+         *
+         * @param proxy the proxy whose asset was swapped.
+         * @param placeholder the previous asset, may be null.
+         * @param asset the loaded asset.
+         */
+        public void swapped(final AssetProxy<T> proxy, final T placeholder, final T asset);
+    }
+}
@@ -1,14 +1,35 @@
 package net.cybertekt.asset;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import net.cybertekt.asset.AssetManager.AssetInitializationException;
 
 /**
  * Asset Task - (C) Cybertekt Software
  *
- * Callable class that constructs an {@link Asset asset}.
+ * Callable class that constructs an {@link Asset asset}. Tasks receive the
+ * asset data either as an {@link InputStream input stream} or as a read-only
+ * {@link ByteBuffer byte buffer}, typically a memory-mapped view of the asset
+ * file. Subclasses that parse binary data should use {@link #getBuffer()}
+ * which provides the data as a buffer regardless of how the task was
+ * constructed.
+ * <p>
+ * Tasks for composite assets may declare the {@link AssetKey keys} of the
+ * assets they are built from using {@link #addDependency(AssetKey)} during
+ * construction. The {@link AssetManager} loads every dependency first and only
+ * executes the task once all of its dependencies are complete, so a task never
+ * has to block a worker thread waiting for another asset. Loaded dependencies
+ * are retrieved from within {@link #load()} using
+ * {@link #getDependency(Class, AssetKey)}.
+ * </p>
  *
  * @version 1.1.0
  * @since 1.1.0
@@ -24,10 +45,29 @@ public abstract class AssetTask implements Callable {
 
     /**
      * An input stream that provides the data to be used for constructing the
-     * {@link Asset asset}.
+     * {@link Asset asset}. Null if the task was constructed with a buffer.
      */
     protected final InputStream INPUT;
 
+    /**
+     * A read-only buffer that contains the data to be used for constructing
+     * the {@link Asset asset}. Null if the task was constructed with an input
+     * stream.
+     */
+    protected final ByteBuffer BUFFER;
+
+    /**
+     * The {@link AssetKey keys} of the assets that must be loaded before this
+     * task can be executed.
+     */
+    private final List<AssetKey> dependencies = new ArrayList<>(0);
+
+    /**
+     * The loaded dependency {@link Asset assets}. Populated by the
+     * {@link AssetManager} before this task is executed.
+     */
+    private final Map<AssetKey, Asset> resolved = new HashMap<>();
+
     /**
      * The {@link Asset asset} loaded by this task.
      */
@@ -45,6 +85,23 @@ public abstract class AssetTask implements Callable {
     public AssetTask(final AssetKey key, final InputStream input) {
         this.KEY = key;
         this.INPUT = input;
+        this.BUFFER = null;
+    }
+
+    /**
+     * Constructs a new task for loading the {@link Asset asset} associated with
+     * the provided {@link AssetKey asset key} and data buffer.
+     *
+     * @param key the {@link AssetKey asset key} associated with the
+     * {@link Asset asset} to be loaded by this task.
+     * @param buffer the buffer containing the data for the external file from
+     * which to load the {@link Asset asset}, positioned at the start of the
+     * file data.
+     */
+    public AssetTask(final AssetKey key, final ByteBuffer buffer) {
+        this.KEY = key;
+        this.INPUT = null;
+        this.BUFFER = buffer;
     }
 
     /**
@@ -64,10 +121,12 @@ public abstract class AssetTask implements Callable {
             try {
                 asset = load();
             } finally {
-                try {
-                    INPUT.close();
-                } catch (final IOException e) {
-                    throw new AssetInitializationException(KEY, e.getMessage());
+                if (INPUT != null) {
+                    try {
+                        INPUT.close();
+                    } catch (final IOException e) {
+                        throw new AssetInitializationException(KEY, e.getMessage());
+                    }
                 }
             }
         }
@@ -76,10 +135,10 @@ public abstract class AssetTask implements Callable {
 
     /**
      * Constructs and returns the {@link Asset asset} associated with the
-     * {@link AssetKey asset key} and input stream provided to this task during
-     * construction. Note that the input stream does not need to be manually
-     * closed by the subclass. Input streams are automatically closed once this
-     * method returns.
+     * {@link AssetKey asset key} and the input stream or buffer provided to
+     * this task during construction. Note that the input stream does not need
+     * to be manually closed by the subclass. Input streams are automatically
+     * closed once this method returns.
      *
      * @return the {@link Asset asset} associated with the
      * {@link AssetKey asset key} and input stream provided to this task during
@@ -89,6 +148,97 @@ public abstract class AssetTask implements Callable {
      */
     public abstract Asset load() throws AssetInitializationException;
 
+    /**
+     * Returns the data provided to this task as a buffer. If the task was
+     * constructed with a buffer, a duplicate of that buffer is returned so
+     * that the position of the original is never modified. Otherwise the
+     * remaining contents of the input stream are read into a new heap buffer.
+     *
+     * @return a buffer containing the asset data, positioned at the start of
+     * the data.
+     * @throws IOException if the input stream cannot be read.
+     */
+    protected final ByteBuffer getBuffer() throws IOException {
+        if (BUFFER != null) {
+            return BUFFER.duplicate();
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(INPUT.available(), 32));
+        final byte[] chunk = new byte[8192];
+        for (int count = INPUT.read(chunk); count > -1; count = INPUT.read(chunk)) {
+            out.write(chunk, 0, count);
+        }
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    /**
+     * Declares that the asset loaded by this task is constructed from the
+     * asset associated with the specified {@link AssetKey key}. Dependencies
+     * must be declared from the constructor of the task, before the task is
+     * scheduled, and must not form a cycle.
+     *
+     * @param key the {@link AssetKey key} of the required asset.
+     */
+    protected final void addDependency(final AssetKey key) {
+        if (!dependencies.contains(key)) {
+            dependencies.add(key);
+        }
+    }
+
+    /**
+     * Declares that the asset loaded by this task is constructed from the
+     * asset located at the specified path, relative to the
+     * {@link AssetManager#rootDir root assets directory}.
+     *
+     * @param path the location of the required asset.
+     * @return the {@link AssetKey key} of the required asset.
+     */
+    protected final AssetKey addDependency(final String path) {
+        final AssetKey key = AssetKey.getKey(path);
+        addDependency(key);
+        return key;
+    }
+
+    /**
+     * Returns the {@link AssetKey keys} of the assets that must be loaded
+     * before this task can be executed.
+     *
+     * @return an unmodifiable list of the declared dependencies.
+     */
+    public final List<AssetKey> getDependencies() {
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    /**
+     * Returns a loaded dependency of this task. Only dependencies declared
+     * using {@link #addDependency(AssetKey)} are available, and only from
+     * within {@link #load()}.
+     *
+     * @param <T> the type of dependency {@link Asset asset}.
+     * @param type the class of the dependency {@link Asset asset}.
+     * @param key the {@link AssetKey key} of the dependency.
+     * @return the loaded dependency.
+     * @throws AssetInitializationException if the key was not declared as a
+     * dependency of this task.
+     */
+    protected final <T extends Asset> T getDependency(final Class<T> type, final AssetKey key) throws AssetInitializationException {
+        final Asset dependency = resolved.get(key);
+        if (dependency == null) {
+            throw new AssetInitializationException(KEY, "Dependency " + key + " has not been loaded");
+        }
+        return type.cast(dependency);
+    }
+
+    /**
+     * Supplies a loaded dependency to this task. Called by the
+     * {@link AssetManager} before the task is executed.
+     *
+     * @param key the {@link AssetKey key} of the dependency.
+     * @param dependency the loaded dependency {@link Asset asset}.
+     */
+    final void resolve(final AssetKey key, final Asset dependency) {
+        resolved.put(key, dependency);
+    }
+
     /**
      * Returns the {@link AssetKey asset key} associated with the
      * {@link Asset asset} to be loaded by this task.
@@ -1,5 +1,6 @@
 package net.cybertekt.asset;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import net.cybertekt.cache.CacheMap;
 import net.cybertekt.cache.CacheMap.CacheMode;
 import net.cybertekt.cache.CacheMap.MapMode;
@@ -24,14 +25,14 @@ public final class AssetType {
      * {@link CacheMap} that stores and manages the asset types created by the
      * {@link #getType(java.lang.String)} static utility method.
      */
-    private static final CacheMap<String, AssetType> typeCache = new CacheMap<>(CacheMode.Weak, MapMode.Hash);
+    private static final CacheMap<String, AssetType> typeCache = new CacheMap<>(CacheMode.Weak, MapMode.Concurrent);
 
     /**
      * Each time a new type is created, this value is incremented and assigned
      * as the hash code of the newly created type in order to minimize hash code
      * collisions between keys.
      */
-    private static int hashCount = 0;
+    private static final AtomicInteger hashCount = new AtomicInteger();
 
     /**
      * Static utility method for retrieving the asset type for the specified
@@ -48,7 +49,13 @@ public final class AssetType {
         String ext = extension.toUpperCase();
         AssetType type = typeCache.get(ext);
         if (type == null) {
-            typeCache.put(ext, (type = new AssetType(ext)));
+            // Types Are Rarely Created, So Creation Is Simply Serialized //
+            synchronized (typeCache) {
+                type = typeCache.get(ext);
+                if (type == null) {
+                    typeCache.put(ext, (type = new AssetType(ext)));
+                }
+            }
         }
         return type;
     }
@@ -95,7 +102,7 @@ public final class AssetType {
      */
     private AssetType(final String extension) {
         ext = extension;
-        hashCode = AssetType.hashCount++;
+        hashCode = AssetType.hashCount.getAndIncrement();
     }
 
     /**
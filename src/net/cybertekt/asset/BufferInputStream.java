@@ -0,0 +1,51 @@
+package net.cybertekt.asset;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Buffer Input Stream - (C) Cybertekt Software
+ *
+ * Input stream that reads the remaining contents of a buffer. Used to provide
+ * buffered or archived asset data to loaders that only support input streams.
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+final class BufferInputStream extends InputStream {
+
+    /**
+     * The buffer from which to read.
+     */
+    private final ByteBuffer BUFFER;
+
+    /**
+     * Constructs an input stream for the remaining contents of the buffer.
+     *
+     * @param buffer the buffer from which to read.
+     */
+    BufferInputStream(final ByteBuffer buffer) {
+        this.BUFFER = buffer.duplicate();
+    }
+
+    @Override
+    public int read() {
+        return BUFFER.hasRemaining() ? BUFFER.get() & 255 : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) {
+        if (!BUFFER.hasRemaining()) {
+            return -1;
+        }
+        final int count = Math.min(length, BUFFER.remaining());
+        BUFFER.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return BUFFER.remaining();
+    }
+}
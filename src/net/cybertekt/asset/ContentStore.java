@@ -0,0 +1,435 @@
+package net.cybertekt.asset;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import net.cybertekt.asset.AssetManager.AssetInitializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content Store - (C) Cybertekt Software
+ *
+ * Content-addressed layer that maps {@link AssetKey asset keys} whose source
+ * files are byte-identical onto a single decoded {@link Asset asset}. Asset
+ * identity is otherwise path-based, so identical files stored under different
+ * paths, such as per-skin copies of a texture, would each be decoded, cached
+ * and uploaded separately.
+ * <p>
+ * Each source file is hashed once it has been read, using the same 64-bit
+ * hash as the {@link DerivedDataCache derived data cache}. The hash, the
+ * length of the file and the {@link AssetLoader loader} together address the
+ * content. The first task to {@link #claim(AssetTask) claim} an address
+ * decodes it, and its asset is shared by every later key with the same
+ * content. A key whose content is still being decoded by another task is
+ * only queued for decoding once that decode completes, so no thread ever
+ * waits for it. Decoded assets are only weakly referenced, so the store never
+ * keeps an asset alive once the asset cache has released it.
+ * </p>
+ * Only assets without {@link AssetTask#getDependencies() dependencies} are
+ * shared, as an asset built from other assets depends on more than the bytes
+ * of its own file. The shared asset keeps the {@link Asset#getKey() key} of
+ * the file it was first decoded from.
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+public final class ContentStore {
+
+    /**
+     * SLF4J internal class logger for debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(ContentStore.class);
+
+    /**
+     * Decoded assets, or the pending decodes producing them, keyed by the
+     * {@link Content address} of their source content.
+     */
+    private final ConcurrentHashMap<Content, CompletableFuture<WeakReference<Asset>>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The address and the keys of every decoded asset held by the store.
+     * Assets do not override equality, so the map is keyed by identity.
+     * Guarded by its own lock.
+     */
+    private final Map<Asset, Shared> sharedAssets = new WeakHashMap<>();
+
+    /**
+     * The number of assets shared instead of being decoded again.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * The number of assets decoded because no asset with the same content
+     * existed.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * The total {@link Asset#getMemorySize() memory size} of the assets that
+     * were shared instead of being decoded again.
+     */
+    private final AtomicLong saved = new AtomicLong();
+
+    /**
+     * Constructs an empty content store.
+     */
+    ContentStore() {
+    }
+
+    /**
+     * Returns a task that shares the decoded asset of any earlier file with
+     * the same content, and otherwise runs the specified task and records
+     * its asset for later files.
+     *
+     * @param key the {@link AssetKey key} of the asset to load.
+     * @param buffer the contents of the source file.
+     * @param loader the {@link AssetLoader loader} for the asset type.
+     * @param source the task that decodes the source file, which must not
+     * declare any dependencies.
+     * @return the task for loading the asset.
+     */
+    AssetTask newTask(final AssetKey key, final ByteBuffer buffer, final AssetLoader loader, final AssetTask source) {
+        return new ContentTask(key, buffer, loader, source);
+    }
+
+    /**
+     * Claims the content of a task created by this class for decoding. Called
+     * once the source file of the task has been read, before the task is
+     * queued for decoding. The task decodes the content itself if no other
+     * task has claimed it, and shares the asset of an earlier task if that
+     * task has finished.
+     *
+     * @param task the task of the asset to load, which is ignored unless it
+     * was created by a content store.
+     * @return the pending decode of identical content by another task, which
+     * the task must wait for before it is queued, or null if the task may be
+     * queued immediately.
+     */
+    static CompletableFuture<?> claim(final AssetTask task) {
+        return (task instanceof ContentTask) ? ((ContentTask) task).claim() : null;
+    }
+
+    /**
+     * Releases the claim of a task that finished without decoding its
+     * content, for example because it was cancelled, so that tasks waiting
+     * for the content are queued and decode it themselves.
+     *
+     * @param task the finished task, which is ignored unless it was created
+     * by a content store.
+     */
+    static void abandon(final AssetTask task) {
+        if (task instanceof ContentTask) {
+            ((ContentTask) task).abandon();
+        }
+    }
+
+    /**
+     * Returns the keys that have been mapped onto the specified asset.
+     *
+     * @param asset the decoded asset.
+     * @return a snapshot of the keys sharing the asset, or an empty set if the
+     * asset is not held by the store.
+     */
+    Set<AssetKey> getKeys(final Asset asset) {
+        synchronized (sharedAssets) {
+            final Shared shared = sharedAssets.get(asset);
+            return (shared != null) ? new HashSet<>(shared.KEYS) : Collections.emptySet();
+        }
+    }
+
+    /**
+     * Forgets an asset that is about to be disposed so that it is never
+     * shared again. Later files with the same content are decoded anew.
+     *
+     * @param asset the asset to forget.
+     */
+    void remove(final Asset asset) {
+        final Shared shared;
+        synchronized (sharedAssets) {
+            shared = sharedAssets.remove(asset);
+        }
+        if (shared != null) {
+            entries.computeIfPresent(shared.CONTENT, (content, entry) -> (entry.isDone() && !entry.isCompletedExceptionally() && entry.join().get() == asset) ? null : entry);
+        }
+    }
+
+    /**
+     * Returns the number of assets that were shared with another key instead
+     * of being decoded again.
+     *
+     * @return the number of deduplicated assets.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of assets decoded because no asset with the same
+     * content had been decoded.
+     *
+     * @return the number of unique decodes.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the total number of bytes of decoded asset data that did not
+     * have to be decoded, stored or uploaded again because an asset with the
+     * same content was shared.
+     *
+     * @return the number of bytes saved by deduplication.
+     */
+    public long getBytesSaved() {
+        return saved.get();
+    }
+
+    /**
+     * Returns the number of distinct contents whose decoded assets are still
+     * held.
+     *
+     * @return the number of shared assets.
+     */
+    public int size() {
+        synchronized (sharedAssets) {
+            return sharedAssets.size();
+        }
+    }
+
+    /**
+     * Resets the hit, miss and saved byte counters to zero.
+     */
+    public void reset() {
+        hits.set(0);
+        misses.set(0);
+        saved.set(0);
+    }
+
+    /**
+     * Records that the specified key maps onto an asset.
+     *
+     * @param asset the decoded asset.
+     * @param content the address of the content of the asset.
+     * @param key the {@link AssetKey key} mapped onto the asset.
+     */
+    private void share(final Asset asset, final Content content, final AssetKey key) {
+        synchronized (sharedAssets) {
+            Shared shared = sharedAssets.get(asset);
+            if (shared == null) {
+                shared = new Shared(content);
+                sharedAssets.put(asset, shared);
+            }
+            shared.KEYS.add(key);
+        }
+    }
+
+    /**
+     * Address of the source content of an asset.
+     */
+    private static final class Content {
+
+        /**
+         * The loader that decodes the content.
+         */
+        private final AssetLoader LOADER;
+
+        /**
+         * The 64-bit hash of the content.
+         */
+        private final long HASH;
+
+        /**
+         * The length of the content in bytes.
+         */
+        private final int LENGTH;
+
+        /**
+         * Constructs the address of the specified content.
+         *
+         * @param loader the loader that decodes the content.
+         * @param hash the hash of the content.
+         * @param length the length of the content in bytes.
+         */
+        private Content(final AssetLoader loader, final long hash, final int length) {
+            this.LOADER = loader;
+            this.HASH = hash;
+            this.LENGTH = length;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Content)) {
+                return false;
+            }
+            final Content content = (Content) other;
+            return HASH == content.HASH && LENGTH == content.LENGTH && LOADER == content.LOADER;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (HASH ^ (HASH >>> 32));
+        }
+    }
+
+    /**
+     * The address and keys of a decoded asset held by the store.
+     */
+    private static final class Shared {
+
+        /**
+         * The address of the content of the asset.
+         */
+        private final Content CONTENT;
+
+        /**
+         * The keys mapped onto the asset.
+         */
+        private final Set<AssetKey> KEYS = new HashSet<>(2);
+
+        /**
+         * Constructs the record of an asset with the specified content.
+         *
+         * @param content the address of the content of the asset.
+         */
+        private Shared(final Content content) {
+            this.CONTENT = content;
+        }
+    }
+
+    /**
+     * Task that shares the asset of an earlier file with the same content, or
+     * decodes the source file using the task of the asset loader.
+     */
+    private final class ContentTask extends AssetTask {
+
+        /**
+         * The loader of the asset type.
+         */
+        private final AssetLoader LOADER;
+
+        /**
+         * The task that decodes the source file when no asset with the same
+         * content exists.
+         */
+        private final AssetTask SOURCE;
+
+        /**
+         * The address of the source content, computed when first needed.
+         */
+        private Content content;
+
+        /**
+         * The entry completed by this task once it has decoded the content,
+         * or null if the task has not claimed the content.
+         */
+        private CompletableFuture<WeakReference<Asset>> claimed;
+
+        /**
+         * Constructs a task for the specified asset.
+         *
+         * @param key the {@link AssetKey key} of the asset to load.
+         * @param buffer the contents of the source file.
+         * @param loader the {@link AssetLoader loader} for the asset type.
+         * @param source the task that decodes the source file.
+         */
+        private ContentTask(final AssetKey key, final ByteBuffer buffer, final AssetLoader loader, final AssetTask source) {
+            super(key, buffer);
+            this.LOADER = loader;
+            this.SOURCE = source;
+        }
+
+        /**
+         * Returns the address of the source content of the task.
+         *
+         * @return the content address.
+         */
+        private Content getContent() {
+            if (content == null) {
+                content = new Content(LOADER, DerivedDataCache.hash(BUFFER), BUFFER.remaining());
+            }
+            return content;
+        }
+
+        /**
+         * Claims the content for decoding by this task unless another task
+         * has already claimed it.
+         *
+         * @return the pending decode of another task, or null if this task
+         * claimed the content or the content has already been decoded.
+         */
+        private CompletableFuture<?> claim() {
+            final CompletableFuture<WeakReference<Asset>> created = new CompletableFuture<>();
+            final CompletableFuture<WeakReference<Asset>> existing = entries.putIfAbsent(getContent(), created);
+            if (existing == null) {
+                claimed = created;
+                return null;
+            }
+            return existing.isDone() ? null : existing;
+        }
+
+        /**
+         * Releases the claim of the task if it has not decoded the content.
+         */
+        private void abandon() {
+            final CompletableFuture<WeakReference<Asset>> created = claimed;
+            if (created != null && !created.isDone()) {
+                entries.remove(content, created);
+                created.completeExceptionally(new AssetInitializationException(KEY, "Decode abandoned"));
+            }
+        }
+
+        @Override
+        public Asset load() throws AssetInitializationException {
+            final Content address = getContent();
+            CompletableFuture<WeakReference<Asset>> created = claimed;
+            while (created == null) {
+                final CompletableFuture<WeakReference<Asset>> candidate = new CompletableFuture<>();
+                final CompletableFuture<WeakReference<Asset>> existing = entries.putIfAbsent(address, candidate);
+                if (existing == null) {
+                    created = candidate;
+                } else if (!existing.isDone()) {
+                    // Claimed By Another Task Since This Task Was Queued, Decode Without Waiting //
+                    final Asset asset = SOURCE.call();
+                    misses.incrementAndGet();
+                    return asset;
+                } else {
+                    // Share Asset Decoded From The Same Content //
+                    final Asset asset = existing.isCompletedExceptionally() ? null : existing.join().get();
+                    if (asset != null && !asset.isRetired()) {
+                        share(asset, address, KEY);
+                        hits.incrementAndGet();
+                        saved.addAndGet(asset.getMemorySize());
+                        LOG.debug("Asset {} shares the content of {}", KEY, asset.getKey());
+                        return asset;
+                    }
+
+                    // Decode Failed Or Asset Released, Try Again With This File //
+                    entries.remove(address, existing);
+                }
+            }
+
+            // Decode Unique Content //
+            final Asset asset;
+            try {
+                asset = SOURCE.call();
+            } catch (final RuntimeException | Error e) {
+                entries.remove(address, created);
+                created.completeExceptionally(e);
+                throw e;
+            }
+            share(asset, address, KEY);
+            created.complete(new WeakReference<>(asset));
+            misses.incrementAndGet();
+            return asset;
+        }
+    }
+}
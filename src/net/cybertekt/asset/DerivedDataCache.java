@@ -0,0 +1,390 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import net.cybertekt.asset.AssetManager.AssetInitializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Derived Data Cache - (C) Cybertekt Software
+ *
+ * Persistent on-disk cache of decoded {@link Asset asset} data. Loaders that
+ * support derived data (those with a non-zero
+ * {@link AssetLoader#getVersion() version}) encode each asset after decoding
+ * it from its source file, and the encoded data is written to the cache
+ * directory on a background thread. The next time the same source file is
+ * loaded, the cached data is memory-mapped and handed to the loader instead of
+ * decoding the source file again.
+ * <p>
+ * Each entry is keyed by the hash of the source file contents and the version
+ * of the loader that encoded it, so an entry is never used once the source
+ * file or the loader changes. When a new entry is written, any older entries
+ * for the same asset path are deleted.
+ * </p>
+ * <pre>
+ * Header:  MAGIC(4) FORMAT(4) LOADER VERSION(4) RESERVED(4) HASH(8) LENGTH(8)
+ * Payload: Loader specific encoded asset data.
+ * </pre>
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+public final class DerivedDataCache {
+
+    /**
+     * SLF4J internal class logger for debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(DerivedDataCache.class);
+
+    /**
+     * Derived Data File Signature.
+     */
+    private static final int MAGIC = 0x43444443; // C-D-D-C
+
+    /**
+     * Derived Data File Format Version.
+     */
+    private static final int FORMAT = 1;
+
+    /**
+     * Size of the derived data file header in bytes. Payloads begin at this
+     * offset, which keeps them aligned for direct use by OpenGL.
+     */
+    private static final int HEADER_SIZE = 32;
+
+    /**
+     * Derived Data File Type Extension.
+     */
+    private static final String EXTENSION = ".cdd";
+
+    /**
+     * The directory in which derived data files are stored.
+     */
+    private final Path DIR;
+
+    /**
+     * Single background thread that writes derived data files so that asset
+     * threads never wait for disk writes.
+     */
+    private final ExecutorService WRITER = Executors.newSingleThreadExecutor((task) -> {
+        final Thread thread = new Thread(task, "Assets-Derived");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The number of assets restored from the cache.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * The number of assets that were not found in the cache.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * The number of derived data files written.
+     */
+    private final AtomicLong writes = new AtomicLong();
+
+    /**
+     * Constructs a derived data cache that stores its files in the specified
+     * directory. The directory is created if it does not exist.
+     *
+     * @param dir the directory in which to store derived data files.
+     * @throws IOException if the directory cannot be created.
+     */
+    public DerivedDataCache(final Path dir) throws IOException {
+        this.DIR = Files.createDirectories(dir);
+    }
+
+    /**
+     * Returns a task that loads the asset associated with the specified key
+     * from the derived data cache when possible, and otherwise decodes the
+     * source file using the specified loader and stores the result in the
+     * cache.
+     *
+     * @param key the {@link AssetKey key} of the asset to load.
+     * @param buffer the contents of the source file.
+     * @param loader the {@link AssetLoader loader} for the asset type.
+     * @return the task for loading the asset.
+     */
+    AssetTask newTask(final AssetKey key, final ByteBuffer buffer, final AssetLoader loader) {
+        return new DerivedTask(key, buffer, loader);
+    }
+
+    /**
+     * Memory-maps the payload of the derived data file for the specified
+     * asset, source hash, and loader version.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @param hash the hash of the source file contents.
+     * @param version the version of the loader.
+     * @return a read-only view of the cached payload, or null if no valid
+     * entry exists.
+     */
+    ByteBuffer find(final AssetKey key, final long hash, final int version) {
+        final Path file = DIR.resolve(name(key, hash, version));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() >= HEADER_SIZE && channel.size() <= Integer.MAX_VALUE) {
+                final ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+                if (data.getInt(0) == MAGIC && data.getInt(4) == FORMAT && data.getInt(8) == version && data.getLong(16) == hash && data.getLong(24) == data.capacity() - HEADER_SIZE) {
+                    data.position(HEADER_SIZE);
+                    return data.slice().asReadOnlyBuffer();
+                }
+            }
+            LOG.debug("Ignoring invalid derived data file {}", file);
+        } catch (final NoSuchFileException e) {
+            // Not Cached //
+        } catch (final IOException e) {
+            LOG.warn("Unable to read derived data file {} - {}", file, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Writes the encoded payload of an asset to the cache on the background
+     * writer thread. The file is written under a temporary name and then
+     * moved into place so that a partially written file is never read. Older
+     * entries for the same asset path are deleted once the write completes.
+     * The asset is referenced by the write, and so kept reachable, until the
+     * write completes, as the payload may consist of views of its memory.
+     *
+     * @param asset the encoded {@link Asset asset}.
+     * @param hash the hash of the source file contents.
+     * @param version the version of the loader that encoded the payload.
+     * @param payload the encoded asset data.
+     */
+    void store(final Asset asset, final long hash, final int version, final ByteBuffer[] payload) {
+        WRITER.execute(() -> {
+            final AssetKey key = asset.getKey();
+            final String name = name(key, hash, version);
+            final Path temp = DIR.resolve(name + ".tmp");
+            try {
+                long length = 0;
+                for (final ByteBuffer buffer : payload) {
+                    length += buffer.remaining();
+                }
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+                header.putInt(MAGIC).putInt(FORMAT).putInt(version).putInt(0).putLong(hash).putLong(length).flip();
+                final ByteBuffer[] buffers = new ByteBuffer[payload.length + 1];
+                buffers[0] = header;
+                System.arraycopy(payload, 0, buffers, 1, payload.length);
+
+                try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    for (long written = 0; written < length + HEADER_SIZE;) {
+                        written += out.write(buffers);
+                    }
+                }
+                Files.move(temp, DIR.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                writes.incrementAndGet();
+
+                // Delete Stale Entries //
+                try (DirectoryStream<Path> stale = Files.newDirectoryStream(DIR, prefix(asset.getKey()) + "*" + EXTENSION)) {
+                    for (final Path file : stale) {
+                        if (!file.getFileName().toString().equals(name)) {
+                            Files.deleteIfExists(file);
+                        }
+                    }
+                }
+            } catch (final IOException e) {
+                LOG.warn("Unable to write derived data for {} - {}", key, e.getMessage());
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (final IOException ignored) {
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs a task on the background writer thread once every derived data
+     * file submitted so far has been written. Used to defer freeing the
+     * memory of an asset that may still be waiting to be written.
+     *
+     * @param task the task to run.
+     */
+    void execute(final Runnable task) {
+        WRITER.execute(task);
+    }
+
+    /**
+     * Waits for every pending derived data file to be written.
+     *
+     * @param timeout the maximum time to wait in milliseconds.
+     * @return true if every pending file has been written, false if the
+     * timeout elapsed first.
+     * @throws InterruptedException if the current thread is interrupted while
+     * waiting.
+     */
+    public boolean flush(final long timeout) throws InterruptedException {
+        try {
+            WRITER.submit(() -> {
+            }).get(timeout, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (final ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the directory in which derived data files are stored.
+     *
+     * @return the cache directory.
+     */
+    public Path getDirectory() {
+        return DIR;
+    }
+
+    /**
+     * Returns the number of assets restored from the cache.
+     *
+     * @return the number of cache hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of assets that had to be decoded from their source
+     * file because no valid cache entry existed.
+     *
+     * @return the number of cache misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of derived data files written to the cache.
+     *
+     * @return the number of files written.
+     */
+    public long getWrites() {
+        return writes.get();
+    }
+
+    /**
+     * Computes a 64-bit hash of the remaining contents of a buffer without
+     * modifying its position. Eight bytes are mixed at a time so that large
+     * source files can be hashed far faster than they can be decoded.
+     *
+     * @param buffer the data to hash.
+     * @return the 64-bit hash of the data.
+     */
+    public static long hash(final ByteBuffer buffer) {
+        final ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        long hash = 0x27D4EB2F165667C5L ^ data.remaining();
+        while (data.remaining() >= 8) {
+            hash = Long.rotateLeft(hash ^ (Long.rotateLeft(data.getLong() * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B185EBCA87L), 27) * 0x9E3779B185EBCA87L + 0x85EBCA77C2B2AE63L;
+        }
+        while (data.hasRemaining()) {
+            hash = Long.rotateLeft(hash ^ ((data.get() & 0xFFL) * 0x27D4EB2F165667C5L), 11) * 0x9E3779B185EBCA87L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xC2B2AE3D27D4EB4FL;
+        hash ^= hash >>> 29;
+        hash *= 0x165667B19E3779F9L;
+        return hash ^ (hash >>> 32);
+    }
+
+    /**
+     * Returns the file name prefix shared by every entry of an asset path.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @return the file name prefix of the asset.
+     */
+    private static String prefix(final AssetKey key) {
+        return String.format("%016x-", AssetArchive.hash(key.getPath()));
+    }
+
+    /**
+     * Returns the file name of the entry for an asset, source hash, and
+     * loader version.
+     *
+     * @param key the {@link AssetKey key} of the asset.
+     * @param hash the hash of the source file contents.
+     * @param version the version of the loader.
+     * @return the file name of the entry.
+     */
+    private static String name(final AssetKey key, final long hash, final int version) {
+        return prefix(key) + String.format("%016x-%d", hash, version) + EXTENSION;
+    }
+
+    /**
+     * Task that restores an asset from the derived data cache, or decodes the
+     * source file using the task of the asset loader and stores the result.
+     */
+    private final class DerivedTask extends AssetTask {
+
+        /**
+         * The loader of the asset type.
+         */
+        private final AssetLoader LOADER;
+
+        /**
+         * The loader task that decodes the source file on a cache miss.
+         */
+        private final AssetTask SOURCE;
+
+        /**
+         * Constructs a task for the specified asset.
+         *
+         * @param key the {@link AssetKey key} of the asset to load.
+         * @param buffer the contents of the source file.
+         * @param loader the {@link AssetLoader loader} for the asset type.
+         */
+        private DerivedTask(final AssetKey key, final ByteBuffer buffer, final AssetLoader loader) {
+            super(key, buffer);
+            this.LOADER = loader;
+            this.SOURCE = loader.newTask(key, buffer);
+            for (final AssetKey dependency : SOURCE.getDependencies()) {
+                addDependency(dependency);
+            }
+        }
+
+        @Override
+        public Asset load() throws AssetInitializationException {
+            final int version = LOADER.getVersion();
+            final long hash = hash(BUFFER);
+
+            // Restore From Cache //
+            final ByteBuffer cached = find(KEY, hash, version);
+            if (cached != null) {
+                final Asset asset = LOADER.decode(KEY, cached);
+                if (asset != null) {
+                    hits.incrementAndGet();
+                    return asset;
+                }
+            }
+            misses.incrementAndGet();
+
+            // Decode Source File //
+            for (final AssetKey dependency : getDependencies()) {
+                SOURCE.resolve(dependency, getDependency(Asset.class, dependency));
+            }
+            final Asset asset = SOURCE.call();
+            final ByteBuffer[] payload = LOADER.encode(asset);
+            if (payload != null) {
+                store(asset, hash, version, payload);
+            }
+            return asset;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package net.cybertekt.asset;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.lwjgl.system.MemoryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Native Memory - (C) Cybertekt Software
+ *
+ * Explicitly managed off-heap memory for {@link Asset asset} data. Buffers
+ * allocated by this class are not freed by the garbage collector when they
+ * become unreachable; they are freed immediately when {@link #free(ByteBuffer)}
+ * is called, typically when the last {@link AssetHandle handle} to an asset is
+ * released. This keeps off-heap usage proportional to the assets actually in
+ * use rather than to how recently the garbage collector has run.
+ * <p>
+ * Assets that are never disposed, such as assets retrieved from the cache
+ * without a handle, still have their memory reclaimed by the garbage
+ * collector. Each allocation is tied to the lifetime of the buffer returned by
+ * {@link #allocate(int)} rather than to the asset, as views of the buffer,
+ * such as those returned by {@link ByteBuffer#asReadOnlyBuffer()}, may outlive
+ * the asset while they are written to a file or uploaded. Every view keeps
+ * the buffer it was created from reachable, so the memory is freed the next
+ * time memory is allocated or freed after the buffer and all of its views
+ * have been collected.
+ * </p>
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+public final class NativeMemory {
+
+    /**
+     * SLF4J internal class logger for debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(NativeMemory.class);
+
+    /**
+     * Live allocations keyed by memory address.
+     */
+    private static final Map<Long, Allocation> ALLOCATIONS = new ConcurrentHashMap<>();
+
+    /**
+     * Queue receiving the allocations whose buffer has been garbage collected.
+     */
+    private static final ReferenceQueue<Object> COLLECTED = new ReferenceQueue<>();
+
+    /**
+     * The number of bytes currently allocated.
+     */
+    private static final AtomicLong allocated = new AtomicLong();
+
+    /**
+     * The largest number of bytes allocated at any one time.
+     */
+    private static final AtomicLong peak = new AtomicLong();
+
+    /**
+     * The number of buffers freed because they were garbage collected before
+     * being explicitly freed.
+     */
+    private static final AtomicLong collected = new AtomicLong();
+
+    /**
+     * Static Class.
+     */
+    private NativeMemory() {
+    }
+
+    /**
+     * Allocates a native buffer of the specified size in native byte order.
+     * The buffer is freed by {@link #free(ByteBuffer)}, or once the buffer and
+     * every view of it have been garbage collected.
+     *
+     * @param size the size of the buffer in bytes.
+     * @return the allocated buffer.
+     * @throws OutOfMemoryError if the memory cannot be allocated.
+     */
+    public static ByteBuffer allocate(final int size) {
+        reclaim();
+        final ByteBuffer buffer = MemoryUtil.memAlloc(size);
+        if (buffer == null) {
+            throw new OutOfMemoryError("Unable to allocate " + size + " bytes of native memory");
+        }
+        final long address = MemoryUtil.memAddress(buffer);
+        ALLOCATIONS.put(address, new Allocation(buffer, address, size));
+        peak.accumulateAndGet(allocated.addAndGet(size), Math::max);
+        return buffer;
+    }
+
+    /**
+     * Frees a buffer allocated by {@link #allocate(int)}. The buffer, and any
+     * view of it, must not be used afterwards. Buffers that were not
+     * allocated by this class, or that have already been freed, are ignored.
+     *
+     * @param buffer the buffer to free.
+     * @return true if the buffer was freed, false otherwise.
+     */
+    public static boolean free(final ByteBuffer buffer) {
+        reclaim();
+        if (buffer != null && buffer.isDirect()) {
+            final Allocation allocation = ALLOCATIONS.remove(MemoryUtil.memAddress0(buffer));
+            if (allocation != null) {
+                allocation.release();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of bytes of native memory currently allocated.
+     *
+     * @return the allocated native memory in bytes.
+     */
+    public static long getAllocated() {
+        reclaim();
+        return allocated.get();
+    }
+
+    /**
+     * Returns the largest number of bytes of native memory allocated at any
+     * one time.
+     *
+     * @return the peak native memory in bytes.
+     */
+    public static long getPeak() {
+        return peak.get();
+    }
+
+    /**
+     * Returns the number of buffers currently allocated.
+     *
+     * @return the number of live allocations.
+     */
+    public static int getAllocations() {
+        return ALLOCATIONS.size();
+    }
+
+    /**
+     * Returns the number of buffers that were freed only because they were
+     * garbage collected.
+     *
+     * @return the number of buffers reclaimed by the garbage collector.
+     */
+    public static long getCollected() {
+        return collected.get();
+    }
+
+    /**
+     * Frees every buffer that has been garbage collected.
+     */
+    private static void reclaim() {
+        for (Reference<?> reference = COLLECTED.poll(); reference != null; reference = COLLECTED.poll()) {
+            final Allocation allocation = (Allocation) reference;
+            if (ALLOCATIONS.remove(allocation.ADDRESS, allocation)) {
+                allocation.release();
+                collected.incrementAndGet();
+                LOG.trace("Reclaimed {} bytes of native memory from a collected buffer", allocation.SIZE);
+            }
+        }
+    }
+
+    /**
+     * A single native allocation, enqueued once its buffer is collected.
+     */
+    private static final class Allocation extends PhantomReference<ByteBuffer> {
+
+        /**
+         * The address of the allocated memory.
+         */
+        private final long ADDRESS;
+
+        /**
+         * The size of the allocated memory in bytes.
+         */
+        private final int SIZE;
+
+        /**
+         * Constructs an allocation record.
+         *
+         * @param buffer the buffer through which the memory is accessed.
+         * @param address the address of the allocated memory.
+         * @param size the size of the allocated memory in bytes.
+         */
+        private Allocation(final ByteBuffer buffer, final long address, final int size) {
+            super(buffer, COLLECTED);
+            this.ADDRESS = address;
+            this.SIZE = size;
+        }
+
+        /**
+         * Frees the allocated memory.
+         */
+        private void release() {
+            clear();
+            MemoryUtil.nmemFree(ADDRESS);
+            allocated.addAndGet(-SIZE);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package net.cybertekt.asset.font;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import net.cybertekt.asset.Asset;
 import net.cybertekt.asset.AssetKey;
+import net.cybertekt.asset.NativeMemory;
 
 /**
  * Font - (C) Cybertekt Software
@@ -153,6 +156,34 @@ public final class Font extends Asset {
         return GLYPHS.get(code);
     }
 
+    /**
+     * Returns every {@link Glyph glyph} available for the font.
+     *
+     * @return an unmodifiable view of the font glyphs.
+     */
+    public final Collection<Glyph> getGlyphs() {
+        return Collections.unmodifiableCollection(GLYPHS.values());
+    }
+
+    /**
+     * Returns the size of the font image surface data buffer in bytes.
+     *
+     * @return the memory size of the font.
+     */
+    @Override
+    public final long getMemorySize() {
+        return DATA.capacity();
+    }
+
+    /**
+     * Frees the font image surface data if it was allocated as
+     * {@link NativeMemory native memory}.
+     */
+    @Override
+    public final void dispose() {
+        NativeMemory.free(DATA);
+    }
+
     /**
      * Stores the information for an individual font character.
      */
@@ -286,6 +317,16 @@ public final class Font extends Asset {
             return 0;
         }
 
+        /**
+         * Returns the kerning offsets of the glyph keyed by the character code
+         * of the preceding glyph.
+         *
+         * @return an unmodifiable view of the glyph kerning offsets.
+         */
+        public final Map<Integer, Integer> getKernings() {
+            return Collections.unmodifiableMap(KERNINGS);
+        }
+
         public final float[] getVertices(final int xPos, final int yPos, final float scale) {
             return new float[]{
                 xOFFSET * scale + xPos, (HEIGHT + yOFFSET) * scale + yPos, 0f, // Top Left
@@ -1,20 +1,22 @@
 package net.cybertekt.asset.font;
 
-import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import net.cybertekt.asset.Asset;
 import net.cybertekt.asset.AssetKey;
 import net.cybertekt.asset.AssetLoader;
 import net.cybertekt.asset.AssetManager;
 import net.cybertekt.asset.AssetManager.AssetInitializationException;
 import net.cybertekt.asset.AssetTask;
 import net.cybertekt.asset.AssetType;
+import net.cybertekt.asset.NativeMemory;
 import net.cybertekt.asset.image.Image;
-import org.lwjgl.BufferUtils;
 
 /**
  * Font Loader - (C) Cybertekt Software
@@ -33,6 +35,11 @@ public class FontLoader extends AssetLoader {
      */
     public static final AssetType CTF = AssetType.getType("CTF");
 
+    /**
+     * Version of the derived data produced by {@link #encode(Asset)}.
+     */
+    private static final int VERSION = 1;
+
     /**
      * Initializes the list of {@link AssetType asset types} supported by this
      * {@link AssetLoader asset loader}.
@@ -58,6 +65,119 @@ public class FontLoader extends AssetLoader {
         throw new UnsupportedOperationException("Unsupported Font File Type: " + key.getType().toString());
     }
 
+    /**
+     * Returns a callable {@link AssetTask loading task} for constructing a
+     * {@link Font font asset} directly from the contents of the font file at
+     * the path specified by the {@link AssetKey asset key}.
+     *
+     * @param key the {@link AssetKey key} associated with the font file.
+     * @param buffer the contents of the font file.
+     * @return the callable task for constructing the {@link Font font asset}.
+     */
+    @Override
+    public AssetTask newTask(final AssetKey key, final ByteBuffer buffer) {
+        if (key.getType().equals(CTF)) {
+            return new CTFLoader(key, buffer);
+        }
+        throw new UnsupportedOperationException("Unsupported Font File Type: " + key.getType().toString());
+    }
+
+    /**
+     * Estimates the size of the decoded font image data from the header of a
+     * CTF file.
+     *
+     * @param key the {@link AssetKey key} associated with the font file.
+     * @param buffer the contents of the font file.
+     * @return the estimated image data size in bytes, or zero if the file does
+     * not begin with a valid header.
+     */
+    @Override
+    public long estimateSize(final AssetKey key, final ByteBuffer buffer) {
+        final int start = buffer.position();
+        if (!key.getType().equals(CTF) || buffer.remaining() < 20 || buffer.getInt(start) != CTFLoader.CTF || buffer.getInt(start + 4) != CTFLoader.HDR) {
+            return 0;
+        }
+        return (long) buffer.getInt(start + 12) * buffer.getInt(start + 16) * 8;
+    }
+
+    /**
+     * Returns the version of the derived data produced by this loader.
+     *
+     * @return the derived data version.
+     */
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    /**
+     * Encodes the header, glyph table, kerning table and image data of a
+     * {@link Font font}. The image data is written directly from the font
+     * buffer without being copied.
+     *
+     * @param asset the font to encode.
+     * @return the table and image data buffers.
+     */
+    @Override
+    public ByteBuffer[] encode(final Asset asset) {
+        final Font font = (Font) asset;
+        int kernings = 0;
+        for (final Font.Glyph glyph : font.getGlyphs()) {
+            kernings += glyph.getKernings().size();
+        }
+        final ByteBuffer tables = ByteBuffer.allocate(28 + font.getGlyphs().size() * 32 + kernings * 12);
+        tables.putInt(font.getSize()).putInt(font.getWidth()).putInt(font.getHeight()).putInt(font.getLine()).putInt(font.getSpace());
+        tables.putInt(font.getGlyphs().size()).putInt(kernings);
+        for (final Font.Glyph glyph : font.getGlyphs()) {
+            tables.putInt(glyph.getCode()).putInt(glyph.getX()).putInt(glyph.getY()).putInt(glyph.getWidth()).putInt(glyph.getHeight());
+            tables.putInt(glyph.getOffsetX()).putInt(glyph.getOffsetY()).putInt(glyph.getAdvance());
+        }
+        for (final Font.Glyph glyph : font.getGlyphs()) {
+            for (final Map.Entry<Integer, Integer> kerning : glyph.getKernings().entrySet()) {
+                tables.putInt(kerning.getKey()).putInt(glyph.getCode()).putInt(kerning.getValue());
+            }
+        }
+        tables.flip();
+        final ByteBuffer data = font.getData().duplicate();
+        data.clear();
+        return new ByteBuffer[]{tables, data};
+    }
+
+    /**
+     * Reconstructs a {@link Font font} from derived data. The returned font
+     * uses a view of the cached data as its image data.
+     *
+     * @param key the {@link AssetKey key} of the font.
+     * @param data the encoded font data.
+     * @return the font, or null if the data is inconsistent.
+     */
+    @Override
+    public Asset decode(final AssetKey key, final ByteBuffer data) {
+        final ByteBuffer in = data.duplicate();
+        if (in.remaining() < 28) {
+            return null;
+        }
+        final int SIZE = in.getInt(), WIDTH = in.getInt(), HEIGHT = in.getInt(), LINE = in.getInt(), SPACE = in.getInt();
+        final int COUNT = in.getInt(), KERNS = in.getInt();
+        if (COUNT < 0 || KERNS < 0 || in.remaining() != COUNT * 32L + KERNS * 12L + WIDTH * HEIGHT * 8L) {
+            return null;
+        }
+        final Map<Integer, Font.Glyph> GLYPHS = new HashMap<>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            final int code = in.getInt();
+            GLYPHS.put(code, new Font.Glyph(code, in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt()));
+        }
+        for (int i = 0; i < KERNS; i++) {
+            final int last = in.getInt();
+            final Font.Glyph glyph = GLYPHS.get(in.getInt());
+            if (glyph == null) {
+                return null;
+            }
+            glyph.addKerning(last, in.getInt());
+        }
+        return new Font(key, SIZE, WIDTH, HEIGHT, LINE, SPACE, in.slice().order(ByteOrder.nativeOrder()), GLYPHS);
+    }
+
     /**
      * Cybertekt Font Loader - (C) Cybertekt Software.
      */
@@ -93,13 +213,26 @@ public class FontLoader extends AssetLoader {
          */
         private static final int FTR = 0x708482; //70-84-82 (FTR)
 
+        /**
+         * Big-endian view of the font file data being parsed.
+         */
+        private ByteBuffer in;
+
         public CTFLoader(final AssetKey KEY, final InputStream INPUT) {
             super(KEY, INPUT);
         }
 
+        public CTFLoader(final AssetKey KEY, final ByteBuffer BUFFER) {
+            super(KEY, BUFFER);
+        }
+
         @Override
         public final Font load() throws AssetInitializationException {
+            ByteBuffer allocated = null;
             try {
+                // Retrieve Font File Data //
+                in = getBuffer().order(ByteOrder.BIG_ENDIAN);
+
                 // Validate CTF File Signature //
                 if (readInt() != CTF) {
                     throw new IOException("Invalid File Signature");
@@ -142,9 +275,9 @@ public class FontLoader extends AssetLoader {
                 }
 
                 // Read CTF Image Data //
-                final ByteBuffer DATA = BufferUtils.createByteBuffer(WIDTH * HEIGHT * 8).order(ByteOrder.nativeOrder());
+                final ByteBuffer DATA = allocated = NativeMemory.allocate(WIDTH * HEIGHT * 8).order(ByteOrder.nativeOrder());
                 if (readInt() == IMG) {
-                    DATA.asIntBuffer().put(readInts(WIDTH * HEIGHT));
+                    DATA.asIntBuffer().put(readIntBuffer(WIDTH * HEIGHT));
                     DATA.flip();
                 } else {
                     throw new IOException("Missing Image Data");
@@ -156,57 +289,68 @@ public class FontLoader extends AssetLoader {
                 }
 
                 // Create CTF Font //
-                return new Font(KEY, SIZE, WIDTH, HEIGHT, LINE, SPACE, DATA, GLYPHS);
+                final Font font = new Font(KEY, SIZE, WIDTH, HEIGHT, LINE, SPACE, DATA, GLYPHS);
+                allocated = null;
+                return font;
             } catch (IOException e) {
                 throw new AssetManager.AssetInitializationException(KEY, "Font file is invalid or corrupt (" + e.getMessage() + ")");
+            } finally {
+                // Free Image Data Of Failed Font //
+                NativeMemory.free(allocated);
             }
         }
 
         /**
-         * Reads the next integer from the input stream.
+         * Reads the next integer from the font file data.
          *
-         * @param INPUT the input stream from which to read.
-         * @return the integer read from the input stream.
-         * @throws IOException if the end of the input stream is reached
-         * unexpectedly while reading.
+         * @return the integer read from the font file data.
+         * @throws IOException if the end of the file is reached unexpectedly
+         * while reading.
          */
         private int readInt() throws IOException {
-            byte[] bytes = readBytes(4);
-            return ((bytes[0]) << 24) | ((bytes[1] & 255) << 16) | ((bytes[2] & 255) << 8) | ((bytes[3] & 255));
+            try {
+                return in.getInt();
+            } catch (final BufferUnderflowException e) {
+                throw new IOException("Reached End Of File Unexpectedly");
+            }
         }
 
         /**
-         * Reads a number of consecutive integers from the input stream.
+         * Reads a number of consecutive integers from the font file data.
          *
          * @param count the number of integers to read.
-         * @return the integers read from the input stream.
-         * @throws IOException if the end of the input stream is reached
-         * unexpectedly while reading.
+         * @return the integers read from the font file data.
+         * @throws IOException if the end of the file is reached unexpectedly
+         * while reading.
          */
         private int[] readInts(final int count) throws IOException {
             int[] ints = new int[count];
-            byte[] bytes = readBytes(4 * count);
-            for (int i = 0; i < ints.length; i++) {
-                ints[i] = ((bytes[i * 4]) << 24) | ((bytes[i * 4 + 1] & 255) << 16) | ((bytes[i * 4 + 2] & 255) << 8) | ((bytes[i * 4 + 3] & 255));
+            try {
+                in.asIntBuffer().get(ints);
+            } catch (final BufferUnderflowException e) {
+                throw new IOException("Reached End Of File Unexpectedly");
             }
+            in.position(in.position() + 4 * count);
             return ints;
         }
 
         /**
-         * Reads a number of bytes from the {@link #INPUT input stream}.
+         * Returns a view of a number of consecutive integers within the font
+         * file data without copying them, and advances past them.
          *
-         * @param count the number of bytes to read.
-         * @return the array containing the bytes read.
-         * @throws IOException if the end of the input stream is reached
-         * unexpectedly while reading.
+         * @param count the number of integers to read.
+         * @return a view of the integers read from the font file data.
+         * @throws IOException if the end of the file is reached unexpectedly
+         * while reading.
          */
-        private byte[] readBytes(final int count) throws IOException {
-            byte[] bytes = new byte[count];
-            if (INPUT.read(bytes) > -1) {
-                return bytes;
-            } else {
-                throw new EOFException("Reached End Of File Unexpectedly");
+        private IntBuffer readIntBuffer(final int count) throws IOException {
+            if (in.remaining() < 4 * count) {
+                throw new IOException("Reached End Of File Unexpectedly");
             }
+            final IntBuffer ints = in.asIntBuffer();
+            ints.limit(count);
+            in.position(in.position() + 4 * count);
+            return ints;
         }
     }
 
@@ -3,15 +3,20 @@ package net.cybertekt.asset.image;
 import java.nio.ByteBuffer;
 import net.cybertekt.asset.Asset;
 import net.cybertekt.asset.AssetKey;
+import net.cybertekt.asset.NativeMemory;
+import static org.lwjgl.opengl.GL11.GL_RED;
 import static org.lwjgl.opengl.GL11.GL_RGB;
 import static org.lwjgl.opengl.GL11.GL_RGBA;
 import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
 import static org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT;
+import static org.lwjgl.opengl.GL30.GL_RG;
 
 /**
  * Image - (C) Cybertekt Software
  *
- * Immutable {@link Asset asset} containing the surface data of an image.
+ * Immutable {@link Asset asset} containing the surface data of an image and,
+ * optionally, the complete mipmap chain generated from it by the
+ * {@link MipmapGenerator mipmap generator}.
  *
  * @version 1.1.0
  * @since 1.1.0
@@ -23,6 +28,24 @@ public class Image extends Asset {
      * Specifies the format of the image buffer data.
      */
     public enum Format {
+        /**
+         * One 8-Bit Channel: Red, Or Luminance For Grayscale Images.
+         */
+        R8(GL_RED, GL_UNSIGNED_BYTE, 1),
+        /**
+         * One 16-Bit Channel: Red, Or Luminance For Grayscale Images.
+         */
+        R16(GL_RED, GL_UNSIGNED_SHORT, 2),
+        /**
+         * Two 8-Bit Channels: Red And Green, Or Luminance And Alpha For
+         * Grayscale Images.
+         */
+        RG8(GL_RG, GL_UNSIGNED_BYTE, 2),
+        /**
+         * Two 16-Bit Channels: Red And Green, Or Luminance And Alpha For
+         * Grayscale Images.
+         */
+        RG16(GL_RG, GL_UNSIGNED_SHORT, 4),
         /**
          * Three 8-Bit Color Channels: Red, Green, and Blue.
          */
@@ -89,6 +112,17 @@ public class Image extends Asset {
      */
     private final ByteBuffer DATA;
 
+    /**
+     * Surface data of each mipmap level below the image, from the largest to
+     * the smallest, or empty if the image has no mipmap chain.
+     */
+    private final ByteBuffer[] MIPMAPS;
+
+    /**
+     * Time taken to generate the mipmap chain in nanoseconds.
+     */
+    private final long MIPMAP_TIME;
+
     /**
      * Constructs a new image {@link Asset asset} defined by the file located at
      * the path specified by the {@link AssetKey asset key}.
@@ -100,11 +134,30 @@ public class Image extends Asset {
      * @param DATA the image surface data.
      */
     public Image(final AssetKey KEY, final Format FORMAT, final int WIDTH, final int HEIGHT, final ByteBuffer DATA) {
+        this(KEY, FORMAT, WIDTH, HEIGHT, DATA, new ByteBuffer[0], 0);
+    }
+
+    /**
+     * Constructs a new image {@link Asset asset} with a mipmap chain.
+     *
+     * @param KEY the asset key for the image file.
+     * @param FORMAT the image format.
+     * @param WIDTH the image width, in pixels.
+     * @param HEIGHT the image height, in pixels.
+     * @param DATA the image surface data.
+     * @param MIPMAPS the surface data of each mipmap level below the image,
+     * either every level down to a single pixel or none.
+     * @param MIPMAP_TIME the time taken to generate the mipmap chain in
+     * nanoseconds.
+     */
+    public Image(final AssetKey KEY, final Format FORMAT, final int WIDTH, final int HEIGHT, final ByteBuffer DATA, final ByteBuffer[] MIPMAPS, final long MIPMAP_TIME) {
         super(KEY);
         this.FORMAT = FORMAT;
         this.WIDTH = WIDTH;
         this.HEIGHT = HEIGHT;
         this.DATA = DATA;
+        this.MIPMAPS = MIPMAPS;
+        this.MIPMAP_TIME = MIPMAP_TIME;
     }
 
     /**
@@ -142,4 +195,84 @@ public class Image extends Asset {
     public final ByteBuffer getBuffer() {
         return DATA.asReadOnlyBuffer();
     }
+
+    /**
+     * Returns the number of levels of the image, one if the image has no
+     * mipmap chain.
+     *
+     * @return the number of levels, including the image itself.
+     */
+    public final int getLevelCount() {
+        return MIPMAPS.length + 1;
+    }
+
+    /**
+     * Returns the width of a level of the image in pixels.
+     *
+     * @param level the level, zero for the image itself.
+     * @return the level width.
+     */
+    public final int getWidth(final int level) {
+        return Math.max(WIDTH >> level, 1);
+    }
+
+    /**
+     * Returns the height of a level of the image in pixels.
+     *
+     * @param level the level, zero for the image itself.
+     * @return the level height.
+     */
+    public final int getHeight(final int level) {
+        return Math.max(HEIGHT >> level, 1);
+    }
+
+    /**
+     * Returns a read-only view of the buffer containing the surface data of a
+     * level of the image.
+     *
+     * @param level the level, zero for the image itself.
+     * @return the level buffer.
+     * @throws IndexOutOfBoundsException if the image has no such level.
+     */
+    public final ByteBuffer getBuffer(final int level) {
+        return (level == 0) ? getBuffer() : MIPMAPS[level - 1].asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the time taken to generate the mipmap chain of the image on the
+     * asset worker that decoded it.
+     *
+     * @return the generation time in nanoseconds, zero if the image has no
+     * mipmap chain or the chain was restored from the derived data cache.
+     */
+    public final long getMipmapTime() {
+        return MIPMAP_TIME;
+    }
+
+    /**
+     * Returns the size of the image surface data buffers, including the
+     * mipmap chain, in bytes.
+     *
+     * @return the memory size of the image.
+     */
+    @Override
+    public long getMemorySize() {
+        long size = DATA.capacity();
+        for (final ByteBuffer mipmap : MIPMAPS) {
+            size += mipmap.capacity();
+        }
+        return size;
+    }
+
+    /**
+     * Frees the image surface data and mipmap chain if they were allocated as
+     * {@link NativeMemory native memory}.
+     */
+    @Override
+    public void dispose() {
+        NativeMemory.free(DATA);
+        for (final ByteBuffer mipmap : MIPMAPS) {
+            NativeMemory.free(mipmap);
+        }
+    }
 }
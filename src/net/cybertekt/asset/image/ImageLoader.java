@@ -1,28 +1,39 @@
 package net.cybertekt.asset.image;
 
-import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
+import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.CRC32;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
+import net.cybertekt.asset.Asset;
 import net.cybertekt.asset.AssetKey;
 import net.cybertekt.asset.AssetLoader;
 import net.cybertekt.asset.AssetManager;
 import net.cybertekt.asset.AssetManager.AssetInitializationException;
+import net.cybertekt.asset.AssetManager.Priority;
+import net.cybertekt.asset.AssetManager.Stage;
 import net.cybertekt.asset.AssetTask;
 import net.cybertekt.asset.AssetType;
-import org.lwjgl.BufferUtils;
+import net.cybertekt.asset.NativeMemory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Image Loader - (C) Cybertekt Software.
  *
  * Loader for constructing {@link Image image assets}. Currently, this loader
- * only supports the PNG image file format.
+ * only supports the PNG image file format. When a
+ * {@link #setMipmapFilter(MipmapGenerator.Filter) mipmap filter} is set, the
+ * complete mipmap chain of each image is generated on the asset worker that
+ * decodes it.
  *
  * @version 1.1.0
  * @since 1.1.0
@@ -35,6 +46,79 @@ public class ImageLoader extends AssetLoader {
      */
     public static final AssetType PNG = AssetType.getType("PNG");
 
+    /**
+     * SLF4J internal class logger for debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(ImageLoader.class);
+
+    /**
+     * Version of the derived data produced by {@link #encode(Asset)}. Must be
+     * incremented whenever the encoded layout, the {@link Image.Format format}
+     * ordinals, or the decoded pixel data change.
+     */
+    private static final int VERSION = 3;
+
+    /**
+     * Size of the derived data header in bytes: format ordinal, width, height
+     * and the {@link MipmapGenerator.Filter filter} ordinal plus one of the
+     * mipmap chain, or zero if the image has no chain.
+     */
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * PNG File Signature.
+     */
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+
+    /**
+     * Position and spacing of the pixels of each pass of a non-interlaced
+     * image: starting column, starting row, column step and row step.
+     */
+    private static final int[][] PROGRESSIVE = {{0, 0, 1, 1}};
+
+    /**
+     * Position and spacing of the pixels of each of the seven passes of an
+     * Adam7 interlaced image: starting column, starting row, column step and
+     * row step.
+     */
+    private static final int[][] ADAM7 = {{0, 0, 8, 8}, {4, 0, 8, 8}, {0, 4, 4, 8}, {2, 0, 4, 4}, {0, 2, 2, 4}, {1, 0, 2, 2}, {0, 1, 1, 2}};
+
+    /**
+     * Size in bytes of the window through which PNG chunk data is read.
+     */
+    private static final int WINDOW_SIZE = 32768;
+
+    /**
+     * Pooled {@link Decoder decoders}, borrowed by each PNG task for the
+     * duration of its load. Decoders are discarded if the pool is full.
+     */
+    private static final ArrayBlockingQueue<Decoder> DECODERS = new ArrayBlockingQueue<>(16);
+
+    /**
+     * Default number of pixels from which PNG images are decoded using a
+     * {@link PNGLoader.Pipeline pipeline}. Images are never pipelined unless
+     * a threshold is set, as the helper of a pipeline competes with other
+     * loads for the threads of the decode stage.
+     */
+    private static final int PIPELINE_THRESHOLD = Integer.MAX_VALUE;
+
+    /**
+     * Approximate size in bytes of the ring of scanlines passed from the
+     * inflating thread to the unfiltering thread of a pipelined decode.
+     */
+    private static final int RING_SIZE = 1 << 20;
+
+    /**
+     * Number of pixels from which PNG images are decoded using a pipeline.
+     */
+    private static volatile int pipelineThreshold = PIPELINE_THRESHOLD;
+
+    /**
+     * Filter used to generate the mipmap chain of each image, or null if no
+     * chain is generated.
+     */
+    private static volatile MipmapGenerator.Filter mipmapFilter;
+
     /**
      * Initializes the list of {@link AssetType asset types} supported by this
      * {@link AssetLoader asset loader}.
@@ -43,6 +127,58 @@ public class ImageLoader extends AssetLoader {
         SUPPORTED.add(PNG);
     }
 
+    /**
+     * Sets the number of pixels from which PNG images are decoded by two
+     * threads at once: the loading thread inflates scanlines while a second
+     * thread from the {@link Stage#Decode decode} stage unfilters them into
+     * the image. Smaller images are decoded entirely by the loading thread,
+     * as are all images when the decode stage runs on a single thread. The
+     * default is {@link Integer#MAX_VALUE}, so images are only pipelined once
+     * a threshold has been set.
+     *
+     * @param pixels the minimum number of pixels of a pipelined image, or
+     * {@link Integer#MAX_VALUE} to never pipeline.
+     */
+    public static void setPipelineThreshold(final int pixels) {
+        pipelineThreshold = Math.max(pixels, 1);
+    }
+
+    /**
+     * Returns the number of pixels from which PNG images are decoded by two
+     * threads at once.
+     *
+     * @return the minimum number of pixels of a pipelined image.
+     * @see #setPipelineThreshold(int)
+     */
+    public static int getPipelineThreshold() {
+        return pipelineThreshold;
+    }
+
+    /**
+     * Sets the filter used to generate the complete mipmap chain of each
+     * image once it has been decoded. The chain is generated on the asset
+     * worker that decodes the image, so that textures need not generate
+     * mipmaps on the render thread, and the time taken is reported by
+     * {@link Image#getMipmapTime()}. Images already cached by the derived
+     * data cache with a different filter are decoded again. The default is
+     * null, which generates no chain.
+     *
+     * @param filter the mipmap filter, or null to generate no chain.
+     */
+    public static void setMipmapFilter(final MipmapGenerator.Filter filter) {
+        mipmapFilter = filter;
+    }
+
+    /**
+     * Returns the filter used to generate the mipmap chain of each image.
+     *
+     * @return the mipmap filter, or null if no chain is generated.
+     * @see #setMipmapFilter(MipmapGenerator.Filter)
+     */
+    public static MipmapGenerator.Filter getMipmapFilter() {
+        return mipmapFilter;
+    }
+
     /**
      * Returns a callable {@link AssetTask loading task} for constructing an
      * {@link Image image asset} from the {@link InputStream input stream} of
@@ -60,15 +196,169 @@ public class ImageLoader extends AssetLoader {
         throw new UnsupportedOperationException("Unsupported Image File Type: " + key.getType().toString());
     }
 
+    /**
+     * Returns a callable {@link AssetTask loading task} for constructing an
+     * {@link Image image asset} directly from the contents of the image file at
+     * the path specified by the {@link AssetKey asset key}.
+     *
+     * @param key the {@link AssetKey key} associated with the image file.
+     * @param buffer the contents of the image file.
+     * @return the callable task for constructing the {@link Image image asset}.
+     */
+    @Override
+    public AssetTask newTask(final AssetKey key, final ByteBuffer buffer) {
+        if (key.getType().equals(PNG)) {
+            return new PNGLoader(key, buffer);
+        }
+        throw new UnsupportedOperationException("Unsupported Image File Type: " + key.getType().toString());
+    }
+
+    /**
+     * Estimates the size of the decoded image surface data from the IHDR
+     * chunk of a PNG file, which always immediately follows the signature.
+     *
+     * @param key the {@link AssetKey key} associated with the image file.
+     * @param buffer the contents of the image file.
+     * @return the estimated surface data size in bytes, or zero if the file
+     * does not begin with a valid header.
+     */
+    @Override
+    public long estimateSize(final AssetKey key, final ByteBuffer buffer) {
+        final int start = buffer.position();
+        if (!key.getType().equals(PNG) || buffer.remaining() < 26 || buffer.getInt(start + 12) != PNGLoader.IHDR) {
+            return 0;
+        }
+        final long pixels = (long) buffer.getInt(start + 16) * buffer.getInt(start + 20);
+        final int depth = (buffer.get(start + 24) & 255) > 8 ? 2 : 1;
+        switch (buffer.get(start + 25) & 255) {
+            case 0:
+                return pixels * depth;
+            case 2:
+                return pixels * depth * 3;
+            case 4:
+                return pixels * depth * 2;
+            default:
+                return pixels * depth * 4;
+        }
+    }
+
+    /**
+     * Returns the version of the derived data produced by this loader.
+     *
+     * @return the derived data version.
+     */
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    /**
+     * Encodes the format, dimensions, decoded pixel data and mipmap chain of
+     * an {@link Image image}. The pixel data of each level is written
+     * directly from the image buffers without being copied.
+     *
+     * @param asset the image to encode.
+     * @return the header and pixel data buffers.
+     */
+    @Override
+    public ByteBuffer[] encode(final Asset asset) {
+        final Image image = (Image) asset;
+        final int levels = image.getLevelCount();
+        final MipmapGenerator.Filter filter = mipmapFilter;
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(image.getFormat().ordinal()).putInt(image.getWidth()).putInt(image.getHeight()).putInt((levels > 1 && filter != null) ? filter.ordinal() + 1 : 0).flip();
+        final ByteBuffer[] payload = new ByteBuffer[levels + 1];
+        payload[0] = header;
+        for (int level = 0; level < levels; level++) {
+            payload[level + 1] = image.getBuffer(level);
+            payload[level + 1].rewind();
+        }
+        return payload;
+    }
+
+    /**
+     * Reconstructs an {@link Image image} from derived data. The returned
+     * image uses views of the cached data as its pixel buffers.
+     *
+     * @param key the {@link AssetKey key} of the image.
+     * @param data the encoded image data.
+     * @return the image, or null if the data is inconsistent or its mipmap
+     * chain was not generated with the current
+     * {@link #setMipmapFilter(MipmapGenerator.Filter) mipmap filter}.
+     */
+    @Override
+    public Asset decode(final AssetKey key, final ByteBuffer data) {
+        final Image.Format[] formats = Image.Format.values();
+        final int format = data.getInt(0), width = data.getInt(4), height = data.getInt(8), filter = data.getInt(12);
+        final MipmapGenerator.Filter current = mipmapFilter;
+        if (format < 0 || format >= formats.length || width <= 0 || height <= 0 || filter != ((current != null && (width > 1 || height > 1)) ? current.ordinal() + 1 : 0)) {
+            return null;
+        }
+
+        // Validate The Size Of Every Level //
+        final int levels = (filter != 0) ? MipmapGenerator.getLevelCount(width, height) : 1;
+        long size = HEADER_SIZE;
+        for (int level = 0; level < levels; level++) {
+            size += (long) Math.max(width >> level, 1) * Math.max(height >> level, 1) * formats[format].BPP;
+        }
+        if (size != data.capacity()) {
+            return null;
+        }
+
+        // Slice Each Level From The Cached Data //
+        final ByteBuffer view = data.duplicate();
+        final ByteBuffer[] mipmaps = new ByteBuffer[levels - 1];
+        ByteBuffer pixels = null;
+        int offset = HEADER_SIZE;
+        for (int level = 0; level < levels; level++) {
+            final int length = Math.max(width >> level, 1) * Math.max(height >> level, 1) * formats[format].BPP;
+            view.limit(offset + length).position(offset);
+            if (level == 0) {
+                pixels = view.slice();
+            } else {
+                mipmaps[level - 1] = view.slice();
+            }
+            offset += length;
+        }
+        return new Image(key, formats[format], width, height, pixels, mipmaps, 0);
+    }
+
     /**
      * PNG Image Loader - (C) Cybertekt Software
      *
      * Callable {@link AssetTask task} for constructing an {@link Image image}
-     * using data from the {@link InputStream input stream} of an external PNG
-     * file. This class does not support loading images with a bit depth less
-     * than 8, nor does it support interlaced, indexed, or grayscale images
-     * (these types of images are less than optimal and therefore should not be
-     * used).
+     * using the data of an external PNG file, provided either as an
+     * {@link InputStream input stream} or as a buffer. The file is decoded as
+     * it is read: the payload of each IDAT chunk is passed through a small
+     * window into a single inflater shared by every IDAT chunk of the image,
+     * and each scanline is unfiltered and written to the image data as soon as
+     * it has been inflated. Chunks are never collected before decoding, so the
+     * compressed data may be split between any number of IDAT chunks and the
+     * heap used while decoding is limited to the window and two scanlines,
+     * regardless of the size of the file.
+     * <p>
+     * The inflater, window and scanlines are borrowed from a pool of
+     * {@link Decoder decoders} for the duration of the load, and the two
+     * scanlines are swapped rather than copied after each row, so decoding
+     * allocates nothing per chunk or per scanline once the pool is warm.
+     * </p>
+     * <p>
+     * Images of at least the {@link ImageLoader#setPipelineThreshold(int)
+     * pipeline threshold} are decoded by a {@link Pipeline pipeline}, which
+     * unfilters scanlines on a second thread while the loading thread
+     * inflates the next ones.
+     * </p>
+     * <p>
+     * Every color type, bit depth and interlacing method of the specification
+     * is supported, and each image is decoded into the smallest
+     * {@link Image.Format format} that holds it: grayscale images into one
+     * channel, grayscale images with alpha into two, and samples of less than
+     * 8 bits are scaled to 8 bits. Indexed images are expanded through their
+     * palette into one or two channels if every palette entry is gray, and
+     * alpha is only added if the tRNS chunk makes an entry transparent.
+     * Grayscale and truecolor images with a transparency key gain an alpha
+     * channel, which is transparent for every pixel matching the key.
+     * </p>
      *
      * @see https://www.w3.org/TR/2003/REC-PNG-20031110/ for specification.
      * @see http://www.schaik.com/pngsuite/ for test suite.
@@ -78,16 +368,6 @@ public class ImageLoader extends AssetLoader {
      */
     private class PNGLoader extends AssetTask {
 
-        /**
-         * PNG File Signature.
-         */
-        private final byte[] PNG = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
-
-        /**
-         * Cyclic redundancy check to verify the file is not corrupted.
-         */
-        private final CRC32 CRC32 = new CRC32();
-
         /**
          * PNG Image Header Chunk Signature.
          */
@@ -108,6 +388,124 @@ public class ImageLoader extends AssetLoader {
          */
         private static final int IEND = 0x49454E44;
 
+        /**
+         * PNG Transparency Chunk Signature.
+         */
+        private static final int TRNS = 0x74524E53;
+
+        /**
+         * Big-endian view of the PNG file data being parsed, or null if the
+         * file is read from the input stream.
+         */
+        private ByteBuffer in;
+
+        /**
+         * The {@link Decoder decoder} borrowed for the duration of the load.
+         */
+        private Decoder decoder;
+
+        /**
+         * The image surface data buffer, allocated when the first IDAT chunk
+         * is read.
+         */
+        private ByteBuffer data;
+
+        /**
+         * The format of the image surface data.
+         */
+        private Image.Format format;
+
+        /**
+         * Width of the image in pixels.
+         */
+        private int width;
+
+        /**
+         * Height of the image in pixels.
+         */
+        private int height;
+
+        /**
+         * The number of bits per sample of the image.
+         */
+        private int depth;
+
+        /**
+         * The PNG color type of the image.
+         */
+        private int colorType;
+
+        /**
+         * The number of bits per pixel of the scanlines of the image.
+         */
+        private int bits;
+
+        /**
+         * The number of bytes per complete pixel of the scanlines of the
+         * image, at least one, as used by the filters.
+         */
+        private int filterBpp;
+
+        /**
+         * The number of entries in the palette of an indexed image.
+         */
+        private int paletteSize;
+
+        /**
+         * True if the tRNS chunk of a grayscale or truecolor image holds a
+         * transparency key, whose samples are held by the decoder.
+         */
+        private boolean keyed;
+
+        /**
+         * The table mapping each palette index or sub-byte sample to its
+         * pixel in the image format, or null if scanlines are copied into the
+         * image unchanged.
+         */
+        private byte[] table;
+
+        /**
+         * The passes of the image, {@link ImageLoader#ADAM7} if interlaced.
+         */
+        private int[][] passes;
+
+        /**
+         * The pass being decoded, equal to the number of passes once every
+         * scanline has been decoded.
+         */
+        private int pass;
+
+        /**
+         * The number of pixels per scanline of the current pass.
+         */
+        private int passWidth;
+
+        /**
+         * The number of scanlines of the current pass.
+         */
+        private int passHeight;
+
+        /**
+         * The scanline of the current pass being decoded.
+         */
+        private int row;
+
+        /**
+         * The length of a scanline of the current pass in bytes, including its
+         * filter type.
+         */
+        private int stride;
+
+        /**
+         * The number of bytes of the current scanline inflated so far.
+         */
+        private int filled;
+
+        /**
+         * The number of bytes of the current chunk not yet read.
+         */
+        private int remaining;
+
         /**
          * Constructs a task for loading a PNG [@link Image image} asset using
          * the file located at the path specified by the
@@ -122,8 +520,21 @@ public class ImageLoader extends AssetLoader {
         }
 
         /**
-         * Attempts to create an {@link Image image} using the data from the PNG
-         * {@link InputStream input stream} provided during construction.
+         * Constructs a task for loading a PNG [@link Image image} asset using
+         * the contents of the file located at the path specified by the
+         * {@link AssetKey asset key}.
+         *
+         * @param KEY the asset key for the PNG file to load.
+         * @param BUFFER the contents of the file located at the path specified
+         * by the asset key.
+         */
+        public PNGLoader(final AssetKey KEY, final ByteBuffer BUFFER) {
+            super(KEY, BUFFER);
+        }
+
+        /**
+         * Attempts to create an {@link Image image} using the PNG data provided
+         * during construction.
          *
          * @return the {@link Image image} creating using the data from the
          * input stream provided to this object during construction.
@@ -132,166 +543,598 @@ public class ImageLoader extends AssetLoader {
          */
         @Override
         public final Image load() throws AssetInitializationException {
+            ByteBuffer allocated = null;
+            Pipeline pipeline = null;
+            decoder = Decoder.acquire();
             try {
+                // Retrieve PNG File Data (Streams Are Read Chunk By Chunk) //
+                in = (BUFFER != null) ? getBuffer().order(ByteOrder.BIG_ENDIAN) : null;
+
                 // Validate PNG File Signature //
-                validateSignature(readBytes(8));
+                final byte[] window = decoder.WINDOW;
+                read(window, 0, SIGNATURE.length);
+                validateSignature(window);
+
+                // Process Header Chunk (Must Be First) //
+                if (readChunk() != IHDR || remaining != 13) {
+                    throw new IOException("Missing Header");
+                }
+                readData(13);
+
+                // Retrieve Image Size //
+                width = getInt(window, 0);
+                height = getInt(window, 4);
+
+                // Retrieve Image Bit Depth //
+                depth = window[8] & 255;
+
+                // Retrieve Image Color Type //
+                colorType = window[9] & 255;
+
+                // Retrieve Compression, Filtering And Interlacing Methods //
+                final int COMPRESSION = window[10], FILTERING = window[11], INTERLACING = window[12];
+
+                // Verify Header CRC (Overwrites The Window) //
+                endChunk();
+
+                // Validate Image Size //
+                if (width <= 0 || height <= 0) {
+                    throw new IOException("Zero Image Size");
+                }
+
+                // Validate Compression Method (Must Be Zero) //
+                if (COMPRESSION != 0) {
+                    throw new IOException("Invalid Compression Method");
+                }
+
+                // Validate Filtering Method (Must Be Zero) //
+                if (FILTERING != 0) {
+                    throw new IOException("Invalid Filtering Method");
+                }
 
-                // Read PNG Data Chunks //
-                List<Chunk> chunkList = readChunks();
+                // Validate Interlacing Method (None Or Adam7) //
+                if (INTERLACING != 0 && INTERLACING != 1) {
+                    throw new IOException("Invalid Interlacing Method");
+                }
+                passes = (INTERLACING == 1) ? ADAM7 : PROGRESSIVE;
+
+                // Validate Color Type And Bit Depth //
+                bits = getSamples(colorType, depth) * depth;
+                filterBpp = Math.max(bits >> 3, 1);
+
+                // Decode Image Data As Each Chunk Is Read //
+                for (int type = readChunk(); type != IEND; type = readChunk()) {
+                    switch (type) {
+                        case PLTE:
+                            readPalette();
+                            break;
+                        case TRNS:
+                            readTransparency();
+                            break;
+                        case IDAT:
+                            // Create Image Surface Data Buffer From The First Image Data Chunk //
+                            if (data == null) {
+                                format = getFormat(colorType, depth);
+                                data = allocated = NativeMemory.allocate(width * height * format.BPP);
+                                begin();
+
+                                // Unfilter Large Images On A Second Thread //
+                                if (passes == PROGRESSIVE && (long) width * height >= pipelineThreshold && AssetManager.getExecutor(Stage.Decode).getParallelism() > 1) {
+                                    pipeline = new Pipeline(height);
+                                    pipeline.start();
+                                }
+                            }
+                            while (remaining > 0) {
+                                decoder.INFLATER.setInput(window, 0, readData(Math.min(remaining, window.length)));
+                                if (pipeline != null) {
+                                    pipeline.inflate();
+                                } else {
+                                    inflate();
+                                }
+                            }
+                            break;
+                    }
+                    endChunk();
+                }
+                endChunk();
 
-                // Ensure Chunk List Was Populated //
-                if (chunkList.isEmpty()) {
+                // Ensure Every Scanline Was Decoded //
+                if (data == null) {
                     throw new IOException("Missing Image Data");
                 }
+                if (!((pipeline != null) ? pipeline.finish() : pass == passes.length)) {
+                    throw new IOException("Truncated Image Data");
+                }
 
-                // Process Header Chunk //
-                Chunk header = chunkList.get(0);
-                if (header.TYPE != IHDR) {
-                    throw new IOException("Missing Header");
+                // Every Byte Was Written, Possibly Out Of Order //
+                data.clear();
+
+                // Generate Mipmap Chain On This Worker //
+                final MipmapGenerator.Filter filter = mipmapFilter;
+                ByteBuffer[] mipmaps = new ByteBuffer[0];
+                long mipmapTime = 0;
+                if (filter != null) {
+                    final long start = System.nanoTime();
+                    mipmaps = MipmapGenerator.generate(format, width, height, data, filter);
+                    mipmapTime = System.nanoTime() - start;
+                    LOG.debug("Generated {} mipmap level(s) of {} using the {} filter in {}us", mipmaps.length, KEY, filter, mipmapTime / 1000);
+                }
+                final Image image = new Image(KEY, format, width, height, data, mipmaps, mipmapTime);
+                allocated = null;
+                return image;
+            } catch (IOException e) {
+                throw new AssetManager.AssetInitializationException(KEY, "Image file is invalid or corrupt (" + e.getMessage() + ")");
+            } finally {
+                // Stop The Unfiltering Thread Before Releasing Its Buffers //
+                if (pipeline != null) {
+                    pipeline.close();
+                }
+
+                // Return Decoder To The Pool //
+                decoder.release();
+                decoder = null;
+                data = null;
+                in = null;
+
+                // Free Surface Data Of Failed Image //
+                NativeMemory.free(allocated);
+            }
+        }
+
+        /**
+         * Prepares the scanline buffers and the expansion table of the image
+         * and begins the first non-empty pass.
+         *
+         * @throws IOException if the palette of an indexed image is missing.
+         */
+        private void begin() throws IOException {
+            pass = -1;
+            nextPass();
+            decoder.prepare(getLength(width) + 1, width * format.BPP);
+            table = (colorType == 3 || depth < 8 || (keyed && colorType == 0 && depth == 8)) ? getTable() : null;
+        }
+
+        /**
+         * Advances to the next pass containing any pixels. Passes of an
+         * interlaced image that contain no pixels are empty of scanlines.
+         */
+        private void nextPass() {
+            row = 0;
+            while (++pass < passes.length) {
+                final int[] PASS = passes[pass];
+                passWidth = (width - PASS[0] + PASS[2] - 1) / PASS[2];
+                passHeight = (height - PASS[1] + PASS[3] - 1) / PASS[3];
+                if (passWidth > 0 && passHeight > 0) {
+                    stride = getLength(passWidth) + 1;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Returns the length in bytes of the pixel data of a scanline.
+         *
+         * @param pixels the number of pixels in the scanline.
+         * @return the length of the scanline, excluding its filter type.
+         */
+        private int getLength(final int pixels) {
+            return (int) (((long) pixels * bits + 7) >> 3);
+        }
+
+        /**
+         * Inflates as many scanlines as the input given to the inflater allows,
+         * unfiltering each completed scanline into the image data. A partially
+         * inflated scanline is completed by the next call, so the compressed
+         * data may be split anywhere between IDAT chunks.
+         *
+         * @throws IOException if the compressed data or a filter type is
+         * invalid.
+         */
+        private void inflate() throws IOException {
+            final Inflater inflater = decoder.INFLATER;
+            byte[] current = decoder.current;
+            byte[] last = decoder.last;
+            try {
+                while (pass < passes.length) {
+                    final int count = inflater.inflate(current, filled, stride - filled);
+                    if (count == 0) {
+                        if (inflater.needsDictionary()) {
+                            throw new IOException("Decompression Failed: Preset Dictionary");
+                        }
+                        return;
+                    }
+                    filled += count;
+                    if (filled == stride) {
+                        unfilter(current, last, stride, filterBpp);
+                        emit(current, row);
+
+                        // Swap Scanlines Instead Of Copying //
+                        final byte[] swap = last;
+                        last = current;
+                        current = swap;
+                        filled = 0;
+
+                        // Begin Next Pass With An Empty Previous Scanline //
+                        if (++row == passHeight) {
+                            nextPass();
+                            Arrays.fill(last, 0, stride, (byte) 0);
+                        }
+                    }
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Decompression Failed: " + e.getMessage());
+            } finally {
+                decoder.current = current;
+                decoder.last = last;
+            }
+        }
+
+        /**
+         * Writes an unfiltered scanline of the current pass to the image data,
+         * expanding it through the table or adding the alpha of the
+         * transparency key if needed. Scanlines of
+         * non-interlaced images are written in order; the pixels of
+         * interlaced scanlines are scattered to their positions in the image.
+         *
+         * @param line the unfiltered scanline, preceded by its filter type.
+         * @param row the scanline of the current pass.
+         */
+        private void emit(final byte[] line, final int row) {
+            final byte[] pixels = (table != null) ? expand(line) : keyed ? key(line) : line;
+            final int offset = (pixels != line) ? 0 : 1;
+            final int bpp = format.BPP;
+            if (passes == PROGRESSIVE) {
+                data.put(pixels, offset, passWidth * bpp);
+                return;
+            }
+            final int[] PASS = passes[pass];
+            final int step = (PASS[2] - 1) * bpp;
+            for (int x = 0, index = ((PASS[1] + row * PASS[3]) * width + PASS[0]) * bpp, source = offset; x < passWidth; x++, index += step) {
+                for (int end = index + bpp; index < end; index++) {
+                    data.put(index, pixels[source++]);
+                }
+            }
+        }
+
+        /**
+         * Expands the palette indices or sub-byte samples of a scanline of the
+         * current pass into pixels of the image format.
+         *
+         * @param line the unfiltered scanline, preceded by its filter type.
+         * @return the expanded pixels, held by the decoder.
+         */
+        private byte[] expand(final byte[] line) {
+            final byte[] out = decoder.output;
+            final byte[] TABLE = table;
+            final int bpp = format.BPP;
+            if (depth == 8) {
+                for (int x = 1, o = 0, end = passWidth + 1; x < end; x++) {
+                    for (int i = (line[x] & 255) * bpp, e = i + bpp; i < e; i++) {
+                        out[o++] = TABLE[i];
+                    }
+                }
+            } else {
+                final int mask = (1 << depth) - 1;
+                for (int x = 0, o = 0, bit = 0; x < passWidth; x++, bit += depth) {
+                    for (int i = ((line[1 + (bit >> 3)] >> (8 - depth - (bit & 7))) & mask) * bpp, e = i + bpp; i < e; i++) {
+                        out[o++] = TABLE[i];
+                    }
+                }
+            }
+            return out;
+        }
+
+        /**
+         * Adds an alpha channel to the 8 or 16 bit samples of a scanline of
+         * the current pass, transparent where every sample of a pixel matches
+         * the transparency key and opaque elsewhere.
+         *
+         * @param line the unfiltered scanline, preceded by its filter type.
+         * @return the pixels with alpha, held by the decoder.
+         */
+        private byte[] key(final byte[] line) {
+            final byte[] out = decoder.output;
+            final int[] KEY = decoder.KEY;
+            final int channels = (colorType == 2) ? 3 : 1, size = depth >> 3;
+            for (int x = 0, i = 1, o = 0; x < passWidth; x++) {
+                boolean match = true;
+                for (int c = 0; c < channels; c++) {
+                    final int sample = (size == 2) ? ((line[i] & 255) << 8) | (line[i + 1] & 255) : line[i] & 255;
+                    match &= sample == KEY[c];
+                    for (int e = i + size; i < e; i++) {
+                        out[o++] = line[i];
+                    }
+                }
+                for (int e = o + size; o < e; o++) {
+                    out[o] = match ? 0 : (byte) -1;
                 }
+            }
+            return out;
+        }
 
-                // Retrieve Image Size //
-                final int WIDTH = header.getInt(0);
-                final int HEIGHT = header.getInt(4);
-
-                // Validate Image Size //
-                if (WIDTH <= 0 || HEIGHT <= 0) {
-                    throw new IOException("Zero Image Size");
-                }
+        /**
+         * Two stage pipeline that decodes a large image on two threads. The
+         * loading thread inflates scanlines into a ring of scanline buffers
+         * while a helper task on the {@link Stage#Decode decode} stage
+         * unfilters each completed scanline in place and writes it to the
+         * image data. Only used for non-interlaced images. Unfiltering a scanline requires the previous scanline to
+         * have been unfiltered, so scanlines are unfiltered in order by one
+         * thread at a time.
+         * <p>
+         * The helper is queued in the asset thread pool in the lane of the
+         * priority of the load, so it never overtakes more urgent loads and
+         * counts towards the workers of the decode stage. The helper never
+         * waits: it unfilters the scanlines that have been inflated and
+         * returns, and the loading thread queues it again once enough
+         * scanlines are waiting.
+         * </p>
+         * <p>
+         * The helper may start late, or not at all, when every thread of the
+         * decode stage is busy. Whenever the ring is full the loading thread
+         * therefore unfilters waiting scanlines itself rather than waiting for
+         * the helper, so a pipelined decode never takes longer than it would
+         * on a single thread by more than the cost of the hand-off.
+         * </p>
+         */
+        private final class Pipeline implements Runnable {
 
-                // Retrieve Image Bit Depth //
-                final int BIT_DEPTH = header.getByte(8) & 255;
+            /**
+             * The number of scanlines of the image.
+             */
+            private final int ROWS;
 
-                // Retrieve Image Color Type //
-                final int COLOR_TYPE = header.getByte(9) & 255;
+            /**
+             * The ring of scanline buffers. Scanline n is held in slot n
+             * modulo the length of the ring.
+             */
+            private final byte[][] RING;
 
-                // Validate Compression Method (Must Be Zero) //
-                if (header.getByte(10) != 0) {
-                    throw new IOException("Invalid Compression Method");
-                }
+            /**
+             * Held by the thread unfiltering scanlines.
+             */
+            private final ReentrantLock UNFILTER = new ReentrantLock();
 
-                // Validate Filtering Method (Must Be Zero) //
-                if (header.getByte(11) != 0) {
-                    throw new IOException("Invalid Filtering Method");
-                }
+            /**
+             * Queues the helper in the lane of the priority of the load.
+             */
+            private final Executor EXECUTOR;
 
-                // Validate Interlacing Mode (Interlacing Not Supported) //
-                if (header.getByte(12) != 0) {
-                    throw new IOException("Unsupported Image Type: Interlaced");
-                }
+            /**
+             * The number of inflated scanlines waiting to be unfiltered from
+             * which the helper is queued again.
+             */
+            private final int BATCH;
 
-                // Create Appropriate Image Format //
-                final Image.Format FORMAT = getFormat(COLOR_TYPE, BIT_DEPTH);
+            /**
+             * Indicates that the helper is queued or running.
+             */
+            private final AtomicBoolean scheduled = new AtomicBoolean();
 
-                // Create Image Surface Data Buffer //
-                final ByteBuffer DATA = BufferUtils.createByteBuffer(WIDTH * HEIGHT * FORMAT.BPP);
+            /**
+             * The number of scanlines inflated into the ring.
+             */
+            private volatile int inflated;
 
-                // Create Inflater Used For Decompression //
-                final Inflater INFLATER = new Inflater();
+            /**
+             * The number of scanlines unfiltered into the image data.
+             */
+            private volatile int unfiltered;
 
-                for (final Chunk CHUNK : chunkList) {
-                    if (CHUNK.TYPE == IDAT) {
-                        // Process Image Data Chunk Based On PNG Color Type //
-                        switch (COLOR_TYPE) {
-                            case 2: {
-                                // Calculate Scanline Size //
-                                int length = WIDTH * FORMAT.BPP;
+            /**
+             * Indicates that the decode has finished or failed and that the
+             * helper must stop.
+             */
+            private volatile boolean closed;
 
-                                // Stores The Current Scanline //
-                                byte[] current = new byte[length + 1];
+            /**
+             * Constructs a pipeline for a non-interlaced image.
+             *
+             * @param rows the number of scanlines of the image.
+             */
+            private Pipeline(final int rows) {
+                final Priority priority = AssetManager.getPriority(KEY);
+                this.ROWS = rows;
+                this.RING = decoder.ring(Math.max(4, Math.min(256, RING_SIZE / stride)), stride);
+                this.BATCH = RING.length / 4;
+                this.EXECUTOR = AssetManager.getPoolExecutor((priority != null) ? priority : Priority.Visible);
+            }
 
-                                // Stores The Last Scanline Processed (Required For Filtering) //
-                                byte[] last = new byte[length + 1];
+            /**
+             * Queues the helper unless it is already queued or running. If the
+             * thread pool rejects it, every remaining scanline is unfiltered by
+             * the loading thread.
+             */
+            private void start() {
+                if (scheduled.compareAndSet(false, true)) {
+                    try {
+                        EXECUTOR.execute(this);
+                    } catch (final RejectedExecutionException e) {
+                        // Unfiltered By The Loading Thread //
+                    }
+                }
+            }
 
-                                // Set Decompression Data //
-                                INFLATER.setInput(CHUNK.DATA);
+            /**
+             * Unfilters the scanlines inflated so far and returns once it has
+             * caught up with the loading thread or the pipeline is closed.
+             * Runs on the helper thread, which never waits for the loading
+             * thread.
+             */
+            @Override
+            public void run() {
+                try {
+                    while (!closed && help()) {
+                        // Continue While Scanlines Are Waiting //
+                    }
+                } catch (final IOException e) {
+                    // Reported By The Loading Thread When It Reaches The Scanline //
+                } finally {
+                    scheduled.set(false);
+                }
+            }
 
-                                // Decompress And Process Image Data //
-                                while (!INFLATER.finished()) {
-                                    try {
-                                        INFLATER.inflate(current);
-                                    } catch (DataFormatException e) {
-                                        throw new IOException("Decompression Failed: " + e.getMessage());
+            /**
+             * Inflates as many scanlines into the ring as the input given to
+             * the inflater allows. Runs on the loading thread, which unfilters
+             * waiting scanlines itself whenever the ring is full.
+             *
+             * @throws IOException if the compressed data or a filter type is
+             * invalid.
+             */
+            private void inflate() throws IOException {
+                final Inflater inflater = decoder.INFLATER;
+                try {
+                    while (inflated < ROWS) {
+                        // Wait For The Slot To Be Unfiltered, Helping If Possible //
+                        final int row = inflated, free = row - RING.length + 2;
+                        while (unfiltered < free) {
+                            if (!help()) {
+                                synchronized (this) {
+                                    while (unfiltered < free && UNFILTER.isLocked()) {
+                                        wait();
                                     }
-                                    DATA.put(unfilter(current, last, FORMAT.BPP), 1, current.length - 1);
-                                    last = Arrays.copyOf(current, current.length);
                                 }
-                                break;
                             }
-                            case 6: {
-                                // Calculate Scanline Size //
-                                int length = WIDTH * FORMAT.BPP;
+                        }
+
+                        final int count = inflater.inflate(RING[row % RING.length], filled, stride - filled);
+                        if (count == 0) {
+                            if (inflater.needsDictionary()) {
+                                throw new IOException("Decompression Failed: Preset Dictionary");
+                            }
+                            return;
+                        }
+                        filled += count;
+                        if (filled == stride) {
+                            filled = 0;
+                            inflated = row + 1;
+
+                            // Queue The Helper Again Once Enough Scanlines Are Waiting //
+                            if (inflated - unfiltered >= BATCH) {
+                                start();
+                            }
+                        }
+                    }
+                } catch (final DataFormatException e) {
+                    throw new IOException("Decompression Failed: " + e.getMessage());
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Decode Interrupted");
+                }
+            }
 
-                                // Stores The Current Scanline //
-                                byte[] current = new byte[length + 1];
+            /**
+             * Stops the helper and unfilters any scanlines it has not yet
+             * unfiltered on the loading thread.
+             *
+             * @return true if every scanline of the image was decoded.
+             * @throws IOException if a filter type is invalid.
+             */
+            private boolean finish() throws IOException {
+                UNFILTER.lock();
+                try {
+                    closed = true;
+                    unfilter();
+                } finally {
+                    UNFILTER.unlock();
+                }
+                return unfiltered == ROWS;
+            }
 
-                                // Stores The Last Scanline Processed (Required For Filtering) //
-                                byte[] last = new byte[length + 1];
+            /**
+             * Stops the helper, waiting for it to finish any scanline it is
+             * unfiltering so that the image data and the ring may be released.
+             */
+            private void close() {
+                closed = true;
+                UNFILTER.lock();
+                UNFILTER.unlock();
+            }
 
-                                // Inflater For Image Decompression //
-                                INFLATER.setInput(CHUNK.DATA);
+            /**
+             * Unfilters every inflated scanline if no other thread is doing
+             * so.
+             *
+             * @return true if any scanline was unfiltered.
+             * @throws IOException if a filter type is invalid.
+             */
+            private boolean help() throws IOException {
+                if (!UNFILTER.tryLock()) {
+                    return false;
+                }
+                final boolean progressed;
+                try {
+                    progressed = !closed && unfilter();
+                } finally {
+                    UNFILTER.unlock();
+                }
+                synchronized (this) {
+                    notifyAll();
+                }
+                return progressed;
+            }
 
-                                // Decompress And Process Image Data //
-                                while (!INFLATER.finished()) {
-                                    try {
-                                        INFLATER.inflate(current);
-                                    } catch (DataFormatException e) {
-                                        throw new IOException("Decompression Failed: " + e.getMessage());
-                                    }
-                                    DATA.put(unfilter(current, last, FORMAT.BPP), 1, current.length - 1);
-                                    last = Arrays.copyOf(current, current.length);
-                                }
-                                break;
-                            }
-                        }
+            /**
+             * Unfilters every inflated scanline in order into the image data,
+             * waking the loading thread after each one. Must be called while
+             * holding the unfilter lock.
+             *
+             * @return true if any scanline was unfiltered.
+             * @throws IOException if a filter type is invalid.
+             */
+            private boolean unfilter() throws IOException {
+                final int start = unfiltered;
+                for (int row = start, end = inflated; row < end; row++) {
+                    final byte[] line = RING[row % RING.length];
+                    PNGLoader.this.unfilter(line, (row == 0) ? decoder.last : RING[(row - 1) % RING.length], stride, filterBpp);
+                    emit(line, row);
+                    unfiltered = row + 1;
+                    synchronized (this) {
+                        notifyAll();
                     }
                 }
-                DATA.flip();
-                return new Image(KEY, FORMAT, WIDTH, HEIGHT, DATA);
-            } catch (IOException e) {
-                throw new AssetManager.AssetInitializationException(KEY, "Image file is invalid or corrupt (" + e.getMessage() + ")");
+                return unfiltered > start;
             }
         }
 
         /**
          * Indicates if the provided signature is a valid PNG file signature.
          *
-         * @param signature the byte signature to validate.
+         * @param signature the array beginning with the byte signature to
+         * validate.
          * @throws IOException if the provided signature is not a valid PNG file
          * signature.
          */
-        private void validateSignature(byte[] signature) throws IOException {
-            if (!Arrays.equals(PNG, signature)) {
-                throw new IOException("Invalid Signature");
+        private void validateSignature(final byte[] signature) throws IOException {
+            for (int i = 0; i < SIGNATURE.length; i++) {
+                if (signature[i] != SIGNATURE[i]) {
+                    throw new IOException("Invalid Signature");
+                }
             }
         }
 
         /**
-         * Returns the appropriate {@link Image.Format image format} for the
-         * color type and bit depth provided.
+         * Returns the number of samples per pixel of the color type provided,
+         * validating the bit depth of the color type.
          *
          * @param COLOR_TYPE the image color type.
          * @param BIT_DEPTH the image bit depth.
-         * @return the {@link Image.Format image format} for the color type and
-         * bit depth provided.
+         * @return the number of samples per pixel.
          * @throws IOException if the provided color type and/or bit depth is
-         * unsupported.
+         * invalid.
          */
-        private Image.Format getFormat(final int COLOR_TYPE, final int BIT_DEPTH) throws IOException {
+        private int getSamples(final int COLOR_TYPE, final int BIT_DEPTH) throws IOException {
             switch (COLOR_TYPE) {
 
                 // Grayscale (No Alpha) Color Type //
                 case 0: {
-                    throw new IOException("Unsupported Image Type: Grayscale");
-                }
-
-                // Colored (No Alpha) Color Type //
-                case 2: {
                     switch (BIT_DEPTH) {
+                        case 1:
+                        case 2:
+                        case 4:
                         case 8:
-                            return Image.Format.RGB8;
                         case 16:
-                            return Image.Format.RGB16;
+                            return 1;
                         default:
                             throw new IOException("Unsupported Bit Depth: " + BIT_DEPTH);
                     }
@@ -299,25 +1142,30 @@ public class ImageLoader extends AssetLoader {
 
                 // Indexed Color Type //
                 case 3: {
-                    throw new IOException("Unsupported Image Type: Indexed");
-                }
-
-                // Grayscale (With Alpha) Color Type //
-                case 4: {
-                    throw new IOException("Unsupported Image Type: Grayscale");
+                    switch (BIT_DEPTH) {
+                        case 1:
+                        case 2:
+                        case 4:
+                        case 8:
+                            return 1;
+                        default:
+                            throw new IOException("Unsupported Bit Depth: " + BIT_DEPTH);
+                    }
                 }
 
-                // Colored (With Alpha) Color Type //
+                // Colored (No Alpha), Grayscale (With Alpha) And Colored (With Alpha) Color Types //
+                case 2:
+                case 4:
                 case 6: {
                     switch (BIT_DEPTH) {
                         case 8:
-                            return Image.Format.RGBA8;
                         case 16:
-                            return Image.Format.RGBA16;
+                            return (COLOR_TYPE == 2) ? 3 : (COLOR_TYPE == 4) ? 2 : 4;
                         default:
                             throw new IOException("Unsupported Bit Depth: " + BIT_DEPTH);
                     }
                 }
+
                 // Unknown/Invalid Color Type //
                 default: {
                     throw new IOException("Invalid Image Color Type: " + COLOR_TYPE);
@@ -326,77 +1174,283 @@ public class ImageLoader extends AssetLoader {
         }
 
         /**
-         * Returns a list of PNG chunks from the {@link #INPUT input stream}.
-         * The IEND chunk is not added to the list as it contains no data.
+         * Returns the appropriate {@link Image.Format image format} for the
+         * color type and bit depth provided. Indexed images use the smallest
+         * format holding every entry of their palette, and grayscale and
+         * truecolor images with a transparency key gain an alpha channel.
+         *
+         * @param COLOR_TYPE the image color type.
+         * @param BIT_DEPTH the image bit depth.
+         * @return the {@link Image.Format image format} for the color type and
+         * bit depth provided.
+         * @throws IOException if the palette of an indexed image is missing.
+         */
+        private Image.Format getFormat(final int COLOR_TYPE, final int BIT_DEPTH) throws IOException {
+            switch (COLOR_TYPE) {
+
+                // Grayscale (No Alpha) Color Type //
+                case 0:
+                    if (keyed) {
+                        return (BIT_DEPTH == 16) ? Image.Format.RG16 : Image.Format.RG8;
+                    }
+                    return (BIT_DEPTH == 16) ? Image.Format.R16 : Image.Format.R8;
+
+                // Colored (No Alpha) Color Type //
+                case 2:
+                    if (keyed) {
+                        return (BIT_DEPTH == 16) ? Image.Format.RGBA16 : Image.Format.RGBA8;
+                    }
+                    return (BIT_DEPTH == 16) ? Image.Format.RGB16 : Image.Format.RGB8;
+
+                // Indexed Color Type //
+                case 3: {
+                    if (paletteSize == 0) {
+                        throw new IOException("Missing Palette");
+                    }
+                    boolean gray = true, opaque = true;
+                    for (int i = 0; i < paletteSize; i++) {
+                        final byte[] PALETTE = decoder.PALETTE;
+                        gray &= PALETTE[i * 3] == PALETTE[i * 3 + 1] && PALETTE[i * 3] == PALETTE[i * 3 + 2];
+                        opaque &= decoder.ALPHA[i] == -1;
+                    }
+                    if (gray) {
+                        return opaque ? Image.Format.R8 : Image.Format.RG8;
+                    }
+                    return opaque ? Image.Format.RGB8 : Image.Format.RGBA8;
+                }
+
+                // Grayscale (With Alpha) Color Type //
+                case 4:
+                    return (BIT_DEPTH == 16) ? Image.Format.RG16 : Image.Format.RG8;
+
+                // Colored (With Alpha) Color Type //
+                default:
+                    return (BIT_DEPTH == 16) ? Image.Format.RGBA16 : Image.Format.RGBA8;
+            }
+        }
+
+        /**
+         * Builds the table mapping each palette index, or each sub-byte
+         * grayscale sample, to its pixel in the image format. Palette indices
+         * beyond the end of the palette map to zero, and grayscale samples
+         * matching the transparency key, if any, to a transparent pixel.
+         *
+         * @return the table, held by the decoder.
+         */
+        private byte[] getTable() {
+            final byte[] TABLE = decoder.TABLE;
+            final int bpp = format.BPP;
+
+            // Scale Sub-Byte Grayscale Samples To 8 Bits //
+            if (colorType == 0) {
+                final int mask = (1 << depth) - 1;
+                for (int i = 0, o = 0; i <= mask; i++, o += bpp) {
+                    TABLE[o] = (byte) (i * 255 / mask);
+                    if (bpp == 2) {
+                        TABLE[o + 1] = (i == decoder.KEY[0]) ? 0 : (byte) -1;
+                    }
+                }
+                return TABLE;
+            }
+
+            // Expand Palette Entries, Adding Alpha Only If Required //
+            Arrays.fill(TABLE, 0, 256 * bpp, (byte) 0);
+            for (int i = 0, o = 0; i < paletteSize; i++, o += bpp) {
+                TABLE[o] = decoder.PALETTE[i * 3];
+                if (bpp >= 3) {
+                    TABLE[o + 1] = decoder.PALETTE[i * 3 + 1];
+                    TABLE[o + 2] = decoder.PALETTE[i * 3 + 2];
+                }
+                if (bpp == 2 || bpp == 4) {
+                    TABLE[o + bpp - 1] = decoder.ALPHA[i];
+                }
+            }
+            return TABLE;
+        }
+
+        /**
+         * Reads the palette of an indexed image from the PLTE chunk. The
+         * suggested palettes of other images, and palettes following image
+         * data, are ignored.
          *
-         * @return the list of PNG chunks read from the input stream.
-         * @throws IOException if the PNG chunks cannot be read for any reason.
+         * @throws IOException if the end of the file is reached unexpectedly
+         * while reading or if the palette is invalid.
          */
-        private List<Chunk> readChunks() throws IOException {
-            List<Chunk> chunkList = new ArrayList<>();
+        private void readPalette() throws IOException {
+            if (colorType != 3 || data != null) {
+                return;
+            }
+            if (remaining % 3 != 0 || remaining == 0 || remaining > 768) {
+                throw new IOException("Invalid Palette");
+            }
+            paletteSize = remaining / 3;
+            System.arraycopy(decoder.WINDOW, 0, decoder.PALETTE, 0, readData(remaining));
+            Arrays.fill(decoder.ALPHA, (byte) -1);
+        }
 
-            int length = readInt();
-            Chunk chunk = new Chunk(length, readBytes(4), readBytes(length), readInt());
+        /**
+         * Reads the alpha of each palette entry of an indexed image, or the
+         * transparency key of a grayscale or truecolor image, from the tRNS
+         * chunk. Palette entries without an alpha remain opaque. Transparency
+         * following image data is ignored.
+         *
+         * @throws IOException if the end of the file is reached unexpectedly
+         * while reading or if the transparency key is invalid.
+         */
+        private void readTransparency() throws IOException {
+            if (data != null) {
+                return;
+            }
+            if (colorType == 3 && paletteSize > 0) {
+                System.arraycopy(decoder.WINDOW, 0, decoder.ALPHA, 0, readData(Math.min(remaining, paletteSize)));
+            } else if (colorType == 0 || colorType == 2) {
+                final int channels = (colorType == 2) ? 3 : 1;
+                if (remaining != channels * 2) {
+                    throw new IOException("Invalid Transparency");
+                }
+                readData(remaining);
+                for (int c = 0; c < channels; c++) {
+                    decoder.KEY[c] = (((decoder.WINDOW[c * 2] & 255) << 8) | (decoder.WINDOW[c * 2 + 1] & 255)) & ((1 << depth) - 1);
+                }
+                keyed = true;
+            }
+        }
 
-            while (chunk.TYPE != IEND) {
-                chunkList.add(chunk);
-                chunk = new Chunk(length = readInt(), readBytes(4), readBytes(length), readInt());
+        /**
+         * Reads the length and type of the next chunk from the PNG file data
+         * and begins the cyclic redundancy check of the chunk. The chunk data
+         * is then read using {@link #readData(int)} and the chunk completed
+         * using {@link #endChunk()}.
+         *
+         * @return the type of the chunk.
+         * @throws IOException if the end of the file is reached unexpectedly
+         * while reading or if the chunk length is invalid.
+         */
+        private int readChunk() throws IOException {
+            final int length = readInt();
+            if (length < 0) {
+                throw new IOException("Invalid Chunk Length");
             }
+            read(decoder.WINDOW, 0, 4);
+            decoder.CRC32.reset();
+            decoder.CRC32.update(decoder.WINDOW, 0, 4);
+            remaining = length;
+            return getInt(decoder.WINDOW, 0);
+        }
+
+        /**
+         * Reads data of the current chunk into the start of the window.
+         *
+         * @param count the number of bytes to read, which must not exceed the
+         * remaining chunk data or the size of the window.
+         * @return the number of bytes read.
+         * @throws IOException if the end of the file is reached unexpectedly
+         * while reading.
+         */
+        private int readData(final int count) throws IOException {
+            read(decoder.WINDOW, 0, count);
+            decoder.CRC32.update(decoder.WINDOW, 0, count);
+            remaining -= count;
+            return count;
+        }
 
-            return chunkList;
+        /**
+         * Skips any unread data of the current chunk and verifies the chunk
+         * CRC code.
+         *
+         * @throws IOException if the end of the file is reached unexpectedly
+         * while reading or if the chunk CRC check fails.
+         */
+        private void endChunk() throws IOException {
+            while (remaining > 0) {
+                readData(Math.min(remaining, decoder.WINDOW.length));
+            }
+            if (readInt() != (int) decoder.CRC32.getValue()) {
+                throw new IOException("CRC Check Failure");
+            }
         }
 
         /**
-         * Reads the next integer from the input stream.
+         * Reads the next integer from the PNG file data.
          *
-         * @param INPUT the input stream from which to read.
-         * @return the integer read from the input stream.
-         * @throws IOException if the end of the input stream is reached
-         * unexpectedly while reading.
+         * @return the integer read from the file data.
+         * @throws IOException if the end of the file is reached unexpectedly
+         * while reading.
          */
         private int readInt() throws IOException {
-            byte[] bytes = readBytes(4);
-            return ((bytes[0]) << 24) | ((bytes[1] & 255) << 16) | ((bytes[2] & 255) << 8) | ((bytes[3] & 255));
+            read(decoder.WINDOW, 0, 4);
+            return getInt(decoder.WINDOW, 0);
         }
 
         /**
-         * Reads a number of bytes from the {@link #INPUT input stream}.
+         * Reads a number of bytes from the PNG file data, either from the
+         * buffer or from the input stream.
          *
+         * @param bytes the array to store the bytes read.
+         * @param offset the offset in the array of the first byte.
          * @param count the number of bytes to read.
-         * @return the array containing the bytes read.
-         * @throws IOException if the end of the input stream is reached
-         * unexpectedly while reading.
-         */
-        private byte[] readBytes(final int count) throws IOException {
-            byte[] bytes = new byte[count];
-            if (INPUT.read(bytes) > -1) {
-                return bytes;
-            } else {
-                throw new EOFException("Reached End Of File Unexpectedly");
+         * @throws IOException if the end of the file is reached unexpectedly
+         * while reading.
+         */
+        private void read(final byte[] bytes, final int offset, final int count) throws IOException {
+            if (in != null) {
+                if (in.remaining() < count) {
+                    throw new IOException("Reached End Of File Unexpectedly");
+                }
+                in.get(bytes, offset, count);
+                return;
+            }
+            for (int total = 0; total < count;) {
+                final int read = INPUT.read(bytes, offset + total, count - total);
+                if (read < 0) {
+                    throw new IOException("Reached End Of File Unexpectedly");
+                }
+                total += read;
             }
         }
 
         /**
-         * Unfilters a scanline based on the filter method indicated by the
-         * first byte in the line.
+         * Returns the big-endian integer at the specified location of an array.
+         *
+         * @param bytes the array.
+         * @param location the location of the first byte of the integer.
+         * @return the integer at the specified location.
+         */
+        private int getInt(final byte[] bytes, final int location) {
+            return (bytes[location] & 255) << 24 | (bytes[location + 1] & 255) << 16 | (bytes[location + 2] & 255) << 8 | (bytes[location + 3] & 255);
+        }
+
+        /**
+         * Unfilters a scanline in place based on the filter method indicated
+         * by the first byte in the line. Each filter is a single loop over the
+         * line with no calls or allocation, leaving the JIT free to unroll it
+         * and, for the up filter, to vectorise it.
          *
          * @param line the scanline to unfilter.
-         * @param last the previous scanline, if any.
+         * @param last the previous scanline, all zero for the first row.
+         * @param length the length of the scanline, including the filter type.
          * @param bpp the number of bytes per pixel.
-         * @return the unfiltered data.
+         * @throws IOException if the filter type is invalid.
          */
-        private byte[] unfilter(byte[] line, byte[] last, int bpp) {
+        private void unfilter(final byte[] line, final byte[] last, final int length, final int bpp) throws IOException {
             switch (line[0]) {
+                case 0:
+                    return;
                 case 1:
-                    return unfilterSub(line, bpp);
+                    unfilterSub(line, length, bpp);
+                    return;
                 case 2:
-                    return unfilterUp(line, last);
+                    unfilterUp(line, last, length);
+                    return;
                 case 3:
-                    return unfilterAverage(line, last, bpp);
+                    unfilterAverage(line, last, length, bpp);
+                    return;
                 case 4:
-                    return unfilterPaeth(line, last, bpp);
+                    unfilterPaeth(line, last, length, bpp);
+                    return;
+                default:
+                    throw new IOException("Invalid Filter Type: " + line[0]);
             }
-            return line;
         }
 
         /**
@@ -404,13 +1458,13 @@ public class ImageLoader extends AssetLoader {
          * corresponding byte to its left.
          *
          * @param line the line to unfilter.
+         * @param length the length of the line.
          * @param bpp number of bytes per pixel.
          */
-        private byte[] unfilterSub(byte[] line, int bpp) {
-            for (int i = bpp + 1; i < line.length; i++) {
+        private void unfilterSub(final byte[] line, final int length, final int bpp) {
+            for (int i = bpp + 1; i < length; i++) {
                 line[i] += line[i - bpp];
             }
-            return line;
         }
 
         /**
@@ -419,12 +1473,12 @@ public class ImageLoader extends AssetLoader {
          *
          * @param line the line to unfilter.
          * @param last the previous line.
+         * @param length the length of the line.
          */
-        private byte[] unfilterUp(byte[] line, byte[] last) {
-            for (int i = 1; i < line.length; i++) {
+        private void unfilterUp(final byte[] line, final byte[] last, final int length) {
+            for (int i = 1; i < length; i++) {
                 line[i] += last[i];
             }
-            return line;
         }
 
         /**
@@ -432,133 +1486,168 @@ public class ImageLoader extends AssetLoader {
          * of the corresponding bytes to its left and above it, truncating any
          * fractional part.
          *
-         * @param curLine the line to unfilter.
-         * @param prevLine the previous line.
+         * @param line the line to unfilter.
+         * @param last the previous line.
+         * @param length the length of the line.
          * @param bpp number of bytes per pixel.
          */
-        private byte[] unfilterAverage(byte[] line, byte[] last, int bpp) {
+        private void unfilterAverage(final byte[] line, final byte[] last, final int length, final int bpp) {
             for (int i = 1; i <= bpp; i++) {
-                line[i] += ((last[i] & 0xFF) >>> 1);
+                line[i] += (last[i] & 255) >>> 1;
             }
-            for (int i = bpp + 1; i < line.length; i++) {
-                line[i] += (((line[i - bpp] & 0xFF) + (last[i] & 0xFF)) >>> 1);
+            for (int i = bpp + 1; i < length; i++) {
+                line[i] += ((line[i - bpp] & 255) + (last[i] & 255)) >>> 1;
             }
-            return line;
         }
 
         /**
          * Each byte is replaced with the difference between it and the Paeth
          * predictor of the corresponding bytes to its left, above it, and to
-         * its upper left.
+         * its upper left. The distances to the predictor are computed directly
+         * from the neighbouring bytes rather than from the predictor itself.
          *
          * @param line the line to unfilter.
          * @param last the previous line.
+         * @param length the length of the line.
          * @param bpp number of bytes per pixel.
          */
-        private byte[] unfilterPaeth(byte[] line, byte[] last, int bpp) {
+        private void unfilterPaeth(final byte[] line, final byte[] last, final int length, final int bpp) {
             for (int i = 1; i <= bpp; i++) {
                 line[i] += last[i];
             }
-            for (int i = bpp + 1; i < line.length; i++) {
-                int a = line[i - bpp] & 255;
-                int b = last[i] & 255;
-                int c = last[i - bpp] & 255;
-                int p = a + b - c;
-                int pa = p - a;
-                if (pa < 0) {
-                    pa = -pa;
-                }
-                int pb = p - b;
-                if (pb < 0) {
-                    pb = -pb;
-                }
-                int pc = p - c;
-                if (pc < 0) {
-                    pc = -pc;
-                }
-                if (pa <= pb && pa <= pc) {
-                    c = a;
-                } else if (pb <= pc) {
-                    c = b;
-                }
-                line[i] += (byte) c;
+            for (int i = bpp + 1; i < length; i++) {
+                final int a = line[i - bpp] & 255;
+                final int b = last[i] & 255;
+                final int c = last[i - bpp] & 255;
+                final int pa = Math.abs(b - c);
+                final int pb = Math.abs(a - c);
+                final int pc = Math.abs(a + b - c - c);
+                line[i] += (pa <= pb && pa <= pc) ? a : (pb <= pc) ? b : c;
             }
-            return line;
         }
+    }
+
+    /**
+     * Reusable state of a PNG decode: the inflater, the cyclic redundancy
+     * check, the window through which chunk data is read, the two scanline
+     * buffers and the palette. Decoders are pooled rather than kept per thread, as
+     * the decode stage may run each task on a new virtual thread.
+     */
+    private static final class Decoder {
 
         /**
-         * Encapsulates the data for a PNG chunk.
-         *
-         * @see http://www.libpng.org/pub/png/spec/1.2/PNG-Chunks.html
+         * Inflater for the compressed image data, reset between images.
          */
-        private class Chunk {
+        private final Inflater INFLATER = new Inflater();
 
-            /**
-             * The PNG Chunk {@link ChunkType type}.
-             */
-            private final int TYPE;
+        /**
+         * Cyclic redundancy check to verify the file is not corrupted.
+         */
+        private final CRC32 CRC32 = new CRC32();
 
-            /**
-             * The PNG Chunk Data.
-             */
-            private final byte[] DATA;
+        /**
+         * Window through which chunk data is read.
+         */
+        private final byte[] WINDOW = new byte[WINDOW_SIZE];
 
-            /**
-             * Constructs a PNG Data Chunk.
-             *
-             * @param length the length of the chunk data.
-             * @param type the chunk type signature.
-             * @param data the chunk data.
-             * @param crc the chunk CRC code.
-             * @throws IOException if the chunk type signature is invalid or if
-             * the chunk CRC check fails.
-             */
-            public Chunk(final int length, final byte[] type, final byte[] data, final int crc) throws IOException {
+        /**
+         * The scanline being inflated, preceded by its filter type.
+         */
+        private byte[] current = new byte[0];
 
-                // Validate Chunk Signature //
-                if (type.length != 4) {
-                    throw new IOException("Invalid Chunk Signature");
-                }
+        /**
+         * The last scanline processed (required for filtering).
+         */
+        private byte[] last = new byte[0];
 
-                // Set Chunk Fields //
-                TYPE = ((type[0]) << 24) | ((type[1] & 255) << 16) | ((type[2] & 255) << 8) | ((type[3] & 255));
-                DATA = data;
+        /**
+         * The ring of scanline buffers used by pipelined decodes.
+         */
+        private byte[][] ring = new byte[0][];
 
-                // Validate Chunk CRC //
-                CRC32.reset();
-                CRC32.update(type);
-                CRC32.update(data);
-                if (crc != (int) CRC32.getValue()) {
-                    throw new IOException("CRC Check Failure");
-                }
-            }
+        /**
+         * The red, green and blue samples of each palette entry.
+         */
+        private final byte[] PALETTE = new byte[768];
 
-            /**
-             * Returns the integer at the specified location within the chunk
-             * data array.
-             *
-             * @param location the location within the chunk data array from
-             * which to retrieve an integer.
-             * @return the integer at the specified location within the chunk
-             * data array.
-             */
-            public int getInt(int location) {
-                return ((DATA[location]) << 24) | ((DATA[location + 1] & 255) << 16) | ((DATA[location + 2] & 255) << 8) | ((DATA[location + 3] & 255));
+        /**
+         * The alpha of each palette entry.
+         */
+        private final byte[] ALPHA = new byte[256];
+
+        /**
+         * The gray, or red, green and blue samples of the transparency key of
+         * a grayscale or truecolor image.
+         */
+        private final int[] KEY = new int[3];
+
+        /**
+         * The pixel of each palette index or sub-byte sample in the image
+         * format.
+         */
+        private final byte[] TABLE = new byte[1024];
+
+        /**
+         * A scanline expanded into pixels of the image format.
+         */
+        private byte[] output = new byte[0];
+
+        /**
+         * Borrows a decoder from the pool, or creates one if the pool is
+         * empty.
+         *
+         * @return the decoder.
+         */
+        private static Decoder acquire() {
+            final Decoder decoder = DECODERS.poll();
+            return (decoder != null) ? decoder : new Decoder();
+        }
+
+        /**
+         * Resets the inflater and returns the decoder to the pool. The
+         * decoder is discarded, releasing its inflater, if the pool is full.
+         */
+        private void release() {
+            INFLATER.reset();
+            if (!DECODERS.offer(this)) {
+                INFLATER.end();
             }
+        }
 
-            /**
-             * Returns the byte at the specified location within the chunk data
-             * array.
-             *
-             * @param location the location within the chunk data array from
-             * which to retrieve the byte.
-             * @return the byte at the specified location within the chunk data
-             * array.
-             */
-            public byte getByte(final int location) {
-                return DATA[location];
+        /**
+         * Ensures both scanline buffers hold at least the specified number of
+         * bytes and clears the previous scanline, which the filters treat as
+         * zero for the first row of the image.
+         *
+         * @param stride the length of a scanline, including its filter type.
+         * @param expanded the length of a scanline expanded into pixels of the
+         * image format.
+         */
+        private void prepare(final int stride, final int expanded) {
+            if (current.length < stride) {
+                current = new byte[stride];
+                last = new byte[stride];
+            } else {
+                Arrays.fill(last, 0, stride, (byte) 0);
             }
+            if (output.length < expanded) {
+                output = new byte[expanded];
+            }
+        }
 
+        /**
+         * Returns a ring of at least the specified number of scanline buffers
+         * of at least the specified length.
+         *
+         * @param slots the minimum number of scanline buffers.
+         * @param stride the length of a scanline, including its filter type.
+         * @return the ring of scanline buffers.
+         */
+        private byte[][] ring(final int slots, final int stride) {
+            if (ring.length < slots || ring[0].length < stride) {
+                ring = new byte[slots][stride];
+            }
+            return ring;
         }
     }
 }
@@ -0,0 +1,421 @@
+package net.cybertekt.asset.image;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import net.cybertekt.asset.NativeMemory;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT;
+
+/**
+ * Mipmap Generator - (C) Cybertekt Software
+ *
+ * Generates the complete mipmap chain of an {@link Image image} on the CPU,
+ * so that the chain is built by the asset worker that decodes the image
+ * rather than by the render thread when the image is first uploaded. Each
+ * level is half the size of the level above it in each dimension, rounded
+ * down to at least one pixel, and the chain ends with a single pixel.
+ * <p>
+ * Each level is reduced from the level above it using a separable
+ * {@link Filter filter}: rows are filtered horizontally into a small cache
+ * which is then filtered vertically, so only as many rows as the filter has
+ * taps are held at full precision at a time. Filtering is gamma-correct.
+ * Color and luminance samples are converted from sRGB to linear light before
+ * they are filtered and back to sRGB afterwards, so that fine detail does
+ * not darken as it is averaged away. Alpha is filtered linearly and color is
+ * weighted by alpha, so transparent pixels do not bleed their color into
+ * their neighbours.
+ * </p>
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+public final class MipmapGenerator {
+
+    /**
+     * Specifies the filter used to reduce each level of the chain.
+     */
+    public enum Filter {
+        /**
+         * Averages each 2x2 block of pixels. The fastest filter, but levels
+         * are softer and fine repeating detail may alias.
+         */
+        Box(new float[]{0.5f, 0.5f}),
+        /**
+         * Kaiser windowed sinc over a 6x6 block of pixels. Levels are sharper
+         * and alias less than with the box filter, at a higher cost.
+         */
+        Kaiser(kaiser(3, 4));
+
+        /**
+         * Weights of the taps of the filter in source pixels, summing to one.
+         */
+        final float[] WEIGHTS;
+
+        /**
+         * Filter Constructor.
+         *
+         * @param WEIGHTS the weights of the taps of the filter.
+         */
+        Filter(final float[] WEIGHTS) {
+            this.WEIGHTS = WEIGHTS;
+        }
+    }
+
+    /**
+     * Single tap filter copying a dimension that cannot be halved.
+     */
+    private static final float[] COPY = {1};
+
+    /**
+     * Number of entries of the table converting linear light to 8-bit sRGB.
+     */
+    private static final int ENCODE_SIZE = 1 << 14;
+
+    /**
+     * Linear light of each 8-bit sRGB sample.
+     */
+    private static final float[] DECODE = new float[256];
+
+    /**
+     * 8-bit sRGB sample of linear light in steps of 1 / (ENCODE_SIZE - 1).
+     */
+    private static final byte[] ENCODE = new byte[ENCODE_SIZE];
+
+    static {
+        for (int i = 0; i < DECODE.length; i++) {
+            DECODE[i] = toLinear(i / 255f);
+        }
+        for (int i = 0; i < ENCODE.length; i++) {
+            ENCODE[i] = (byte) Math.round(toSRGB(i / (float) (ENCODE_SIZE - 1)) * 255);
+        }
+    }
+
+    private MipmapGenerator() {
+    }
+
+    /**
+     * Returns the number of levels of the complete mipmap chain of an image,
+     * including the image itself.
+     *
+     * @param width the width of the image in pixels.
+     * @param height the height of the image in pixels.
+     * @return the number of levels.
+     */
+    public static int getLevelCount(final int width, final int height) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(width, height));
+    }
+
+    /**
+     * Generates every level of the mipmap chain of an image below the image
+     * itself. Each level is allocated as {@link NativeMemory native memory}
+     * and holds tightly packed rows in the format of the image.
+     *
+     * @param format the {@link Image.Format format} of the image.
+     * @param width the width of the image in pixels.
+     * @param height the height of the image in pixels.
+     * @param data the surface data of the image, from its first byte.
+     * @param filter the {@link Filter filter} used to reduce each level.
+     * @return the levels of the chain from the largest to the smallest, empty
+     * if the image is a single pixel.
+     */
+    public static ByteBuffer[] generate(final Image.Format format, final int width, final int height, final ByteBuffer data, final Filter filter) {
+        final ByteBuffer[] levels = new ByteBuffer[getLevelCount(width, height) - 1];
+        final Reducer reducer = new Reducer(format, filter, width);
+        ByteBuffer source = data;
+        int sourceWidth = width, sourceHeight = height;
+        try {
+            for (int i = 0; i < levels.length; i++) {
+                final int levelWidth = Math.max(sourceWidth >> 1, 1), levelHeight = Math.max(sourceHeight >> 1, 1);
+                levels[i] = NativeMemory.allocate(levelWidth * levelHeight * format.BPP);
+                reducer.reduce(source, sourceWidth, sourceHeight, levels[i], levelWidth, levelHeight);
+                source = levels[i];
+                sourceWidth = levelWidth;
+                sourceHeight = levelHeight;
+            }
+        } catch (final RuntimeException | Error e) {
+            for (final ByteBuffer level : levels) {
+                NativeMemory.free(level);
+            }
+            throw e;
+        }
+        return levels;
+    }
+
+    /**
+     * Computes the taps of a Kaiser windowed sinc filter halving its input.
+     *
+     * @param radius the number of taps either side of the center.
+     * @param alpha the shape of the Kaiser window.
+     * @return the normalized weights of the taps.
+     */
+    private static float[] kaiser(final int radius, final double alpha) {
+        final float[] weights = new float[radius * 2];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            // Distance From The Center Of The Destination Pixel In Source Pixels //
+            final double distance = i - radius + 0.5, ratio = distance / radius;
+            final double x = Math.PI * distance / 2;
+            final double weight = Math.sin(x) / x * bessel(alpha * Math.sqrt(1 - ratio * ratio)) / bessel(alpha);
+            weights[i] = (float) weight;
+            total += weight;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] /= total;
+        }
+        return weights;
+    }
+
+    /**
+     * Evaluates the zeroth order modified Bessel function of the first kind.
+     *
+     * @param x the argument.
+     * @return the value of the function.
+     */
+    private static double bessel(final double x) {
+        double sum = 1, term = 1;
+        for (int k = 1; term > sum * 1e-12; k++) {
+            term *= (x * x) / (4.0 * k * k);
+            sum += term;
+        }
+        return sum;
+    }
+
+    /**
+     * Converts an sRGB encoded value to linear light.
+     *
+     * @param value the sRGB value between zero and one.
+     * @return the linear value.
+     */
+    private static float toLinear(final float value) {
+        return (value <= 0.04045f) ? value / 12.92f : (float) Math.pow((value + 0.055) / 1.055, 2.4);
+    }
+
+    /**
+     * Converts linear light to an sRGB encoded value.
+     *
+     * @param value the linear value between zero and one.
+     * @return the sRGB value.
+     */
+    private static float toSRGB(final float value) {
+        return (value <= 0.0031308f) ? value * 12.92f : (float) (1.055 * Math.pow(value, 1 / 2.4) - 0.055);
+    }
+
+    /**
+     * Reduces each level of a chain to the next, reusing its row buffers
+     * between levels.
+     */
+    private static final class Reducer {
+
+        /**
+         * The number of channels per pixel.
+         */
+        private final int CHANNELS;
+
+        /**
+         * The number of bytes per sample, one or two.
+         */
+        private final int SIZE;
+
+        /**
+         * The index of the alpha channel, or -1 if the format has no alpha.
+         */
+        private final int ALPHA;
+
+        /**
+         * The bytes per pixel of the format.
+         */
+        private final int BPP;
+
+        /**
+         * The weights of the taps of the filter.
+         */
+        private final float[] WEIGHTS;
+
+        /**
+         * A packed row of the source or destination level.
+         */
+        private final byte[] bytes;
+
+        /**
+         * A row of the source level in linear light, weighted by alpha.
+         */
+        private final float[] line;
+
+        /**
+         * Horizontally filtered source rows, one per vertical tap, each
+         * stored in the slot given by its row modulo the number of taps.
+         */
+        private final float[][] rows;
+
+        /**
+         * The source row held in each slot of the cache, or -1 if empty.
+         */
+        private final int[] cached;
+
+        /**
+         * The vertically filtered destination row.
+         */
+        private final float[] sum;
+
+        /**
+         * Constructs a reducer for images of the specified format.
+         *
+         * @param format the format of the image.
+         * @param filter the filter reducing each level.
+         * @param width the width of the image in pixels.
+         */
+        private Reducer(final Image.Format format, final Filter filter, final int width) {
+            this.BPP = format.BPP;
+            this.SIZE = (format.TYPE == GL_UNSIGNED_SHORT) ? 2 : 1;
+            this.CHANNELS = BPP / SIZE;
+            this.ALPHA = (CHANNELS == 2 || CHANNELS == 4) ? CHANNELS - 1 : -1;
+            this.WEIGHTS = filter.WEIGHTS;
+            final int half = Math.max(width >> 1, 1);
+            this.bytes = new byte[width * BPP];
+            this.line = new float[width * CHANNELS];
+            this.rows = new float[WEIGHTS.length][half * CHANNELS];
+            this.cached = new int[WEIGHTS.length];
+            this.sum = new float[half * CHANNELS];
+        }
+
+        /**
+         * Reduces a level to the level below it.
+         *
+         * @param source the source level.
+         * @param width the width of the source level.
+         * @param height the height of the source level.
+         * @param target the destination level.
+         * @param levelWidth the width of the destination level.
+         * @param levelHeight the height of the destination level.
+         */
+        private void reduce(final ByteBuffer source, final int width, final int height, final ByteBuffer target, final int levelWidth, final int levelHeight) {
+            final ByteBuffer in = source.duplicate(), out = target.duplicate();
+            final float[] vertical = (height > 1) ? WEIGHTS : COPY;
+            final int step = (height > 1) ? 2 : 1, start = (height > 1) ? 1 - vertical.length / 2 : 0;
+            final int length = levelWidth * CHANNELS;
+            Arrays.fill(cached, -1);
+            for (int y = 0; y < levelHeight; y++) {
+                // Filter Vertically From The Cache Of Horizontally Filtered Rows //
+                Arrays.fill(sum, 0, length, 0);
+                for (int t = 0; t < vertical.length; t++) {
+                    final int sy = Math.min(Math.max(y * step + start + t, 0), height - 1);
+                    final float[] row = row(in, sy, width, levelWidth);
+                    final float weight = vertical[t];
+                    for (int i = 0; i < length; i++) {
+                        sum[i] += row[i] * weight;
+                    }
+                }
+                pack(levelWidth);
+                out.position(y * levelWidth * BPP);
+                out.put(bytes, 0, levelWidth * BPP);
+            }
+        }
+
+        /**
+         * Returns a source row filtered horizontally to the width of the
+         * destination level, filtering it if it is not already cached.
+         *
+         * @param in the source level.
+         * @param sy the source row.
+         * @param width the width of the source level.
+         * @param levelWidth the width of the destination level.
+         * @return the filtered row.
+         */
+        private float[] row(final ByteBuffer in, final int sy, final int width, final int levelWidth) {
+            final int slot = sy % rows.length;
+            final float[] row = rows[slot];
+            if (cached[slot] == sy) {
+                return row;
+            }
+            in.position(sy * width * BPP);
+            in.get(bytes, 0, width * BPP);
+            unpack(width);
+            final float[] horizontal = (width > 1) ? WEIGHTS : COPY;
+            final int step = (width > 1) ? 2 : 1, start = (width > 1) ? 1 - horizontal.length / 2 : 0;
+            for (int x = 0; x < levelWidth; x++) {
+                final int offset = x * CHANNELS;
+                for (int c = 0; c < CHANNELS; c++) {
+                    row[offset + c] = 0;
+                }
+                for (int t = 0; t < horizontal.length; t++) {
+                    final int sx = Math.min(Math.max(x * step + start + t, 0), width - 1) * CHANNELS;
+                    final float weight = horizontal[t];
+                    for (int c = 0; c < CHANNELS; c++) {
+                        row[offset + c] += line[sx + c] * weight;
+                    }
+                }
+            }
+            cached[slot] = sy;
+            return row;
+        }
+
+        /**
+         * Converts the packed source row to linear light weighted by alpha.
+         *
+         * @param width the number of pixels in the row.
+         */
+        private void unpack(final int width) {
+            for (int p = 0, offset = 0; p < width; p++, offset += CHANNELS) {
+                float alpha = 1;
+                if (ALPHA >= 0) {
+                    alpha = (SIZE == 1) ? (bytes[offset + ALPHA] & 255) / 255f : sample(offset + ALPHA) / 65535f;
+                    line[offset + ALPHA] = alpha;
+                }
+                for (int c = 0; c < CHANNELS; c++) {
+                    if (c != ALPHA) {
+                        line[offset + c] = ((SIZE == 1) ? DECODE[bytes[offset + c] & 255] : toLinear(sample(offset + c) / 65535f)) * alpha;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Converts the filtered destination row back to packed samples,
+         * removing the alpha weighting and clamping the overshoot of the
+         * filter.
+         *
+         * @param width the number of pixels in the row.
+         */
+        private void pack(final int width) {
+            for (int p = 0, offset = 0; p < width; p++, offset += CHANNELS) {
+                float alpha = 1;
+                if (ALPHA >= 0) {
+                    alpha = Math.min(Math.max(sum[offset + ALPHA], 0), 1);
+                    store(offset + ALPHA, alpha, false);
+                }
+                for (int c = 0; c < CHANNELS; c++) {
+                    if (c != ALPHA) {
+                        store(offset + c, (alpha > 0) ? Math.min(Math.max(sum[offset + c] / alpha, 0), 1) : 0, true);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns a 16-bit big-endian sample of the packed row.
+         *
+         * @param index the index of the sample.
+         * @return the sample value.
+         */
+        private int sample(final int index) {
+            return ((bytes[index * 2] & 255) << 8) | (bytes[index * 2 + 1] & 255);
+        }
+
+        /**
+         * Stores a sample into the packed row.
+         *
+         * @param index the index of the sample.
+         * @param value the linear value between zero and one.
+         * @param color true to encode the value as sRGB.
+         */
+        private void store(final int index, final float value, final boolean color) {
+            if (SIZE == 1) {
+                bytes[index] = color ? ENCODE[(int) (value * (ENCODE_SIZE - 1) + 0.5f)] : (byte) (value * 255 + 0.5f);
+            } else {
+                final int sample = (int) ((color ? toSRGB(value) : value) * 65535 + 0.5f);
+                bytes[index * 2] = (byte) (sample >> 8);
+                bytes[index * 2 + 1] = (byte) sample;
+            }
+        }
+    }
+}
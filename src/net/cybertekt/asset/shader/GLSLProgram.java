@@ -0,0 +1,58 @@
+package net.cybertekt.asset.shader;
+
+import net.cybertekt.asset.Asset;
+import net.cybertekt.asset.AssetKey;
+
+/**
+ * GLSLProgram - (C) Cybertekt Software
+ *
+ * Immutable {@link Asset asset} that groups the {@link GLSLShader GLSL shader}
+ * sources from which a shader program is linked. A program file lists the
+ * path of each source, relative to the root assets directory, on its own
+ * line. Blank lines and lines starting with '#' are ignored. The sources are
+ * loaded as dependencies of the program, so each source is shared with any
+ * other program that uses it.
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+public class GLSLProgram extends Asset {
+
+    /**
+     * The GLSL shader sources of the program, in the order they are listed.
+     */
+    private final GLSLShader[] SHADERS;
+
+    /**
+     * Constructs a GLSL program asset.
+     *
+     * @param key the {@link AssetKey key} that points to the location of the
+     * program file.
+     * @param shaders the GLSL shader sources of the program.
+     */
+    public GLSLProgram(final AssetKey key, final GLSLShader... shaders) {
+        super(key);
+        this.SHADERS = shaders.clone();
+    }
+
+    /**
+     * Returns the GLSL shader sources of the program.
+     *
+     * @return a copy of the GLSL shader sources of the program.
+     */
+    public final GLSLShader[] getShaders() {
+        return SHADERS.clone();
+    }
+
+    /**
+     * Overridden to return the name of the program.
+     *
+     * @return the name of the program.
+     */
+    @Override
+    public final String toString() {
+        return getKey().getName(false);
+    }
+
+}
@@ -110,6 +110,16 @@ public class GLSLShader extends Asset {
         return SOURCE;
     }
 
+    /**
+     * Returns the approximate size of the shader source code in bytes.
+     *
+     * @return the memory size of the shader source.
+     */
+    @Override
+    public final long getMemorySize() {
+        return SOURCE.length() * 2L;
+    }
+
     /**
      * Overridden to return the name of the shader.
      *
@@ -1,8 +1,15 @@
 package net.cybertekt.asset.shader;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import net.cybertekt.asset.Asset;
 import net.cybertekt.asset.AssetKey;
 import net.cybertekt.asset.AssetLoader;
+import net.cybertekt.asset.AssetManager.AssetInitializationException;
 import net.cybertekt.asset.AssetTask;
 import net.cybertekt.asset.AssetType;
 
@@ -10,7 +17,8 @@ import net.cybertekt.asset.AssetType;
  * Shader Loader - (C) Cybertekt Software.
  *
  * Asset loader used for constructing four different types of
- * {@link GLSLShader GLSL shaders}.
+ * {@link GLSLShader GLSL shaders}, and {@link GLSLProgram programs} that are
+ * composed of them.
  *
  * @author Andrew Vektor
  * @version 1.1.0
@@ -38,6 +46,11 @@ public class ShaderLoader extends AssetLoader {
      */
     private final AssetType COMP = AssetType.getType("COMP");
 
+    /**
+     * GLSL Program {@link AssetType asset type}.
+     */
+    private final AssetType PROG = AssetType.getType("PROG");
+
     /**
      * Initializes the list of {@link AssetType asset types} supported by this
      * class.
@@ -47,11 +60,13 @@ public class ShaderLoader extends AssetLoader {
         SUPPORTED.add(FRAG);
         SUPPORTED.add(GEOM);
         SUPPORTED.add(COMP);
+        SUPPORTED.add(PROG);
     }
 
     /**
-     * Returns a task for constructing a {@link GLSLShader shader} using the
-     * input stream for the file located at the path specified by the asset key.
+     * Returns a task for constructing a {@link GLSLShader shader} or
+     * {@link GLSLProgram program} using the input stream for the file located
+     * at the path specified by the asset key.
      *
      * @param key the asset key for the GLSL shader.
      * @param stream the input stream for the file located at the path specified
@@ -68,18 +83,109 @@ public class ShaderLoader extends AssetLoader {
             return new GSLoader(key, stream);
         } else if (key.getType().equals(COMP)) {
             return new CSLoader(key, stream);
+        } else if (key.getType().equals(PROG)) {
+            return new ProgramLoader(key, stream);
         }
         throw new UnsupportedOperationException("Invalid shader file type extension: " + key.getAbsolutePath());
     }
 
+    /**
+     * Returns a task for constructing a {@link GLSLShader shader} or
+     * {@link GLSLProgram program} using the contents of the file located at
+     * the path specified by the asset key.
+     *
+     * @param key the asset key for the GLSL shader.
+     * @param buffer the contents of the file located at the path specified by
+     * the asset key.
+     * @return the asset task for constructing the shader.
+     */
+    @Override
+    public AssetTask newTask(final AssetKey key, final ByteBuffer buffer) {
+        if (key.getType().equals(VERT)) {
+            return new VSLoader(key, buffer);
+        } else if (key.getType().equals(FRAG)) {
+            return new FSLoader(key, buffer);
+        } else if (key.getType().equals(GEOM)) {
+            return new GSLoader(key, buffer);
+        } else if (key.getType().equals(COMP)) {
+            return new CSLoader(key, buffer);
+        } else if (key.getType().equals(PROG)) {
+            return new ProgramLoader(key, buffer);
+        }
+        throw new UnsupportedOperationException("Invalid shader file type extension: " + key.getAbsolutePath());
+    }
+
+    /**
+     * GLSL Source Loader - (C) Cybertekt Software.
+     *
+     * Base {@link AssetTask task} that constructs a
+     * {@link GLSLShader GLSL shader} of a specific {@link GLSLShader.Type type}
+     * by decoding the file data as UTF-8 text and using it as the shader
+     * source code.
+     */
+    private abstract class SourceLoader extends AssetTask {
+
+        /**
+         * The type of shader constructed by this loader.
+         */
+        private final GLSLShader.Type TYPE;
+
+        /**
+         * Constructs a new shader loader for an {@link AssetKey asset key} and
+         * its corresponding {@link InputStream input stream}.
+         *
+         * @param key the {@link AssetKey asset key} of the GLSL shader.
+         * @param stream the {@link InputStream input stream} for the file
+         * located at the path specified by the {@link AssetKey key}.
+         * @param type the type of shader to construct.
+         */
+        SourceLoader(final AssetKey key, final InputStream stream, final GLSLShader.Type type) {
+            super(key, stream);
+            this.TYPE = type;
+        }
+
+        /**
+         * Constructs a new shader loader for an {@link AssetKey asset key} and
+         * the contents of its corresponding file.
+         *
+         * @param key the {@link AssetKey asset key} of the GLSL shader.
+         * @param buffer the contents of the file located at the path specified
+         * by the {@link AssetKey key}.
+         * @param type the type of shader to construct.
+         */
+        SourceLoader(final AssetKey key, final ByteBuffer buffer, final GLSLShader.Type type) {
+            super(key, buffer);
+            this.TYPE = type;
+        }
+
+        /**
+         * Creates a {@link GLSLShader shader asset} by decoding the data
+         * provided during the construction of this {@link AssetTask task} and
+         * using it as the shader source code.
+         *
+         * @return the {@link GLSLShader shader} constructed from the decoded
+         * source code.
+         * @throws AssetInitializationException if the shader data cannot be
+         * read.
+         */
+        @Override
+        public final GLSLShader load() throws AssetInitializationException {
+            try {
+                return new GLSLShader(KEY, TYPE, StandardCharsets.UTF_8.decode(getBuffer()).toString());
+            } catch (final IOException e) {
+                throw new AssetInitializationException(KEY, "Shader file could not be read (" + e.getMessage() + ")");
+            }
+        }
+    }
+
     /**
      * Vertex Shader Loader - (C) Cybertekt Software.
      *
      * {@link AssetTask Task} that constructs a {@link GLSLShader vertex shader}
-     * by extracting valid GLSL source code using the input stream from the file
-     * located at a path specified by an {@link AssetKey key}.
+     * by extracting valid GLSL source code from the file located at a path
+     * specified by an {@link AssetKey key}.
      */
-    private class VSLoader extends AssetTask {
+    private class VSLoader extends SourceLoader {
 
         /**
          * Constructs a new shader loader loader for the
@@ -92,34 +198,32 @@ public class ShaderLoader extends AssetLoader {
          * located at the path specified by the {@link AssetKey key}.
          */
         VSLoader(final AssetKey key, final InputStream stream) {
-            super(key, stream);
+            super(key, stream, GLSLShader.Type.Vertex);
         }
 
         /**
-         * Creates a {@link GLSLShader vertex shader asset} by extracting a
-         * String from the {@link InputStream stream} provided during the
-         * construction of this {@link AssetTask task} and using it as the
-         * source code to construct the {@link GLSLShader vertex shader asset}.
+         * Constructs a new shader loader loader for the
+         * {@link AssetKey asset key} and the contents of its corresponding
+         * file.
          *
-         * @return the {@link GLSLShader vertex shader} constructed using the
-         * String extracted from the {@link InputStream input stream} associated
-         * with this loader as the shader source code.
+         * @param key an {@link AssetKey asset key} that points to the location
+         * of a valid GLSL vertex shader.
+         * @param buffer the contents of the file located at the path specified
+         * by the {@link AssetKey key}.
          */
-        @Override
-        public GLSLShader load() {
-            return new GLSLShader(KEY, GLSLShader.Type.Vertex, new java.util.Scanner(INPUT).useDelimiter("\\A").next());
+        VSLoader(final AssetKey key, final ByteBuffer buffer) {
+            super(key, buffer, GLSLShader.Type.Vertex);
         }
-
     }
 
     /**
      * Fragment Shader Loader - (C) Cybertekt Software.
      *
      * {@link AssetTask Task} that constructs a {@link GLSLShader frag shader}
-     * by extracting valid GLSL source code from an input stream of the file
-     * located at the path specified by an {@link AssetKey key}.
+     * by extracting valid GLSL source code from the file located at the path
+     * specified by an {@link AssetKey key}.
      */
-    private class FSLoader extends AssetTask {
+    private class FSLoader extends SourceLoader {
 
         /**
          * Constructs a new shader loader for an {@link AssetKey asset key} and
@@ -131,23 +235,20 @@ public class ShaderLoader extends AssetLoader {
          * located at the path specified by the {@link AssetKey key}.
          */
         FSLoader(final AssetKey key, final InputStream stream) {
-            super(key, stream);
+            super(key, stream, GLSLShader.Type.Fragment);
         }
 
         /**
-         * Creates a {@link GLSLShader fragment shader asset} by extracting a
-         * String from the {@link InputStream stream} provided during the
-         * construction of this {@link AssetTask task} and using it as the
-         * source code to construct the
-         * {@link GLSLShader fragment shader asset}.
+         * Constructs a new shader loader for an {@link AssetKey asset key} and
+         * the contents of its corresponding file.
          *
-         * @return the {@link GLSLShader fragment shader} constructed using the
-         * String extracted from the {@link InputStream input stream} associated
-         * with this loader as the shader source code.
+         * @param key an {@link AssetKey asset key} that points to the location
+         * of a valid fragment shader (.frag) written in GLSL.
+         * @param buffer the contents of the file located at the path specified
+         * by the {@link AssetKey key}.
          */
-        @Override
-        public GLSLShader load() {
-            return new GLSLShader(KEY, GLSLShader.Type.Fragment, new java.util.Scanner(INPUT).useDelimiter("\\A").next());
+        FSLoader(final AssetKey key, final ByteBuffer buffer) {
+            super(key, buffer, GLSLShader.Type.Fragment);
         }
     }
 
@@ -155,10 +256,10 @@ public class ShaderLoader extends AssetLoader {
      * Geometry Shader Loader - (C) Cybertekt Software.
      *
      * {@link AssetTask Task} that constructs a {@link GLSLShader geom shader}
-     * by extracting valid GLSL source code from an input stream of the file
-     * located at the path specified by an {@link AssetKey key}.
+     * by extracting valid GLSL source code from the file located at the path
+     * specified by an {@link AssetKey key}.
      */
-    private class GSLoader extends AssetTask {
+    private class GSLoader extends SourceLoader {
 
         /**
          * Constructs a new shader loader for an {@link AssetKey asset key} and
@@ -170,23 +271,20 @@ public class ShaderLoader extends AssetLoader {
          * located at the path specified by the {@link AssetKey key}.
          */
         GSLoader(final AssetKey key, final InputStream stream) {
-            super(key, stream);
+            super(key, stream, GLSLShader.Type.Geometry);
         }
 
         /**
-         * Creates a {@link GLSLShader geometry shader asset} by extracting a
-         * String from the {@link InputStream stream} provided during the
-         * construction of this {@link AssetTask task} and using it as the
-         * source code to construct the
-         * {@link GLSLShader geometry shader asset}.
+         * Constructs a new shader loader for an {@link AssetKey asset key} and
+         * the contents of its corresponding file.
          *
-         * @return the {@link GLSLShader geometry shader} constructed using the
-         * String extracted from the {@link InputStream input stream} associated
-         * with this loader as the shader source code.
+         * @param key an {@link AssetKey asset key} that points to the location
+         * of a valid geometry shader (.geom) written in GLSL.
+         * @param buffer the contents of the file located at the path specified
+         * by the {@link AssetKey key}.
          */
-        @Override
-        public GLSLShader load() {
-            return new GLSLShader(KEY, GLSLShader.Type.Geometry, new java.util.Scanner(INPUT).useDelimiter("\\A").next());
+        GSLoader(final AssetKey key, final ByteBuffer buffer) {
+            super(key, buffer, GLSLShader.Type.Geometry);
         }
     }
 
@@ -194,10 +292,10 @@ public class ShaderLoader extends AssetLoader {
      * Compute Shader Loader - (C) Cybertekt Software.
      *
      * {@link AssetTask Task} that constructs a {@link GLSLShader comp shader}
-     * by extracting valid GLSL source code from an input stream of the file
-     * located at the path specified by an {@link AssetKey key}.
+     * by extracting valid GLSL source code from the file located at the path
+     * specified by an {@link AssetKey key}.
      */
-    private class CSLoader extends AssetTask {
+    private class CSLoader extends SourceLoader {
 
         /**
          * Constructs a new shader loader for an {@link AssetKey asset key} and
@@ -209,23 +307,118 @@ public class ShaderLoader extends AssetLoader {
          * located at the path specified by the {@link AssetKey key}.
          */
         CSLoader(final AssetKey key, final InputStream stream) {
+            super(key, stream, GLSLShader.Type.Compute);
+        }
+
+        /**
+         * Constructs a new shader loader for an {@link AssetKey asset key} and
+         * the contents of its corresponding file.
+         *
+         * @param key an {@link AssetKey asset key} that points to the location
+         * of a valid compute shader (.comp) written in GLSL.
+         * @param buffer the contents of the file located at the path specified
+         * by the {@link AssetKey key}.
+         */
+        CSLoader(final AssetKey key, final ByteBuffer buffer) {
+            super(key, buffer, GLSLShader.Type.Compute);
+        }
+    }
+
+    /**
+     * Program Loader - (C) Cybertekt Software.
+     *
+     * {@link AssetTask Task} that constructs a {@link GLSLProgram program}
+     * from the shader sources listed in the file located at the path
+     * specified by an {@link AssetKey key}. Each source is declared as a
+     * {@link AssetTask#addDependency(AssetKey) dependency}, so the program is
+     * only constructed once every source has been loaded.
+     */
+    private class ProgramLoader extends AssetTask {
+
+        /**
+         * The keys of the shader sources listed in the program file, in
+         * order.
+         */
+        private final List<AssetKey> SOURCES = new ArrayList<>();
+
+        /**
+         * The error raised while reading the program file, or null if the
+         * file was read.
+         */
+        private IOException error;
+
+        /**
+         * Constructs a new program loader for an {@link AssetKey asset key}
+         * and its corresponding {@link InputStream input stream}.
+         *
+         * @param key an {@link AssetKey asset key} that points to the location
+         * of a program file (.prog).
+         * @param stream the {@link InputStream input stream} for the file
+         * located at the path specified by the {@link AssetKey key}.
+         */
+        ProgramLoader(final AssetKey key, final InputStream stream) {
             super(key, stream);
+            readSources();
+        }
+
+        /**
+         * Constructs a new program loader for an {@link AssetKey asset key}
+         * and the contents of its corresponding file.
+         *
+         * @param key an {@link AssetKey asset key} that points to the location
+         * of a program file (.prog).
+         * @param buffer the contents of the file located at the path specified
+         * by the {@link AssetKey key}.
+         */
+        ProgramLoader(final AssetKey key, final ByteBuffer buffer) {
+            super(key, buffer);
+            readSources();
+        }
+
+        /**
+         * Reads the path of each shader source from the program file and
+         * declares it as a dependency. Blank lines and lines starting with
+         * '#' are ignored.
+         */
+        private void readSources() {
+            try {
+                for (final String line : StandardCharsets.UTF_8.decode(getBuffer()).toString().split("\\R")) {
+                    final String path = line.trim();
+                    if (!path.isEmpty() && path.charAt(0) != '#') {
+                        SOURCES.add(addDependency(path));
+                    }
+                }
+            } catch (final IOException e) {
+                error = e;
+            }
         }
 
         /**
-         * Creates a {@link GLSLShader compute shader asset} by extracting a
-         * String from the {@link InputStream stream} provided during the
-         * construction of this {@link AssetTask task} and using it as the
-         * source code for constructing an
-         * {@link GLSLShader compute shader asset}.
+         * Creates a {@link GLSLProgram program asset} from the loaded shader
+         * sources listed in the program file.
          *
-         * @return the {@link GLSLShader compute shader} constructed using the
-         * String extracted from the {@link InputStream input stream} associated
-         * with this loader as the shader source code.
+         * @return the {@link GLSLProgram program} composed of the listed
+         * sources.
+         * @throws AssetInitializationException if the program file could not
+         * be read, lists no sources, or lists an asset that is not a shader.
          */
         @Override
-        public GLSLShader load() {
-            return new GLSLShader(KEY, GLSLShader.Type.Compute, new java.util.Scanner(INPUT).useDelimiter("\\A").next());
+        public final GLSLProgram load() throws AssetInitializationException {
+            if (error != null) {
+                throw new AssetInitializationException(KEY, "Program file could not be read (" + error.getMessage() + ")");
+            }
+            if (SOURCES.isEmpty()) {
+                throw new AssetInitializationException(KEY, "Program file lists no shader sources");
+            }
+            final GLSLShader[] shaders = new GLSLShader[SOURCES.size()];
+            for (int i = 0; i < shaders.length; i++) {
+                final Asset source = getDependency(Asset.class, SOURCES.get(i));
+                if (!(source instanceof GLSLShader)) {
+                    throw new AssetInitializationException(KEY, "Program source " + SOURCES.get(i) + " is not a shader");
+                }
+                shaders[i] = (GLSLShader) source;
+            }
+            return new GLSLProgram(KEY, shaders);
         }
     }
 }
@@ -0,0 +1,124 @@
+package net.cybertekt.cache;
+
+import java.util.Set;
+
+/**
+ * Cache - (C) Cybertekt Software.
+ *
+ * Defines the common operations shared by every cache implementation. A cache
+ * stores key-value pairs and decides on its own when a cached value should be
+ * discarded. The policy used to discard values is determined entirely by the
+ * implementing class. Each cache also tracks the number of hits, misses, and
+ * evictions that have occurred since construction.
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ *
+ * @param <Key> the type of key object for storing and retrieving values.
+ * @param <Value> the type of value object to associate with each key.
+ */
+public interface Cache<Key, Value> {
+
+    /**
+     * Inserts the specified key-value pair into the cache. If the key already
+     * exists within the cache it will be replaced by the specified value.
+     * Always returns a reference to the key parameter for the purpose of call
+     * chaining.
+     *
+     * @param key the key to insert into the cache.
+     * @param value the value to associate with the specified key.
+     * @return the key parameter for the purpose of call chaining.
+     */
+    public Key put(final Key key, final Value value);
+
+    /**
+     * Retrieves the cached value associated with the specified key. Null will
+     * be returned if the specified key does not exist within the cache.
+     *
+     * @param key the key in which to retrieve the associated cached value.
+     * @return the cached value associated with the specified key, or null if
+     * the key does not exist within the cache.
+     */
+    public Value get(final Key key);
+
+    /**
+     * Retrieves the cached value associated with the specified key without
+     * recording an access. Unlike {@link #get(java.lang.Object)}, the lookup
+     * is not counted as a hit or miss and does not affect which values the
+     * cache discards.
+     *
+     * @param key the key in which to retrieve the associated cached value.
+     * @return the cached value associated with the specified key, or null if
+     * the key does not exist within the cache.
+     */
+    public Value peek(final Key key);
+
+    /**
+     * Removes the value associated with the specified key from the cache.
+     *
+     * @param key the key associated with the value to remove.
+     */
+    public void remove(final Key key);
+
+    /**
+     * Indicates if the provided key exists as an entry in the cache.
+     *
+     * @param key the key to check for within the cache.
+     * @return true if the cache contains the provided key or false if it does
+     * not.
+     */
+    public boolean containsKey(final Key key);
+
+    /**
+     * Returns the current size of the cache.
+     *
+     * @return the total number of key-value pairs currently within the cache.
+     */
+    public int size();
+
+    /**
+     * Returns true if the cache contains no key-value pairs.
+     *
+     * @return true if the cache is empty, false otherwise.
+     */
+    public boolean isEmpty();
+
+    /**
+     * Removes all key-value pairs from the cache.
+     */
+    public void clear();
+
+    /**
+     * Returns a Set of the keys contained in the cache. Refer to the
+     * implementing class to determine if the returned set is a live view or a
+     * snapshot of the keys.
+     *
+     * @return a set of the keys contained in the cache.
+     */
+    public Set<Key> keySet();
+
+    /**
+     * Returns the number of calls to {@link #get(java.lang.Object)} that found
+     * a cached value.
+     *
+     * @return the total number of cache hits.
+     */
+    public long getHits();
+
+    /**
+     * Returns the number of calls to {@link #get(java.lang.Object)} that did
+     * not find a cached value.
+     *
+     * @return the total number of cache misses.
+     */
+    public long getMisses();
+
+    /**
+     * Returns the number of values that have been discarded by the cache
+     * itself. Values that are manually removed or replaced are not counted.
+     *
+     * @return the total number of cache evictions.
+     */
+    public long getEvictions();
+}
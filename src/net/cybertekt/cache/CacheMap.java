@@ -10,6 +10,7 @@ import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Cache Map - (C) Cybertekt Software.
@@ -28,7 +29,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * @param <Key> the type of key object for storing and retrieving values.
  * @param <Value> the type of value object to associate with each key.
  */
-public class CacheMap<Key, Value> {
+public class CacheMap<Key, Value> implements Cache<Key, Value> {
 
     /**
      * Determines when obsolete values will be removed from the cache.
@@ -102,6 +103,21 @@ public class CacheMap<Key, Value> {
      */
     private final MapMode mapMode;
 
+    /**
+     * Tracks the number of retrievals that found a cached value.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Tracks the number of retrievals that did not find a cached value.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Tracks the number of obsolete values purged from the cache.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
     /**
      * Constructs an empty CacheMap using the default
      * {@link CacheMode#Soft Soft} {@link CacheMode} and
@@ -175,6 +191,7 @@ public class CacheMap<Key, Value> {
      * @param value the value to associate with the specified key.
      * @return the key parameter for the purpose of call chaining.
      */
+    @Override
     public Key put(final Key key, final Value value) {
         update();
         Reference<Value> ref;
@@ -192,10 +209,33 @@ public class CacheMap<Key, Value> {
      * @return the cached value associated with the specified key, or null if
      * the key does not exist within this cache.
      */
+    @Override
     public Value get(final Key key) {
         update();
         Reference<Value> ref;
-        return ((ref = cache.get(key)) != null) ? ref.get() : null;
+        final Value value = ((ref = cache.get(key)) != null) ? ref.get() : null;
+        if (value != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * Retrieves the cached value associated with the specified key without
+     * counting a hit or miss. Null will be returned if the specified key does
+     * not exist within this cache or its value has been collected.
+     *
+     * @param key the key in which to retrieve the associated cached value.
+     * @return the cached value associated with the specified key, or null if
+     * the key does not exist within this cache.
+     */
+    @Override
+    public Value peek(final Key key) {
+        update();
+        final Reference<Value> ref = cache.get(key);
+        return (ref != null) ? ref.get() : null;
     }
 
     /**
@@ -203,6 +243,7 @@ public class CacheMap<Key, Value> {
      *
      * @param key the key associated with the value to remove.
      */
+    @Override
     public void remove(final Key key) {
         Reference<Value> ref = cache.remove(key);
         if (ref != null) {
@@ -221,6 +262,7 @@ public class CacheMap<Key, Value> {
             final Key key;
             if ((key = ((CacheReference<Key>) ref).getKey()) != null) {
                 cache.remove(key);
+                evictions.incrementAndGet();
             }
         }
     }
@@ -232,6 +274,7 @@ public class CacheMap<Key, Value> {
      * @return true if this cache contains the provided key or false if it does
      * not.
      */
+    @Override
     public final boolean containsKey(final Key key) {
         update();
         return cache.containsKey(key);
@@ -242,6 +285,7 @@ public class CacheMap<Key, Value> {
      *
      * @return the total number of key-value pairs currently within the cache.
      */
+    @Override
     public final int size() {
         update();
         return cache.size();
@@ -252,6 +296,7 @@ public class CacheMap<Key, Value> {
      *
      * @return true if this cache is empty, false otherwise.
      */
+    @Override
     public final boolean isEmpty() {
         update();
         return cache.isEmpty();
@@ -263,6 +308,7 @@ public class CacheMap<Key, Value> {
      * to prevent old objects from triggering the removal of new objects that
      * share the same key as one of the objects already removed from the cache.
      */
+    @Override
     public final void clear() {
         for (Reference<Value> ref : cache.values()) {
             ((CacheReference<Key>) ref).clear();
@@ -282,10 +328,44 @@ public class CacheMap<Key, Value> {
      *
      * @return a set view of the keys contained in this cache.
      */
+    @Override
     public final Set<Key> keySet() {
         return cache.keySet();
     }
 
+    /**
+     * Returns the number of calls to {@link #get(java.lang.Object)} that found
+     * a cached value.
+     *
+     * @return the total number of cache hits.
+     */
+    @Override
+    public final long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of calls to {@link #get(java.lang.Object)} that did
+     * not find a cached value.
+     *
+     * @return the total number of cache misses.
+     */
+    @Override
+    public final long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of obsolete values that have been purged from the
+     * cache after their reference was cleared by the garbage collector.
+     *
+     * @return the total number of cache evictions.
+     */
+    @Override
+    public final long getEvictions() {
+        return evictions.get();
+    }
+
     /**
      * Indicates the {@link CacheMode} that determines how cached values are
      * tracked and when to remove obsolete entries. Cannot be changed after
@@ -0,0 +1,714 @@
+package net.cybertekt.cache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Weighted Cache - (C) Cybertekt Software.
+ *
+ * Thread-safe cache that limits the total weight of the values it holds rather
+ * than relying on the garbage collector to discard them. Every value is
+ * assigned a weight by the {@link Weigher weigher} provided during
+ * construction (typically the number of bytes the value occupies) and the sum
+ * of all weights will never exceed the configured capacity.
+ * <p>
+ * Eviction follows the W-TinyLFU policy. New entries are placed in a small
+ * admission window ordered by recency. Entries leaving the window become
+ * candidates for the main cache, which is split into a probation and a
+ * protected segment. When the cache is full a candidate is only admitted if
+ * its estimated access frequency is greater than that of the least recently
+ * used probation entry, otherwise the candidate itself is discarded.
+ * Frequencies are estimated by a small count-min sketch that is periodically
+ * aged so that entries which were popular long ago lose their advantage.
+ * </p>
+ *
+ * @see https://arxiv.org/abs/1512.00727 for the TinyLFU admission policy.
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ *
+ * @param <Key> the type of key object for storing and retrieving values.
+ * @param <Value> the type of value object to associate with each key.
+ */
+public class WeightedCache<Key, Value> implements Cache<Key, Value> {
+
+    /**
+     * Calculates the weight of a cached value.
+     *
+     * @param <Value> the type of value to weigh.
+     */
+    public interface Weigher<Value> {
+
+        /**
+         * Returns the weight of the provided value. Weights must be zero or
+         * greater and must not change while the value remains cached.
+         *
+         * @param value the value to weigh.
+         * @return the weight of the value.
+         */
+        public long weigh(final Value value);
+    }
+
+    /**
+     * Percentage of the total capacity reserved for the admission window.
+     */
+    private static final float WINDOW_RATIO = 0.01f;
+
+    /**
+     * Percentage of the main cache capacity reserved for the protected
+     * segment.
+     */
+    private static final float PROTECTED_RATIO = 0.8f;
+
+    /**
+     * Default number of distinct keys the frequency sketch is sized for.
+     */
+    private static final int DEFAULT_ENTRIES = 1024;
+
+    /**
+     * Maps each key to the node that holds its value.
+     */
+    private final Map<Key, Node> nodes = new HashMap<>();
+
+    /**
+     * Admission window segment. Stores the most recently added entries.
+     */
+    private final Segment window = new Segment();
+
+    /**
+     * Probation segment of the main cache. Stores entries that have been
+     * admitted but have not been accessed since admission.
+     */
+    private final Segment probation = new Segment();
+
+    /**
+     * Protected segment of the main cache. Stores entries that have been
+     * accessed at least once while in the probation segment.
+     */
+    private final Segment protect = new Segment();
+
+    /**
+     * Estimates the access frequency of each key.
+     */
+    private final FrequencySketch sketch;
+
+    /**
+     * Calculates the weight of each cached value.
+     */
+    private final Weigher<? super Value> weigher;
+
+    /**
+     * The maximum total weight of all cached values.
+     */
+    private final long capacity;
+
+    /**
+     * The maximum weight of the admission window.
+     */
+    private final long windowCapacity;
+
+    /**
+     * The maximum weight of the protected segment.
+     */
+    private final long protectCapacity;
+
+    /**
+     * The current total weight of all cached values.
+     */
+    private long weight;
+
+    /**
+     * Number of retrievals that found a cached value.
+     */
+    private long hits;
+
+    /**
+     * Number of retrievals that did not find a cached value.
+     */
+    private long misses;
+
+    /**
+     * Number of values discarded by the eviction policy.
+     */
+    private long evictions;
+
+    /**
+     * Constructs an empty cache with the specified capacity and weigher. The
+     * frequency sketch is sized for a default number of distinct keys.
+     *
+     * @param capacity the maximum total weight of all cached values.
+     * @param weigher the {@link Weigher weigher} used to calculate the weight
+     * of each cached value.
+     */
+    public WeightedCache(final long capacity, final Weigher<? super Value> weigher) {
+        this(capacity, weigher, DEFAULT_ENTRIES);
+    }
+
+    /**
+     * Constructs an empty cache with the specified capacity and weigher using
+     * a frequency sketch sized for the expected number of distinct keys.
+     *
+     * @param capacity the maximum total weight of all cached values.
+     * @param weigher the {@link Weigher weigher} used to calculate the weight
+     * of each cached value.
+     * @param expectedEntries the expected number of distinct keys.
+     */
+    public WeightedCache(final long capacity, final Weigher<? super Value> weigher, final int expectedEntries) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be greater than zero: " + capacity);
+        }
+        this.capacity = capacity;
+        this.weigher = weigher;
+        this.windowCapacity = Math.max(1, (long) (capacity * WINDOW_RATIO));
+        this.protectCapacity = (long) ((capacity - windowCapacity) * PROTECTED_RATIO);
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    /**
+     * Inserts the specified key-value pair into the cache. If the key already
+     * exists within the cache it will be replaced by the specified value.
+     * Values that weigh more than the entire capacity of the cache are never
+     * stored and are counted as an eviction.
+     *
+     * @param key the key to insert into the cache.
+     * @param value the value to associate with the specified key.
+     * @return the key parameter for the purpose of call chaining.
+     */
+    @Override
+    public synchronized Key put(final Key key, final Value value) {
+        final long w = weigher.weigh(value);
+        sketch.increment(key);
+
+        Node node = nodes.get(key);
+        if (w > capacity) {
+            if (node != null) {
+                unlink(node);
+            }
+            evictions++;
+            return key;
+        }
+
+        if (node != null) {
+            node.segment.weight += w - node.weight;
+            weight += w - node.weight;
+            node.value = value;
+            node.weight = w;
+            onAccess(node);
+        } else {
+            node = new Node(key, value, w);
+            nodes.put(key, node);
+            window.addLast(node);
+            weight += w;
+        }
+        evict();
+        return key;
+    }
+
+    /**
+     * Retrieves the cached value associated with the specified key and records
+     * the access. Null will be returned if the specified key does not exist
+     * within the cache.
+     *
+     * @param key the key in which to retrieve the associated cached value.
+     * @return the cached value associated with the specified key, or null if
+     * the key does not exist within the cache.
+     */
+    @Override
+    public synchronized Value get(final Key key) {
+        sketch.increment(key);
+        final Node node = nodes.get(key);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Retrieves the cached value associated with the specified key without
+     * recording an access. The lookup is not counted as a hit or miss, does
+     * not increment the frequency of the key and does not move its entry.
+     *
+     * @param key the key in which to retrieve the associated cached value.
+     * @return the cached value associated with the specified key, or null if
+     * the key does not exist within the cache.
+     */
+    @Override
+    public synchronized Value peek(final Key key) {
+        final Node node = nodes.get(key);
+        return (node != null) ? node.value : null;
+    }
+
+    /**
+     * Removes the value associated with the specified key from the cache.
+     *
+     * @param key the key associated with the value to remove.
+     */
+    @Override
+    public synchronized void remove(final Key key) {
+        final Node node = nodes.get(key);
+        if (node != null) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * Indicates if the provided key exists as an entry in the cache. This
+     * method does not count as an access of the entry.
+     *
+     * @param key the key to check for within the cache.
+     * @return true if the cache contains the provided key or false if it does
+     * not.
+     */
+    @Override
+    public synchronized boolean containsKey(final Key key) {
+        return nodes.containsKey(key);
+    }
+
+    /**
+     * Returns the current size of the cache.
+     *
+     * @return the total number of key-value pairs currently within the cache.
+     */
+    @Override
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns true if the cache contains no key-value pairs.
+     *
+     * @return true if the cache is empty, false otherwise.
+     */
+    @Override
+    public synchronized boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * Removes all key-value pairs from the cache. Access frequencies recorded
+     * by the sketch are retained.
+     */
+    @Override
+    public synchronized void clear() {
+        nodes.clear();
+        window.clear();
+        probation.clear();
+        protect.clear();
+        weight = 0;
+    }
+
+    /**
+     * Returns a snapshot of the keys contained in the cache. Unlike
+     * {@link CacheMap#keySet()}, the returned set is not backed by the cache
+     * and may be iterated safely while the cache is modified by other threads.
+     *
+     * @return a copy of the keys contained in the cache.
+     */
+    @Override
+    public synchronized Set<Key> keySet() {
+        return new HashSet<>(nodes.keySet());
+    }
+
+    /**
+     * Returns the number of calls to {@link #get(java.lang.Object)} that found
+     * a cached value.
+     *
+     * @return the total number of cache hits.
+     */
+    @Override
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of calls to {@link #get(java.lang.Object)} that did
+     * not find a cached value.
+     *
+     * @return the total number of cache misses.
+     */
+    @Override
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of values discarded by the eviction policy, including
+     * values that were rejected for weighing more than the cache capacity.
+     *
+     * @return the total number of cache evictions.
+     */
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the current total weight of all cached values.
+     *
+     * @return the current weight of the cache.
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the maximum total weight of all cached values.
+     *
+     * @return the capacity of the cache.
+     */
+    public final long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Updates the position of a node after it has been accessed. Window and
+     * protected entries move to the most recently used position of their
+     * segment. Probation entries are promoted to the protected segment, which
+     * may in turn demote the least recently used protected entry back to
+     * probation.
+     *
+     * @param node the node that was accessed.
+     */
+    private void onAccess(final Node node) {
+        if (node.segment == probation) {
+            probation.remove(node);
+            protect.addLast(node);
+            while (protect.weight > protectCapacity && protect.head != protect.tail) {
+                final Node demoted = protect.head;
+                protect.remove(demoted);
+                probation.addLast(demoted);
+            }
+        } else {
+            node.segment.moveToLast(node);
+        }
+    }
+
+    /**
+     * Moves entries that overflow the admission window into the probation
+     * segment and then evicts entries until the total weight of the cache is
+     * within its capacity. The most recently added window entry is always
+     * retained so that a newly inserted value survives until it has had a
+     * chance to be accessed.
+     */
+    private void evict() {
+        Node candidate = null;
+        while (window.weight > windowCapacity && window.head != window.tail) {
+            final Node node = window.head;
+            window.remove(node);
+            probation.addLast(node);
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+
+        while (weight > capacity) {
+            final Node victim = probation.head;
+            if (victim == null) {
+                final Node fallback = (protect.head != null) ? protect.head : (window.head != window.tail ? window.head : null);
+                if (fallback == null) {
+                    break;
+                }
+                discard(fallback);
+                continue;
+            }
+            if (candidate == null || candidate.segment != probation || candidate == victim) {
+                discard(victim);
+                candidate = null;
+                continue;
+            }
+            if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                discard(victim);
+            } else {
+                final Node rejected = candidate;
+                candidate = candidate.next;
+                discard(rejected);
+            }
+        }
+    }
+
+    /**
+     * Removes a node from the cache as the result of an eviction.
+     *
+     * @param node the node to evict.
+     */
+    private void discard(final Node node) {
+        unlink(node);
+        evictions++;
+    }
+
+    /**
+     * Removes a node from its segment and from the node map.
+     *
+     * @param node the node to remove.
+     */
+    private void unlink(final Node node) {
+        node.segment.remove(node);
+        nodes.remove(node.key);
+        weight -= node.weight;
+    }
+
+    /**
+     * Cached key-value pair stored as part of a doubly linked list.
+     */
+    private final class Node {
+
+        /**
+         * The key associated with the cached value.
+         */
+        private final Key key;
+
+        /**
+         * The cached value.
+         */
+        private Value value;
+
+        /**
+         * The weight of the cached value.
+         */
+        private long weight;
+
+        /**
+         * The segment that currently contains this node.
+         */
+        private Segment segment;
+
+        /**
+         * Neighboring nodes within the segment.
+         */
+        private Node prev, next;
+
+        /**
+         * Constructs a node for the specified key-value pair.
+         *
+         * @param key the key associated with the value.
+         * @param value the value to cache.
+         * @param weight the weight of the value.
+         */
+        private Node(final Key key, final Value value, final long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Doubly linked list of nodes ordered from least recently used (head) to
+     * most recently used (tail) that also tracks the total weight of its
+     * nodes.
+     */
+    private final class Segment {
+
+        /**
+         * Least and most recently used nodes.
+         */
+        private Node head, tail;
+
+        /**
+         * Total weight of all nodes in the segment.
+         */
+        private long weight;
+
+        /**
+         * Appends a node as the most recently used node of the segment.
+         *
+         * @param node the node to append.
+         */
+        private void addLast(final Node node) {
+            node.segment = this;
+            node.prev = tail;
+            node.next = null;
+            if (tail != null) {
+                tail.next = node;
+            } else {
+                head = node;
+            }
+            tail = node;
+            weight += node.weight;
+        }
+
+        /**
+         * Removes a node from the segment.
+         *
+         * @param node the node to remove.
+         */
+        private void remove(final Node node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        /**
+         * Moves a node to the most recently used position of the segment.
+         *
+         * @param node the node to move.
+         */
+        private void moveToLast(final Node node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        /**
+         * Removes all nodes from the segment.
+         */
+        private void clear() {
+            head = null;
+            tail = null;
+            weight = 0;
+        }
+    }
+
+    /**
+     * Count-Min Sketch - (C) Cybertekt Software.
+     *
+     * Probabilistic multiset that estimates how often each key has been
+     * accessed using a fixed amount of memory. Each key is hashed into one
+     * counter on each of four rows and its frequency is estimated as the
+     * minimum of those counters. Counters saturate at fifteen and every
+     * counter is halved once the number of recorded accesses reaches ten times
+     * the width of the sketch.
+     */
+    private static final class FrequencySketch {
+
+        /**
+         * Number of rows (hash functions) in the sketch.
+         */
+        private static final int DEPTH = 4;
+
+        /**
+         * Maximum value of a single counter.
+         */
+        private static final int MAX_COUNT = 15;
+
+        /**
+         * Seeds used to derive an independent hash for each row.
+         */
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        /**
+         * Sketch counters. Each row occupies {@link #width} consecutive
+         * entries.
+         */
+        private final byte[] table;
+
+        /**
+         * Number of counters in each row. Always a power of two.
+         */
+        private final int width;
+
+        /**
+         * Number of accesses after which all counters are halved.
+         */
+        private final int sampleSize;
+
+        /**
+         * Number of accesses recorded since the last reset.
+         */
+        private int samples;
+
+        /**
+         * Constructs a sketch sized for the expected number of distinct keys.
+         *
+         * @param expectedEntries the expected number of distinct keys.
+         */
+        private FrequencySketch(final int expectedEntries) {
+            int w = 16;
+            while (w < expectedEntries && w < (1 << 24)) {
+                w <<= 1;
+            }
+            width = w;
+            table = new byte[DEPTH * width];
+            sampleSize = 10 * width;
+        }
+
+        /**
+         * Records an access of the specified key.
+         *
+         * @param key the key that was accessed.
+         */
+        private void increment(final Object key) {
+            final int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < DEPTH; i++) {
+                final int index = i * width + indexOf(hash, i);
+                if (table[index] < MAX_COUNT) {
+                    table[index]++;
+                    added = true;
+                }
+            }
+            if (added && ++samples >= sampleSize) {
+                reset();
+            }
+        }
+
+        /**
+         * Returns the estimated number of accesses of the specified key.
+         *
+         * @param key the key for which to estimate the frequency.
+         * @return the estimated access frequency of the key.
+         */
+        private int frequency(final Object key) {
+            final int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < DEPTH; i++) {
+                frequency = Math.min(frequency, table[i * width + indexOf(hash, i)]);
+            }
+            return frequency;
+        }
+
+        /**
+         * Halves every counter in the sketch.
+         */
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (byte) (table[i] >>> 1);
+            }
+            samples >>>= 1;
+        }
+
+        /**
+         * Returns the column of the specified hash within a row.
+         *
+         * @param hash the spread hash of the key.
+         * @param row the row index.
+         * @return the column of the counter for the key within the row.
+         */
+        private int indexOf(final int hash, final int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 16;
+            return h & (width - 1);
+        }
+
+        /**
+         * Applies a supplemental hash function to defend against poor quality
+         * hash codes, such as the sequential hash codes of asset keys.
+         *
+         * @param hash the hash code to spread.
+         * @return the spread hash code.
+         */
+        private static int spread(int hash) {
+            hash ^= hash >>> 17;
+            hash *= 0xED5AD4BB;
+            hash ^= hash >>> 11;
+            hash *= 0xAC4C1B51;
+            hash ^= hash >>> 15;
+            return hash;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package net.cybertekt.ogl.shader;
 
 import java.nio.FloatBuffer;
+import net.cybertekt.asset.Asset;
+import net.cybertekt.asset.AssetKey;
+import net.cybertekt.asset.AssetManager;
+import net.cybertekt.asset.shader.GLSLProgram;
 import net.cybertekt.asset.shader.GLSLShader;
 import net.cybertekt.ogl.GLObject;
 import org.joml.Matrix4f;
@@ -33,7 +37,10 @@ import org.slf4j.LoggerFactory;
  * OpenGL Shader Program - (C) Cybertekt Software
  *
  * {@link GLObject} that encapsulates an OpenGL shader program. A shader program
- * is created from one or more {@link GLSLShader GLSL shader sources}.
+ * is created from one or more {@link GLSLShader GLSL shader sources}. When a
+ * source is {@link AssetManager#reload(AssetKey) reloaded}
+ * the sources are compiled and linked into a new program, which replaces the
+ * program in use only once it has linked successfully.
  *
  * @version 1.1.0
  * @since 1.1.0
@@ -46,6 +53,42 @@ public class GLShader extends GLObject {
      */
     private static final Logger LOG = LoggerFactory.getLogger(GLShader.class);
 
+    /**
+     * The GLSL shader sources from which the program is linked.
+     */
+    private final GLSLShader[] SOURCES;
+
+    /**
+     * Links the program again when one of its sources is reloaded. Held by
+     * the program as reload listeners are only weakly referenced by the asset
+     * manager.
+     */
+    private final AssetManager.ReloadListener RELOADER = this::reloaded;
+
+    /**
+     * The identifier of the program in use. Initially the program created with
+     * the shader, replaced each time the sources are successfully linked
+     * after a reload.
+     */
+    private int program;
+
+    /**
+     * The program linked after the last successful reload, or null if the
+     * program created with the shader is still in use. Held so that the
+     * program is only deleted once it has been replaced.
+     */
+    private Program relinked;
+
+    /**
+     * Creates a shader program from the sources of a
+     * {@link GLSLProgram program asset}.
+     *
+     * @param program the program asset listing the sources to link.
+     */
+    public GLShader(final GLSLProgram program) {
+        this(program.getShaders());
+    }
+
     public GLShader(final GLSLShader... sources) {
         super(GLObject.Type.Shader);
 
@@ -54,35 +97,92 @@ public class GLShader extends GLObject {
             throw new RuntimeException("Unable to create additional shader programs");
         }
 
+        // Compile And Link Shader Sources //
+        SOURCES = sources.clone();
+        link(ID, SOURCES);
+        program = ID;
+
+        // Relink When A Source Is Reloaded //
+        for (final GLSLShader source : SOURCES) {
+            AssetManager.addReloadListener(source.getKey(), RELOADER);
+        }
+    }
+
+    /**
+     * Compiles the specified shader sources and links them into a shader
+     * program. Compiled sources are always deleted, even if compilation or
+     * linking fails.
+     *
+     * @param target the identifier of the program to link.
+     * @param sources the GLSL shader sources to link into the program.
+     * @throws RuntimeException if a source fails to compile or the program
+     * fails to link.
+     */
+    private void link(final int target, final GLSLShader[] sources) {
+
         // Array For Storing GLSL Shader Source Ids //
         int[] ids = new int[sources.length];
 
-        // Compile And Attach Shader Sources //
-        for (int i = 0; i < sources.length; i++) {
-            ids[i] = compile(sources[i]);
-            glAttachShader(ID, ids[i]);
-        }
+        try {
+            // Compile And Attach Shader Sources //
+            for (int i = 0; i < sources.length; i++) {
+                ids[i] = compile(sources[i]);
+                glAttachShader(target, ids[i]);
+            }
 
-        // Link Shader Program //
-        glLinkProgram(ID);
+            // Link Shader Program //
+            glLinkProgram(target);
 
-        // Verify Program Link //
-        if (glGetProgrami(ID, GL_LINK_STATUS) == 0) {
-            throw new RuntimeException("Shader Program Link Failed: " + glGetProgramInfoLog(ID));
+            // Verify Program Link //
+            if (glGetProgrami(target, GL_LINK_STATUS) == 0) {
+                throw new RuntimeException("Shader Program Link Failed: " + glGetProgramInfoLog(target));
+            }
+        } finally {
+            // Detach And Delete GLSL Shader Sources //
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != 0) {
+                    glDetachShader(target, ids[i]);
+                    glDeleteShader(ids[i]);
+                }
+            }
         }
+    }
 
-        // Detach And Delete GLSL Shader Sources //
-        for (int i = 0; i < ids.length; i++) {
-            glDetachShader(ID, ids[i]);
-            glDeleteShader(ids[i]);
+    /**
+     * Links the sources, including a reloaded source, into a new program and
+     * replaces the program in use with it. If the reloaded source fails to
+     * compile or link, the error is logged and the previous program and
+     * sources remain in use, so the program can be fixed by saving the source
+     * again. A replaced or failed program is deleted once it is collected.
+     *
+     * @param key the {@link AssetKey key} of the reloaded source.
+     * @param asset the reloaded source.
+     */
+    private void reloaded(final AssetKey key, final Asset asset) {
+        final GLSLShader[] sources = SOURCES.clone();
+        for (int i = 0; i < sources.length; i++) {
+            if (sources[i].getKey() == key) {
+                sources[i] = (GLSLShader) asset;
+            }
+        }
+        final Program replacement = new Program();
+        try {
+            link(replacement.getId(), sources);
+        } catch (final RuntimeException e) {
+            LOG.error("Unable to relink shader program [{}] - {}", program, e.getMessage());
+            return;
         }
+        LOG.info("Shader program [{}] replaced by [{}] after {} was reloaded", program, replacement.getId(), key);
+        System.arraycopy(sources, 0, SOURCES, 0, sources.length);
+        program = replacement.getId();
+        relinked = replacement;
     }
 
     /**
      * Binds the shader program to the current OpenGL context.
      */
     public final void bind() {
-        glUseProgram(ID);
+        glUseProgram(program);
     }
 
     /**
@@ -95,9 +195,9 @@ public class GLShader extends GLObject {
      * if the shader program has failed validation.
      */
     public final boolean validate() {
-        glValidateProgram(ID);
-        if (glGetProgrami(ID, GL_VALIDATE_STATUS) == 0) {
-            LOG.error("Shader Validation Failed: {}", glGetProgramInfoLog(ID));
+        glValidateProgram(program);
+        if (glGetProgrami(program, GL_VALIDATE_STATUS) == 0) {
+            LOG.error("Shader Validation Failed: {}", glGetProgramInfoLog(program));
             return false;
         }
         return true;
@@ -124,7 +224,9 @@ public class GLShader extends GLObject {
 
         // Verify Compilation Status //
         if (glGetShaderi(id, GL_COMPILE_STATUS) == 0) {
-            throw new RuntimeException("Shader Source Compilation Failed: " + source.getKey().getName() + "\n\t" + glGetShaderInfoLog(id));
+            final String log = glGetShaderInfoLog(id);
+            glDeleteShader(id);
+            throw new RuntimeException("Shader Source Compilation Failed: " + source.getKey().getName() + "\n\t" + log);
         }
 
         // Return Compiled Shader ID //
@@ -155,6 +257,30 @@ public class GLShader extends GLObject {
         }
     }
 
+    /**
+     * Shader program linked from reloaded sources. Deleted by
+     * {@link GLObject#clean()} once it has been replaced or has failed to
+     * link.
+     */
+    private static final class Program extends GLObject {
+
+        /**
+         * Creates an empty shader program.
+         */
+        private Program() {
+            super(GLObject.Type.Shader);
+        }
+
+        /**
+         * Returns the OpenGL identifier of the program.
+         *
+         * @return the program identifier.
+         */
+        private int getId() {
+            return ID;
+        }
+    }
+
     public class InvalidUniformException extends RuntimeException {
 
         public InvalidUniformException(final GLShader shader, final String uniform) {
@@ -1,25 +1,86 @@
 package net.cybertekt.ogl.texture;
 
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import net.cybertekt.asset.AssetKey;
+import net.cybertekt.asset.AssetManager;
+import net.cybertekt.asset.AssetProxy;
 import net.cybertekt.asset.image.Image;
+import static org.lwjgl.opengl.GL11.GL_ALPHA;
+import static org.lwjgl.opengl.GL11.GL_BLUE;
+import static org.lwjgl.opengl.GL11.GL_FALSE;
+import static org.lwjgl.opengl.GL11.GL_GREEN;
+import static org.lwjgl.opengl.GL11.GL_ONE;
+import static org.lwjgl.opengl.GL11.GL_RED;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_MAG_FILTER;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_MIN_FILTER;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_S;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_T;
+import static org.lwjgl.opengl.GL11.GL_TRUE;
+import static org.lwjgl.opengl.GL11.GL_UNPACK_ALIGNMENT;
+import static org.lwjgl.opengl.GL11.GL_UNPACK_SWAP_BYTES;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT;
 import static org.lwjgl.opengl.GL11.glBindTexture;
+import static org.lwjgl.opengl.GL11.glPixelStorei;
 import static org.lwjgl.opengl.GL11.glTexImage2D;
 import static org.lwjgl.opengl.GL11.glTexParameteri;
+import static org.lwjgl.opengl.GL11.glTexParameteriv;
+import static org.lwjgl.opengl.GL12.GL_TEXTURE_MAX_LEVEL;
+import static org.lwjgl.opengl.GL30.GL_RG;
 import static org.lwjgl.opengl.GL30.glGenerateMipmap;
+import static org.lwjgl.opengl.GL33.GL_TEXTURE_SWIZZLE_RGBA;
 
 /**
  * OpenGL Texture Object - (C) Cybertekt Software
  *
+ * The texture follows its {@link Image image} when the image is
+ * {@link AssetManager#reload(AssetKey) reloaded}, re-uploading the reloaded
+ * image the next time it is bound. Textures obtained using
+ * {@link #share(Image, MinFilter, MagFilter)} are shared by every caller
+ * requesting the same image, so an image that the {@link AssetManager asset
+ * manager} has mapped onto several keys is only uploaded once.
+ * <p>
+ * One and two channel images are sampled as luminance and luminance with
+ * alpha, so grayscale images appear gray rather than red. Image rows are
+ * tightly packed and 16-bit samples are big-endian, as decoded from PNG files.
+ * </p>
+ * <p>
+ * Images that carry a mipmap chain, generated by the asset workers when a
+ * {@link net.cybertekt.asset.image.ImageLoader#setMipmapFilter mipmap filter}
+ * is set, are uploaded level by level. Mipmaps are only generated on the
+ * OpenGL thread for images without a chain.
+ * </p>
+ *
  * @version 1.1.0
  * @since 1.1.0
  * @author Andrew Vektor
  */
 public class GLTexture2D extends GLTexture {
 
+    /**
+     * Textures created by {@link #share(Image, MinFilter, MagFilter)}, keyed
+     * by image. Both are weakly held so that a shared texture is deleted once
+     * no caller uses it. Only accessed from the OpenGL thread.
+     */
+    private static final Map<Image, WeakReference<GLTexture2D>> SHARED = new WeakHashMap<>();
+
+    /**
+     * Swizzle sampling the single channel of an image as luminance.
+     */
+    private static final int[] LUMINANCE = {GL_RED, GL_RED, GL_RED, GL_ONE};
+
+    /**
+     * Swizzle sampling the two channels of an image as luminance and alpha.
+     */
+    private static final int[] LUMINANCE_ALPHA = {GL_RED, GL_RED, GL_RED, GL_GREEN};
+
+    /**
+     * Swizzle sampling every channel of an image unchanged.
+     */
+    private static final int[] IDENTITY = {GL_RED, GL_GREEN, GL_BLUE, GL_ALPHA};
+
     /**
      * The texture {@link Image image}.
      */
@@ -35,14 +96,83 @@ public class GLTexture2D extends GLTexture {
      */
     private boolean mipmaps;
 
+    /**
+     * Replaces the texture image when it is reloaded. Held by the texture as
+     * reload listeners are only weakly referenced by the asset manager.
+     */
+    private final AssetManager.ReloadListener RELOADER = (key, asset) -> setImage((Image) asset);
+
     public GLTexture2D(final Image image) {
         super(GL_TEXTURE_2D);
         this.image = image;
+        follow(null, image);
     }
     
     public GLTexture2D(final Image image, final MinFilter minFilter, final MagFilter magFilter) {
         super(GL_TEXTURE_2D, minFilter, magFilter);
         this.image = image;
+        follow(null, image);
+    }
+
+    /**
+     * Constructs a texture for an image that may still be loading. The
+     * texture uses the placeholder held by the {@link AssetProxy proxy} and
+     * uploads the loaded image once it is swapped in.
+     *
+     * @param proxy the proxy for the texture image.
+     */
+    public GLTexture2D(final AssetProxy<Image> proxy) {
+        this(proxy.get());
+        watch(proxy);
+    }
+
+    /**
+     * Constructs a texture for an image that may still be loading. The
+     * texture uses the placeholder held by the {@link AssetProxy proxy} and
+     * uploads the loaded image once it is swapped in.
+     *
+     * @param proxy the proxy for the texture image.
+     * @param minFilter the minification filter.
+     * @param magFilter the magnification filter.
+     */
+    public GLTexture2D(final AssetProxy<Image> proxy, final MinFilter minFilter, final MagFilter magFilter) {
+        this(proxy.get(), minFilter, magFilter);
+        watch(proxy);
+    }
+
+    /**
+     * Replaces the texture image with the loaded image once it is swapped
+     * into the specified proxy. The image is uploaded the next time the
+     * texture is bound.
+     *
+     * @param proxy the proxy for the texture image.
+     */
+    private void watch(final AssetProxy<Image> proxy) {
+        if (!proxy.isLoaded()) {
+            proxy.addListener((source, placeholder, loaded) -> setImage(loaded));
+        }
+    }
+
+    /**
+     * Returns a texture for the specified image that is shared with every
+     * other caller requesting the same image with the same filters. A new
+     * texture is only created, and the image only uploaded, if no such
+     * texture exists.
+     *
+     * @param image the texture image.
+     * @param minFilter the minification filter.
+     * @param magFilter the magnification filter.
+     * @return the shared texture.
+     */
+    public static GLTexture2D share(final Image image, final MinFilter minFilter, final MagFilter magFilter) {
+        final WeakReference<GLTexture2D> reference = SHARED.get(image);
+        final GLTexture2D shared = (reference != null) ? reference.get() : null;
+        if (shared != null && shared.image == image && shared.minFilter == minFilter && shared.magFilter == magFilter) {
+            return shared;
+        }
+        final GLTexture2D texture = new GLTexture2D(image, minFilter, magFilter);
+        SHARED.put(image, new WeakReference<>(texture));
+        return texture;
     }
 
     public final void bind() {
@@ -51,8 +181,26 @@ public class GLTexture2D extends GLTexture {
         glBindTexture(TYPE, ID);
 
         // Upload Texture Data //
-        if (!initialized) {
-            glTexImage2D(TYPE, 0, image.getFormat().ID, image.getWidth(), image.getHeight(), 0, image.getFormat().ID, image.getFormat().TYPE, image.getBuffer());
+        if (!initialized && image != null) {
+            final Image.Format format = image.getFormat();
+            glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+            glPixelStorei(GL_UNPACK_SWAP_BYTES, (format.TYPE == GL_UNSIGNED_SHORT) ? GL_TRUE : GL_FALSE);
+            final int levels = image.getLevelCount();
+            for (int level = 0; level < levels; level++) {
+                glTexImage2D(TYPE, level, format.ID, image.getWidth(level), image.getHeight(level), 0, format.ID, format.TYPE, image.getBuffer(level));
+            }
+            glPixelStorei(GL_UNPACK_SWAP_BYTES, GL_FALSE);
+
+            // Limit Sampling To The Uploaded Chain, Or Restore The Default For Generated Mipmaps //
+            glTexParameteri(TYPE, GL_TEXTURE_MAX_LEVEL, (levels > 1) ? levels - 1 : 1000);
+            mipmaps = levels > 1;
+            if (format.ID == GL_RED) {
+                glTexParameteriv(TYPE, GL_TEXTURE_SWIZZLE_RGBA, LUMINANCE);
+            } else if (format.ID == GL_RG) {
+                glTexParameteriv(TYPE, GL_TEXTURE_SWIZZLE_RGBA, LUMINANCE_ALPHA);
+            } else {
+                glTexParameteriv(TYPE, GL_TEXTURE_SWIZZLE_RGBA, IDENTITY);
+            }
             initialized = true;
         }
 
@@ -70,8 +218,29 @@ public class GLTexture2D extends GLTexture {
     }
 
     public final void setImage(final Image image) {
+        follow(this.image, image);
         this.image = image;
         initialized = false;
         mipmaps = false;
     }
+
+    /**
+     * Moves the reload listener of the texture from the key of the previous
+     * image to the key of the new image.
+     *
+     * @param previous the previous texture image, may be null.
+     * @param image the new texture image, may be null.
+     */
+    private void follow(final Image previous, final Image image) {
+        final AssetKey from = (previous != null) ? previous.getKey() : null;
+        final AssetKey to = (image != null) ? image.getKey() : null;
+        if (from != to) {
+            if (from != null) {
+                AssetManager.removeReloadListener(from, RELOADER);
+            }
+            if (to != null) {
+                AssetManager.addReloadListener(to, RELOADER);
+            }
+        }
+    }
 }
@@ -0,0 +1,218 @@
+package net.cybertekt.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import net.cybertekt.asset.AssetArchive;
+
+/**
+ * Asset Packer - (C) Cybertekt Software
+ *
+ * Static utility class that packs every file within an assets directory into a
+ * single {@link AssetArchive asset archive} (.cpak). The table of contents is
+ * sorted by path hash so that the archive can be searched in place once it has
+ * been memory-mapped, and the data of each file is aligned so that loaders may
+ * read the mapped data efficiently.
+ *
+ * @version 1.1.0
+ * @since 1.1.0
+ * @author Andrew Vektor
+ */
+public class AssetPacker {
+
+    /**
+     * Archive File Type Extension.
+     */
+    public static final String EXTENSION = ".cpak";
+
+    /**
+     * Default alignment, in bytes, of each file stored in the archive.
+     */
+    public static final int ALIGNMENT = 16;
+
+    /**
+     * Packs the assets directory specified by the first argument into the
+     * archive file specified by the second argument.
+     *
+     * @param args the assets directory and the archive file to write.
+     * @throws IOException if the assets could not be read or the archive could
+     * not be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: AssetPacker <assets directory> <archive" + EXTENSION + ">");
+            return;
+        }
+        final long start = System.nanoTime();
+        final int count = pack(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println("Packed " + count + " asset(s) into " + args[1] + " in " + ((System.nanoTime() - start) / 1000000) + " ms");
+    }
+
+    /**
+     * Packs every regular file within the source directory into an archive
+     * using the {@link #ALIGNMENT default alignment}. Files are stored using
+     * their path relative to the source directory with '/' as the separator,
+     * which matches the path of the corresponding asset key. Archive files
+     * found within the source directory are not packed.
+     *
+     * @param source the root assets directory to pack.
+     * @param archive the archive file to write.
+     * @return the number of files packed into the archive.
+     * @throws IOException if the assets could not be read or the archive could
+     * not be written.
+     */
+    public static final int pack(final Path source, final Path archive) throws IOException {
+        return pack(source, archive, ALIGNMENT);
+    }
+
+    /**
+     * Packs every regular file within the source directory into an archive,
+     * aligning the data of each file to the specified number of bytes.
+     *
+     * @param source the root assets directory to pack.
+     * @param archive the archive file to write.
+     * @param alignment the alignment of each file in bytes. Must be a power of
+     * two.
+     * @return the number of files packed into the archive.
+     * @throws IOException if the assets could not be read or the archive could
+     * not be written.
+     */
+    public static final int pack(final Path source, final Path archive, final int alignment) throws IOException {
+        if (alignment < 1 || Integer.bitCount(alignment) != 1) {
+            throw new IllegalArgumentException("Archive alignment must be a power of two: " + alignment);
+        }
+
+        // Collect Files //
+        final List<Entry> entries = new ArrayList<>();
+        final Path output = archive.toAbsolutePath().normalize();
+        try (Stream<Path> files = Files.walk(source)) {
+            for (final Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                if (!file.toAbsolutePath().normalize().equals(output) && !file.toString().endsWith(EXTENSION)) {
+                    entries.add(new Entry(file, source.relativize(file).toString().replace('\\', '/')));
+                }
+            }
+        }
+        entries.sort((a, b) -> Long.compareUnsigned(a.HASH, b.HASH));
+
+        // Compute Layout //
+        final int index = AssetArchive.HEADER_SIZE;
+        final int names = index + entries.size() * AssetArchive.ENTRY_SIZE;
+        int nameOffset = 0;
+        for (final Entry entry : entries) {
+            entry.nameOffset = nameOffset;
+            nameOffset += entry.NAME.length;
+        }
+        long offset = align(names + nameOffset, alignment);
+        for (final Entry entry : entries) {
+            entry.offset = offset;
+            offset = align(offset + entry.LENGTH, alignment);
+        }
+        if (offset > Integer.MAX_VALUE) {
+            throw new IOException("Archive exceeds maximum size: " + offset + " bytes");
+        }
+
+        // Write Header, Table Of Contents, And Names //
+        final ByteBuffer toc = ByteBuffer.allocate(names + nameOffset).order(ByteOrder.BIG_ENDIAN);
+        toc.putInt(AssetArchive.MAGIC).putInt(AssetArchive.VERSION).putInt(entries.size()).putInt(alignment);
+        toc.putLong(index).putLong(names);
+        for (final Entry entry : entries) {
+            toc.putLong(entry.HASH).putLong(entry.offset).putInt((int) entry.LENGTH);
+            toc.putInt(entry.nameOffset).putInt(entry.NAME.length).putInt(0);
+        }
+        for (final Entry entry : entries) {
+            toc.put(entry.NAME);
+        }
+        toc.flip();
+
+        // Write Aligned File Data //
+        try (FileChannel out = FileChannel.open(archive, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (toc.hasRemaining()) {
+                out.write(toc);
+            }
+            for (final Entry entry : entries) {
+                try (FileChannel in = FileChannel.open(entry.FILE, StandardOpenOption.READ)) {
+                    long position = 0;
+                    while (position < entry.LENGTH) {
+                        position += in.transferTo(position, entry.LENGTH - position, out.position(entry.offset + position));
+                    }
+                }
+            }
+            out.truncate(offset);
+            if (out.size() < offset) {
+                out.write(ByteBuffer.allocate(1), offset - 1);
+            }
+        }
+        return entries.size();
+    }
+
+    /**
+     * Rounds the specified offset up to the next multiple of the alignment.
+     *
+     * @param offset the offset to align.
+     * @param alignment the alignment, which must be a power of two.
+     * @return the aligned offset.
+     */
+    private static long align(final long offset, final int alignment) {
+        return (offset + alignment - 1) & -alignment;
+    }
+
+    /**
+     * A single file to be stored within the archive.
+     */
+    private static final class Entry {
+
+        /**
+         * The location of the file to pack.
+         */
+        private final Path FILE;
+
+        /**
+         * The UTF-8 encoded path of the file within the archive.
+         */
+        private final byte[] NAME;
+
+        /**
+         * The {@link AssetArchive#hash(CharSequence) hash} of the path.
+         */
+        private final long HASH;
+
+        /**
+         * The size of the file in bytes.
+         */
+        private final long LENGTH;
+
+        /**
+         * Offset of the path within the archive name table.
+         */
+        private int nameOffset;
+
+        /**
+         * Offset of the file data within the archive.
+         */
+        private long offset;
+
+        /**
+         * Constructs an entry for the specified file.
+         *
+         * @param file the location of the file to pack.
+         * @param path the path of the file within the archive.
+         * @throws IOException if the size of the file cannot be read.
+         */
+        private Entry(final Path file, final String path) throws IOException {
+            this.FILE = file;
+            this.NAME = path.getBytes(StandardCharsets.UTF_8);
+            this.HASH = AssetArchive.hash(path);
+            this.LENGTH = Files.size(file);
+        }
+    }
+}
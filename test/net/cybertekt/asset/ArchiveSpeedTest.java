@@ -0,0 +1,97 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import net.cybertekt.utils.AssetPacker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the time required to resolve and read every file in the assets
+ * directory as loose files against the time required to mount a packed
+ * archive of the same directory and read every file from it.
+ *
+ * @author Andrew Vektor
+ */
+public class ArchiveSpeedTest {
+
+    public static final Logger log = LoggerFactory.getLogger(ArchiveSpeedTest.class);
+
+    private static final int ROUNDS = 50;
+
+    public static void main(final String[] args) throws IOException {
+        ArchiveSpeedTest app = new ArchiveSpeedTest();
+        app.init();
+    }
+
+    public void init() throws IOException {
+        final Path root = Paths.get(AssetManager.rootDir);
+        final List<AssetKey> keys = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            for (final Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                keys.add(AssetKey.getKey(root.relativize(file).toString().replace('\\', '/')));
+            }
+        }
+
+        final Path archive = Files.createTempFile("assets", AssetPacker.EXTENSION);
+        long time = System.nanoTime();
+        AssetPacker.pack(root, archive);
+        log.info("Packed {} files ({} bytes) in {}ms", keys.size(), Files.size(archive), (System.nanoTime() - time) / 1000000);
+
+        // Warm Up //
+        loose(keys);
+        packed(keys, archive);
+
+        long looseTime = 0, packedTime = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            time = System.nanoTime();
+            final long a = loose(keys);
+            looseTime += System.nanoTime() - time;
+
+            time = System.nanoTime();
+            final long b = packed(keys, archive);
+            packedTime += System.nanoTime() - time;
+
+            if (a != b) {
+                throw new IllegalStateException("Archive contents differ from loose files");
+            }
+        }
+
+        log.info("Loose Files: {}us per startup", looseTime / ROUNDS / 1000);
+        log.info("Archive:     {}us per startup (including mount)", packedTime / ROUNDS / 1000);
+        Files.delete(archive);
+    }
+
+    private long loose(final List<AssetKey> keys) {
+        long sum = 0;
+        for (final AssetKey key : keys) {
+            sum += checksum(AssetManager.map(key));
+        }
+        return sum;
+    }
+
+    private long packed(final List<AssetKey> keys, final Path path) {
+        final AssetArchive archive = AssetManager.mount(path);
+        long sum = 0;
+        for (final AssetKey key : keys) {
+            sum += checksum(AssetManager.map(key));
+        }
+        AssetManager.unmount(archive);
+        return sum;
+    }
+
+    private long checksum(final ByteBuffer buffer) {
+        long sum = 0;
+        for (int i = buffer.position(); i < buffer.limit(); i += 4096) {
+            sum += buffer.get(i);
+        }
+        return sum + buffer.remaining();
+    }
+}
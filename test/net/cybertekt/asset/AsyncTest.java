@@ -0,0 +1,57 @@
+package net.cybertekt.asset;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads several images asynchronously and chains a continuation onto each one
+ * that runs on the main thread. The main loop is simulated by calling
+ * {@link AssetManager#update()} once per frame, which never blocks waiting for
+ * an asset.
+ *
+ * @author Andrew Vektor
+ */
+public class AsyncTest {
+
+    public static final Logger log = LoggerFactory.getLogger(AsyncTest.class);
+
+    public static final String[] paths = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png"};
+
+    public static void main(final String[] args) throws InterruptedException {
+        AsyncTest app = new AsyncTest();
+        app.init();
+    }
+
+    public void init() throws InterruptedException {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        final Thread main = Thread.currentThread();
+        final AtomicInteger uploaded = new AtomicInteger();
+
+        long time = System.nanoTime();
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            futures[i] = AssetManager.loadAsync(Image.class, paths[i])
+                    .thenApplyAsync((image) -> image.getWidth() * image.getHeight(), AssetManager.getPoolExecutor())
+                    .thenAcceptAsync((pixels) -> {
+                        if (Thread.currentThread() != main) {
+                            throw new IllegalStateException("Continuation ran on " + Thread.currentThread().getName());
+                        }
+                        uploaded.incrementAndGet();
+                    }, AssetManager.getMainExecutor());
+        }
+
+        // Simulated Main Loop //
+        int frames = 0;
+        while (uploaded.get() < paths.length) {
+            AssetManager.update();
+            frames++;
+            Thread.sleep(1);
+        }
+        CompletableFuture.allOf(futures).join();
+        log.info("{} main thread continuation(s) completed over {} frame(s) in {}ms", uploaded.get(), frames, (System.nanoTime() - time) / 1000000);
+    }
+}
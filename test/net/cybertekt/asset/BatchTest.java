@@ -0,0 +1,68 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retrieves a batch of 200 textures, copied into a scratch directory inside
+ * the assets directory, first one at a time and then with a single batch
+ * {@link AssetManager#get(Class, AssetKey...) get}, which decodes the batch
+ * in parallel while the calling thread helps.
+ *
+ * @author Andrew Vektor
+ */
+public class BatchTest {
+
+    public static final Logger log = LoggerFactory.getLogger(BatchTest.class);
+
+    public static final String[] sources = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png"};
+
+    public static final int COPIES = 40;
+
+    public static void main(final String[] args) throws IOException {
+        BatchTest app = new BatchTest();
+        app.init();
+    }
+
+    public void init() throws IOException {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        final Path dir = Paths.get(AssetManager.rootDir, "BatchTest");
+        final AssetKey[] keys = new AssetKey[sources.length * COPIES];
+        try {
+            Files.createDirectories(dir);
+            for (int i = 0; i < keys.length; i++) {
+                Files.copy(Paths.get(AssetManager.rootDir, sources[i % sources.length]), dir.resolve(i + ".png"), StandardCopyOption.REPLACE_EXISTING);
+                keys[i] = AssetKey.getKey("BatchTest/" + i + ".png");
+            }
+
+            for (int round = 0; round < 3; round++) {
+                AssetManager.clear();
+                long time = System.nanoTime();
+                for (final AssetKey key : keys) {
+                    AssetManager.get(Image.class, key);
+                }
+                final long sequential = (System.nanoTime() - time) / 1000000;
+
+                AssetManager.clear();
+                AssetManager.reset();
+                time = System.nanoTime();
+                final Image[] images = AssetManager.get(Image.class, keys);
+                final long batch = (System.nanoTime() - time) / 1000000;
+                log.info("{} textures - one at a time: {}ms, batch: {}ms, {} task(s) run by the caller", images.length, sequential, batch, AssetManager.getHelped());
+            }
+        } finally {
+            AssetManager.clear();
+            for (int i = 0; i < keys.length; i++) {
+                Files.deleteIfExists(dir.resolve(i + ".png"));
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+}
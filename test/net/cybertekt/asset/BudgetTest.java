@@ -0,0 +1,63 @@
+package net.cybertekt.asset;
+
+import java.util.concurrent.CompletableFuture;
+import net.cybertekt.asset.font.FontLoader;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk-loads every image and font twice, first without a limit on in-flight
+ * decoded memory and then with a budget, and compares the peak number of
+ * decoded bytes in flight during each pass.
+ *
+ * @author Andrew Vektor
+ */
+public class BudgetTest {
+
+    public static final Logger log = LoggerFactory.getLogger(BudgetTest.class);
+
+    public static final String[] paths = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png", "Interface/Fonts/CTF/arial.ctf", "Interface/Fonts/CTF/verdana.ctf", "Interface/Fonts/CTF/calibri.ctf", "Interface/Fonts/CTF/gothic.ctf"};
+
+    private static final long BUDGET = 512 * 1024;
+
+    public static void main(final String[] args) {
+        BudgetTest app = new BudgetTest();
+        app.init();
+    }
+
+    public void init() {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        AssetManager.registerLoader(FontLoader.class, AssetType.getType("CTF"));
+
+        long time = System.nanoTime();
+        int deferred = load();
+        log.info("Unlimited: peak {} bytes in flight, at most {} load(s) deferred, {}ms", AssetManager.getPeakInFlightBytes(), deferred, (System.nanoTime() - time) / 1000000);
+
+        AssetManager.clear();
+        AssetManager.reset();
+        AssetManager.setInFlightBudget(BUDGET);
+        time = System.nanoTime();
+        deferred = load();
+        log.info("Budget {}: peak {} bytes in flight, at most {} load(s) deferred, {}ms", BUDGET, AssetManager.getPeakInFlightBytes(), deferred, (System.nanoTime() - time) / 1000000);
+        if (AssetManager.getInFlightBytes() != 0) {
+            throw new IllegalStateException("In-flight bytes not released: " + AssetManager.getInFlightBytes());
+        }
+        AssetManager.setInFlightBudget(0);
+    }
+
+    private int load() {
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            futures[i] = AssetManager.loadAsync(AssetKey.getKey(paths[i]), AssetManager.Priority.Prefetch);
+        }
+        final CompletableFuture<?> all = CompletableFuture.allOf(futures);
+        int deferred = 0;
+        while (!all.isDone()) {
+            deferred = Math.max(deferred, AssetManager.getDeferred());
+            Thread.yield();
+        }
+        all.join();
+        return deferred;
+    }
+}
@@ -0,0 +1,106 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Copies each of a few textures to several paths inside the assets directory,
+ * as per-skin copies would be, and loads every copy first with every file
+ * decoded separately and then with content deduplication enabled, which
+ * decodes each distinct texture once and shares it between its copies.
+ *
+ * @author Andrew Vektor
+ */
+public class DedupTest {
+
+    public static final Logger log = LoggerFactory.getLogger(DedupTest.class);
+
+    public static final String[] sources = {"Textures/PNG/RGB08.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA16.png"};
+
+    public static final int COPIES = 8;
+
+    public static void main(final String[] args) throws IOException {
+        DedupTest app = new DedupTest();
+        app.init();
+    }
+
+    public void init() throws IOException {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        final Path dir = Paths.get(AssetManager.rootDir, "DedupTest");
+        final AssetKey[] keys = new AssetKey[sources.length * COPIES];
+        try {
+            Files.createDirectories(dir);
+            for (int i = 0; i < keys.length; i++) {
+                Files.copy(Paths.get(AssetManager.rootDir, sources[i % sources.length]), dir.resolve(i + ".png"), StandardCopyOption.REPLACE_EXISTING);
+                keys[i] = AssetKey.getKey("DedupTest/" + i + ".png");
+            }
+
+            AssetManager.clear();
+            long time = System.nanoTime();
+            final Image[] separate = AssetManager.get(Image.class, keys);
+            log.info("Without deduplication - {} image(s), {} bytes in {}ms", count(separate), size(separate), (System.nanoTime() - time) / 1000000);
+
+            AssetManager.clear();
+            final ContentStore store = AssetManager.setDeduplication(true);
+            time = System.nanoTime();
+            final Image[] images = AssetManager.get(Image.class, keys);
+            log.info("With deduplication - {} image(s), {} bytes in {}ms", count(images), size(images), (System.nanoTime() - time) / 1000000);
+            log.info("Shared: {}, decoded: {}, bytes saved: {}", store.getHits(), store.getMisses(), store.getBytesSaved());
+
+            for (int i = sources.length; i < images.length; i++) {
+                if (images[i] != images[i % sources.length]) {
+                    throw new IllegalStateException("Identical copy was decoded separately: " + keys[i]);
+                }
+            }
+            if (images[0] == images[1]) {
+                throw new IllegalStateException("Different images were shared: " + keys[0] + ", " + keys[1]);
+            }
+
+            // Copies Queued Together Wait For The First Decode Without Blocking A Thread //
+            AssetManager.clear();
+            final ContentStore queued = AssetManager.setDeduplication(true);
+            final List<CompletableFuture<Asset>> futures = new ArrayList<>();
+            for (final AssetKey key : keys) {
+                futures.add(AssetManager.loadAsync(key));
+            }
+            for (int i = sources.length; i < keys.length; i++) {
+                if (futures.get(i).join() != futures.get(i % sources.length).join()) {
+                    throw new IllegalStateException("Identical copy loaded asynchronously was decoded separately: " + keys[i]);
+                }
+            }
+            log.info("Asynchronously - shared: {}, decoded: {}", queued.getHits(), queued.getMisses());
+        } finally {
+            AssetManager.setDeduplication(false);
+            AssetManager.clear();
+            for (int i = 0; i < keys.length; i++) {
+                Files.deleteIfExists(dir.resolve(i + ".png"));
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static int count(final Image[] images) {
+        final Set<Image> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(distinct, images);
+        return distinct.size();
+    }
+
+    private static long size(final Image[] images) {
+        final Set<Image> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(distinct, images);
+        return distinct.stream().mapToLong(Image::getMemorySize).sum();
+    }
+}
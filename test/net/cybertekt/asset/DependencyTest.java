@@ -0,0 +1,108 @@
+package net.cybertekt.asset;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import net.cybertekt.asset.AssetManager.AssetInitializationException;
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import net.cybertekt.asset.shader.GLSLProgram;
+import net.cybertekt.asset.shader.GLSLShader;
+import net.cybertekt.asset.shader.ShaderLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads a composite asset whose task declares several images and shaders as
+ * dependencies. The composite task is only executed once all of its
+ * dependencies are complete, so it never waits on another asset. Then loads a
+ * shader program and checks that it shares its sources with the asset cache.
+ *
+ * @author Andrew Vektor
+ */
+public class DependencyTest {
+
+    public static final Logger log = LoggerFactory.getLogger(DependencyTest.class);
+
+    public static final String[] images = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png"};
+
+    public static final String[] shaders = {"Shaders/solid.vert", "Shaders/solid.frag"};
+
+    public static void main(final String[] args) {
+        DependencyTest app = new DependencyTest();
+        app.init();
+    }
+
+    public void init() {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        AssetManager.registerLoader(ShaderLoader.class, AssetType.getType("VERT"), AssetType.getType("FRAG"), AssetType.getType("PROG"));
+        AssetManager.registerLoader(new CompositeLoader(), AssetType.getType("XML"));
+
+        long time = System.nanoTime();
+        Composite composite = AssetManager.get(Composite.class, "Assets.xml");
+        log.info("Loaded composite with {} image(s) and {} shader(s) in {}ms - {}/{}/{} loaded/failed/requested", composite.IMAGES.size(), composite.SHADERS.size(), (System.nanoTime() - time) / 1000000, AssetManager.getLoaded(), AssetManager.getFailed(), AssetManager.getRequested());
+        for (final Image image : composite.IMAGES) {
+            if (AssetManager.getCache().get(image.getKey()) != image) {
+                throw new IllegalStateException("Dependency was not shared with the asset cache: " + image.getKey());
+            }
+        }
+
+        // Shader Program Composed Of Its Sources //
+        final GLSLProgram program = AssetManager.get(GLSLProgram.class, "Shaders/solid.prog");
+        final GLSLShader[] sources = program.getShaders();
+        if (sources.length != shaders.length) {
+            throw new IllegalStateException(program + " has " + sources.length + " source(s) instead of " + shaders.length);
+        }
+        for (int i = 0; i < shaders.length; i++) {
+            if (sources[i] != AssetManager.get(GLSLShader.class, shaders[i])) {
+                throw new IllegalStateException("Program source was not shared with the asset cache: " + shaders[i]);
+            }
+        }
+        log.info("Loaded program {} with sources {}", program, sources);
+    }
+
+    public static class Composite extends Asset {
+
+        public final List<Image> IMAGES = new ArrayList<>();
+
+        public final List<GLSLShader> SHADERS = new ArrayList<>();
+
+        public Composite(final AssetKey key) {
+            super(key);
+        }
+    }
+
+    public static class CompositeLoader extends AssetLoader {
+
+        @Override
+        public AssetTask newTask(final AssetKey key, final InputStream stream) {
+            return new CompositeTask(key, stream);
+        }
+    }
+
+    public static class CompositeTask extends AssetTask {
+
+        public CompositeTask(final AssetKey key, final InputStream stream) {
+            super(key, stream);
+            for (final String path : images) {
+                addDependency(path);
+            }
+            for (final String path : shaders) {
+                addDependency(path);
+            }
+        }
+
+        @Override
+        public Asset load() throws AssetInitializationException {
+            final Composite composite = new Composite(KEY);
+            for (final String path : images) {
+                composite.IMAGES.add(getDependency(Image.class, AssetKey.getKey(path)));
+            }
+            for (final String path : shaders) {
+                composite.SHADERS.add(getDependency(GLSLShader.class, AssetKey.getKey(path)));
+            }
+            log.info("Composite task executed on {}", Thread.currentThread().getName());
+            return composite;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import net.cybertekt.asset.font.Font;
+import net.cybertekt.asset.font.FontLoader;
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads a set of images and fonts twice using the derived data cache. The
+ * first pass decodes every source file and writes the decoded data to the
+ * cache, the second pass clears the asset cache and restores every asset from
+ * the derived data instead of decoding it again.
+ *
+ * @author Andrew Vektor
+ */
+public class DerivedCacheTest {
+
+    public static final Logger log = LoggerFactory.getLogger(DerivedCacheTest.class);
+
+    public static final String[] paths = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png", "Interface/Fonts/CTF/arial.ctf", "Interface/Fonts/CTF/verdana.ctf"};
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        DerivedCacheTest app = new DerivedCacheTest();
+        app.init();
+    }
+
+    public void init() throws IOException, InterruptedException {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        AssetManager.registerLoader(FontLoader.class, AssetType.getType("CTF"));
+        final Path dir = Files.createTempDirectory("derived");
+        final DerivedDataCache cache = AssetManager.setDerivedCache(dir);
+
+        long time = System.nanoTime();
+        final Asset[] decoded = load();
+        log.info("Decoded {} asset(s) from source in {}us", paths.length, (System.nanoTime() - time) / 1000);
+        cache.flush(5000);
+
+        AssetManager.clear();
+        time = System.nanoTime();
+        final Asset[] restored = load();
+        log.info("Restored {} asset(s) from derived data in {}us", paths.length, (System.nanoTime() - time) / 1000);
+
+        for (int i = 0; i < paths.length; i++) {
+            if (decoded[i] instanceof Image) {
+                final Image a = (Image) decoded[i], b = (Image) restored[i];
+                if (a.getFormat() != b.getFormat() || a.getWidth() != b.getWidth() || a.getHeight() != b.getHeight() || !a.getBuffer().equals(b.getBuffer())) {
+                    throw new IllegalStateException("Restored image differs: " + paths[i]);
+                }
+            } else {
+                final Font a = (Font) decoded[i], b = (Font) restored[i];
+                if (a.getGlyphs().size() != b.getGlyphs().size() || a.getLine() != b.getLine() || a.getMemorySize() != b.getMemorySize()) {
+                    throw new IllegalStateException("Restored font differs: " + paths[i]);
+                }
+            }
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            log.info("Cache hits: {}, misses: {}, files written: {}, files in cache: {}", cache.getHits(), cache.getMisses(), cache.getWrites(), files.count());
+        }
+        AssetManager.setDerivedCache(null);
+    }
+
+    private Asset[] load() {
+        final Asset[] assets = new Asset[paths.length];
+        for (final String path : paths) {
+            AssetManager.load(path);
+        }
+        for (int i = 0; i < paths.length; i++) {
+            assets[i] = AssetManager.get(paths[i]);
+        }
+        return assets;
+    }
+}
@@ -0,0 +1,112 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import net.cybertekt.asset.AssetManager.Stage;
+import net.cybertekt.asset.image.ImageLoader;
+import net.cybertekt.utils.AssetPacker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Packs 200 copies of the bundled textures into an archive, mounts it, and
+ * compares the time taken to load every copy with each combination of read
+ * and decode {@link AssetExecutor executor}. Virtual threads are only
+ * measured when the runtime supports them.
+ *
+ * @author Andrew Vektor
+ */
+public class ExecutorTest {
+
+    public static final Logger log = LoggerFactory.getLogger(ExecutorTest.class);
+
+    public static final String[] sources = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png"};
+
+    public static final int COPIES = 40;
+
+    private static final int WARMUP = 3;
+
+    private static final int ROUNDS = 10;
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    public static void main(final String[] args) throws IOException {
+        ExecutorTest app = new ExecutorTest();
+        app.init();
+    }
+
+    public void init() throws IOException {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        final Path dir = Files.createTempDirectory("executor");
+        final Path archive = Files.createTempFile("executor", AssetPacker.EXTENSION);
+        final AssetKey[] keys = new AssetKey[sources.length * COPIES];
+        AssetArchive mounted = null;
+        try {
+            Files.createDirectories(dir.resolve("ExecutorTest"));
+            for (int i = 0; i < keys.length; i++) {
+                Files.copy(Paths.get(AssetManager.rootDir, sources[i % sources.length]), dir.resolve("ExecutorTest/" + i + ".png"), StandardCopyOption.REPLACE_EXISTING);
+                keys[i] = AssetKey.getKey("ExecutorTest/" + i + ".png");
+            }
+            AssetPacker.pack(dir, archive);
+            mounted = AssetManager.mount(archive);
+            log.info("Virtual threads supported: {}", AssetExecutor.isVirtualSupported());
+
+            final String[] modes = AssetExecutor.isVirtualSupported() ? new String[]{"Bounded", "WorkStealing", "Virtual"} : new String[]{"Bounded", "WorkStealing"};
+            for (final String read : modes) {
+                for (final String decode : modes) {
+                    AssetManager.setExecutor(Stage.Read, create(read, "Assets-IO-", read.equals("Virtual") ? 16 : 2));
+                    AssetManager.setExecutor(Stage.Decode, create(decode, "Assets-", THREADS));
+                    for (int i = 0; i < WARMUP; i++) {
+                        load(keys);
+                    }
+                    long total = 0, best = Long.MAX_VALUE;
+                    for (int i = 0; i < ROUNDS; i++) {
+                        final long time = load(keys);
+                        total += time;
+                        best = Math.min(best, time);
+                    }
+                    log.info("Read {} / Decode {} - {} textures, average {}ms, best {}ms", read, decode, keys.length, total / ROUNDS / 1000000, best / 1000000);
+                }
+            }
+        } finally {
+            AssetManager.setExecutor(Stage.Read, AssetExecutor.isVirtualSupported() ? AssetExecutor.newVirtual("Assets-IO-", 16) : AssetExecutor.newBounded("Assets-IO-", 2));
+            AssetManager.setExecutor(Stage.Decode, AssetExecutor.newBounded("Assets-", THREADS));
+            if (mounted != null) {
+                AssetManager.unmount(mounted);
+            }
+            AssetManager.clear();
+            for (int i = 0; i < keys.length; i++) {
+                Files.deleteIfExists(dir.resolve("ExecutorTest/" + i + ".png"));
+            }
+            Files.deleteIfExists(dir.resolve("ExecutorTest"));
+            Files.deleteIfExists(dir);
+            Files.deleteIfExists(archive);
+        }
+    }
+
+    private static AssetExecutor create(final String mode, final String name, final int threads) {
+        switch (mode) {
+            case "WorkStealing":
+                return AssetExecutor.newWorkStealing(name, threads);
+            case "Virtual":
+                return AssetExecutor.newVirtual(name, threads);
+            default:
+                return AssetExecutor.newBounded(name, threads);
+        }
+    }
+
+    private static long load(final AssetKey[] keys) {
+        AssetManager.clear();
+        final long time = System.nanoTime();
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            futures[i] = AssetManager.loadAsync(keys[i]);
+        }
+        CompletableFuture.allOf(futures).join();
+        return System.nanoTime() - time;
+    }
+}
@@ -0,0 +1,57 @@
+package net.cybertekt.asset;
+
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import net.cybertekt.asset.shader.ShaderLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the asset groups declared in the asset manifest while a simulated
+ * loading screen reports progress in bytes, then releases one group and checks
+ * that the other remains resident.
+ *
+ * @author Andrew Vektor
+ */
+public class GroupTest {
+
+    public static final Logger log = LoggerFactory.getLogger(GroupTest.class);
+
+    public static void main(final String[] args) throws InterruptedException {
+        GroupTest app = new GroupTest();
+        app.init();
+    }
+
+    public void init() throws InterruptedException {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        AssetManager.registerLoader(ShaderLoader.class, AssetType.getType("VERT"), AssetType.getType("FRAG"));
+        AssetManager.setFallback(AssetManager.get(Image.class, "Textures/PNG/RGB08.png"), AssetType.getType("PNG"));
+        log.info("Manifest declares group(s) {}", AssetManager.getGroups());
+
+        long time = System.nanoTime();
+        final AssetGroup textures = AssetManager.loadGroup("Textures");
+        final AssetGroup shaders = AssetManager.loadGroup("Shaders");
+
+        // Simulated Loading Screen //
+        while (!textures.isLoaded() || !shaders.isLoaded()) {
+            log.info("Loading {} {}%, {} {}%", textures.getName(), (int) (textures.getProgress() * 100), shaders.getName(), (int) (shaders.getProgress() * 100));
+            Thread.sleep(5);
+        }
+        log.info("Loaded {} and {} in {}ms - {} failed", textures, shaders, (System.nanoTime() - time) / 1000000, textures.getFailed() + shaders.getFailed());
+
+        if (AssetManager.loadGroup("Textures") != textures) {
+            throw new IllegalStateException("Loading a loaded group must return the existing group");
+        }
+
+        // Members Evicted From The Cache Are Not Decoded Again //
+        final AssetKey member = AssetKey.getKey("Textures/PNG/RGBA16.png");
+        final Image resident = textures.get(Image.class, member);
+        AssetManager.getCache().remove(member);
+        if (AssetManager.get(Image.class, member) != resident || AssetManager.getCache().peek(member) != resident) {
+            throw new IllegalStateException("Evicted group member was decoded a second time");
+        }
+        AssetManager.unloadGroup("Shaders");
+        log.info("Released {}: {}, {} still resident: {}", shaders.getName(), shaders.isReleased(), textures.getName(), textures.get(Image.class, AssetKey.getKey("Textures/PNG/RGBA16.png")) != null);
+        AssetManager.unloadGroup("Textures");
+    }
+}
@@ -0,0 +1,58 @@
+package net.cybertekt.asset;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Acquires handles to several images and shows that their native memory is
+ * freed as soon as the last handle is released, unless the asset was also
+ * handed out without a handle. One handle is deliberately never released so
+ * that it appears in the leak report.
+ *
+ * @author Andrew Vektor
+ */
+public class HandleTest {
+
+    public static final Logger log = LoggerFactory.getLogger(HandleTest.class);
+
+    public static final String[] paths = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png"};
+
+    public static void main(final String[] args) {
+        HandleTest app = new HandleTest();
+        app.init();
+    }
+
+    public void init() {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+
+        final List<AssetHandle<Image>> handles = new ArrayList<>();
+        for (final String path : paths) {
+            handles.add(AssetManager.acquire(Image.class, path));
+        }
+        final AssetHandle<Image> shared = AssetManager.acquire(Image.class, paths[0]);
+        log.info("Acquired {} handle(s) - {} bytes native, shared handle: {}", handles.size() + 1, NativeMemory.getAllocated(), shared == handles.get(0));
+
+        for (int i = 0; i < handles.size() - 1; i++) {
+            handles.get(i).release();
+        }
+        log.info("Released all but two references - {} bytes native, {} handle(s) outstanding", NativeMemory.getAllocated(), AssetManager.getHandles().size());
+
+        shared.release();
+        log.info("Released shared handle - {} bytes native, peak {} bytes", NativeMemory.getAllocated(), NativeMemory.getPeak());
+
+        // Assets Also Retrieved Without A Handle Are Left To The Garbage Collector //
+        final AssetHandle<Image> handle = AssetManager.acquire(Image.class, paths[1]);
+        final Image image = AssetManager.get(Image.class, paths[1]);
+        final long allocated = NativeMemory.getAllocated();
+        handle.release();
+        if (NativeMemory.getAllocated() != allocated || AssetManager.getCache().peek(AssetKey.getKey(paths[1])) != image) {
+            throw new IllegalStateException("Released handle disposed an asset retrieved without a handle");
+        }
+        log.info("Released handle of an asset retrieved without a handle - {} bytes native, {} bytes still readable", NativeMemory.getAllocated(), image.getBuffer().remaining());
+        log.info("Leak report:{}{}", System.lineSeparator(), AssetManager.getLeakReport());
+    }
+}
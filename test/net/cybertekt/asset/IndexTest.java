@@ -0,0 +1,84 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares existence checks answered by the asset index against checks made
+ * directly on the filesystem, repeatedly requests a missing asset to show that
+ * it fails without touching the filesystem, and checks that a newly created
+ * file is found at once, before the index watcher notices it.
+ *
+ * @author Andrew Vektor
+ */
+public class IndexTest {
+
+    public static final Logger log = LoggerFactory.getLogger(IndexTest.class);
+
+    public static final String[] paths = {"Textures/PNG/RGB08.png", "Textures/PNG/RGBA16.png", "Interface/Fonts/CTF/arial.ctf", "Shaders/solid.vert", "Textures/PNG/Missing.png"};
+
+    public static final int ITERATIONS = 100000;
+
+    public static void main(final String[] args) throws IOException {
+        IndexTest app = new IndexTest();
+        app.init();
+    }
+
+    public void init() throws IOException {
+        final AssetIndex index = AssetManager.getIndex();
+        log.info("Indexed {} file(s), watching: {}", index.getFiles(), index.isWatching());
+
+        final AssetKey[] keys = new AssetKey[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            keys[i] = AssetKey.getKey(paths[i]);
+        }
+
+        // Existence Checks //
+        int found = 0;
+        long time = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            found += AssetManager.exists(keys[i % keys.length]) ? 1 : 0;
+        }
+        log.info("Index: {} lookups ({} found) in {}ms", ITERATIONS, found, (System.nanoTime() - time) / 1000000);
+
+        found = 0;
+        time = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            found += Files.isRegularFile(Paths.get(keys[i % keys.length].getAbsolutePath())) ? 1 : 0;
+        }
+        log.info("Filesystem: {} lookups ({} found) in {}ms", ITERATIONS, found, (System.nanoTime() - time) / 1000000);
+
+        // Repeated Missing Asset Requests //
+        int failures = 0;
+        time = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            try {
+                AssetManager.stream(keys[keys.length - 1]).close();
+            } catch (final AssetManager.AssetNotFoundException e) {
+                failures++;
+            }
+        }
+        log.info("{} request(s) for a missing asset failed in {}us, {} path(s) known missing", failures, (System.nanoTime() - time) / 1000, index.getMissing());
+
+        // Created Files Are Found Before The Watcher Sees Them //
+        final Path dir = Paths.get(AssetManager.rootDir, "IndexTest");
+        final Path file = dir.resolve("created.tmp");
+        final AssetKey key = AssetKey.getKey("IndexTest/created.tmp");
+        try {
+            Files.createDirectories(dir);
+            Files.write(file, new byte[]{1, 2, 3});
+            if (!AssetManager.exists(key)) {
+                throw new IllegalStateException(key + " was not found immediately after it was created");
+            }
+            log.info("Created file found immediately: {}", AssetManager.exists(key));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+        log.info("Index hits: {}, misses: {}", index.getHits(), index.getMisses());
+    }
+}
@@ -0,0 +1,107 @@
+package net.cybertekt.asset;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stress test for asset key interning. Several threads retrieve keys for the
+ * same set of paths, given as Strings, StringBuilders and backslash separated
+ * paths, while unreferenced keys are continually collected. Every thread must
+ * receive the same key instance for the same path, and every live key must
+ * have a unique hash code.
+ *
+ * @author Andrew Vektor
+ */
+public class KeyInternTest {
+
+    public static final Logger log = LoggerFactory.getLogger(KeyInternTest.class);
+
+    public static final int THREADS = 8;
+
+    public static final int PATHS = 2000;
+
+    public static final int ROUNDS = 50;
+
+    public static void main(final String[] args) throws InterruptedException {
+        KeyInternTest app = new KeyInternTest();
+        app.init();
+    }
+
+    public void init() throws InterruptedException {
+        // Keys Held For The Duration Of The Test, Keyed By Normalized Path //
+        final ConcurrentHashMap<String, AssetKey> held = new ConcurrentHashMap<>();
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] threads = new Thread[THREADS];
+
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    return;
+                }
+                final StringBuilder builder = new StringBuilder();
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int i = 0; i < PATHS; i++) {
+                        final String path = "textures/intern/" + i + ".png";
+                        final AssetKey key;
+                        switch ((i + id + round) % 3) {
+                            case 0:
+                                key = AssetKey.getKey(path);
+                                break;
+                            case 1:
+                                builder.setLength(0);
+                                key = AssetKey.getKey(builder.append("textures/intern/").append(i).append(".png"));
+                                break;
+                            default:
+                                key = AssetKey.getKey("Textures\\Intern\\" + i + ".PNG");
+                                break;
+                        }
+                        if (!key.getPath().equals(path)) {
+                            errors.incrementAndGet();
+                        }
+                        if (i % 2 == 0) {
+                            // Even Paths Are Held And Must Always Resolve To The Same Key //
+                            final AssetKey previous = held.putIfAbsent(path, key);
+                            if (previous != null && previous != key) {
+                                errors.incrementAndGet();
+                            }
+                        } else {
+                            // Odd Paths Are Transient Garbage //
+                            AssetKey.getKey("transient/" + id + "/" + round + "/" + i + ".tmp");
+                        }
+                    }
+                }
+            }, "Intern-" + t);
+            threads[t].start();
+        }
+
+        final long time = System.nanoTime();
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        final long elapsed = (System.nanoTime() - time) / 1000000;
+
+        final Set<Integer> hashes = new HashSet<>();
+        for (final AssetKey key : held.values()) {
+            if (!hashes.add(key.hashCode()) || AssetKey.getKey(key.getPath()) != key) {
+                errors.incrementAndGet();
+            }
+        }
+        System.gc();
+        Thread.sleep(100);
+        log.info("{} thread(s) made {} lookups in {}ms", THREADS, (long) THREADS * ROUNDS * PATHS * 3 / 2, elapsed);
+        log.info("{} key(s) held, {} key(s) cached after collection, {} error(s)", held.size(), AssetKey.getKeyCount(), errors.get());
+        if (errors.get() != 0) {
+            throw new IllegalStateException("Asset key interning is inconsistent");
+        }
+    }
+}
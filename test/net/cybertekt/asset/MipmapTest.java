@@ -0,0 +1,175 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import net.cybertekt.asset.image.MipmapGenerator;
+import net.cybertekt.asset.image.MipmapGenerator.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks that generated mipmap levels are gamma-correct and weighted by alpha,
+ * that uniform images stay uniform through every level with either filter,
+ * then decodes the bundled textures with each filter, reporting the time
+ * taken to generate the chain of each image, and round trips each chain
+ * through the derived data encoding.
+ *
+ * @author Andrew Vektor
+ */
+public class MipmapTest {
+
+    public static final Logger log = LoggerFactory.getLogger(MipmapTest.class);
+
+    public static final String[] sources = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA16.png", "Textures/PNG/LUM8.png", "Textures/PNG/LUMA8.png", "Textures/PNG/IDX8.png"};
+
+    private static final int WARMUP = 30;
+
+    public static void main(final String[] args) throws IOException {
+        MipmapTest app = new MipmapTest();
+        app.init();
+    }
+
+    public void init() throws IOException {
+        // Black And White Average To Half Linear Light, Not sRGB 128 //
+        ByteBuffer level = MipmapGenerator.generate(Image.Format.RGB8, 2, 2, wrap(0, 0, 0, 255, 255, 255, 255, 255, 255, 0, 0, 0), Filter.Box)[0];
+        expect("gamma-correct average", level, 188, 188, 188);
+
+        // Transparent Red Does Not Bleed Into Opaque Blue //
+        level = MipmapGenerator.generate(Image.Format.RGBA8, 2, 2, wrap(255, 0, 0, 0, 0, 0, 255, 255, 255, 0, 0, 0, 0, 0, 255, 255), Filter.Box)[0];
+        expect("alpha weighted average", level, 0, 0, 255, 128);
+
+        // Uniform Images Stay Uniform At Every Level //
+        for (final Filter filter : Filter.values()) {
+            uniform(Image.Format.RGBA8, filter, 100, 150, 200, 77);
+            uniform(Image.Format.RG8, filter, 30, 255);
+            uniform(Image.Format.RGB16, filter, 1000, 30000, 65535);
+        }
+
+        // Bundled Textures //
+        final ImageLoader loader = new ImageLoader();
+        try {
+            for (final Filter filter : Filter.values()) {
+                ImageLoader.setMipmapFilter(filter);
+                for (final String source : sources) {
+                    final AssetKey key = AssetKey.getKey(source);
+                    final byte[] file = Files.readAllBytes(Paths.get(AssetManager.rootDir, source));
+                    for (int i = 0; i < WARMUP; i++) {
+                        ((Image) loader.loadInline(key, ByteBuffer.wrap(file))).dispose();
+                    }
+                    final Image image = (Image) loader.loadInline(key, ByteBuffer.wrap(file));
+                    verify(image);
+                    log.info("{} - {} {}x{}, {} levels, {} filter in {}us", source, image.getFormat(), image.getWidth(), image.getHeight(), image.getLevelCount(), filter, image.getMipmapTime() / 1000);
+                    roundTrip(loader, image);
+                    image.dispose();
+                }
+            }
+        } finally {
+            ImageLoader.setMipmapFilter(null);
+        }
+    }
+
+    private static void uniform(final Image.Format format, final Filter filter, final int... value) {
+        final int width = 37, height = 23, channels = value.length, size = format.BPP / channels;
+        final ByteBuffer data = ByteBuffer.allocate(width * height * format.BPP);
+        for (int p = 0; p < width * height; p++) {
+            for (int c = 0; c < channels; c++) {
+                if (size == 1) {
+                    data.put((byte) value[c]);
+                } else {
+                    data.putShort((short) value[c]);
+                }
+            }
+        }
+        data.flip();
+        final ByteBuffer[] levels = MipmapGenerator.generate(format, width, height, data, filter);
+        if (levels.length != 5) {
+            throw new IllegalStateException("Expected 5 levels, generated " + levels.length);
+        }
+        for (int i = 0; i < levels.length; i++) {
+            final int pixels = Math.max(width >> (i + 1), 1) * Math.max(height >> (i + 1), 1);
+            if (levels[i].capacity() != pixels * format.BPP) {
+                throw new IllegalStateException("Level " + (i + 1) + " of " + format + " has " + levels[i].capacity() + " bytes");
+            }
+            for (int index = 0; index < pixels * channels; index++) {
+                final int sample = (size == 1) ? levels[i].get(index) & 255 : ((levels[i].get(index * 2) & 255) << 8) | (levels[i].get(index * 2 + 1) & 255);
+                if (Math.abs(sample - value[index % channels]) > size) {
+                    throw new IllegalStateException(filter + " level " + (i + 1) + " of uniform " + format + " is " + sample + " instead of " + value[index % channels]);
+                }
+            }
+            NativeMemory.free(levels[i]);
+        }
+    }
+
+    private static void verify(final Image image) {
+        final int levels = 32 - Integer.numberOfLeadingZeros(Math.max(image.getWidth(), image.getHeight()));
+        if (image.getLevelCount() != levels || image.getWidth(levels - 1) != 1 || image.getHeight(levels - 1) != 1) {
+            throw new IllegalStateException(image.getKey() + " has " + image.getLevelCount() + " levels instead of " + levels);
+        }
+        long size = 0;
+        for (int level = 0; level < levels; level++) {
+            final int capacity = image.getBuffer(level).capacity();
+            if (capacity != image.getWidth(level) * image.getHeight(level) * image.getFormat().BPP) {
+                throw new IllegalStateException(image.getKey() + " level " + level + " has " + capacity + " bytes");
+            }
+            size += capacity;
+        }
+        if (size != image.getMemorySize() || image.getMipmapTime() <= 0) {
+            throw new IllegalStateException(image.getKey() + " reports " + image.getMemorySize() + " bytes and " + image.getMipmapTime() + "ns");
+        }
+    }
+
+    private static void roundTrip(final ImageLoader loader, final Image image) {
+        final ByteBuffer[] payload = loader.encode(image);
+        int length = 0;
+        for (final ByteBuffer buffer : payload) {
+            length += buffer.remaining();
+        }
+        final ByteBuffer data = ByteBuffer.allocate(length);
+        for (final ByteBuffer buffer : payload) {
+            data.put(buffer);
+        }
+        data.flip();
+        final Image decoded = (Image) loader.decode(image.getKey(), data);
+        if (decoded == null || decoded.getLevelCount() != image.getLevelCount()) {
+            throw new IllegalStateException(image.getKey() + " mipmap chain was not restored from derived data");
+        }
+        for (int level = 0; level < image.getLevelCount(); level++) {
+            if (!decoded.getBuffer(level).equals(image.getBuffer(level))) {
+                throw new IllegalStateException(image.getKey() + " level " + level + " differs after derived data round trip");
+            }
+        }
+        final MipmapGenerator.Filter filter = ImageLoader.getMipmapFilter();
+        ImageLoader.setMipmapFilter(null);
+        try {
+            if (loader.decode(image.getKey(), data) != null) {
+                throw new IllegalStateException(image.getKey() + " mipmapped derived data was used without a mipmap filter");
+            }
+        } finally {
+            ImageLoader.setMipmapFilter(filter);
+        }
+    }
+
+    private static ByteBuffer wrap(final int... samples) {
+        final ByteBuffer data = ByteBuffer.allocate(samples.length);
+        for (final int sample : samples) {
+            data.put((byte) sample);
+        }
+        data.flip();
+        return data;
+    }
+
+    private static void expect(final String name, final ByteBuffer level, final int... expected) {
+        for (int c = 0; c < expected.length; c++) {
+            final int sample = level.get(c) & 255;
+            if (Math.abs(sample - expected[c]) > 1) {
+                throw new IllegalStateException(name + " channel " + c + " is " + sample + " instead of " + expected[c]);
+            }
+        }
+        log.info("{} - {}", name, expected);
+        NativeMemory.free(level);
+    }
+}
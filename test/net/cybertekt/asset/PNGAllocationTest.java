@@ -0,0 +1,64 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the heap allocated by the current thread while decoding each of the
+ * bundled textures, once the decoder pool and the JIT have warmed up, and
+ * reports it per decoded megapixel together with the decode throughput. Image
+ * surface data is allocated outside the heap and is not included.
+ *
+ * @author Andrew Vektor
+ */
+public class PNGAllocationTest {
+
+    public static final Logger log = LoggerFactory.getLogger(PNGAllocationTest.class);
+
+    public static final String[] sources = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png", "Textures/PNG/grassblock.png"};
+
+    private static final int WARMUP = 50;
+
+    private static final int ROUNDS = 100;
+
+    public static void main(final String[] args) throws IOException {
+        PNGAllocationTest app = new PNGAllocationTest();
+        app.init();
+    }
+
+    public void init() throws IOException {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+        final ImageLoader loader = new ImageLoader();
+        long totalBytes = 0, totalPixels = 0, totalTime = 0;
+        for (final String source : sources) {
+            final AssetKey key = AssetKey.getKey(source);
+            final ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(Paths.get(AssetManager.rootDir, source)));
+            for (int i = 0; i < WARMUP; i++) {
+                ((Image) loader.loadInline(key, file)).dispose();
+            }
+            long pixels = 0;
+            final long bytes = threads.getThreadAllocatedBytes(thread);
+            final long time = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                final Image image = (Image) loader.loadInline(key, file);
+                pixels += (long) image.getWidth() * image.getHeight();
+                image.dispose();
+            }
+            final long elapsed = System.nanoTime() - time;
+            final long allocated = threads.getThreadAllocatedBytes(thread) - bytes;
+            log.info("{} - {} bytes per decode, {} bytes per megapixel, {} megapixels/s", source, allocated / ROUNDS, allocated * 1000000 / pixels, pixels * 1000 / elapsed);
+            totalBytes += allocated;
+            totalPixels += pixels;
+            totalTime += elapsed;
+        }
+        log.info("All textures - {} bytes per megapixel, {} megapixels/s", totalBytes * 1000000 / totalPixels, totalPixels * 1000 / totalTime);
+    }
+}
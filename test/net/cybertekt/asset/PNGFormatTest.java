@@ -0,0 +1,252 @@
+package net.cybertekt.asset;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.zip.CRC32;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decodes the bundled grayscale and indexed textures, and generated images of
+ * every color type and bit depth written both progressive and Adam7
+ * interlaced, with and without a transparency key, and checks that each is
+ * decoded into the expected compact {@link Image.Format format} with the
+ * pixels read by ImageIO.
+ *
+ * @author Andrew Vektor
+ */
+public class PNGFormatTest {
+
+    public static final Logger log = LoggerFactory.getLogger(PNGFormatTest.class);
+
+    public static final String[] sources = {"Textures/PNG/Grayscale.png", "Textures/PNG/LUM8.png", "Textures/PNG/LUMA8.png", "Textures/PNG/IDX8.png"};
+
+    public static final Image.Format[] formats = {Image.Format.R8, Image.Format.R8, Image.Format.RG8, Image.Format.RGB8};
+
+    public static final int[][] SIZES = {{1, 1}, {3, 2}, {37, 23}, {256, 256}};
+
+    public static void main(final String[] args) throws IOException {
+        PNGFormatTest app = new PNGFormatTest();
+        app.init();
+    }
+
+    public void init() throws IOException {
+        final ImageLoader loader = new ImageLoader();
+
+        // Bundled Textures //
+        for (int i = 0; i < sources.length; i++) {
+            final byte[] file = Files.readAllBytes(Paths.get(AssetManager.rootDir, sources[i]));
+            final Image image = verify(loader, AssetKey.getKey(sources[i]), file, formats[i]);
+            log.info("{} - {} ({} bytes, {}% of RGBA8)", sources[i], image.getFormat(), image.getMemorySize(), image.getMemorySize() * 100 / ((long) image.getWidth() * image.getHeight() * 4));
+            image.dispose();
+        }
+
+        // Generated Images Of Every Color Type And Bit Depth //
+        final Random random = new Random(7);
+        int count = 0;
+        for (final int[] size : SIZES) {
+            final int w = size[0], h = size[1];
+            check(loader, "gray 1-bit", indexed(w, h, 1, gray(1), random), Image.Format.R8);
+            check(loader, "gray 2-bit", indexed(w, h, 2, gray(2), random), Image.Format.R8);
+            check(loader, "gray 4-bit", indexed(w, h, 4, gray(4), random), Image.Format.R8);
+            check(loader, "gray 8-bit", component(w, h, BufferedImage.TYPE_BYTE_GRAY, random), Image.Format.R8);
+            check(loader, "gray 16-bit", component(w, h, BufferedImage.TYPE_USHORT_GRAY, random), Image.Format.R16);
+            check(loader, "gray alpha 8-bit", grayAlpha(w, h, DataBuffer.TYPE_BYTE, random), Image.Format.RG8);
+            check(loader, "gray alpha 16-bit", grayAlpha(w, h, DataBuffer.TYPE_USHORT, random), Image.Format.RG16);
+            check(loader, "indexed 2-bit", indexed(w, h, 2, palette(4, false, random), random), Image.Format.RGB8);
+            check(loader, "indexed 4-bit", indexed(w, h, 4, palette(16, false, random), random), Image.Format.RGB8);
+            check(loader, "indexed 8-bit", indexed(w, h, 8, palette(256, false, random), random), Image.Format.RGB8);
+            check(loader, "indexed 8-bit alpha", indexed(w, h, 8, palette(200, true, random), random), Image.Format.RGBA8);
+            check(loader, "rgb 8-bit", component(w, h, BufferedImage.TYPE_3BYTE_BGR, random), Image.Format.RGB8);
+            check(loader, "rgba 8-bit", component(w, h, BufferedImage.TYPE_4BYTE_ABGR, random), Image.Format.RGBA8);
+            keyed(loader, "gray 2-bit keyed", indexed(w, h, 2, gray(2), random), Image.Format.RG8);
+            keyed(loader, "gray 8-bit keyed", component(w, h, BufferedImage.TYPE_BYTE_GRAY, random), Image.Format.RG8);
+            keyed(loader, "gray 16-bit keyed", component(w, h, BufferedImage.TYPE_USHORT_GRAY, random), Image.Format.RG16);
+            keyed(loader, "rgb 8-bit keyed", component(w, h, BufferedImage.TYPE_3BYTE_BGR, random), Image.Format.RGBA8);
+            count += 17;
+        }
+        log.info("{} generated images decoded correctly, progressive and interlaced", count * 2);
+    }
+
+    private static void check(final ImageLoader loader, final String name, final BufferedImage source, final Image.Format format) throws IOException {
+        for (final boolean interlaced : new boolean[]{false, true}) {
+            final byte[] file = write(source, interlaced);
+            if ((file[28] == 1) != interlaced) {
+                throw new IllegalStateException(name + " was not written " + (interlaced ? "interlaced" : "progressive"));
+            }
+            verify(loader, AssetKey.getKey("PNGFormatTest/" + name.replace(' ', '_') + ".png"), file, format).dispose();
+        }
+    }
+
+    /**
+     * Inserts a tRNS chunk keyed on the first pixel of the image before the
+     * image data of each file, so at least one pixel is transparent. ImageIO
+     * ignores the keys of sub-byte grayscale images, so the alpha is checked
+     * against the samples of the file without the key.
+     */
+    private static void keyed(final ImageLoader loader, final String name, final BufferedImage source, final Image.Format format) throws IOException {
+        final Raster raster = source.getRaster();
+        final int[] transparent = raster.getPixel(0, 0, (int[]) null);
+        final ByteBuffer chunk = ByteBuffer.allocate(12 + transparent.length * 2);
+        chunk.putInt(transparent.length * 2).put("tRNS".getBytes(StandardCharsets.US_ASCII));
+        for (final int sample : transparent) {
+            chunk.putShort((short) sample);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(chunk.array(), 4, chunk.position() - 4);
+        chunk.putInt((int) crc.getValue());
+        for (final boolean interlaced : new boolean[]{false, true}) {
+            final byte[] plain = write(source, interlaced), file = new byte[plain.length + chunk.capacity()];
+            System.arraycopy(plain, 0, file, 0, 33);
+            System.arraycopy(chunk.array(), 0, file, 33, chunk.capacity());
+            System.arraycopy(plain, 33, file, 33 + chunk.capacity(), plain.length - 33);
+            verify(loader, AssetKey.getKey("PNGFormatTest/" + name.replace(' ', '_') + ".png"), file, plain, format, transparent).dispose();
+        }
+    }
+
+    /**
+     * Decodes a file and compares the format and every sample with the image
+     * read by ImageIO.
+     */
+    private static Image verify(final ImageLoader loader, final AssetKey key, final byte[] file, final Image.Format format) throws IOException {
+        return verify(loader, key, file, file, format, null);
+    }
+
+    /**
+     * Decodes a file and compares the format and every sample with the
+     * reference file read by ImageIO, expecting the last channel to be
+     * transparent wherever the samples of the reference match the
+     * transparency key, if any.
+     */
+    private static Image verify(final ImageLoader loader, final AssetKey key, final byte[] file, final byte[] source, final Image.Format format, final int[] transparent) throws IOException {
+        final Image image = (Image) loader.loadInline(key, ByteBuffer.wrap(file));
+        final BufferedImage reference = ImageIO.read(new ByteArrayInputStream(source));
+        if (image.getFormat() != format) {
+            throw new IllegalStateException(key + " decoded as " + image.getFormat() + " instead of " + format);
+        }
+        final ColorModel model = reference.getColorModel();
+        final Raster raster = reference.getRaster();
+        final ByteBuffer data = image.getBuffer();
+        final int channels = format.BPP / ((format.TYPE == org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT) ? 2 : 1);
+        final int bytes = format.BPP / channels;
+        final int[] expected = new int[4];
+        for (int y = 0, index = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                if (model instanceof IndexColorModel) {
+                    final IndexColorModel palette = (IndexColorModel) model;
+                    final int i = raster.getSample(x, y, 0);
+                    final int[] rgba = {palette.getRed(i), palette.getGreen(i), palette.getBlue(i), palette.getAlpha(i)};
+                    for (int c = 0; c < channels; c++) {
+                        expected[c] = (channels <= 2 && c == 1) ? rgba[3] : rgba[c];
+                    }
+                } else {
+                    raster.getPixel(x, y, expected);
+                }
+                if (transparent != null) {
+                    boolean match = true;
+                    for (int b = 0; b < transparent.length; b++) {
+                        match &= raster.getSample(x, y, b) == transparent[b];
+                    }
+                    expected[channels - 1] = match ? 0 : (1 << (bytes * 8)) - 1;
+                }
+                for (int c = 0; c < channels; c++, index += bytes) {
+                    final int sample = (bytes == 2) ? (data.getShort(index) & 65535) : (data.get(index) & 255);
+                    if (sample != expected[c]) {
+                        image.dispose();
+                        throw new IllegalStateException(key + " differs at " + x + "," + y + " channel " + c + ": " + sample + " != " + expected[c]);
+                    }
+                }
+            }
+        }
+        return image;
+    }
+
+    private static byte[] write(final BufferedImage image, final boolean interlaced) throws IOException {
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setProgressiveMode(interlaced ? ImageWriteParam.MODE_DEFAULT : ImageWriteParam.MODE_DISABLED);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static BufferedImage component(final int w, final int h, final int type, final Random random) {
+        final BufferedImage image = new BufferedImage(w, h, type);
+        fill(image.getRaster(), random);
+        return image;
+    }
+
+    private static BufferedImage grayAlpha(final int w, final int h, final int type, final Random random) {
+        final ColorModel model = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_GRAY), true, false, Transparency.TRANSLUCENT, type);
+        final BufferedImage image = new BufferedImage(model, model.createCompatibleWritableRaster(w, h), false, null);
+        fill(image.getRaster(), random);
+        return image;
+    }
+
+    private static BufferedImage indexed(final int w, final int h, final int bits, final IndexColorModel palette, final Random random) {
+        final BufferedImage image = new BufferedImage(w, h, (bits == 8) ? BufferedImage.TYPE_BYTE_INDEXED : BufferedImage.TYPE_BYTE_BINARY, palette);
+        final WritableRaster raster = image.getRaster();
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                raster.setSample(x, y, 0, random.nextInt(palette.getMapSize()));
+            }
+        }
+        return image;
+    }
+
+    private static void fill(final WritableRaster raster, final Random random) {
+        final int max = (raster.getTransferType() == DataBuffer.TYPE_USHORT) ? 65536 : 256;
+        for (int y = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                for (int b = 0; b < raster.getNumBands(); b++) {
+                    raster.setSample(x, y, b, (x * 7 + y * 13 + b * 31) % max ^ random.nextInt(4));
+                }
+            }
+        }
+    }
+
+    private static IndexColorModel gray(final int bits) {
+        final int size = 1 << bits;
+        final byte[] ramp = new byte[size];
+        for (int i = 0; i < size; i++) {
+            ramp[i] = (byte) (i * 255 / (size - 1));
+        }
+        return new IndexColorModel(bits, size, ramp, ramp, ramp);
+    }
+
+    private static IndexColorModel palette(final int size, final boolean alpha, final Random random) {
+        final byte[] r = new byte[size], g = new byte[size], b = new byte[size], a = new byte[size];
+        random.nextBytes(r);
+        random.nextBytes(g);
+        random.nextBytes(b);
+        random.nextBytes(a);
+        return alpha ? new IndexColorModel(8, size, r, g, b, a) : new IndexColorModel((size > 16) ? 8 : (size > 4) ? 4 : 2, size, r, g, b);
+    }
+}
@@ -0,0 +1,136 @@
+package net.cybertekt.asset;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import javax.imageio.ImageIO;
+import net.cybertekt.asset.AssetManager.Stage;
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encodes several multi-megapixel images and compares the time taken to decode
+ * them on a single thread with the time taken by the pipelined decoder, which
+ * unfilters scanlines on a second thread while inflating. Every pipelined
+ * image, including the bundled textures decoded with the pipeline forced on,
+ * must match the single threaded decode exactly, also when the decode stage is
+ * saturated and the pipeline helpers cannot start. The decode stage is given
+ * at least four threads so that the pipeline is used on any machine.
+ *
+ * @author Andrew Vektor
+ */
+public class PNGPipelineTest {
+
+    public static final Logger log = LoggerFactory.getLogger(PNGPipelineTest.class);
+
+    public static final String[] sources = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png", "Textures/PNG/grassblock.png"};
+
+    public static final int[][] SIZES = {{2048, 2048, BufferedImage.TYPE_INT_ARGB}, {4096, 4096, BufferedImage.TYPE_INT_RGB}, {4096, 4096, BufferedImage.TYPE_INT_ARGB}};
+
+    private static final int WARMUP = 3;
+
+    private static final int ROUNDS = 8;
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    public static void main(final String[] args) throws IOException {
+        PNGPipelineTest app = new PNGPipelineTest();
+        app.init();
+    }
+
+    public void init() throws IOException {
+        final ImageLoader loader = new ImageLoader();
+        AssetManager.setExecutor(Stage.Decode, AssetExecutor.newBounded("Assets-", Math.max(THREADS, 4)));
+        log.info("Decode stage parallelism: {}, processors: {}", AssetManager.getExecutor(Stage.Decode).getParallelism(), THREADS);
+        try {
+            // Bundled Textures With Every Image Pipelined //
+            for (final String source : sources) {
+                final AssetKey key = AssetKey.getKey(source);
+                final ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(Paths.get(AssetManager.rootDir, source)));
+                compare(key, decode(loader, key, file, Integer.MAX_VALUE), decode(loader, key, file, 1));
+            }
+            log.info("{} bundled textures decoded identically when pipelined", sources.length);
+
+            // Multi-Megapixel Images //
+            for (final int[] size : SIZES) {
+                final AssetKey key = AssetKey.getKey("PNGPipelineTest/" + size[0] + "x" + size[1] + ".png");
+                final ByteBuffer file = encode(size[0], size[1], size[2]);
+                compare(key, decode(loader, key, file, Integer.MAX_VALUE), decode(loader, key, file, 1));
+                final long serial = time(loader, key, file, Integer.MAX_VALUE);
+                final long pipelined = time(loader, key, file, 1);
+                final long pixels = (long) size[0] * size[1];
+                log.info("{} ({} bytes) - single thread {}ms ({} megapixels/s), pipelined {}ms ({} megapixels/s)", key, file.remaining(), serial / 1000000, pixels * 1000 / serial, pipelined / 1000000, pixels * 1000 / pipelined);
+            }
+
+            // Saturated Decode Stage //
+            final AssetKey key = AssetKey.getKey("PNGPipelineTest/saturated.png");
+            final ByteBuffer file = encode(2048, 2048, BufferedImage.TYPE_INT_ARGB);
+            final Image expected = decode(loader, key, file, Integer.MAX_VALUE);
+            ImageLoader.setPipelineThreshold(1);
+            final CompletableFuture<?>[] futures = new CompletableFuture<?>[AssetManager.getExecutor(Stage.Decode).getParallelism() * 4];
+            final long time = System.nanoTime();
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = CompletableFuture.runAsync(() -> compare(key, expected, (Image) loader.loadInline(key, file.duplicate())), AssetManager.getExecutor(Stage.Decode));
+            }
+            CompletableFuture.allOf(futures).join();
+            log.info("{} concurrent pipelined decodes on a saturated decode stage completed in {}ms", futures.length, (System.nanoTime() - time) / 1000000);
+        } finally {
+            ImageLoader.setPipelineThreshold(Integer.MAX_VALUE);
+            AssetManager.setExecutor(Stage.Decode, AssetExecutor.newBounded("Assets-", THREADS));
+        }
+    }
+
+    private static Image decode(final ImageLoader loader, final AssetKey key, final ByteBuffer file, final int threshold) {
+        ImageLoader.setPipelineThreshold(threshold);
+        return (Image) loader.loadInline(key, file.duplicate());
+    }
+
+    private static long time(final ImageLoader loader, final AssetKey key, final ByteBuffer file, final int threshold) {
+        for (int i = 0; i < WARMUP; i++) {
+            decode(loader, key, file, threshold).dispose();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            final long time = System.nanoTime();
+            final Image image = decode(loader, key, file, threshold);
+            best = Math.min(best, System.nanoTime() - time);
+            image.dispose();
+        }
+        return best;
+    }
+
+    private static void compare(final AssetKey key, final Image expected, final Image actual) {
+        if (expected.getFormat() != actual.getFormat() || !expected.getBuffer().duplicate().rewind().equals(actual.getBuffer().duplicate().rewind())) {
+            throw new IllegalStateException(key + " decoded differently when pipelined");
+        }
+        if (expected != actual) {
+            actual.dispose();
+        }
+    }
+
+    /**
+     * Encodes an image of smooth gradients with noise, so that every filter
+     * type is chosen for some scanlines.
+     */
+    private static ByteBuffer encode(final int width, final int height, final int type) throws IOException {
+        final BufferedImage image = new BufferedImage(width, height, type);
+        final Random random = new Random(width * 31 + type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int noise = random.nextInt(4);
+                final int r = (x * 255 / width + noise) & 255, g = (y * 255 / height + noise) & 255, b = ((x ^ y) + noise) & 255, a = (x + y) * 255 / (width + height);
+                image.setRGB(x, y, a << 24 | r << 16 | g << 8 | b);
+            }
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+}
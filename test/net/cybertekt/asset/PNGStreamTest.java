@@ -0,0 +1,126 @@
+package net.cybertekt.asset;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+import javax.imageio.ImageIO;
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decodes the bundled textures from buffers and from input streams, both as
+ * stored and after splitting their compressed data between many small IDAT
+ * chunks, and compares every decoded image with the pixels read by ImageIO.
+ *
+ * @author Andrew Vektor
+ */
+public class PNGStreamTest {
+
+    public static final Logger log = LoggerFactory.getLogger(PNGStreamTest.class);
+
+    public static final String[] sources = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png", "Textures/PNG/Test2.png", "Textures/PNG/grassblock.png"};
+
+    public static final int[] CHUNK_SIZES = {1, 7, 100, 8192};
+
+    public static void main(final String[] args) throws IOException {
+        PNGStreamTest app = new PNGStreamTest();
+        app.init();
+    }
+
+    public void init() throws IOException {
+        final ImageLoader loader = new ImageLoader();
+        for (final String source : sources) {
+            final AssetKey key = AssetKey.getKey(source);
+            final byte[] file = Files.readAllBytes(Paths.get(AssetManager.rootDir, source));
+            final BufferedImage reference = ImageIO.read(new ByteArrayInputStream(file));
+
+            verify(key, (Image) loader.loadInline(key, ByteBuffer.wrap(file)), reference, "buffer");
+            verify(key, (Image) loader.loadInline(key, new ByteArrayInputStream(file)), reference, "stream");
+            for (final int size : CHUNK_SIZES) {
+                final byte[] split = split(file, size);
+                verify(key, (Image) loader.loadInline(key, ByteBuffer.wrap(split)), reference, size + " byte IDAT buffer");
+                verify(key, (Image) loader.loadInline(key, new ByteArrayInputStream(split)), reference, size + " byte IDAT stream");
+            }
+            log.info("{} - {}x{} decoded identically from {} layouts", source, reference.getWidth(), reference.getHeight(), 2 + CHUNK_SIZES.length * 2);
+        }
+    }
+
+    /**
+     * Compares every sample of a decoded image with the reference image.
+     */
+    private static void verify(final AssetKey key, final Image image, final BufferedImage reference, final String layout) {
+        final Raster raster = reference.getRaster();
+        final int bands = raster.getNumBands();
+        final int bytes = image.getFormat().BPP / bands;
+        final ByteBuffer data = image.getBuffer();
+        final int[] pixel = new int[bands];
+        if (image.getWidth() != raster.getWidth() || image.getHeight() != raster.getHeight()) {
+            throw new IllegalStateException(key + " (" + layout + ") decoded with the wrong size");
+        }
+        for (int y = 0, index = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                raster.getPixel(x, y, pixel);
+                for (int b = 0; b < bands; b++, index += bytes) {
+                    final int sample = (bytes == 2) ? (data.getShort(index) & 65535) : (data.get(index) & 255);
+                    if (sample != pixel[b]) {
+                        throw new IllegalStateException(key + " (" + layout + ") differs at " + x + "," + y + " band " + b + ": " + sample + " != " + pixel[b]);
+                    }
+                }
+            }
+        }
+        image.dispose();
+    }
+
+    /**
+     * Rewrites a PNG file with its compressed image data split into IDAT
+     * chunks of at most the specified size.
+     */
+    private static byte[] split(final byte[] file, final int size) {
+        final ByteBuffer in = ByteBuffer.wrap(file);
+        final ByteBuffer compressed = ByteBuffer.allocate(file.length);
+        final ByteBuffer out = ByteBuffer.allocate(file.length * 2 + (file.length / size + 1) * 12);
+        out.put(file, 0, 8);
+        in.position(8);
+        while (in.hasRemaining()) {
+            final int length = in.getInt();
+            final int type = in.getInt(in.position());
+            if (type == 0x49444154) {
+                compressed.put(file, in.position() + 4, length);
+            } else {
+                if (type == 0x49454E44) {
+                    compressed.flip();
+                    while (compressed.hasRemaining()) {
+                        final int count = Math.min(size, compressed.remaining());
+                        final byte[] data = new byte[count];
+                        compressed.get(data);
+                        chunk(out, 0x49444154, data);
+                    }
+                }
+                out.putInt(length).put(file, in.position(), length + 8);
+            }
+            in.position(in.position() + length + 8);
+        }
+        final byte[] result = new byte[out.position()];
+        out.flip();
+        out.get(result);
+        return result;
+    }
+
+    /**
+     * Writes a chunk with a valid CRC code.
+     */
+    private static void chunk(final ByteBuffer out, final int type, final byte[] data) {
+        final CRC32 crc = new CRC32();
+        final ByteBuffer header = ByteBuffer.allocate(4).putInt(type);
+        crc.update(header.array());
+        crc.update(data);
+        out.putInt(data.length).putInt(type).put(data).putInt((int) crc.getValue());
+    }
+}
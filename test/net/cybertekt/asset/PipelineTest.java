@@ -0,0 +1,53 @@
+package net.cybertekt.asset;
+
+import java.util.concurrent.CompletableFuture;
+import net.cybertekt.asset.AssetManager.Stage;
+import net.cybertekt.asset.font.FontLoader;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk-loads every image and font through the two-stage asset pipeline while
+ * sampling the queue depth of each stage, then reports the utilisation of the
+ * read and decode stages.
+ *
+ * @author Andrew Vektor
+ */
+public class PipelineTest {
+
+    public static final Logger log = LoggerFactory.getLogger(PipelineTest.class);
+
+    public static final String[] paths = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png", "Interface/Fonts/CTF/arial.ctf", "Interface/Fonts/CTF/verdana.ctf", "Interface/Fonts/CTF/calibri.ctf", "Interface/Fonts/CTF/gothic.ctf", "Interface/Fonts/CTF/berlin.ctf", "Interface/Fonts/CTF/eras.ctf", "Interface/Fonts/CTF/exo.ctf", "Interface/Fonts/CTF/open.ctf", "Interface/Fonts/CTF/play.ctf", "Interface/Fonts/CTF/trebuchet.ctf"};
+
+    public static void main(final String[] args) {
+        PipelineTest app = new PipelineTest();
+        app.init();
+    }
+
+    public void init() {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        AssetManager.registerLoader(FontLoader.class, AssetType.getType("CTF"));
+        AssetManager.reset();
+
+        final long time = System.nanoTime();
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            futures[i] = AssetManager.loadAsync(AssetKey.getKey(paths[i]), AssetManager.Priority.Prefetch);
+        }
+
+        final CompletableFuture<?> all = CompletableFuture.allOf(futures);
+        int readDepth = 0, decodeDepth = 0;
+        while (!all.isDone()) {
+            readDepth = Math.max(readDepth, AssetManager.getQueueDepth(Stage.Read));
+            decodeDepth = Math.max(decodeDepth, AssetManager.getQueueDepth(Stage.Decode));
+            Thread.yield();
+        }
+        all.join();
+
+        log.info("Loaded {} asset(s) in {}ms", paths.length, (System.nanoTime() - time) / 1000000);
+        for (final Stage stage : Stage.values()) {
+            log.info("{} stage - peak queue depth {}, utilisation {}%", stage, stage == Stage.Read ? readDepth : decodeDepth, (int) (AssetManager.getUtilisation(stage) * 100));
+        }
+    }
+}
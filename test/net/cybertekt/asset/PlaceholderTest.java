@@ -0,0 +1,47 @@
+package net.cybertekt.asset;
+
+import net.cybertekt.asset.image.Image;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Requests images from a simulated render loop without ever blocking. The
+ * fallback image is returned until each image has loaded, at which point the
+ * proxy swaps the loaded image in and notifies its listener.
+ *
+ * @author Andrew Vektor
+ */
+public class PlaceholderTest {
+
+    public static final Logger log = LoggerFactory.getLogger(PlaceholderTest.class);
+
+    public static void main(final String[] args) throws InterruptedException {
+        PlaceholderTest app = new PlaceholderTest();
+        app.init();
+    }
+
+    public void init() throws InterruptedException {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        final Image fallback = AssetManager.get(Image.class, "Textures/PNG/RGB08.png");
+        AssetManager.setFallback(fallback, AssetType.getType("PNG"));
+
+        final AssetProxy<Image> proxy = AssetManager.getProxy(Image.class, "Textures/PNG/RGBA16.png");
+        proxy.addListener((source, placeholder, image) -> {
+            log.info("Swapped {} - placeholder {}x{} replaced by {}x{}", source.getKey(), placeholder.getWidth(), placeholder.getHeight(), image.getWidth(), image.getHeight());
+        });
+        log.info("Proxy {} initially holds the fallback: {}", proxy, proxy.get() == fallback);
+
+        // Simulated Render Loop //
+        int frames = 0, placeholders = 0;
+        while (!proxy.isLoaded()) {
+            if (AssetManager.getNow(Image.class, "Textures/PNG/RGBA08.png") == fallback) {
+                placeholders++;
+            }
+            AssetManager.update();
+            frames++;
+            Thread.sleep(1);
+        }
+        log.info("Proxy {} loaded after {} frame(s) - {} frame(s) rendered with a placeholder", proxy, frames, placeholders);
+    }
+}
@@ -0,0 +1,76 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import net.cybertekt.asset.font.FontLoader;
+import net.cybertekt.asset.image.ImageLoader;
+import net.cybertekt.asset.shader.ShaderLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simulates an application launch that performs some setup work between each
+ * asset it requests, and reports the time to the first frame. The first
+ * launch records an access trace, the second launch prefetches the recorded
+ * trace before starting its setup work.
+ *
+ * @author Andrew Vektor
+ */
+public class PrefetchTest {
+
+    public static final Logger log = LoggerFactory.getLogger(PrefetchTest.class);
+
+    public static final String[] paths = {"Shaders/solid.vert", "Shaders/solid.frag", "Interface/Fonts/CTF/arial.ctf", "Textures/PNG/RGBA16.png", "Interface/Fonts/CTF/verdana.ctf", "Textures/PNG/RGB16.png", "Interface/Fonts/CTF/calibri.ctf", "Textures/PNG/RGBA08.png", "Interface/Fonts/CTF/gothic.ctf", "Textures/PNG/RGB08.png", "Interface/Fonts/CTF/trebuchet.ctf", "Textures/PNG/RGBA082.png"};
+
+    /**
+     * Simulated setup work, in milliseconds, performed before each request.
+     */
+    public static final long WORK = 3;
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        PrefetchTest app = new PrefetchTest();
+        app.init();
+    }
+
+    public void init() throws IOException, InterruptedException {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        AssetManager.registerLoader(FontLoader.class, AssetType.getType("CTF"));
+        AssetManager.registerLoader(ShaderLoader.class);
+        final Path file = Files.createTempDirectory("trace").resolve("startup.trace");
+
+        // Warm Up //
+        launch();
+        AssetManager.clear();
+
+        // First Launch Records The Trace //
+        AccessTrace trace = AssetManager.setAccessTrace(file);
+        final long cold = launch();
+        trace.save();
+        log.info("Without prefetch: first frame after {}ms, {} request(s) recorded in {} bytes", cold, trace.getRecorded().size(), Files.size(file));
+        AssetManager.clear();
+
+        // Second Launch Prefetches The Trace //
+        final long time = System.nanoTime();
+        trace = AssetManager.setAccessTrace(file);
+        final int queued = trace.prefetch();
+        launch();
+        final long warm = (System.nanoTime() - time) / 1000000;
+        log.info("With prefetch: first frame after {}ms, {} asset(s) prefetched, {} ready when requested, {} still loading", warm, queued, trace.getPrefetchHits(), trace.getPrefetchLate());
+        AssetManager.setAccessTrace(null);
+    }
+
+    /**
+     * Performs the simulated launch.
+     *
+     * @return the time to the first frame in milliseconds.
+     */
+    private long launch() throws InterruptedException {
+        final long time = System.nanoTime();
+        for (final String path : paths) {
+            Thread.sleep(WORK);
+            AssetManager.get(path);
+        }
+        return (System.nanoTime() - time) / 1000000;
+    }
+}
@@ -0,0 +1,70 @@
+package net.cybertekt.asset;
+
+import java.io.InputStream;
+import net.cybertekt.asset.AssetManager.AssetInitializationException;
+import net.cybertekt.asset.AssetManager.Priority;
+import net.cybertekt.asset.image.ImageLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queues a backlog of slow idle and prefetch loads, then requests visible and
+ * critical assets behind them and promotes one of the prefetched assets. The
+ * queue wait of each priority lane shows that higher lanes skip the backlog.
+ *
+ * @author Andrew Vektor
+ */
+public class PriorityTest {
+
+    public static final Logger log = LoggerFactory.getLogger(PriorityTest.class);
+
+    public static final String[] fonts = {"ARIAL.ttf", "BERLIN.TTF", "CALIBRI.ttf", "EBRIMA.ttf", "ERAS.TTF", "EXO.ttf", "GOTHIC.ttf", "OPEN.ttf", "PLAY.ttf", "TITILLIUM.ttf", "TREBUCHET.ttf", "VERDANA.ttf"};
+
+    public static void main(final String[] args) throws InterruptedException {
+        PriorityTest app = new PriorityTest();
+        app.init();
+    }
+
+    public void init() throws InterruptedException {
+        AssetManager.registerLoader(new SlowLoader(), AssetType.getType("TTF"));
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+
+        // Queue Background Loads //
+        for (int i = 0; i < fonts.length; i++) {
+            AssetManager.load("Interface/Fonts/TTF/" + fonts[i], (i % 2 == 0) ? Priority.Idle : Priority.Prefetch);
+        }
+
+        // Request Visible Assets And Promote A Prefetch //
+        AssetManager.load("Textures/PNG/RGB08.png", Priority.Visible);
+        AssetManager.load("Textures/PNG/RGBA08.png", Priority.Visible);
+        final AssetKey promoted = AssetKey.getKey("Interface/Fonts/TTF/" + fonts[fonts.length - 1]);
+        log.info("Promoting {} from {} - {}", promoted, AssetManager.getPriority(promoted), AssetManager.setPriority(promoted, Priority.Critical));
+
+        while (AssetManager.isLoading()) {
+            Thread.sleep(5);
+        }
+
+        for (final Priority priority : Priority.values()) {
+            log.info("{} - average wait {}ms, max wait {}ms", priority, AssetManager.getQueueWait(priority) / 1000000, AssetManager.getMaxQueueWait(priority) / 1000000);
+        }
+    }
+
+    public static class SlowLoader extends AssetLoader {
+
+        @Override
+        public AssetTask newTask(final AssetKey key, final InputStream stream) {
+            return new AssetTask(key, stream) {
+                @Override
+                public Asset load() throws AssetInitializationException {
+                    try {
+                        Thread.sleep(25);
+                    } catch (final InterruptedException e) {
+                        throw new AssetInitializationException(KEY, "Interrupted");
+                    }
+                    return new Asset(KEY) {
+                    };
+                }
+            };
+        }
+    }
+}
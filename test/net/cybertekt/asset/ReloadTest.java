@@ -0,0 +1,80 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.cybertekt.asset.shader.GLSLShader;
+import net.cybertekt.asset.shader.ShaderLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enables hot reloading, loads a shader source from a scratch directory inside
+ * the assets directory and then saves the source several times in quick
+ * succession, as an editor would. The changes are debounced into a single
+ * reload, and the reload listener is notified on the main thread while the
+ * test pumps {@link AssetManager#update()} like a render loop.
+ *
+ * @author Andrew Vektor
+ */
+public class ReloadTest {
+
+    public static final Logger log = LoggerFactory.getLogger(ReloadTest.class);
+
+    /**
+     * Counts the reload notifications. Held by the test as reload listeners
+     * are weakly referenced.
+     */
+    private final AtomicInteger notified = new AtomicInteger();
+
+    private final AssetManager.ReloadListener listener = (key, asset) -> {
+        notified.incrementAndGet();
+        log.info("Reloaded {} on {}: {}", key, Thread.currentThread().getName(), ((GLSLShader) asset).getSource().trim());
+    };
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        ReloadTest app = new ReloadTest();
+        app.init();
+    }
+
+    public void init() throws IOException, InterruptedException {
+        AssetManager.registerLoader(ShaderLoader.class);
+        final Path dir = Paths.get(AssetManager.rootDir, "ReloadTest");
+        final Path file = dir.resolve("reload.vert");
+        try {
+            Files.createDirectories(dir);
+            Files.write(file, "// Version 0".getBytes(StandardCharsets.UTF_8));
+            Thread.sleep(200);
+
+            final AssetKey key = AssetKey.getKey("ReloadTest/reload.vert");
+            final GLSLShader shader = AssetManager.get(GLSLShader.class, key);
+            AssetManager.addReloadListener(key, listener);
+            log.info("Loaded {}: {}, hot reload enabled: {}", key, shader.getSource().trim(), AssetManager.setHotReload(true));
+
+            // Save The File Several Times In Quick Succession //
+            for (int i = 1; i <= 5; i++) {
+                Files.write(file, ("// Version " + i).getBytes(StandardCharsets.UTF_8));
+                Thread.sleep(20);
+            }
+
+            // Pump The Main Thread Until The Reload Arrives //
+            final long start = System.nanoTime();
+            while (notified.get() == 0 && System.nanoTime() - start < 5000000000L) {
+                AssetManager.update();
+                Thread.sleep(1);
+            }
+            Thread.sleep(300);
+            AssetManager.update();
+
+            log.info("{} notification(s), {} reload(s), average latency {}ms, max {}ms", notified.get(), AssetManager.getReloads(), AssetManager.getReloadLatency() / 1000000, AssetManager.getMaxReloadLatency() / 1000000);
+            log.info("Cached source: {}", AssetManager.get(GLSLShader.class, key).getSource().trim());
+        } finally {
+            AssetManager.setHotReload(false);
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+}
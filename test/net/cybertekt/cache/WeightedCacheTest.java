@@ -0,0 +1,155 @@
+package net.cybertekt.cache;
+
+import java.util.Random;
+import net.cybertekt.asset.Asset;
+import net.cybertekt.asset.AssetKey;
+import net.cybertekt.asset.AssetManager;
+import net.cybertekt.asset.AssetType;
+import net.cybertekt.asset.image.ImageLoader;
+import net.cybertekt.cache.CacheMap.CacheMode;
+import net.cybertekt.cache.CacheMap.MapMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks that the {@link WeightedCache weighted cache} never holds more than
+ * its capacity, that frequently used entries survive a scan of keys that are
+ * each used once, that its hit, miss and eviction counters are exact and that
+ * values heavier than the whole cache are rejected, then loads the bundled
+ * textures into an asset cache with a byte budget.
+ *
+ * @author Andrew Vektor
+ */
+public class WeightedCacheTest {
+
+    public static final Logger log = LoggerFactory.getLogger(WeightedCacheTest.class);
+
+    public static final String[] paths = {"Textures/PNG/RGB08.png", "Textures/PNG/RGB16.png", "Textures/PNG/RGBA08.png", "Textures/PNG/RGBA082.png", "Textures/PNG/RGBA16.png"};
+
+    private static final long CAPACITY = 1000;
+
+    private static final long BUDGET = 600 * 1024;
+
+    public static void main(final String[] args) {
+        WeightedCacheTest app = new WeightedCacheTest();
+        app.init();
+    }
+
+    public void init() {
+        budget();
+        scan();
+        counters();
+        oversized();
+        assets();
+    }
+
+    private static void budget() {
+        final WeightedCache<Integer, Long> cache = new WeightedCache<>(CAPACITY, (value) -> value);
+        final Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            final int key = random.nextInt(400);
+            if (random.nextInt(3) == 0) {
+                cache.get(key);
+            } else {
+                cache.put(key, 1L + random.nextInt(90));
+            }
+            long total = 0;
+            for (final Integer cached : cache.keySet()) {
+                total += cache.get(cached);
+            }
+            if (cache.getWeight() > CAPACITY || cache.getWeight() != total) {
+                throw new IllegalStateException("Cache weight " + cache.getWeight() + " (entries " + total + ") exceeds capacity " + CAPACITY);
+            }
+        }
+        log.info("Budget - {} entries weighing {} of {}", cache.size(), cache.getWeight(), CAPACITY);
+    }
+
+    private static void scan() {
+        final WeightedCache<String, Long> cache = new WeightedCache<>(100, (value) -> value);
+        for (int i = 0; i < 10; i++) {
+            cache.put("hot" + i, 1L);
+        }
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 10; i++) {
+                cache.get("hot" + i);
+            }
+        }
+        for (int i = 0; i < 10000; i++) {
+            cache.put("scan" + i, 1L);
+        }
+        for (int i = 0; i < 10; i++) {
+            if (!cache.containsKey("hot" + i)) {
+                throw new IllegalStateException("Frequently used entry hot" + i + " was evicted by a scan");
+            }
+        }
+        log.info("Scan - every frequently used entry survived 10000 single-use keys, {} evictions", cache.getEvictions());
+    }
+
+    private static void counters() {
+        final WeightedCache<Integer, Long> cache = new WeightedCache<>(CAPACITY, (value) -> value);
+        cache.get(1);
+        cache.put(1, 10L);
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+        if (cache.peek(1) != 10L || cache.peek(3) != null) {
+            throw new IllegalStateException("Peek returned the wrong value");
+        }
+        if (cache.getHits() != 2 || cache.getMisses() != 2 || cache.getEvictions() != 0) {
+            throw new IllegalStateException("Expected 2 hits, 2 misses, 0 evictions: " + cache.getHits() + ", " + cache.getMisses() + ", " + cache.getEvictions());
+        }
+        for (int i = 0; i < 300; i++) {
+            cache.put(100 + i, 10L);
+        }
+        if (cache.getEvictions() != 301 - cache.size()) {
+            throw new IllegalStateException("Expected " + (301 - cache.size()) + " evictions, counted " + cache.getEvictions());
+        }
+        cache.remove(100 + 299);
+        final long evictions = cache.getEvictions();
+        cache.clear();
+        if (cache.getEvictions() != evictions || cache.size() != 0 || cache.getWeight() != 0) {
+            throw new IllegalStateException("Explicit removal counted as eviction or left weight behind");
+        }
+        log.info("Counters - {} hits, {} misses, {} evictions", cache.getHits(), cache.getMisses(), evictions);
+    }
+
+    private static void oversized() {
+        final WeightedCache<Integer, Long> cache = new WeightedCache<>(CAPACITY, (value) -> value);
+        cache.put(1, 100L);
+        cache.put(2, CAPACITY + 1);
+        if (cache.containsKey(2) || cache.getWeight() != 100 || cache.getEvictions() != 1) {
+            throw new IllegalStateException("Oversized value was stored");
+        }
+        cache.put(1, CAPACITY + 1);
+        if (cache.containsKey(1) || cache.getWeight() != 0 || cache.getEvictions() != 2) {
+            throw new IllegalStateException("Oversized replacement kept the previous value");
+        }
+        cache.put(3, CAPACITY);
+        if (!cache.containsKey(3)) {
+            throw new IllegalStateException("Value weighing exactly the capacity was rejected");
+        }
+        log.info("Oversized - rejected values heavier than {}", CAPACITY);
+    }
+
+    private static void assets() {
+        AssetManager.registerLoader(ImageLoader.class, AssetType.getType("PNG"));
+        AssetManager.setCacheBudget(BUDGET);
+        try {
+            if (!(AssetManager.getCache() instanceof WeightedCache)) {
+                throw new IllegalStateException("Cache budget did not install a weighted cache");
+            }
+            final WeightedCache<AssetKey, Asset> cache = (WeightedCache<AssetKey, Asset>) AssetManager.getCache();
+            long loaded = 0;
+            for (final String path : paths) {
+                loaded += AssetManager.get(Asset.class, AssetKey.getKey(path)).getMemorySize();
+                if (cache.getWeight() > BUDGET) {
+                    throw new IllegalStateException("Asset cache holds " + cache.getWeight() + " bytes, budget " + BUDGET);
+                }
+            }
+            log.info("Assets - loaded {} bytes, cached {} of {} bytes in {} entries, {} evictions", loaded, cache.getWeight(), BUDGET, cache.size(), AssetManager.getCacheEvictions());
+        } finally {
+            AssetManager.clear();
+            AssetManager.setCache(new CacheMap<>(CacheMode.Soft, MapMode.Concurrent));
+        }
+    }
+}